@@ -28,11 +28,11 @@ import com.sequenceiq.cloudbreak.audit.model.AttemptAuditEventResult;
 import com.sequenceiq.cloudbreak.audit.model.AuditEvent;
 import com.sequenceiq.cloudbreak.audit.model.ListAuditEvent;
 import com.sequenceiq.cloudbreak.audit.util.ActorUtil;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.grpc.altus.AltusMetadataInterceptor;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 
 @Component
 public class AuditClient {
@@ -47,12 +47,15 @@ public class AuditClient {
 
     private final ActorUtil actorUtil;
 
+    private final ManagedChannelPool channelPool;
+
     public AuditClient(AuditConfig auditConfig, AuditEventToGrpcAuditEventConverter auditEventConverter,
-            AttemptAuditEventResultToGrpcAttemptAuditEventResultConverter resultConverter, ActorUtil actorUtil) {
+            AttemptAuditEventResultToGrpcAttemptAuditEventResultConverter resultConverter, ActorUtil actorUtil, ManagedChannelPool channelPool) {
         this.auditConfig = auditConfig;
         this.auditEventConverter = auditEventConverter;
         this.resultConverter = resultConverter;
         this.actorUtil = actorUtil;
+        this.channelPool = channelPool;
     }
 
     @Retryable(value = Exception.class, maxAttempts = 3, backoff = @Backoff(delay = 5000))
@@ -91,16 +94,12 @@ public class AuditClient {
     }
 
     /**
-     * Creates Managed Channel wrapper from endpoint address
+     * Borrows a pooled Managed Channel wrapper for the endpoint address
      *
      * @return the wrapper object
      */
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(auditConfig.getHost(), auditConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelPool.getChannel(auditConfig.getHost(), auditConfig.getPort(), DEFAULT_MAX_MESSAGE_SIZE);
     }
 
     /**
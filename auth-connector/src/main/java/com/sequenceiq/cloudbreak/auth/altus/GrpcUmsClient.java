@@ -39,12 +39,12 @@ import com.sequenceiq.cloudbreak.auth.altus.config.UmsConfig;
 import com.sequenceiq.cloudbreak.auth.altus.exception.UmsOperationException;
 import com.sequenceiq.cloudbreak.auth.altus.model.AltusCredential;
 import com.sequenceiq.cloudbreak.auth.InternalCrnBuilder;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.logger.MDCUtils;
 import com.sequenceiq.common.api.telemetry.model.AnonymizationRule;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
@@ -61,6 +61,9 @@ public class GrpcUmsClient {
     @Inject
     private UmsClientConfig umsClientConfig;
 
+    @Inject
+    private ManagedChannelPool channelPool;
+
     /**
      * Retrieves list of all groups from UMS.
      *
@@ -90,6 +93,25 @@ public class GrpcUmsClient {
         }
     }
 
+    /**
+     * Retrieves the members of a group from UMS.
+     *
+     * @param actorCrn  the CRN of the actor
+     * @param accountId the account Id
+     * @param groupCrn  the group to list
+     * @param requestId an optional request Id
+     * @return the list of user and machine user crns that are members of this group
+     */
+    public List<String> listMembersFromGroup(String actorCrn, String accountId, String groupCrn, Optional<String> requestId) {
+        try (ManagedChannelWrapper channelWrapper = makeWrapper()) {
+            UmsClient client = makeClient(channelWrapper.getChannel(), actorCrn);
+            LOGGER.debug("Listing members of group {} in account {} using request ID {}", groupCrn, accountId, requestId);
+            List<String> members = client.listGroupMembers(requestId.orElse(UUID.randomUUID().toString()), accountId, groupCrn);
+            LOGGER.debug("{} members found in group {}", members.size(), groupCrn);
+            return members;
+        }
+    }
+
     /**
      * Retrieves group list for a specified member from UMS.
      *
@@ -556,11 +578,7 @@ public class GrpcUmsClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(umsConfig.getEndpoint(), umsConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelPool.getChannel(umsConfig.getEndpoint(), umsConfig.getPort(), DEFAULT_MAX_MESSAGE_SIZE);
     }
 
     private UmsClient makeClient(ManagedChannel channel, String actorCrn) {
@@ -26,6 +26,8 @@ import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetRi
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetRightsResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetUserRequest;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.Group;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersRequest;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsForMemberRequest;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsForMemberResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsRequest;
@@ -108,6 +110,35 @@ public class UmsClient {
         return groups;
     }
 
+    /**
+     * Wraps calls to ListGroupMembers with an Account ID and group CRN.
+     *
+     * @param requestId the request ID for the request
+     * @param accountId the account ID
+     * @param groupCrn  the group CRN for which members are fetched.
+     * @return the list of member CRNs
+     */
+    public List<String> listGroupMembers(String requestId, String accountId, String groupCrn) {
+        checkNotNull(requestId);
+        checkNotNull(accountId);
+        checkNotNull(groupCrn);
+
+        ListGroupMembersRequest.Builder request = ListGroupMembersRequest.newBuilder()
+                .setAccountId(accountId)
+                .setGroupNameOrCrn(groupCrn)
+                .setPageSize(umsClientConfig.getListGroupMembersPageSize());
+
+        ListGroupMembersResponse response;
+        List<String> members = new ArrayList<>();
+        do {
+            response = newStub(requestId).listGroupMembers(request.build());
+            members.addAll(response.getMemberCrnList());
+            request.setPageToken(response.getNextPageToken());
+        } while (response.hasNextPageToken());
+
+        return members;
+    }
+
     /**
      * Wraps calls to ListGroupsForMember with an Account ID and member CRN.
      *
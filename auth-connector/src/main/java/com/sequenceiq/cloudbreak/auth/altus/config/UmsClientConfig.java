@@ -8,6 +8,9 @@ public class UmsClientConfig {
     @Value("${altus.ums.client.list_groups_page_size:100}")
     private int listGroupsPageSize;
 
+    @Value("${altus.ums.client.list_group_members_page_size:100}")
+    private int listGroupMembersPageSize;
+
     @Value("${altus.ums.client.list_users_page_size:100}")
     private int listUsersPageSize;
 
@@ -21,6 +24,10 @@ public class UmsClientConfig {
         return listGroupsPageSize;
     }
 
+    public int getListGroupMembersPageSize() {
+        return listGroupMembersPageSize;
+    }
+
     public int getListUsersPageSize() {
         return listUsersPageSize;
     }
@@ -14,7 +14,7 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.StackV4Response;
-import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.cloudbreak.client.TlsClientRegistry;
 import com.sequenceiq.periscope.aspects.RequestLogging;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.model.InstanceConfig;
@@ -49,6 +49,9 @@ public class YarnMetricsClient {
     @Inject
     private YarnServiceConfigClient yarnServiceConfigClient;
 
+    @Inject
+    private TlsClientRegistry tlsClientRegistry;
+
     @Retryable(value = Exception.class, maxAttempts = 2, backoff = @Backoff(delay = 5000))
     public YarnScalingServiceV1Response getYarnMetricsForCluster(Cluster cluster, StackV4Response stackV4Response,
             String hostGroup) throws Exception {
@@ -57,9 +60,8 @@ public class YarnMetricsClient {
                 .orElseThrow(() ->  new RuntimeException(String.format("ClusterProxy Not Configured for Cluster {}, " +
                         " cannot query YARN Metrics.", cluster.getStackCrn())));
 
-        Client restClient = RestClientUtil.createClient(tlsConfig.getServerCert(),
-                tlsConfig.getClientCert(), tlsConfig.getClientKey(), true);
         String yarnApiUrl = String.format(YARN_API_URL, clusterProxyUrl, cluster.getStackCrn());
+        Client restClient = tlsClientRegistry.getClient(yarnApiUrl, tlsConfig.getServerCert(), tlsConfig.getClientCert(), tlsConfig.getClientKey(), true);
 
         InstanceConfig instanceConfig = yarnServiceConfigClient.getInstanceConfigFromCM(cluster, stackV4Response, hostGroup);
         YarnScalingServiceV1Request yarnScalingServiceV1Request = new YarnScalingServiceV1Request();
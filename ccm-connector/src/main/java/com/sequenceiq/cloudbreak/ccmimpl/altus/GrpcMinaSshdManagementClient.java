@@ -25,10 +25,10 @@ import com.sequenceiq.cloudbreak.ccm.exception.CcmException;
 import com.sequenceiq.cloudbreak.ccmimpl.altus.config.MinaSshdManagementClientConfig;
 import com.sequenceiq.cloudbreak.ccmimpl.altus.config.MinaSshdManagementConfig;
 import com.sequenceiq.cloudbreak.ccmimpl.util.RetryUtil;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 
 @Component
 public class GrpcMinaSshdManagementClient {
@@ -45,6 +45,9 @@ public class GrpcMinaSshdManagementClient {
     @Inject
     private MinaSshdManagementClientConfig minaSshdManagementClientConfig;
 
+    @Inject
+    private ManagedChannelPool channelPool;
+
     /**
      * Attempts to acquire a minasshd service for the specified account. If it is not available immediately,
      * polls until it is acquires a ready service, is interrupted, times out, or there are no pending minasshd service instances.
@@ -232,11 +235,7 @@ public class GrpcMinaSshdManagementClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(minaSshdManagementConfig.getEndpoint(), minaSshdManagementConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelPool.getChannel(minaSshdManagementConfig.getEndpoint(), minaSshdManagementConfig.getPort(), DEFAULT_MAX_MESSAGE_SIZE);
     }
 
     private MinaSshdManagementClient makeClient(ManagedChannel channel, String actorCrn) {
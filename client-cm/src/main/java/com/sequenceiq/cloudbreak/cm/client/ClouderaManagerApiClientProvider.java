@@ -2,10 +2,10 @@ package com.sequenceiq.cloudbreak.cm.client;
 
 import java.util.concurrent.TimeUnit;
 
+import javax.inject.Inject;
 import javax.net.ssl.SSLContext;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.ssl.SSLContexts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -13,7 +13,7 @@ import org.springframework.stereotype.Component;
 import com.cloudera.api.swagger.client.ApiClient;
 import com.sequenceiq.cloudbreak.client.CertificateTrustManager;
 import com.sequenceiq.cloudbreak.client.HttpClientConfig;
-import com.sequenceiq.cloudbreak.client.KeyStoreUtil;
+import com.sequenceiq.cloudbreak.client.TlsClientRegistry;
 
 @Component
 public class ClouderaManagerApiClientProvider {
@@ -27,6 +27,9 @@ public class ClouderaManagerApiClientProvider {
 
     private static final Integer CLUSTER_PROXY_TIMEOUT = 90000;
 
+    @Inject
+    private TlsClientRegistry tlsClientRegistry;
+
     public ApiClient getDefaultClient(Integer gatewayPort, HttpClientConfig clientConfig, String apiVersion) throws ClouderaManagerClientInitException {
         ApiClient client = getClouderaManagerClient(clientConfig, gatewayPort, "admin", "admin", apiVersion);
         if (clientConfig.isClusterProxyEnabled()) {
@@ -95,10 +98,8 @@ public class ClouderaManagerApiClientProvider {
 
         try {
             if (isCmSslConfigValidClientConfigValid(clientConfig) && !clientConfig.isClusterProxyEnabled()) {
-                SSLContext sslContext = SSLContexts.custom()
-                        .loadTrustMaterial(KeyStoreUtil.createTrustStore(clientConfig.getServerCert()), null)
-                        .loadKeyMaterial(KeyStoreUtil.createKeyStore(clientConfig.getClientCert(), clientConfig.getClientKey()), "consul".toCharArray())
-                        .build();
+                SSLContext sslContext = tlsClientRegistry.getSslContext(clientConfig.getApiAddress(), clientConfig.getServerCert(),
+                        clientConfig.getClientCert(), clientConfig.getClientKey());
                 cmClient.getHttpClient().setSslSocketFactory(sslContext.getSocketFactory());
                 cmClient.getHttpClient().setHostnameVerifier(CertificateTrustManager.hostnameVerifier());
             }
@@ -58,6 +58,27 @@ public interface InstanceConnector {
      */
     List<CloudVmInstanceStatus> check(AuthenticatedContext authenticatedContext, List<CloudInstance> vms);
 
+    /**
+     * Tells whether {@link #checkBatch(AuthenticatedContext, List)} can check the instances of several stacks with a single authenticated context.
+     *
+     * @return true if the instances of stacks that share the credential and the region can be checked together
+     */
+    default boolean supportsBatchedCheck() {
+        return false;
+    }
+
+    /**
+     * Invoked by the batched stack status sync to check the instances of several stacks that share the credential and the region of the
+     * authenticated context, with as few provider calls as possible. Instances that are not found on the provider are left out of the result.
+     *
+     * @param authenticatedContext the authenticated context which holds the client object
+     * @param vms                  the VM instances of several stacks for which the status needs to be checked
+     * @return status of instances
+     */
+    default List<CloudVmInstanceStatus> checkBatch(AuthenticatedContext authenticatedContext, List<CloudInstance> vms) {
+        return check(authenticatedContext, vms);
+    }
+
     /**
      * Gets the Consol output of a particular VM, useful for debugging and also required for setting up a secure connection between Cloudbreak and VM instances
      * since the SSH fingerprint is written into the console output.
@@ -80,6 +80,7 @@ public class AwsCredentialConnector implements CredentialConnector {
 
     @Override
     public CloudCredentialStatus delete(AuthenticatedContext auth) {
+        awsClient.invalidateClients(credentialViewProvider.createAwsCredentialView(auth.getCloudCredential()));
         return new CloudCredentialStatus(auth.getCloudCredential(), CredentialStatus.DELETED);
     }
 
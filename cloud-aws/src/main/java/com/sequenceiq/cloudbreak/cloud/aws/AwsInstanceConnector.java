@@ -4,10 +4,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -34,6 +37,7 @@ import com.amazonaws.services.ec2.model.RebootInstancesRequest;
 import com.amazonaws.services.ec2.model.Reservation;
 import com.amazonaws.services.ec2.model.StartInstancesRequest;
 import com.amazonaws.services.ec2.model.StopInstancesRequest;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.sequenceiq.cloudbreak.cloud.InstanceConnector;
 import com.sequenceiq.cloudbreak.cloud.aws.poller.PollerUtil;
@@ -54,6 +58,8 @@ public class AwsInstanceConnector implements InstanceConnector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AwsInstanceConnector.class);
 
+    private static final Pattern INSTANCE_ID_PATTERN = Pattern.compile("i-[a-z0-9]*");
+
     @Inject
     private PollerUtil pollerUtil;
 
@@ -63,6 +69,9 @@ public class AwsInstanceConnector implements InstanceConnector {
     @Value("${cb.aws.hostkey.verify:}")
     private boolean verifyHostKey;
 
+    @Value("${cb.aws.describe.instances.batch.size:1000}")
+    private int describeInstancesBatchSize;
+
     @Override
     public String getConsoleOutput(AuthenticatedContext authenticatedContext, CloudInstance vm) {
         if (!verifyHostKey) {
@@ -239,6 +248,94 @@ public class AwsInstanceConnector implements InstanceConnector {
         return Collections.emptyList();
     }
 
+    @Override
+    public boolean supportsBatchedCheck() {
+        return true;
+    }
+
+    @Retryable(
+            value = SdkClientException.class,
+            maxAttemptsExpression = "#{${cb.vm.retry.attempt:15}}",
+            backoff = @Backoff(delayExpression = "#{${cb.vm.retry.backoff.delay:1000}}",
+                    multiplierExpression = "#{${cb.vm.retry.backoff.multiplier:2}}",
+                    maxDelayExpression = "#{${cb.vm.retry.backoff.maxdelay:10000}}")
+    )
+    @Override
+    public List<CloudVmInstanceStatus> checkBatch(AuthenticatedContext ac, List<CloudInstance> vms) {
+        Map<String, CloudInstance> instancesById = vms.stream()
+                .filter(cloudInstance -> cloudInstance.getInstanceId() != null)
+                .collect(Collectors.toMap(CloudInstance::getInstanceId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        String region = ac.getCloudContext().getLocation().getRegion().value();
+        LOGGER.debug("Check {} instances on aws side in region {} in batches of {}", instancesById.size(), region, describeInstancesBatchSize);
+        AmazonEC2Client amazonEC2Client = new AuthenticatedContextView(ac).getAmazonEC2Client();
+        List<CloudVmInstanceStatus> cloudVmInstanceStatuses = new ArrayList<>(instancesById.size());
+        try {
+            for (List<String> instanceIds : Iterables.partition(instancesById.keySet(), describeInstancesBatchSize)) {
+                Set<String> missingInstanceIds = new HashSet<>();
+                for (Instance instance : describeExistingInstances(amazonEC2Client, instanceIds, missingInstanceIds)) {
+                    CloudInstance cloudInstance = instancesById.get(instance.getInstanceId());
+                    if (cloudInstance != null) {
+                        cloudVmInstanceStatuses.add(new CloudVmInstanceStatus(cloudInstance,
+                                AwsInstanceStatusMapper.getInstanceStatusByAwsStateAndReason(instance.getState(), instance.getStateReason())));
+                    }
+                }
+                for (String missingInstanceId : missingInstanceIds) {
+                    LOGGER.debug("AWS instance [{}] does not exist any more, region: {}", missingInstanceId, region);
+                    cloudVmInstanceStatuses.add(new CloudVmInstanceStatus(instancesById.get(missingInstanceId), InstanceStatus.TERMINATED));
+                }
+            }
+        } catch (SdkClientException e) {
+            LOGGER.warn("Failed to send request to AWS: ", e);
+            throw e;
+        }
+        return cloudVmInstanceStatuses;
+    }
+
+    /**
+     * Describes the instances page by page. The request fails as a whole if one of the instances does not exist any more, so the missing
+     * instances are collected into {@code missingInstanceIds} and the request is sent again for the rest.
+     */
+    private List<Instance> describeExistingInstances(AmazonEC2Client amazonEC2Client, List<String> instanceIds, Set<String> missingInstanceIds) {
+        List<String> remainingInstanceIds = new ArrayList<>(instanceIds);
+        List<Instance> instances = new ArrayList<>();
+        String nextToken = null;
+        while (!remainingInstanceIds.isEmpty()) {
+            try {
+                DescribeInstancesResult result = amazonEC2Client.describeInstances(new DescribeInstancesRequest()
+                        .withInstanceIds(remainingInstanceIds)
+                        .withNextToken(nextToken));
+                result.getReservations().forEach(reservation -> instances.addAll(reservation.getInstances()));
+                nextToken = result.getNextToken();
+                if (nextToken == null) {
+                    break;
+                }
+            } catch (AmazonEC2Exception e) {
+                Set<String> notFoundInstanceIds = getInstanceIds(e);
+                notFoundInstanceIds.retainAll(remainingInstanceIds);
+                if (!INSTANCE_NOT_FOUND_ERROR_CODE.equalsIgnoreCase(e.getErrorCode()) || notFoundInstanceIds.isEmpty()) {
+                    throw e;
+                }
+                remainingInstanceIds.removeAll(notFoundInstanceIds);
+                missingInstanceIds.addAll(notFoundInstanceIds);
+                LOGGER.debug("Instances do not exist on AWS side any more, describe the rest: {}", e.getErrorMessage());
+                instances.clear();
+                nextToken = null;
+            }
+        }
+        return instances;
+    }
+
+    private Set<String> getInstanceIds(AmazonEC2Exception e) {
+        Set<String> instanceIds = new HashSet<>();
+        if (e.getErrorMessage() != null) {
+            Matcher matcher = INSTANCE_ID_PATTERN.matcher(e.getErrorMessage());
+            while (matcher.find()) {
+                instanceIds.add(matcher.group());
+            }
+        }
+        return instanceIds;
+    }
+
     private List<CloudVmInstanceStatus> fillCloudVmInstanceStatuses(AuthenticatedContext ac, List<CloudInstance> cloudIntancesWithInstanceId, String region,
             DescribeInstancesResult result) {
         List<CloudVmInstanceStatus> cloudVmInstanceStatuses = new ArrayList<>();
@@ -0,0 +1,179 @@
+package com.sequenceiq.cloudbreak.cloud.aws.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.amazonaws.AmazonWebServiceClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.base.Joiner;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps the AWS SDK clients built by the AwsClient, so the calls made with the same credential in the same region reuse the connection
+ * pool, the TLS sessions and the credential provider of a warm client instead of setting them up again.
+ * <p>
+ * A client is identified by its type, its region and a fingerprint of the role, external id and keys of the credential, so a rotated
+ * credential never gets a client built with its old secrets. When a credential shows up with a new fingerprint, the clients built for its
+ * previous one are dropped from the cache. A removed SDK v1 client is shut down after {@code cb.aws.client.cache.shutdown.grace.minutes},
+ * which releases its connection pool and unregisters it from the IdleConnectionReaper of the SDK, callers that still hold one can finish
+ * their calls with it until then. The fingerprints of the credentials expire with the same TTL as the clients.
+ */
+@Component
+public class AwsClientCache {
+
+    public static final String AWS_CLIENT_CACHE = "aws_client";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwsClientCache.class);
+
+    @Value("${cb.aws.client.cache.ttl.minutes:30}")
+    private long ttlInMinutes;
+
+    @Value("${cb.aws.client.cache.max.entries:1000}")
+    private long maxEntries;
+
+    @Value("${cb.aws.client.cache.shutdown.grace.minutes:60}")
+    private long shutdownGraceInMinutes;
+
+    private Cache<String, String> fingerprintByCredentialCrn;
+
+    private Cache<ClientKey, Object> clients;
+
+    private ScheduledExecutorService clientShutdownExecutor;
+
+    @PostConstruct
+    public void init() {
+        clientShutdownExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("aws-client-shutdown-%d").setDaemon(true).build());
+        fingerprintByCredentialCrn = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlInMinutes, TimeUnit.MINUTES)
+                .build();
+        clients = Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlInMinutes, TimeUnit.MINUTES)
+                .removalListener(this::scheduleShutdown)
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, AWS_CLIENT_CACHE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientShutdownExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the cached client of the type for the credential and region, the one created by the factory if there was none
+     */
+    public <T> T get(Class<T> clientType, AwsCredentialView awsCredential, String region, Supplier<T> clientFactory) {
+        String fingerprint = fingerprint(awsCredential);
+        String credentialCrn = awsCredential.getCredentialCrn();
+        if (credentialCrn != null) {
+            String previousFingerprint = fingerprintByCredentialCrn.asMap().put(credentialCrn, fingerprint);
+            if (previousFingerprint != null && !previousFingerprint.equals(fingerprint)) {
+                LOGGER.info("The credential {} has changed, dropping the AWS clients built with its previous version", credentialCrn);
+                invalidate(key -> credentialCrn.equals(key.credentialCrn) && previousFingerprint.equals(key.fingerprint));
+            }
+        }
+        ClientKey clientKey = new ClientKey(clientType, region, credentialCrn, fingerprint);
+        return clientType.cast(clients.get(clientKey, key -> clientFactory.get()));
+    }
+
+    /**
+     * Drops every client built for the credential, whichever version of it was used.
+     */
+    public void invalidate(AwsCredentialView awsCredential) {
+        String credentialCrn = awsCredential.getCredentialCrn();
+        String fingerprint = fingerprint(awsCredential);
+        if (credentialCrn != null) {
+            fingerprintByCredentialCrn.invalidate(credentialCrn);
+        }
+        invalidate(key -> fingerprint.equals(key.fingerprint) || (credentialCrn != null && credentialCrn.equals(key.credentialCrn)));
+    }
+
+    public void invalidateAll() {
+        fingerprintByCredentialCrn.invalidateAll();
+        clients.invalidateAll();
+    }
+
+    private void invalidate(Predicate<ClientKey> predicate) {
+        clients.asMap().keySet().removeIf(predicate);
+    }
+
+    private void scheduleShutdown(ClientKey key, Object client, RemovalCause cause) {
+        if (client instanceof AmazonWebServiceClient) {
+            LOGGER.debug("{} client of region {} was removed from the cache ({}), shutting it down in {} minutes", key.clientType.getSimpleName(),
+                    key.region, cause, shutdownGraceInMinutes);
+            try {
+                clientShutdownExecutor.schedule(() -> ((AmazonWebServiceClient) client).shutdown(), shutdownGraceInMinutes, TimeUnit.MINUTES);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("AWS client cache is stopping, the removed client is not shut down", e);
+            }
+        }
+    }
+
+    private String fingerprint(AwsCredentialView awsCredential) {
+        String identity = Joiner.on('\n').useForNull("").join(awsCredential.getRoleArn(), awsCredential.getExternalId(),
+                awsCredential.getAccessKey(), awsCredential.getSecretKey(), awsCredential.isGovernmentCloudEnabled());
+        return Hashing.sha256().hashString(identity, StandardCharsets.UTF_8).toString();
+    }
+
+    private static final class ClientKey {
+
+        private final Class<?> clientType;
+
+        private final String region;
+
+        private final String credentialCrn;
+
+        private final String fingerprint;
+
+        private ClientKey(Class<?> clientType, String region, String credentialCrn, String fingerprint) {
+            this.clientType = clientType;
+            this.region = region;
+            this.credentialCrn = credentialCrn;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return clientType.equals(clientKey.clientType)
+                    && Objects.equals(region, clientKey.region)
+                    && Objects.equals(credentialCrn, clientKey.credentialCrn)
+                    && fingerprint.equals(clientKey.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clientType, region, credentialCrn, fingerprint);
+        }
+    }
+}
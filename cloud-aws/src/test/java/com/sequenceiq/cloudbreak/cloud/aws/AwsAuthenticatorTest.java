@@ -27,6 +27,7 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.InstanceProfileCredentialsProvider;
 import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.sequenceiq.cloudbreak.cloud.aws.cache.AwsClientCache;
 import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
@@ -45,6 +46,9 @@ public class AwsAuthenticatorTest {
     @SpyBean
     private AwsClient awsClient;
 
+    @Inject
+    private AwsClientCache awsClientCache;
+
     @MockBean
     private AwsEnvironmentVariableChecker awsEnvironmentVariableChecker;
 
@@ -56,6 +60,7 @@ public class AwsAuthenticatorTest {
 
     @BeforeEach
     public void awsClientSetup() {
+        awsClientCache.invalidateAll();
         when(awsClient.getAmazonEC2Client(any(AwsSessionCredentialProvider.class))).thenReturn(amazonEC2Client);
         when(awsClient.getAmazonEC2Client(any(BasicAWSCredentials.class))).thenReturn(amazonEC2Client);
         when(awsClient.getInstanceProfileProvider()).thenReturn(instanceProfileCredentialsProvider);
@@ -139,6 +144,7 @@ public class AwsAuthenticatorTest {
     @Configuration
     @Import({AwsAuthenticator.class,
             AwsClient.class,
+            AwsClientCache.class,
             AwsSessionCredentialClient.class,
             AwsDefaultZoneProvider.class,
             AwsEnvironmentVariableChecker.class,
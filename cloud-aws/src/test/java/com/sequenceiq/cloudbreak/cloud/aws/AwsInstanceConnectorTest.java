@@ -54,6 +54,7 @@ import com.amazonaws.services.ec2.model.StartInstancesResult;
 import com.amazonaws.services.ec2.model.StopInstancesRequest;
 import com.amazonaws.services.ec2.model.StopInstancesResult;
 import com.dyngr.exception.PollerStoppedException;
+import com.sequenceiq.cloudbreak.cloud.aws.cache.AwsClientCache;
 import com.sequenceiq.cloudbreak.cloud.aws.poller.PollerUtil;
 import com.sequenceiq.cloudbreak.cloud.aws.util.AwsInstanceStatusMapper;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
@@ -75,7 +76,8 @@ import com.sequenceiq.cloudbreak.service.RetryService;
         "cb.vm.retry.backoff.delay=20",
         "cb.vm.retry.backoff.multiplier=2",
         "cb.vm.retry.backoff.maxdelay=10000",
-        "cb.vm.retry.attempt=5"
+        "cb.vm.retry.attempt=5",
+        "cb.aws.describe.instances.batch.size=1"
 })
 public class AwsInstanceConnectorTest {
 
@@ -90,6 +92,9 @@ public class AwsInstanceConnectorTest {
     @SpyBean
     private AwsClient awsClient;
 
+    @Inject
+    private AwsClientCache awsClientCache;
+
     @MockBean
     private AwsEnvironmentVariableChecker awsEnvironmentVariableChecker;
 
@@ -105,6 +110,7 @@ public class AwsInstanceConnectorTest {
 
     @BeforeEach
     public void awsClientSetup() {
+        awsClientCache.invalidateAll();
         when(awsClient.getAmazonEC2Client(any(AwsSessionCredentialProvider.class))).thenReturn(amazonEC2Client);
         when(awsClient.getAmazonEC2Client(any(BasicAWSCredentials.class))).thenReturn(amazonEC2Client);
         when(awsClient.getInstanceProfileProvider()).thenReturn(instanceProfileCredentialsProvider);
@@ -184,6 +190,38 @@ public class AwsInstanceConnectorTest {
         Assert.assertThat(result, hasSize(2));
     }
 
+    @Test
+    public void testCheckBatchDescribesInstancesInBatches() {
+        when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class)))
+                .then(invocation -> describeRequestedInstances(invocation.getArgument(0)));
+        List<CloudInstance> list = getCloudInstances();
+
+        List<CloudVmInstanceStatus> result = underTest.checkBatch(authenticatedContext, list);
+
+        verify(amazonEC2Client, times(2)).describeInstances(any(DescribeInstancesRequest.class));
+        Assert.assertThat(result, hasSize(2));
+        Assert.assertThat(result, everyItem(hasProperty("status", is(InstanceStatus.STARTED))));
+        Assertions.assertSame(list.get(0), result.get(0).getCloudInstance());
+    }
+
+    @Test
+    public void testCheckBatchReportsMissingInstancesAsTerminated() {
+        AmazonEC2Exception notFound = new AmazonEC2Exception("Sheep lost control");
+        notFound.setErrorCode(INSTANCE_NOT_FOUND_ERROR_CODE);
+        notFound.setErrorMessage("The instance ID 'i-1' does not exist");
+        when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenThrow(notFound)
+                .then(invocation -> describeRequestedInstances(invocation.getArgument(0)));
+        List<CloudInstance> list = getCloudInstances();
+
+        List<CloudVmInstanceStatus> result = underTest.checkBatch(authenticatedContext, list);
+
+        Assert.assertThat(result, hasSize(2));
+        Assertions.assertSame(list.get(0), result.get(0).getCloudInstance());
+        Assertions.assertEquals(InstanceStatus.TERMINATED, result.get(0).getStatus());
+        Assertions.assertSame(list.get(1), result.get(1).getCloudInstance());
+        Assertions.assertEquals(InstanceStatus.STARTED, result.get(1).getStatus());
+    }
+
     @Test
     public void testStartPollingWithSuccess() {
         String status = "Running";
@@ -366,6 +404,12 @@ public class AwsInstanceConnectorTest {
         Assert.assertThat(result, everyItem(hasProperty("status", is(status))));
     }
 
+    private DescribeInstancesResult describeRequestedInstances(DescribeInstancesRequest request) {
+        Reservation reservation = new Reservation().withReservationId("1");
+        request.getInstanceIds().forEach(instanceId -> reservation.withInstances(getAwsInstance(instanceId, "running", 16)));
+        return new DescribeInstancesResult().withReservations(reservation);
+    }
+
     private DescribeInstancesResult getDescribeInstancesResult(String state, int code) {
         Instance instances1 = getAwsInstance("i-1", state, code);
         Instance instances2 = getAwsInstance("i-2", state, code);
@@ -412,6 +456,7 @@ public class AwsInstanceConnectorTest {
     @Import({AwsInstanceConnector.class,
             AwsAuthenticator.class,
             AwsClient.class,
+            AwsClientCache.class,
             PollerUtil.class,
             AwsSessionCredentialClient.class,
             AwsDefaultZoneProvider.class,
@@ -0,0 +1,107 @@
+package com.sequenceiq.cloudbreak.cloud.aws.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.AmazonWebServiceClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+
+class AwsClientCacheTest {
+
+    private static final String REGION = "eu-west-1";
+
+    private static final long TIMEOUT_MILLIS = 5000L;
+
+    private final AwsClientCache underTest = new AwsClientCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "ttlInMinutes", 30L);
+        ReflectionTestUtils.setField(underTest, "maxEntries", 100L);
+        underTest.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void testClientIsReusedForTheSameCredentialAndRegion() {
+        Object client = underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new);
+
+        assertSame(client, underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new));
+        assertNotSame(client, underTest.get(Object.class, credential("crn1", "secret"), "us-west-1", Object::new));
+        assertNotSame(client, underTest.get(Object.class, credential("crn2", "secret"), REGION, Object::new));
+    }
+
+    @Test
+    void testRotatedCredentialGetsNewClientAndPreviousOneIsDropped() {
+        Object client = underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new);
+
+        Object rotatedClient = underTest.get(Object.class, credential("crn1", "rotated"), REGION, Object::new);
+
+        assertNotSame(client, rotatedClient);
+        assertNotSame(client, underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new));
+    }
+
+    @Test
+    void testInvalidateDropsTheClientsOfTheCredential() {
+        Object client = underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new);
+        Object otherClient = underTest.get(Object.class, credential("crn2", "secret2"), REGION, Object::new);
+
+        underTest.invalidate(credential("crn1", "secret"));
+
+        assertNotSame(client, underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new));
+        assertSame(otherClient, underTest.get(Object.class, credential("crn2", "secret2"), REGION, Object::new));
+    }
+
+    @Test
+    void testRemovedSdkClientIsShutDownAfterTheGracePeriod() {
+        AmazonWebServiceClient client = mock(AmazonWebServiceClient.class);
+        underTest.get(AmazonWebServiceClient.class, credential("crn1", "secret"), REGION, () -> client);
+
+        underTest.get(AmazonWebServiceClient.class, credential("crn1", "rotated"), REGION, () -> mock(AmazonWebServiceClient.class));
+
+        verify(client, timeout(TIMEOUT_MILLIS)).shutdown();
+    }
+
+    @Test
+    void testRemovedSdkClientIsNotShutDownDuringTheGracePeriod() {
+        ReflectionTestUtils.setField(underTest, "shutdownGraceInMinutes", 60L);
+        AmazonWebServiceClient client = mock(AmazonWebServiceClient.class);
+        underTest.get(AmazonWebServiceClient.class, credential("crn1", "secret"), REGION, () -> client);
+
+        underTest.invalidate(credential("crn1", "secret"));
+
+        verify(client, after(200L).never()).shutdown();
+    }
+
+    @Test
+    void testCredentialFingerprintsExpireWithTheClients() {
+        underTest.get(Object.class, credential("crn1", "secret"), REGION, Object::new);
+
+        Cache<String, String> fingerprints = (Cache<String, String>) ReflectionTestUtils.getField(underTest, "fingerprintByCredentialCrn");
+        assertEquals(1L, fingerprints.estimatedSize());
+        assertEquals(Duration.ofMinutes(30L), fingerprints.policy().expireAfterWrite().get().getExpiresAfter());
+    }
+
+    private AwsCredentialView credential(String crn, String secretKey) {
+        return new AwsCredentialView(new CloudCredential(crn, "name", Map.of("accessKey", "access", "secretKey", secretKey), false));
+    }
+}
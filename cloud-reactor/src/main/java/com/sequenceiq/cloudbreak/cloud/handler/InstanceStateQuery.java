@@ -27,4 +27,19 @@ public class InstanceStateQuery {
         return connector.instances().check(auth, instances);
     }
 
+    public boolean isBatchedCheckSupported(CloudContext cloudContext) {
+        return cloudPlatformConnectors.get(cloudContext.getPlatformVariant()).instances().supportsBatchedCheck();
+    }
+
+    /**
+     * Checks the instances of several stacks that share the credential and the region with a single authentication. The cloud context of any
+     * of the stacks can be used.
+     */
+    public List<CloudVmInstanceStatus> getCloudVmInstanceStatusesInBatch(
+            CloudCredential cloudCredential, CloudContext cloudContext, List<CloudInstance> instances) {
+        CloudConnector<Object> connector = cloudPlatformConnectors.get(cloudContext.getPlatformVariant());
+        AuthenticatedContext auth = connector.authentication().authenticate(cloudContext, cloudCredential);
+        return connector.instances().checkBatch(auth, instances);
+    }
+
 }
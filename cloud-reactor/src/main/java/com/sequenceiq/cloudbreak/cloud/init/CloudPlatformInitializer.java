@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.cloud.event.CloudPlatformRequest;
 import com.sequenceiq.cloudbreak.cloud.handler.CloudPlatformEventHandler;
+import com.sequenceiq.flow.reactor.handler.EventHandlerExecutionService;
 
 import reactor.bus.EventBus;
 
@@ -29,6 +30,9 @@ public class CloudPlatformInitializer {
     @Inject
     private EventBus eventBus;
 
+    @Inject
+    private EventHandlerExecutionService eventHandlerExecutionService;
+
     @PostConstruct
     public void init() {
         validateSelectors();
@@ -36,7 +40,7 @@ public class CloudPlatformInitializer {
         for (CloudPlatformEventHandler<?> handler : handlers) {
             String selector = CloudPlatformRequest.selector(handler.type());
             LOGGER.debug("Registering handler [{}] for selector [{}]", handler.getClass(), selector);
-            eventBus.on($(selector), handler);
+            eventBus.on($(selector), eventHandlerExecutionService.decorate(handler));
         }
     }
 
@@ -7,12 +7,10 @@ import static java.lang.String.format;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -100,23 +98,22 @@ public class ComputeResourceService {
             Iterable<CloudResource> resources, boolean cancellable) {
         LOGGER.debug("Deleting the following resources: {}", resources);
         List<CloudResourceStatus> results = new ArrayList<>();
-        Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
         Platform platform = auth.getCloudContext().getPlatform();
         List<ComputeResourceBuilder<ResourceBuilderContext>> builders = resourceBuilders.compute(platform);
         int numberOfBuilders = builders.size();
         for (int i = numberOfBuilders - 1; i >= 0; i--) {
             ComputeResourceBuilder<?> builder = builders.get(i);
             List<CloudResource> resourceList = getResources(builder.resourceType(), resources);
+            long deletionStart = System.currentTimeMillis();
+            ResourceRequestWindow<List<CloudResourceStatus>> requests = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                    context.getParallelResourceRequest());
             for (CloudResource cloudResource : resourceList) {
                 ResourceDeleteThread thread = createThread(ResourceDeleteThread.NAME, context, auth, cloudResource, builder, cancellable);
-                Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                futures.add(future);
-                if (isRequestFull(futures.size(), context)) {
-                    results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
-                }
+                requests.submit(thread);
             }
             // wait for builder type to finish before starting the next one
-            results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
+            results.addAll(flatList(requests.waitForRequests().get(FutureResult.SUCCESS)));
+            LOGGER.info("Deleting {} {} resources took {} ms", resourceList.size(), builder.resourceType(), System.currentTimeMillis() - deletionStart);
         }
         return results;
     }
@@ -150,17 +147,16 @@ public class ComputeResourceService {
                 Collection<List<CloudInstance>> instancesChunks = allInstances.stream()
                         .collect(Collectors.groupingBy(it -> counter.getAndIncrement() / stopStartBatchSize)).values();
 
-                Collection<Future<ResourceRequestResult<List<CloudVmInstanceStatus>>>> futures = new ArrayList<>();
+                ResourceRequestWindow<List<CloudVmInstanceStatus>> requests = new ResourceRequestWindow<>(resourceBuilderExecutor, instancesChunks.size());
                 for (List<CloudInstance> instancesChunk : instancesChunks) {
                     LOGGER.debug("Submit stop/start operation thread with {} instances", instancesChunk.size());
                     ResourceStopStartThread thread = createThread(ResourceStopStartThread.NAME, context, auth, instancesChunk, builder);
-                    Future<ResourceRequestResult<List<CloudVmInstanceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
+                    requests.submit(thread);
                 }
 
-                if (!futures.isEmpty()) {
-                    LOGGER.debug("Wait for all {} stop/start threads to finish", futures.size());
-                    List<List<CloudVmInstanceStatus>> instancesStatuses = waitForRequests(futures).get(FutureResult.SUCCESS);
+                if (!instancesChunks.isEmpty()) {
+                    LOGGER.debug("Wait for all {} stop/start threads to finish", instancesChunks.size());
+                    List<List<CloudVmInstanceStatus>> instancesStatuses = requests.waitForRequests().get(FutureResult.SUCCESS);
                     List<CloudVmInstanceStatus> allVmStatuses = instancesStatuses.stream().flatMap(Collection::stream).collect(Collectors.toList());
                     List<CloudInstance> checkInstances = allVmStatuses.stream().map(CloudVmInstanceStatus::getCloudInstance).collect(Collectors.toList());
                     PollTask<List<CloudVmInstanceStatus>> pollTask = resourcePollTaskFactory
@@ -182,37 +178,6 @@ public class ComputeResourceService {
         return results;
     }
 
-    private <T> Map<FutureResult, List<T>> waitForRequests(Collection<Future<ResourceRequestResult<T>>> futures) {
-        Map<FutureResult, List<T>> result = new EnumMap<>(FutureResult.class);
-        result.put(FutureResult.FAILED, new ArrayList<>());
-        result.put(FutureResult.SUCCESS, new ArrayList<>());
-        int requests = futures.size();
-        LOGGER.debug("Waiting for {} requests to finish", requests);
-        try {
-            for (Future<ResourceRequestResult<T>> future : futures) {
-                ResourceRequestResult<T> resourceRequestResult = future.get();
-                if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
-                    result.get(FutureResult.FAILED).add(resourceRequestResult.getResult());
-                } else {
-                    result.get(FutureResult.SUCCESS).add(resourceRequestResult.getResult());
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error("Failed to execute the request", e);
-        }
-        LOGGER.debug("{} requests have finished, continue with next group", requests);
-        futures.clear();
-        return result;
-    }
-
-    private boolean isRequestFull(int runningRequests, ResourceBuilderContext context) {
-        return isRequestFullWithCloudPlatform(1, runningRequests, context);
-    }
-
-    private boolean isRequestFullWithCloudPlatform(int numberOfBuilders, int runningRequests, ResourceBuilderContext context) {
-        return (runningRequests * numberOfBuilders) % context.getParallelResourceRequest() == 0;
-    }
-
     private List<CloudResource> getResources(ResourceType resourceType, Iterable<CloudResource> resources) {
         List<CloudResource> selected = new ArrayList<>();
         for (CloudResource resource : resources) {
@@ -261,7 +226,6 @@ public class ComputeResourceService {
         public List<CloudResourceStatus> buildResources(CloudStack cloudStack, Iterable<Group> groups,
                 Boolean upscale, AdjustmentType adjustmentType, Long threshold) {
             List<CloudResourceStatus> results = new ArrayList<>();
-            Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
             for (Group group : getOrderedCopy(groups)) {
                 List<CloudInstance> instances = group.getInstances();
 
@@ -270,77 +234,110 @@ public class ComputeResourceService {
                 Collection<List<CloudInstance>> instancesChunks = instances.stream()
                         .collect(Collectors.groupingBy(it -> counter.getAndIncrement() / createBatchSize)).values();
 
+                long buildStart = System.currentTimeMillis();
+                ResourceRequestWindow<List<CloudResourceStatus>> requests = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                        ctx.getParallelResourceRequest());
                 for (List<CloudInstance> instancesChunk : instancesChunks) {
                     LOGGER.debug("Submit the create operation thread with {} instances", instancesChunk.size());
                     ResourceCreateThread thread = createThread(ResourceCreateThread.NAME, instancesChunk, group, ctx, auth, cloudStack);
-                    Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
+                    requests.submit(thread);
                 }
 
-                if (!futures.isEmpty()) {
-                    LOGGER.debug("Wait for all {} creation threads to finish", futures.size());
-                    List<List<CloudResourceStatus>> cloudResourceStatusChunks = waitForRequests(futures).get(FutureResult.SUCCESS);
+                if (!instancesChunks.isEmpty()) {
+                    LOGGER.debug("Wait for all {} creation threads to finish", instancesChunks.size());
+                    List<List<CloudResourceStatus>> cloudResourceStatusChunks = requests.waitForRequests().get(FutureResult.SUCCESS);
+                    long pollStart = System.currentTimeMillis();
                     List<CloudResourceStatus> resourceStatuses = waitForResourceCreations(cloudResourceStatusChunks);
+                    long rollbackStart = System.currentTimeMillis();
                     List<CloudResourceStatus> failedResources = filterResourceStatuses(resourceStatuses, ResourceStatus.FAILED);
                     cloudFailureHandler.rollback(auth, failedResources, group, getFullNodeCount(groups), ctx,
                             resourceBuilders, new ScaleContext(upscale, adjustmentType, threshold));
                     results.addAll(filterResourceStatuses(resourceStatuses, ResourceStatus.CREATED));
+                    LOGGER.info("Creating the resources of {} instances of group '{}' took {} ms: build {} ms, instance polling {} ms, rollback {} ms",
+                            instances.size(), group.getName(), System.currentTimeMillis() - buildStart, pollStart - buildStart, rollbackStart - pollStart,
+                            System.currentTimeMillis() - rollbackStart);
                 }
             }
             return results;
         }
 
         private List<CloudResourceStatus> waitForResourceCreations(List<List<CloudResourceStatus>> cloudResourceStatusChunks) {
-            List<CloudResourceStatus> result = new ArrayList<>();
-            for (List<CloudResourceStatus> cloudResourceStatuses : cloudResourceStatusChunks) {
-                List<CloudResourceStatus> instanceResourceStatuses = cloudResourceStatuses.stream()
-                        .filter(crs -> ResourceType.isInstanceResource(crs.getCloudResource().getType()))
-                        .filter(crs -> ResourceStatus.IN_PROGRESS.equals(crs.getStatus())).collect(Collectors.toList());
-                if (!instanceResourceStatuses.isEmpty()) {
-                    LOGGER.debug("Poll {} instance's state whether they have reached the created state", instanceResourceStatuses.size());
-                    CloudResource resourceProbe = instanceResourceStatuses.get(0).getCloudResource();
-                    Optional<ComputeResourceBuilder<ResourceBuilderContext>> builderOpt = determineComputeResourceBuilder(resourceProbe);
-                    if (builderOpt.isEmpty()) {
-                        LOGGER.debug("No resource builder found for type {}", resourceProbe.getType());
-                        continue;
-                    }
-                    ComputeResourceBuilder<ResourceBuilderContext> builder = builderOpt.get();
-                    LOGGER.debug("Determined resource builder for instances: {}", builder.resourceType());
-                    for (CloudResourceStatus instanceResourceStatus : instanceResourceStatuses) {
-                        PollGroup pollGroup = InMemoryStateStore.getStack(auth.getCloudContext().getId());
-                        if (pollGroup == null || CANCELLED.equals(pollGroup)) {
-                            throw new CancellationException(format("Building of %s has been cancelled", instanceResourceStatus));
-                        }
-                        CloudResource instance = instanceResourceStatus.getCloudResource();
-                        PollTask<List<CloudResourceStatus>> pollTask = resourcePollTaskFactory
-                                .newPollResourceTask(builder, auth, List.of(instance), ctx, true);
-                        try {
-                            List<CloudResourceStatus> statuses = syncPollingScheduler.schedule(pollTask);
-                            instanceResourceStatus.setStatus(statuses.get(0).getStatus());
-                        } catch (Exception e) {
-                            LOGGER.debug("Failure during polling the instance status of {}", instanceResourceStatus, e);
-                            cloudResourceStatuses.stream().filter(crs -> crs.getPrivateId().equals(instanceResourceStatus.getPrivateId())).forEach(crs -> {
-                                crs.setStatus(ResourceStatus.FAILED);
-                                crs.setStatusReason(e.getMessage());
-                            });
-                        }
-                    }
-                    result.addAll(cloudResourceStatuses);
+            List<CloudResourceStatus> result = flatList(cloudResourceStatusChunks);
+            Map<ResourceType, List<CloudResourceStatus>> instanceResourceStatuses = result.stream()
+                    .filter(crs -> ResourceType.isInstanceResource(crs.getCloudResource().getType()))
+                    .filter(crs -> ResourceStatus.IN_PROGRESS.equals(crs.getStatus()))
+                    .collect(Collectors.groupingBy(crs -> crs.getCloudResource().getType(), LinkedHashMap::new, Collectors.toList()));
+            if (instanceResourceStatuses.isEmpty()) {
+                LOGGER.debug("No instances to poll");
+            }
+            for (Map.Entry<ResourceType, List<CloudResourceStatus>> instancesOfType : instanceResourceStatuses.entrySet()) {
+                Optional<ComputeResourceBuilder<ResourceBuilderContext>> builderOpt = determineComputeResourceBuilder(instancesOfType.getKey());
+                if (builderOpt.isEmpty()) {
+                    LOGGER.debug("No resource builder found for type {}", instancesOfType.getKey());
                 } else {
-                    result.addAll(cloudResourceStatuses);
-                    LOGGER.debug("No instances to poll");
+                    LOGGER.debug("Determined resource builder for instances: {}", builderOpt.get().resourceType());
+                    pollInstances(builderOpt.get(), instancesOfType.getValue(), result);
                 }
             }
             return result;
         }
 
+        private void pollInstances(ComputeResourceBuilder<ResourceBuilderContext> builder, List<CloudResourceStatus> instanceResourceStatuses,
+                List<CloudResourceStatus> cloudResourceStatuses) {
+            LOGGER.debug("Poll {} instance's state whether they have reached the created state", instanceResourceStatuses.size());
+            PollGroup pollGroup = InMemoryStateStore.getStack(auth.getCloudContext().getId());
+            if (pollGroup == null || CANCELLED.equals(pollGroup)) {
+                throw new CancellationException(format("Building of %s has been cancelled", instanceResourceStatuses));
+            }
+            List<CloudResource> instances = instanceResourceStatuses.stream().map(CloudResourceStatus::getCloudResource).collect(Collectors.toList());
+            LastStatusRecordingPollTask pollTask = new LastStatusRecordingPollTask(
+                    resourcePollTaskFactory.newPollResourceBatchTask(builder, auth, instances, ctx, true));
+            try {
+                List<CloudResourceStatus> statuses = syncPollingScheduler.schedule(pollTask);
+                for (int i = 0; i < instanceResourceStatuses.size(); i++) {
+                    updateStatus(cloudResourceStatuses, instanceResourceStatuses.get(i), statuses.get(i));
+                }
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                LOGGER.debug("Failure during polling the instance status of {}, the instances without a final status are failed",
+                        instanceResourceStatuses, e);
+                List<CloudResourceStatus> lastStatuses = pollTask.getLastStatuses();
+                for (int i = 0; i < instanceResourceStatuses.size(); i++) {
+                    CloudResourceStatus instanceResourceStatus = instanceResourceStatuses.get(i);
+                    CloudResourceStatus lastStatus = i < lastStatuses.size() ? lastStatuses.get(i) : null;
+                    if (lastStatus == null || lastStatus.getStatus().isTransient()) {
+                        setFailed(cloudResourceStatuses, instanceResourceStatus.getPrivateId(), e.getMessage());
+                    } else {
+                        updateStatus(cloudResourceStatuses, instanceResourceStatus, lastStatus);
+                    }
+                }
+            }
+        }
+
+        private void updateStatus(List<CloudResourceStatus> cloudResourceStatuses, CloudResourceStatus instanceResourceStatus,
+                CloudResourceStatus status) {
+            if (ResourceStatus.FAILED.equals(status.getStatus())) {
+                setFailed(cloudResourceStatuses, instanceResourceStatus.getPrivateId(), status.getStatusReason());
+            } else {
+                instanceResourceStatus.setStatus(status.getStatus());
+            }
+        }
+
+        private void setFailed(List<CloudResourceStatus> cloudResourceStatuses, Long privateId, String statusReason) {
+            cloudResourceStatuses.stream().filter(crs -> crs.getPrivateId().equals(privateId)).forEach(crs -> {
+                crs.setStatus(ResourceStatus.FAILED);
+                crs.setStatusReason(statusReason);
+            });
+        }
+
         private List<CloudResourceStatus> filterResourceStatuses(List<CloudResourceStatus> cloudResourceStatuses, ResourceStatus resourceStatus) {
             return cloudResourceStatuses.stream().filter(rs -> resourceStatus.equals(rs.getStatus())).collect(Collectors.toList());
         }
 
-        private Optional<ComputeResourceBuilder<ResourceBuilderContext>> determineComputeResourceBuilder(CloudResource resource) {
+        private Optional<ComputeResourceBuilder<ResourceBuilderContext>> determineComputeResourceBuilder(ResourceType resourceType) {
             return resourceBuilders.compute(auth.getCloudContext().getPlatform())
-                    .stream().filter(rb -> rb.resourceType().equals(resource.getType())).findFirst();
+                    .stream().filter(rb -> rb.resourceType().equals(resourceType)).findFirst();
         }
 
         private int getFullNodeCount(Iterable<Group> groups) {
@@ -361,4 +358,45 @@ public class ComputeResourceService {
             return byLengthOrdering.sortedCopy(groups);
         }
     }
+
+    /**
+     * Keeps the statuses of the last poll attempt, so the instances that reached a final status are not failed when a later attempt times
+     * out or fails.
+     */
+    private static class LastStatusRecordingPollTask implements PollTask<List<CloudResourceStatus>> {
+
+        private final PollTask<List<CloudResourceStatus>> delegate;
+
+        private volatile List<CloudResourceStatus> lastStatuses = List.of();
+
+        LastStatusRecordingPollTask(PollTask<List<CloudResourceStatus>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<CloudResourceStatus> call() throws Exception {
+            List<CloudResourceStatus> statuses = delegate.call();
+            lastStatuses = statuses;
+            return statuses;
+        }
+
+        @Override
+        public AuthenticatedContext getAuthenticatedContext() {
+            return delegate.getAuthenticatedContext();
+        }
+
+        @Override
+        public boolean completed(List<CloudResourceStatus> statuses) {
+            return delegate.completed(statuses);
+        }
+
+        @Override
+        public boolean cancelled() {
+            return delegate.cancelled();
+        }
+
+        List<CloudResourceStatus> getLastStatuses() {
+            return lastStatuses;
+        }
+    }
 }
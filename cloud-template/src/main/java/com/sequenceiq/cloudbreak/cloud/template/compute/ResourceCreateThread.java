@@ -101,8 +101,8 @@ public class ResourceCreateThread implements Callable<ResourceRequestResult<List
                         updateResource(auth, resources);
                         context.addComputeResources(privateId, resources);
 
-                        if (ResourceType.GCP_INSTANCE.equals(builder.resourceType())) {
-                            LOGGER.debug("Skip instance polling in case of GCP");
+                        if (isPolledByCaller(builder, compute)) {
+                            LOGGER.debug("Skip instance polling, the instances of the whole batch are polled together");
                             resources.stream().map(resource -> new CloudResourceStatus(resource, ResourceStatus.IN_PROGRESS, privateId)).forEach(results::add);
                         } else {
                             PollTask<List<CloudResourceStatus>> task = resourcePollTaskFactory.newPollResourceTask(builder, auth, resources, context, true);
@@ -139,6 +139,14 @@ public class ResourceCreateThread implements Callable<ResourceRequestResult<List
         }
     }
 
+    /**
+     * The instance resources built by the last builder of the chain are polled by {@link ComputeResourceService} in one poll loop for all
+     * the instances of the request, as no other resource of the instance waits for them.
+     */
+    private boolean isPolledByCaller(ComputeResourceBuilder<ResourceBuilderContext> builder, List<ComputeResourceBuilder<ResourceBuilderContext>> compute) {
+        return ResourceType.isInstanceResource(builder.resourceType()) && builder == compute.get(compute.size() - 1);
+    }
+
     private boolean isCancelled(PollGroup pollGroup) {
         return pollGroup == null || CANCELLED.equals(pollGroup);
     }
@@ -0,0 +1,89 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.cloud.exception.CloudConnectorException;
+
+/**
+ * Keeps at most a fixed number of resource requests in flight. A new request is submitted as soon as any of the running ones has finished,
+ * so a single slow request does not hold back the ones queued behind it the way waiting for a whole batch does.
+ * <p>
+ * If the waiting thread is interrupted, the requests still in flight are cancelled and a {@link CloudConnectorException} is thrown, so the
+ * caller never carries on with the results of only a part of the requests.
+ */
+class ResourceRequestWindow<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceRequestWindow.class);
+
+    private final CompletionService<ResourceRequestResult<T>> completionService;
+
+    private final int size;
+
+    private final Map<FutureResult, List<T>> results = new EnumMap<>(FutureResult.class);
+
+    private final Set<Future<ResourceRequestResult<T>>> runningRequests = new HashSet<>();
+
+    ResourceRequestWindow(Executor executor, int size) {
+        completionService = new ExecutorCompletionService<>(executor);
+        this.size = Math.max(1, size);
+        results.put(FutureResult.FAILED, new ArrayList<>());
+        results.put(FutureResult.SUCCESS, new ArrayList<>());
+    }
+
+    void submit(Callable<ResourceRequestResult<T>> request) {
+        if (runningRequests.size() >= size) {
+            collect();
+        }
+        runningRequests.add(completionService.submit(request));
+    }
+
+    Map<FutureResult, List<T>> waitForRequests() {
+        LOGGER.debug("Waiting for {} requests to finish", runningRequests.size());
+        while (!runningRequests.isEmpty()) {
+            collect();
+        }
+        return results;
+    }
+
+    private void collect() {
+        Future<ResourceRequestResult<T>> finished;
+        try {
+            finished = completionService.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            int cancelled = runningRequests.size();
+            runningRequests.forEach(request -> request.cancel(true));
+            runningRequests.clear();
+            throw new CloudConnectorException(String.format("Interrupted while waiting for %d resource requests to finish, they have been cancelled",
+                    cancelled), e);
+        }
+        runningRequests.remove(finished);
+        try {
+            ResourceRequestResult<T> resourceRequestResult = finished.get();
+            if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
+                results.get(FutureResult.FAILED).add(resourceRequestResult.getResult());
+            } else {
+                results.get(FutureResult.SUCCESS).add(resourceRequestResult.getResult());
+            }
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to execute the request", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while reading the result of a finished request", e);
+        }
+    }
+}
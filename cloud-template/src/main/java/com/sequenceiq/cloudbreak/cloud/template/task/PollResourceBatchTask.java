@@ -0,0 +1,123 @@
+package com.sequenceiq.cloudbreak.cloud.template.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.ResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.task.AbstractPollTask;
+import com.sequenceiq.cloudbreak.cloud.template.ResourceChecker;
+import com.sequenceiq.cloudbreak.cloud.template.context.ResourceBuilderContext;
+
+/**
+ * Polls a batch of resources in a single poll loop. Every attempt checks the resources that are still in a transient state with a single
+ * {@link ResourceChecker#checkResources} call. If that call fails, the resources are checked one by one in the same attempt, and a resource
+ * whose check keeps failing is reported as failed on its own instead of failing the whole batch.
+ */
+@Component(PollResourceBatchTask.NAME)
+@Scope("prototype")
+public class PollResourceBatchTask extends AbstractPollTask<List<CloudResourceStatus>> {
+    public static final String NAME = "pollResourceBatchTask";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PollResourceBatchTask.class);
+
+    private static final int FAILURE_TOLERANT_ATTEMPT = 3;
+
+    private final ResourceChecker<ResourceBuilderContext> checker;
+
+    private final ResourceBuilderContext context;
+
+    private final Map<CloudResource, CloudResourceStatus> statuses = new LinkedHashMap<>();
+
+    private final Map<CloudResource, Integer> failedChecks = new HashMap<>();
+
+    public PollResourceBatchTask(AuthenticatedContext authenticatedContext, ResourceChecker<ResourceBuilderContext> checker,
+            List<CloudResource> cloudResources, ResourceBuilderContext context, boolean cancellable) {
+        super(authenticatedContext, cancellable);
+        this.checker = checker;
+        this.context = context;
+        for (CloudResource cloudResource : cloudResources) {
+            statuses.put(cloudResource, new CloudResourceStatus(cloudResource, ResourceStatus.IN_PROGRESS));
+        }
+    }
+
+    /**
+     * @return the statuses of the resources in the order they were given
+     */
+    @Override
+    protected List<CloudResourceStatus> doCall() {
+        List<CloudResource> transientResources = statuses.entrySet().stream()
+                .filter(status -> status.getValue().getStatus().isTransient())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (transientResources.size() == 1) {
+            CloudResource cloudResource = transientResources.get(0);
+            statuses.put(cloudResource, check(cloudResource, statuses.get(cloudResource)));
+        } else if (!transientResources.isEmpty()) {
+            try {
+                List<CloudResourceStatus> checkedStatuses = checker.checkResources(context, getAuthenticatedContext(), transientResources);
+                updateStatuses(transientResources, checkedStatuses);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Failed to check the status of {} resources in one request, checking them one by one", transientResources.size(), e);
+                for (CloudResource cloudResource : transientResources) {
+                    statuses.put(cloudResource, check(cloudResource, statuses.get(cloudResource)));
+                }
+            }
+        }
+        return new ArrayList<>(statuses.values());
+    }
+
+    @Override
+    public boolean completed(List<CloudResourceStatus> resourceStatuses) {
+        for (CloudResourceStatus resourceStatus : resourceStatuses) {
+            if (resourceStatus.getStatus().isTransient()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The checkers build new statuses for the resources, so the statuses are matched to the resources by name. A resource that is missing from
+     * the response keeps its previous status and is checked again in the next attempt.
+     */
+    private void updateStatuses(List<CloudResource> checkedResources, List<CloudResourceStatus> checkedStatuses) {
+        Map<String, CloudResourceStatus> statusesByName = new HashMap<>();
+        for (CloudResourceStatus checkedStatus : checkedStatuses) {
+            statusesByName.put(checkedStatus.getCloudResource().getName(), checkedStatus);
+        }
+        for (CloudResource cloudResource : checkedResources) {
+            failedChecks.remove(cloudResource);
+            CloudResourceStatus checkedStatus = statusesByName.get(cloudResource.getName());
+            if (checkedStatus != null) {
+                statuses.put(cloudResource, checkedStatus);
+            }
+        }
+    }
+
+    private CloudResourceStatus check(CloudResource cloudResource, CloudResourceStatus previousStatus) {
+        try {
+            List<CloudResourceStatus> checkedStatuses = checker.checkResources(context, getAuthenticatedContext(), List.of(cloudResource));
+            failedChecks.remove(cloudResource);
+            return checkedStatuses.isEmpty() ? previousStatus : checkedStatuses.get(0);
+        } catch (RuntimeException e) {
+            int failures = failedChecks.merge(cloudResource, 1, Integer::sum);
+            if (failures >= FAILURE_TOLERANT_ATTEMPT) {
+                LOGGER.debug("Failed to check the status of {} {} times, set the status to failed", cloudResource, failures, e);
+                return new CloudResourceStatus(cloudResource, ResourceStatus.FAILED, e.getMessage());
+            }
+            return previousStatus;
+        }
+    }
+}
@@ -27,6 +27,11 @@ public class ResourcePollTaskFactory {
         return createPollTask(PollResourceTask.NAME, authenticatedContext, checker, cloudResources, context, cancellable);
     }
 
+    public PollTask<List<CloudResourceStatus>> newPollResourceBatchTask(ResourceChecker<?> checker, AuthenticatedContext authenticatedContext,
+            List<CloudResource> cloudResources, ResourceBuilderContext context, boolean cancellable) {
+        return createPollTask(PollResourceBatchTask.NAME, authenticatedContext, checker, cloudResources, context, cancellable);
+    }
+
     public PollTask<List<CloudVmInstanceStatus>> newPollComputeStatusTask(ComputeResourceBuilder<?> builder, AuthenticatedContext authenticatedContext,
             ResourceBuilderContext context, List<CloudInstance> instances) {
         return createPollTask(PollComputeStatusTask.NAME, authenticatedContext, builder, context, instances);
@@ -0,0 +1,215 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.CloudStack;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.Group;
+import com.sequenceiq.cloudbreak.cloud.model.ResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.scheduler.CancellationException;
+import com.sequenceiq.cloudbreak.cloud.scheduler.PollGroup;
+import com.sequenceiq.cloudbreak.cloud.scheduler.SyncPollingScheduler;
+import com.sequenceiq.cloudbreak.cloud.store.InMemoryStateStore;
+import com.sequenceiq.cloudbreak.cloud.task.PollTask;
+import com.sequenceiq.cloudbreak.cloud.template.ComputeResourceBuilder;
+import com.sequenceiq.cloudbreak.cloud.template.context.ResourceBuilderContext;
+import com.sequenceiq.cloudbreak.cloud.template.init.ResourceBuilders;
+import com.sequenceiq.cloudbreak.cloud.template.task.ResourcePollTaskFactory;
+import com.sequenceiq.common.api.type.AdjustmentType;
+import com.sequenceiq.common.api.type.ResourceType;
+
+@ExtendWith(MockitoExtension.class)
+class ComputeResourceServiceTest {
+
+    private static final Long STACK_ID = 1L;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private ResourceBuilders resourceBuilders;
+
+    @Mock
+    private CloudFailureHandler cloudFailureHandler;
+
+    @Mock
+    private SyncPollingScheduler<List<CloudVmInstanceStatus>> syncVMPollingScheduler;
+
+    @Mock
+    private SyncPollingScheduler<List<CloudResourceStatus>> syncPollingScheduler;
+
+    @Mock
+    private ResourcePollTaskFactory resourcePollTaskFactory;
+
+    @Mock
+    private ComputeResourceBuilder<ResourceBuilderContext> instanceBuilder;
+
+    @Mock
+    private PollTask<List<CloudResourceStatus>> pollTask;
+
+    @Mock
+    private AuthenticatedContext authenticatedContext;
+
+    @Mock
+    private CloudStack cloudStack;
+
+    @Mock
+    private Group group;
+
+    @InjectMocks
+    private ComputeResourceService underTest;
+
+    private final ResourceBuilderContext context = new ResourceBuilderContext("stack", null, 2, true);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "resourceBuilderExecutor", new ConcurrentTaskExecutor(Runnable::run));
+        ReflectionTestUtils.setField(underTest, "createBatchSize", 2);
+        CloudContext cloudContext = new CloudContext(STACK_ID, "stack", "GCP", "user", "account");
+        when(authenticatedContext.getCloudContext()).thenReturn(cloudContext);
+        when(cloudStack.getGroups()).thenReturn(List.of(group));
+        when(group.getInstances()).thenReturn(List.of(instance("1"), instance("2"), instance("3")));
+        when(applicationContext.getBean(eq(ResourceCreateThread.NAME), (Object[]) any())).thenAnswer(invocation -> {
+            List<CloudInstance> instancesChunk = invocation.getArgument(1);
+            List<CloudResourceStatus> statuses = instancesChunk.stream()
+                    .map(instance -> new CloudResourceStatus(resource(instance.getInstanceId()), ResourceStatus.IN_PROGRESS,
+                            Long.valueOf(instance.getInstanceId())))
+                    .collect(Collectors.toList());
+            return mock(ResourceCreateThread.class, createThread -> new ResourceRequestResult<>(FutureResult.SUCCESS, statuses));
+        });
+        InMemoryStateStore.putStack(STACK_ID, PollGroup.POLLABLE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        InMemoryStateStore.deleteStack(STACK_ID);
+    }
+
+    @Test
+    void testInstancesOfAllChunksArePolledTogether() throws Exception {
+        when(resourceBuilders.compute(any())).thenReturn(List.of(instanceBuilder));
+        when(instanceBuilder.resourceType()).thenReturn(ResourceType.GCP_INSTANCE);
+        when(resourcePollTaskFactory.newPollResourceBatchTask(eq(instanceBuilder), eq(authenticatedContext), any(), eq(context), eq(true)))
+                .thenReturn(pollTask);
+        when(group.getInstancesSize()).thenReturn(3);
+        when(syncPollingScheduler.schedule(any())).thenReturn(List.of(
+                new CloudResourceStatus(resource("1"), ResourceStatus.CREATED),
+                new CloudResourceStatus(resource("2"), ResourceStatus.FAILED, "quota exceeded"),
+                new CloudResourceStatus(resource("3"), ResourceStatus.CREATED)));
+
+        List<CloudResourceStatus> result = underTest.buildResourcesForLaunch(context, authenticatedContext, cloudStack, AdjustmentType.BEST_EFFORT, null);
+
+        ArgumentCaptor<List<CloudResource>> polledInstances = ArgumentCaptor.forClass(List.class);
+        verify(resourcePollTaskFactory).newPollResourceBatchTask(eq(instanceBuilder), eq(authenticatedContext), polledInstances.capture(),
+                eq(context), eq(true));
+        assertEquals(List.of("1", "2", "3"), polledInstances.getValue().stream().map(CloudResource::getName).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 3L), privateIds(result));
+        List<CloudResourceStatus> failedResources = captureRolledBackResources();
+        assertEquals(List.of(2L), privateIds(failedResources));
+        assertEquals("quota exceeded", failedResources.get(0).getStatusReason());
+    }
+
+    @Test
+    void testPollingFailureWithoutStatusFailsEveryInstance() throws Exception {
+        when(resourceBuilders.compute(any())).thenReturn(List.of(instanceBuilder));
+        when(instanceBuilder.resourceType()).thenReturn(ResourceType.GCP_INSTANCE);
+        when(resourcePollTaskFactory.newPollResourceBatchTask(eq(instanceBuilder), eq(authenticatedContext), any(), eq(context), eq(true)))
+                .thenReturn(pollTask);
+        when(group.getInstancesSize()).thenReturn(3);
+        when(syncPollingScheduler.schedule(any())).thenThrow(new IllegalStateException("polling failed"));
+
+        List<CloudResourceStatus> result = underTest.buildResourcesForLaunch(context, authenticatedContext, cloudStack, AdjustmentType.BEST_EFFORT, null);
+
+        assertEquals(List.of(), result);
+        List<CloudResourceStatus> failedResources = captureRolledBackResources();
+        assertEquals(List.of(1L, 2L, 3L), privateIds(failedResources));
+        failedResources.forEach(failedResource -> assertEquals("polling failed", failedResource.getStatusReason()));
+    }
+
+    @Test
+    void testPollingTimeoutFailsOnlyTheInstancesWithoutFinalStatus() throws Exception {
+        when(resourceBuilders.compute(any())).thenReturn(List.of(instanceBuilder));
+        when(instanceBuilder.resourceType()).thenReturn(ResourceType.GCP_INSTANCE);
+        when(resourcePollTaskFactory.newPollResourceBatchTask(eq(instanceBuilder), eq(authenticatedContext), any(), eq(context), eq(true)))
+                .thenReturn(pollTask);
+        when(group.getInstancesSize()).thenReturn(3);
+        when(pollTask.call()).thenReturn(List.of(
+                new CloudResourceStatus(resource("1"), ResourceStatus.CREATED),
+                new CloudResourceStatus(resource("2"), ResourceStatus.IN_PROGRESS),
+                new CloudResourceStatus(resource("3"), ResourceStatus.FAILED, "quota exceeded")));
+        when(syncPollingScheduler.schedule(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, PollTask.class).call();
+            throw new TimeoutException("polling timed out");
+        });
+
+        List<CloudResourceStatus> result = underTest.buildResourcesForLaunch(context, authenticatedContext, cloudStack, AdjustmentType.BEST_EFFORT, null);
+
+        assertEquals(List.of(1L), privateIds(result));
+        assertEquals(ResourceStatus.CREATED, result.get(0).getStatus());
+        List<CloudResourceStatus> failedResources = captureRolledBackResources();
+        assertEquals(List.of(2L, 3L), privateIds(failedResources));
+        assertEquals("polling timed out", failedResources.get(0).getStatusReason());
+        assertEquals("quota exceeded", failedResources.get(1).getStatusReason());
+    }
+
+    @Test
+    void testCancelledBuildIsNotPolled() throws Exception {
+        when(resourceBuilders.compute(any())).thenReturn(List.of(instanceBuilder));
+        when(instanceBuilder.resourceType()).thenReturn(ResourceType.GCP_INSTANCE);
+        InMemoryStateStore.putStack(STACK_ID, PollGroup.CANCELLED);
+
+        assertThrows(CancellationException.class,
+                () -> underTest.buildResourcesForLaunch(context, authenticatedContext, cloudStack, AdjustmentType.BEST_EFFORT, null));
+
+        verify(syncPollingScheduler, never()).schedule(any());
+        verify(cloudFailureHandler, never()).rollback(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    private List<CloudResourceStatus> captureRolledBackResources() {
+        ArgumentCaptor<List<CloudResourceStatus>> failedResources = ArgumentCaptor.forClass(List.class);
+        verify(cloudFailureHandler).rollback(eq(authenticatedContext), failedResources.capture(), eq(group), eq(3), eq(context), eq(resourceBuilders),
+                any());
+        return failedResources.getValue();
+    }
+
+    private List<Long> privateIds(List<CloudResourceStatus> resourceStatuses) {
+        return resourceStatuses.stream().map(CloudResourceStatus::getPrivateId).collect(Collectors.toList());
+    }
+
+    private CloudInstance instance(String id) {
+        return new CloudInstance(id, null, null);
+    }
+
+    private CloudResource resource(String name) {
+        return CloudResource.builder().type(ResourceType.GCP_INSTANCE).name(name).build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sequenceiq.cloudbreak.cloud.exception.CloudConnectorException;
+
+class ResourceRequestWindowTest {
+
+    private static final long TIMEOUT_SEC = 5L;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(10);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testNoMoreRequestsRunThanTheWindowSize() {
+        ResourceRequestWindow<Integer> underTest = new ResourceRequestWindow<>(executor, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 8; i++) {
+            int index = i;
+            underTest.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20L);
+                running.decrementAndGet();
+                return new ResourceRequestResult<>(FutureResult.SUCCESS, index);
+            });
+        }
+        Map<FutureResult, List<Integer>> results = underTest.waitForRequests();
+
+        assertEquals(8, results.get(FutureResult.SUCCESS).size());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testWindowSizeIsAtLeastOne() {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 0);
+
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "first"));
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "second"));
+
+        assertEquals(List.of("first", "second"), underTest.waitForRequests().get(FutureResult.SUCCESS));
+    }
+
+    @Test
+    void testNextRequestStartsWhenAnyRequestFinishes() throws InterruptedException {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        CountDownLatch thirdStarted = new CountDownLatch(1);
+
+        underTest.submit(() -> {
+            releaseSlow.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "slow");
+        });
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "fast"));
+        underTest.submit(() -> {
+            thirdStarted.countDown();
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "third");
+        });
+
+        assertTrue(thirdStarted.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        releaseSlow.countDown();
+        Map<FutureResult, List<String>> results = underTest.waitForRequests();
+
+        assertEquals("fast", results.get(FutureResult.SUCCESS).get(0));
+        assertEquals(Set.of("fast", "slow", "third"), Set.copyOf(results.get(FutureResult.SUCCESS)));
+    }
+
+    @Test
+    void testFailedRequestsAreCollectedSeparately() {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 1);
+
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.FAILED, "failed"));
+        underTest.submit(() -> {
+            throw new IllegalStateException("thread failed");
+        });
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "succeeded"));
+        Map<FutureResult, List<String>> results = underTest.waitForRequests();
+
+        assertEquals(List.of("failed"), results.get(FutureResult.FAILED));
+        assertEquals(List.of("succeeded"), results.get(FutureResult.SUCCESS));
+    }
+
+    @Test
+    void testInterruptionCancelsTheRunningRequests() throws InterruptedException {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        underTest.submit(() -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(TIMEOUT_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "cancelled");
+        });
+        assertTrue(started.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+
+        Thread.currentThread().interrupt();
+        CloudConnectorException exception = assertThrows(CloudConnectorException.class, underTest::waitForRequests);
+
+        assertTrue(Thread.interrupted());
+        assertEquals("Interrupted while waiting for 1 resource requests to finish, they have been cancelled", exception.getMessage());
+        assertTrue(interrupted.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+}
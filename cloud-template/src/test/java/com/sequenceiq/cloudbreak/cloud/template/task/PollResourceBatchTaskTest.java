@@ -0,0 +1,117 @@
+package com.sequenceiq.cloudbreak.cloud.template.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.ResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.template.ResourceChecker;
+import com.sequenceiq.cloudbreak.cloud.template.context.ResourceBuilderContext;
+import com.sequenceiq.common.api.type.ResourceType;
+
+@ExtendWith(MockitoExtension.class)
+class PollResourceBatchTaskTest {
+
+    @Mock
+    private ResourceChecker<ResourceBuilderContext> checker;
+
+    @Mock
+    private AuthenticatedContext authenticatedContext;
+
+    @Mock
+    private ResourceBuilderContext context;
+
+    private final CloudResource first = resource("first");
+
+    private final CloudResource second = resource("second");
+
+    private final CloudResource third = resource("third");
+
+    @Test
+    void testTransientResourcesAreCheckedWithOneRequest() {
+        PollResourceBatchTask underTest = new PollResourceBatchTask(authenticatedContext, checker, List.of(first, second, third), context, false);
+        when(checker.checkResources(eq(context), eq(authenticatedContext), any())).thenAnswer(invocation -> {
+            List<CloudResource> resources = invocation.getArgument(2);
+            return resources.stream()
+                    .map(resource -> new CloudResourceStatus(copy(resource), second.getName().equals(resource.getName())
+                            ? ResourceStatus.IN_PROGRESS : ResourceStatus.CREATED))
+                    .collect(Collectors.toList());
+        });
+
+        List<CloudResourceStatus> firstAttempt = underTest.call();
+        List<CloudResourceStatus> secondAttempt = underTest.call();
+
+        verify(checker).checkResources(context, authenticatedContext, List.of(first, second, third));
+        verify(checker).checkResources(context, authenticatedContext, List.of(second));
+        assertEquals(List.of(ResourceStatus.CREATED, ResourceStatus.IN_PROGRESS, ResourceStatus.CREATED), statuses(firstAttempt));
+        assertFalse(underTest.completed(firstAttempt));
+        assertEquals(List.of("first", "second", "third"), names(secondAttempt));
+        assertEquals(List.of(ResourceStatus.CREATED, ResourceStatus.IN_PROGRESS, ResourceStatus.CREATED), statuses(secondAttempt));
+    }
+
+    @Test
+    void testResourcesMissingFromTheResponseKeepTheirStatus() {
+        PollResourceBatchTask underTest = new PollResourceBatchTask(authenticatedContext, checker, List.of(first, second), context, false);
+        when(checker.checkResources(eq(context), eq(authenticatedContext), any()))
+                .thenReturn(List.of(new CloudResourceStatus(copy(second), ResourceStatus.CREATED)));
+
+        List<CloudResourceStatus> result = underTest.call();
+
+        assertEquals(List.of(ResourceStatus.IN_PROGRESS, ResourceStatus.CREATED), statuses(result));
+    }
+
+    @Test
+    void testResourcesAreCheckedOneByOneWhenTheBatchCheckFails() {
+        PollResourceBatchTask underTest = new PollResourceBatchTask(authenticatedContext, checker, List.of(first, second), context, false);
+        when(checker.checkResources(eq(context), eq(authenticatedContext), any())).thenAnswer(invocation -> {
+            List<CloudResource> resources = invocation.getArgument(2);
+            if (resources.size() > 1 || resources.contains(second)) {
+                throw new IllegalStateException("check failed");
+            }
+            return List.of(new CloudResourceStatus(resources.get(0), ResourceStatus.CREATED));
+        });
+
+        List<CloudResourceStatus> result = underTest.call();
+        assertEquals(List.of(ResourceStatus.CREATED, ResourceStatus.IN_PROGRESS), statuses(result));
+        underTest.call();
+        result = underTest.call();
+
+        assertEquals(List.of(ResourceStatus.CREATED, ResourceStatus.FAILED), statuses(result));
+        assertEquals("check failed", result.get(1).getStatusReason());
+        assertTrue(underTest.completed(result));
+        verify(checker, times(1)).checkResources(context, authenticatedContext, List.of(first));
+        verify(checker, times(3)).checkResources(context, authenticatedContext, List.of(second));
+    }
+
+    private CloudResource resource(String name) {
+        return CloudResource.builder().type(ResourceType.GCP_INSTANCE).name(name).build();
+    }
+
+    private CloudResource copy(CloudResource resource) {
+        return CloudResource.builder().cloudResource(resource).build();
+    }
+
+    private List<ResourceStatus> statuses(List<CloudResourceStatus> resourceStatuses) {
+        return resourceStatuses.stream().map(CloudResourceStatus::getStatus).collect(Collectors.toList());
+    }
+
+    private List<String> names(List<CloudResourceStatus> resourceStatuses) {
+        return resourceStatuses.stream().map(resourceStatus -> resourceStatus.getCloudResource().getName()).collect(Collectors.toList());
+    }
+}
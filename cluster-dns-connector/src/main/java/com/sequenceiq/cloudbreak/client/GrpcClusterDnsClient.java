@@ -15,10 +15,10 @@ import org.springframework.stereotype.Component;
 import com.cloudera.thunderhead.service.publicendpointmanagement.PublicEndpointManagementProto.CreateDnsEntryResponse;
 import com.cloudera.thunderhead.service.publicendpointmanagement.PublicEndpointManagementProto.DeleteDnsEntryResponse;
 import com.cloudera.thunderhead.service.publicendpointmanagement.PublicEndpointManagementProto.PollCertificateSigningResponse;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 
 @Component
 public class GrpcClusterDnsClient {
@@ -28,6 +28,9 @@ public class GrpcClusterDnsClient {
     @Inject
     private ClusterDnsConfig clusterDnsConfig;
 
+    @Inject
+    private ManagedChannelPool channelPool;
+
     public String signCertificate(String actorCrn, String accountId, String environment, byte[] csr,
             Optional<String> requestId) {
         try (ManagedChannelWrapper channelWrapper = makeWrapper()) {
@@ -76,11 +79,7 @@ public class GrpcClusterDnsClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(clusterDnsConfig.getEndpoint(), clusterDnsConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelPool.getChannel(clusterDnsConfig.getEndpoint(), clusterDnsConfig.getPort(), DEFAULT_MAX_MESSAGE_SIZE);
     }
 
     private ClusterDnsClient makeClient(ManagedChannel channel, String accountId) {
@@ -8,15 +8,26 @@ import org.springframework.cache.caffeine.CaffeineCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sequenceiq.cloudbreak.cache.CacheDefinition;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 public abstract class AbstractCacheDefinition implements CacheDefinition {
 
+    /**
+     * The caches are registered into the cache manager bean of the CachingConfig, the tag has the same value as the one spring boot uses
+     * when it binds the caches of that cache manager, so the meters of a cache are only registered once.
+     */
+    private static final String CACHE_MANAGER_TAG_VALUE = "cacheManager";
+
     @Override
     public final Cache cacheConfiguration() {
         Caffeine<Object, Object> builder = Caffeine.newBuilder()
                 .recordStats()
                 .maximumSize(getMaxEntries())
                 .expireAfterWrite(getTimeToLiveSeconds(), TimeUnit.SECONDS);
-        return new CaffeineCache(getName(), builder.build());
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = builder.build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, getName(), "cacheManager", CACHE_MANAGER_TAG_VALUE);
+        return new CaffeineCache(getName(), cache);
     }
 
     protected abstract String getName();
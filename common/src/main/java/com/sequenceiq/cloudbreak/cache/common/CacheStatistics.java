@@ -0,0 +1,88 @@
+package com.sequenceiq.cloudbreak.cache.common;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public class CacheStatistics {
+
+    private final long size;
+
+    private final Long maximumSize;
+
+    private final Long expireAfterWriteSeconds;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final double hitRatio;
+
+    private final long evictionCount;
+
+    private final long loadCount;
+
+    private final long loadFailureCount;
+
+    private final double averageLoadPenaltyMillis;
+
+    private CacheStatistics(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        size = cache.estimatedSize();
+        maximumSize = cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(null);
+        expireAfterWriteSeconds = cache.policy().expireAfterWrite().map(expiration -> expiration.getExpiresAfter(TimeUnit.SECONDS)).orElse(null);
+        hitCount = stats.hitCount();
+        missCount = stats.missCount();
+        hitRatio = stats.hitRate();
+        evictionCount = stats.evictionCount();
+        loadCount = stats.loadCount();
+        loadFailureCount = stats.loadFailureCount();
+        averageLoadPenaltyMillis = stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static CacheStatistics of(Cache<?, ?> cache) {
+        return new CacheStatistics(cache);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Long getExpireAfterWriteSeconds() {
+        return expireAfterWriteSeconds;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public double getAverageLoadPenaltyMillis() {
+        return averageLoadPenaltyMillis;
+    }
+}
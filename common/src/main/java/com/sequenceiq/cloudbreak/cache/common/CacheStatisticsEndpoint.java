@@ -0,0 +1,48 @@
+package com.sequenceiq.cloudbreak.cache.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the size, the configured limits and the statistics of every Caffeine cache, so the maximum sizes and the time to live values of
+ * the cache definitions can be tuned from the hit ratio and the eviction count they produce.
+ */
+@Component
+@Endpoint(id = CacheStatisticsEndpoint.ID)
+public class CacheStatisticsEndpoint {
+
+    public static final String ID = "cachestatistics";
+
+    @Autowired(required = false)
+    private List<CacheManager> cacheManagers = new ArrayList<>();
+
+    @ReadOperation
+    public Map<String, CacheStatistics> cacheStatistics() {
+        Map<String, CacheStatistics> statistics = new TreeMap<>();
+        for (CacheManager cacheManager : cacheManagers) {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache instanceof CaffeineCache) {
+                    statistics.put(cacheName, CacheStatistics.of(((CaffeineCache) cache).getNativeCache()));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @ReadOperation
+    public CacheStatistics cacheStatisticsOf(@Selector String name) {
+        return cacheStatistics().get(name);
+    }
+}
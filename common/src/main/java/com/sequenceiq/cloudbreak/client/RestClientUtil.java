@@ -39,16 +39,18 @@ public class RestClientUtil {
     }
 
     public static Client createClient(String serverCert, String clientCert, String clientKey, boolean debug) throws Exception {
-        SSLContext sslContext;
+        return createClient(createSslContext(serverCert, clientCert, clientKey), debug);
+    }
+
+    public static SSLContext createSslContext(String serverCert, String clientCert, String clientKey) throws Exception {
         if (StringUtils.isNoneBlank(serverCert, clientCert, clientKey)) {
-            sslContext = SSLContexts.custom()
+            return SSLContexts.custom()
                     .loadTrustMaterial(KeyStoreUtil.createTrustStore(serverCert), null)
                     .loadKeyMaterial(KeyStoreUtil.createKeyStore(clientCert, clientKey), "consul".toCharArray())
                     .build();
         } else {
-            sslContext = CertificateTrustManager.sslContext();
+            return CertificateTrustManager.sslContext();
         }
-        return createClient(sslContext, debug);
     }
 
     public static Client createClient(SSLContext sslContext, boolean debug) {
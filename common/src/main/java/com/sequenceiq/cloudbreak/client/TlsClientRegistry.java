@@ -0,0 +1,285 @@
+package com.sequenceiq.cloudbreak.client;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.ws.rs.client.Client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Shares the mutual TLS clients of the Salt, Cloudera Manager and YARN endpoints. Creating a client parses the PEM certificates and keys,
+ * and a client with a new {@link SSLContext} can not reuse any pooled connection or TLS session, so every call paid a full handshake.
+ * <p>
+ * SSL contexts and JAX-RS clients are kept per gateway and certificate fingerprint, so a rotated certificate gets a new entry. At most
+ * {@code cb.tls.client.registry.max.size} entries are kept, and entries not used for {@code cb.tls.client.registry.idle.timeout.minutes}
+ * are evicted. An evicted client is closed after {@code cb.tls.client.registry.close.grace.minutes}, which releases its pooled connections,
+ * callers that still hold one can finish their calls with it until then.
+ * The hit rate of the registry is published with the cache metrics of the {@code tls.client.registry} cache, the number of TLS handshakes
+ * made with the shared contexts as {@code tls.client.handshakes}.
+ */
+@Component
+public class TlsClientRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TlsClientRegistry.class);
+
+    private static final String METRIC_NAME = "tls.client.registry";
+
+    @Value("${cb.tls.client.registry.max.size:1000}")
+    private long maxSize;
+
+    @Value("${cb.tls.client.registry.idle.timeout.minutes:30}")
+    private long idleTimeout;
+
+    @Value("${cb.tls.client.registry.close.grace.minutes:60}")
+    private long closeGraceInMinutes;
+
+    private Cache<RegistryKey, SSLContext> sslContexts;
+
+    private Cache<RegistryKey, Client> clients;
+
+    private Counter handshakes;
+
+    private ScheduledExecutorService clientCloseExecutor;
+
+    @PostConstruct
+    public void init() {
+        clientCloseExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("tls-client-close-%d").setDaemon(true).build());
+        sslContexts = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(idleTimeout, TimeUnit.MINUTES).recordStats().build();
+        clients = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(idleTimeout, TimeUnit.MINUTES).recordStats()
+                .removalListener(this::scheduleClose).build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, sslContexts, METRIC_NAME, "type", "sslcontext");
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, METRIC_NAME, "type", "client");
+        handshakes = Metrics.counter("tls.client.handshakes");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientCloseExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the shared SSL context of the gateway. If any of the certificates is missing, it is the trust-all context of
+     * {@link RestClientUtil#createSslContext(String, String, String)}.
+     */
+    public SSLContext getSslContext(String gateway, String serverCert, String clientCert, String clientKey) {
+        RegistryKey key = new RegistryKey(gateway, fingerprint(serverCert, clientCert, clientKey), false);
+        return sslContexts.get(key, k -> createSslContext(k, serverCert, clientCert, clientKey));
+    }
+
+    /**
+     * Returns the shared JAX-RS client of the gateway. The client must not be closed by the caller.
+     */
+    public Client getClient(String gateway, String serverCert, String clientCert, String clientKey, boolean debug) {
+        RegistryKey key = new RegistryKey(gateway, fingerprint(serverCert, clientCert, clientKey), debug);
+        return clients.get(key, k -> RestClientUtil.createClient(getSslContext(gateway, serverCert, clientCert, clientKey), debug));
+    }
+
+    private void scheduleClose(RegistryKey key, Client client, RemovalCause cause) {
+        if (client != null) {
+            LOGGER.debug("Client of gateway {} was removed from the registry ({}), closing it in {} minutes", key.gateway, cause, closeGraceInMinutes);
+            try {
+                clientCloseExecutor.schedule(client::close, closeGraceInMinutes, TimeUnit.MINUTES);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("TLS client registry is stopping, the removed client is not closed", e);
+            }
+        }
+    }
+
+    private SSLContext createSslContext(RegistryKey key, String serverCert, String clientCert, String clientKey) {
+        LOGGER.debug("Creating SSL context for gateway {}", key.gateway);
+        try {
+            SSLContext sslContext = RestClientUtil.createSslContext(serverCert, clientCert, clientKey);
+            return new SSLContext(new HandshakeCountingSslContextSpi(sslContext, handshakes), sslContext.getProvider(), sslContext.getProtocol()) {
+            };
+        } catch (Exception e) {
+            throw new CloudbreakServiceException("Failed to create SSL context for gateway " + key.gateway, e);
+        }
+    }
+
+    private String fingerprint(String serverCert, String clientCert, String clientKey) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String pem : new String[]{serverCert, clientCert, clientKey}) {
+            hasher.putString(Strings.nullToEmpty(pem), StandardCharsets.UTF_8).putChar('\0');
+        }
+        return hasher.hash().toString();
+    }
+
+    private static class RegistryKey {
+
+        private final String gateway;
+
+        private final String fingerprint;
+
+        private final boolean debug;
+
+        RegistryKey(String gateway, String fingerprint, boolean debug) {
+            this.gateway = gateway;
+            this.fingerprint = fingerprint;
+            this.debug = debug;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RegistryKey that = (RegistryKey) o;
+            return debug == that.debug && Objects.equals(gateway, that.gateway) && Objects.equals(fingerprint, that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gateway, fingerprint, debug);
+        }
+    }
+
+    /**
+     * Delegates to an initialized context, but always hands out the same socket factory, so connections made with it can be pooled.
+     */
+    private static class HandshakeCountingSslContextSpi extends SSLContextSpi {
+
+        private final SSLContext delegate;
+
+        private final SSLSocketFactory socketFactory;
+
+        HandshakeCountingSslContextSpi(SSLContext delegate, Counter handshakes) {
+            this.delegate = delegate;
+            socketFactory = new HandshakeCountingSocketFactory(delegate.getSocketFactory(), handshakes);
+        }
+
+        @Override
+        protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom sr) throws KeyManagementException {
+            delegate.init(km, tm, sr);
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return socketFactory;
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return delegate.createSSLEngine();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            return delegate.createSSLEngine(host, port);
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+    }
+
+    private static class HandshakeCountingSocketFactory extends SSLSocketFactory {
+
+        private final SSLSocketFactory delegate;
+
+        private final Counter handshakes;
+
+        HandshakeCountingSocketFactory(SSLSocketFactory delegate, Counter handshakes) {
+            this.delegate = delegate;
+            this.handshakes = handshakes;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return count(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+            return count(delegate.createSocket(s, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return count(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return count(delegate.createSocket(address, port, localAddress, localPort));
+        }
+
+        private Socket count(Socket socket) {
+            if (socket instanceof SSLSocket) {
+                ((SSLSocket) socket).addHandshakeCompletedListener(event -> handshakes.increment());
+            }
+            return socket;
+        }
+    }
+}
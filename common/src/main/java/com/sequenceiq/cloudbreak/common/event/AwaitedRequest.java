@@ -0,0 +1,8 @@
+package com.sequenceiq.cloudbreak.common.event;
+
+/**
+ * Marks the payloads whose sender blocks until the event is answered, e.g. a flow action waiting for the result of a cloud platform request.
+ * Dispatchers must not queue such an event behind the events of its sender.
+ */
+public interface AwaitedRequest extends Payload {
+}
@@ -1,17 +1,57 @@
 package com.sequenceiq.cloudbreak.common.metrics;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
+import com.sequenceiq.cloudbreak.util.Benchmark;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 
 public abstract class AbstractMetricService implements MetricService {
 
+    @Value("${metrics.latency.percentiles:0.5,0.95,0.99}")
+    private List<Double> latencyPercentiles;
+
+    @Value("${metrics.latency.sla.ms:100,500,1000,5000,30000,60000,300000}")
+    private List<Long> latencySlaMillis;
+
+    /**
+     * Timers and distribution summaries of this service, and the ones of {@link Benchmark}, publish the configured percentiles. Timers
+     * also publish the configured SLA buckets, so latency distributions can be aggregated across instances.
+     */
+    @PostConstruct
+    void configureLatencyDistributions() {
+        Metrics.globalRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith(getMetricPrefix() + '.') && !Benchmark.METRIC_NAME.equals(id.getName())) {
+                    return config;
+                }
+                DistributionStatisticConfig.Builder latencyConfig = DistributionStatisticConfig.builder()
+                        .percentiles(latencyPercentiles.stream().mapToDouble(Double::doubleValue).toArray());
+                if (id.getType() == Meter.Type.TIMER) {
+                    latencyConfig.sla(latencySlaMillis.stream().mapToLong(TimeUnit.MILLISECONDS::toNanos).toArray());
+                }
+                return config.merge(latencyConfig.build());
+            }
+        });
+    }
+
     /**
      * Set the specified gauge value.
      *
@@ -31,6 +71,18 @@ public abstract class AbstractMetricService implements MetricService {
         Metrics.gauge(metricName, tags, value);
     }
 
+    /**
+     * Registers a gauge that reads its value from the state object whenever it is published, unlike {@link #submit} that sets a snapshot.
+     *
+     * @param metric        Metric name
+     * @param stateObject   Object the value is read from, the gauge only keeps a weak reference to it
+     * @param valueFunction Function reading the value
+     * @return the state object
+     */
+    public <T> T registerGauge(Metric metric, T stateObject, ToDoubleFunction<T> valueFunction) {
+        return Metrics.gauge(getMetricName(metric), Collections.emptyList(), stateObject, valueFunction);
+    }
+
     @Override
     public void initMicrometerMetricCounter(Metric metric) {
         initMicrometerMetricCounter(getMetricName(metric));
@@ -51,6 +103,20 @@ public abstract class AbstractMetricService implements MetricService {
         counter.increment();
     }
 
+    public void incrementMetricCounter(Metric metric, double amount, String... tags) {
+        Metrics.counter(getMetricName(metric), tags).increment(amount);
+    }
+
+    @Override
+    public void recordTimer(Metric metric, Duration duration, String... tags) {
+        Metrics.timer(getMetricName(metric), tags).record(duration);
+    }
+
+    @Override
+    public void recordDistributionSummary(Metric metric, double amount, String... tags) {
+        Metrics.summary(getMetricName(metric), tags).record(amount);
+    }
+
     protected boolean gaugeMetric(Metric metric) {
         return metric.getMetricName().contains("state") || metric.getMetricName().contains("leader") || metric.getMetricName().contains("threadpool");
     }
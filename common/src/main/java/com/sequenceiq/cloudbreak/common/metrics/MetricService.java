@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.common.metrics;
 
+import java.time.Duration;
 import java.util.Map;
 
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
@@ -12,4 +13,11 @@ public interface MetricService {
     void initMicrometerMetricCounter(Metric metric);
 
     void incrementMetricCounter(Metric metric, String... tags);
+
+    /**
+     * Records the duration into a timer, which unlike a gauge keeps the distribution of the recorded values.
+     */
+    void recordTimer(Metric metric, Duration duration, String... tags);
+
+    void recordDistributionSummary(Metric metric, double amount, String... tags);
 }
@@ -3,6 +3,8 @@ package com.sequenceiq.cloudbreak.common.metrics.type;
 public enum MetricType implements Metric {
     VAULT_READ("vault.read"),
     VAULT_READ_FAILED("vault.read.failed"),
+    VAULT_READ_PER_REQUEST("vault.read.request.count"),
+    VAULT_READ_DURATION_PER_REQUEST("vault.read.request.duration"),
     VAULT_WRITE("vault.write"),
     VAULT_WRITE_FAILED("vault.write.failed"),
     VAULT_DELETE("vault.delete"),
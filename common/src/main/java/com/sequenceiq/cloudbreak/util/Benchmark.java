@@ -1,30 +1,53 @@
 package com.sequenceiq.cloudbreak.util;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Logs the duration of the measured calls, and records every call, failed ones included, into the {@value #METRIC_NAME} timer tagged with
+ * the logger name and the log message.
+ */
 public class Benchmark {
+    public static final String METRIC_NAME = "benchmark.duration";
+
     private Benchmark() {
     }
 
     public static void measure(Runnable callback, Logger logger, String message, Object... params) {
         long start = System.currentTimeMillis();
-        callback.run();
+        try {
+            callback.run();
+        } finally {
+            recordDuration(logger, message, start);
+        }
         logDuration(logger, message, start, params);
     }
 
     public static <T> T measure(Supplier<T> callback, Logger logger, String message, Object... params) {
         long start = System.currentTimeMillis();
-        T resp = callback.get();
+        T resp;
+        try {
+            resp = callback.get();
+        } finally {
+            recordDuration(logger, message, start);
+        }
         logDuration(logger, message, start, params);
         return resp;
     }
 
     public static <T, E extends Exception> T checkedMeasure(SingleCheckedSupplier<T, E> callback, Logger logger, String message, Object... params) throws E {
         long start = System.currentTimeMillis();
-        T resp = callback.get();
+        T resp;
+        try {
+            resp = callback.get();
+        } finally {
+            recordDuration(logger, message, start);
+        }
         logDuration(logger, message, start, params);
         return resp;
     }
@@ -32,11 +55,21 @@ public class Benchmark {
     public static <T, E extends Exception, X extends Exception> T mutliCheckedMeasure(MultiCheckedSupplier<T, E, X> callback, Logger logger, String message,
             Object... params) throws E, X {
         long start = System.currentTimeMillis();
-        T resp = callback.get();
+        T resp;
+        try {
+            resp = callback.get();
+        } finally {
+            recordDuration(logger, message, start);
+        }
         logDuration(logger, message, start, params);
         return resp;
     }
 
+    private static void recordDuration(Logger logger, String message, long start) {
+        Metrics.timer(METRIC_NAME, "logger", logger.getName(), "operation", message)
+                .record(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
+    }
+
     private static void logDuration(Logger logger, String message, long start, Object[] params) {
         Object[] extParams = Stream.concat(Stream.of(System.currentTimeMillis() - start), Stream.of(params)).toArray();
         logger.debug(message, extParams);
@@ -0,0 +1,103 @@
+package com.sequenceiq.cloudbreak.cache.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CacheStatisticsEndpointTest {
+
+    private static final String CACHE_NAME = "statisticstest";
+
+    private static final String BOUND_CACHE_NAME = "metricstest";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CacheStatisticsEndpoint underTest = new CacheStatisticsEndpoint();
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        Metrics.addRegistry(meterRegistry);
+        cache = new TestCacheDefinition(CACHE_NAME).cacheConfiguration();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.afterPropertiesSet();
+        ReflectionTestUtils.setField(underTest, "cacheManagers", List.of(cacheManager));
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    public void testCacheStatistics() {
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("missing");
+        cache.get("loaded", () -> "value");
+
+        Map<String, CacheStatistics> statistics = underTest.cacheStatistics();
+
+        assertEquals(1, statistics.size());
+        CacheStatistics cacheStatistics = statistics.get(CACHE_NAME);
+        assertEquals(2, cacheStatistics.getSize());
+        assertEquals(Long.valueOf(10L), cacheStatistics.getMaximumSize());
+        assertEquals(Long.valueOf(60L), cacheStatistics.getExpireAfterWriteSeconds());
+        assertEquals(2, cacheStatistics.getHitCount());
+        assertEquals(2, cacheStatistics.getMissCount());
+        assertEquals(0.5, cacheStatistics.getHitRatio(), 0);
+        assertEquals(1, cacheStatistics.getLoadCount());
+        assertNull(underTest.cacheStatisticsOf("unknown"));
+    }
+
+    @Test
+    public void testCacheIsBoundToMeterRegistry() {
+        Cache boundCache = new TestCacheDefinition(BOUND_CACHE_NAME).cacheConfiguration();
+        boundCache.put("key", "value");
+        boundCache.get("key");
+        boundCache.get("missing");
+
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", BOUND_CACHE_NAME, "result", "hit").functionCounter().count(), 0);
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", BOUND_CACHE_NAME, "result", "miss").functionCounter().count(), 0);
+        assertEquals(1, meterRegistry.get("cache.size").tags("cache", BOUND_CACHE_NAME, "cacheManager", "cacheManager").gauge().value(), 0);
+    }
+
+    private static class TestCacheDefinition extends AbstractCacheDefinition {
+
+        private final String name;
+
+        TestCacheDefinition(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected String getName() {
+            return name;
+        }
+
+        @Override
+        protected long getMaxEntries() {
+            return 10L;
+        }
+
+        @Override
+        protected long getTimeToLiveSeconds() {
+            return 60L;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sequenceiq.cloudbreak.client;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.client.Client;
+
+import org.glassfish.jersey.client.JerseyClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public class TlsClientRegistryTest {
+
+    private static final String GATEWAY = "https://gateway:9443";
+
+    private static final long TIMEOUT_MILLIS = 5000L;
+
+    private final TlsClientRegistry underTest = new TlsClientRegistry();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxSize", 10L);
+        ReflectionTestUtils.setField(underTest, "idleTimeout", 1L);
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void testClientIsSharedForSameGatewayAndCertificates() {
+        Client client = underTest.getClient(GATEWAY, "server", null, null, false);
+
+        assertSame(client, underTest.getClient(GATEWAY, "server", null, null, false));
+        assertSame(client.getSslContext(), underTest.getSslContext(GATEWAY, "server", null, null));
+    }
+
+    @Test
+    public void testRotatedCertificateGetsNewClient() {
+        Client client = underTest.getClient(GATEWAY, "server", null, null, false);
+
+        assertNotSame(client, underTest.getClient(GATEWAY, "rotated", null, null, false));
+        assertNotSame(client, underTest.getClient("https://other:9443", "server", null, null, false));
+        assertNotSame(client, underTest.getClient(GATEWAY, "server", null, null, true));
+    }
+
+    @Test
+    public void testSharedContextAlwaysReturnsSameSocketFactory() {
+        SSLContext sslContext = underTest.getSslContext(GATEWAY, null, null, null);
+
+        assertSame(sslContext.getSocketFactory(), sslContext.getSocketFactory());
+    }
+
+    @Test
+    public void testRemovedClientIsClosedAfterTheGracePeriod() throws InterruptedException {
+        ReflectionTestUtils.setField(underTest, "closeGraceInMinutes", 0L);
+        JerseyClient client = (JerseyClient) underTest.getClient(GATEWAY, "server", null, null, false);
+
+        clients().invalidateAll();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!client.isClosed()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The removed client was not closed");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    @Test
+    public void testRemovedClientIsNotClosedDuringTheGracePeriod() throws InterruptedException {
+        ReflectionTestUtils.setField(underTest, "closeGraceInMinutes", 60L);
+        JerseyClient client = (JerseyClient) underTest.getClient(GATEWAY, "server", null, null, false);
+
+        clients().invalidateAll();
+
+        Thread.sleep(200L);
+        assertFalse(client.isClosed());
+    }
+
+    private Cache<?, Client> clients() {
+        return (Cache<?, Client>) ReflectionTestUtils.getField(underTest, "clients");
+    }
+}
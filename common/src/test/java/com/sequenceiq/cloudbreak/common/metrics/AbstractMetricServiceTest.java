@@ -0,0 +1,80 @@
+package com.sequenceiq.cloudbreak.common.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.util.Benchmark;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AbstractMetricServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AbstractMetricService underTest = new AbstractMetricService() {
+        @Override
+        protected String getMetricPrefix() {
+            return "metrictest";
+        }
+    };
+
+    @Before
+    public void setUp() {
+        Metrics.addRegistry(meterRegistry);
+        ReflectionTestUtils.setField(underTest, "latencyPercentiles", List.of(0.5, 0.99));
+        ReflectionTestUtils.setField(underTest, "latencySlaMillis", List.of(100L, 1000L));
+        underTest.configureLatencyDistributions();
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    public void testRecordTimerPublishesPercentilesAndSlaBuckets() {
+        underTest.recordTimer(() -> "latency", Duration.ofMillis(50), "operation", "first");
+        underTest.recordTimer(() -> "latency", Duration.ofMillis(500), "operation", "first");
+
+        Timer timer = meterRegistry.get("metrictest.latency").tag("operation", "first").timer();
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        assertEquals(2, timer.count());
+        assertArrayEquals(new double[]{0.5, 0.99}, Arrays.stream(snapshot.percentileValues()).mapToDouble(ValueAtPercentile::percentile).toArray(), 0);
+        assertArrayEquals(new double[]{1, 2}, Arrays.stream(snapshot.histogramCounts()).mapToDouble(CountAtBucket::count).toArray(), 0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), snapshot.histogramCounts()[0].bucket(), 0);
+    }
+
+    @Test
+    public void testRecordDistributionSummaryPublishesPercentilesOnly() {
+        underTest.recordDistributionSummary(() -> "batch.size", 3);
+
+        HistogramSnapshot snapshot = meterRegistry.get("metrictest.batch.size").summary().takeSnapshot();
+        assertEquals(2, snapshot.percentileValues().length);
+        assertEquals(0, snapshot.histogramCounts().length);
+    }
+
+    @Test
+    public void testBenchmarkRecordsDuration() {
+        Benchmark.measure(() -> { }, LoggerFactory.getLogger(AbstractMetricServiceTest.class), "Measured in {} ms");
+
+        Timer timer = meterRegistry.get(Benchmark.METRIC_NAME).tag("operation", "Measured in {} ms").timer();
+        assertEquals(1, timer.count());
+        assertEquals(2, timer.takeSnapshot().percentileValues().length);
+    }
+}
@@ -1,5 +1,9 @@
 package com.sequenceiq.cloudbreak.aspect;
 
+import java.time.Duration;
+
+import javax.inject.Inject;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -8,10 +12,16 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.service.metrics.CloudbreakMetricService;
+import com.sequenceiq.cloudbreak.service.metrics.MetricType;
+
 @Component
 @Aspect
 public class MeasureAspects {
 
+    @Inject
+    private CloudbreakMetricService metricService;
+
     @Pointcut("execution(@Measure * *(..))")
     public void isAnnotated() {
     }
@@ -24,7 +34,13 @@ public class MeasureAspects {
             return proceedingJoinPoint.proceed();
         }
         long start = System.currentTimeMillis();
-        Object resp = proceedingJoinPoint.proceed();
+        Object resp;
+        try {
+            resp = proceedingJoinPoint.proceed();
+        } finally {
+            metricService.recordTimer(MetricType.MEASURED_METHOD, Duration.ofMillis(System.currentTimeMillis() - start),
+                    "class", methodSignature.getDeclaringType().getSimpleName(), "method", methodSignature.getName());
+        }
 
         LoggerFactory.getLogger(measure.value()).debug("{}.{} took {} ms",
                 methodSignature.getDeclaringType().getSimpleName(), methodSignature.getName(), System.currentTimeMillis() - start);
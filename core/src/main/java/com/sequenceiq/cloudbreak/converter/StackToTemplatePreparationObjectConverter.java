@@ -55,6 +55,8 @@ import com.sequenceiq.cloudbreak.service.hostgroup.HostGroupService;
 import com.sequenceiq.cloudbreak.service.identitymapping.AwsMockAccountMappingService;
 import com.sequenceiq.cloudbreak.service.identitymapping.AzureMockAccountMappingService;
 import com.sequenceiq.cloudbreak.service.resource.ResourceService;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretResolutionScope;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
 import com.sequenceiq.cloudbreak.tag.AccountTagValidationFailed;
 import com.sequenceiq.cloudbreak.tag.CostTagging;
 import com.sequenceiq.cloudbreak.tag.request.CDPTagGenerationRequest;
@@ -149,15 +151,19 @@ public class StackToTemplatePreparationObjectConverter extends AbstractConversio
     @Inject
     private GatewayConfigService gatewayConfigService;
 
+    @Inject
+    private SecretService secretService;
+
     @Override
     public TemplatePreparationObject convert(Stack source) {
-        try {
+        try (SecretResolutionScope secretResolutionScope = secretService.openResolutionScope()) {
             Map<String, Collection<ClusterExposedServiceView>> views = serviceEndpointCollector
                     .prepareClusterExposedServicesViews(source.getCluster(),
                             stackUtil.extractClusterManagerAddress(source));
             DetailedEnvironmentResponse environment = environmentClientService.getByCrn(source.getEnvironmentCrn());
             Credential credential = credentialConverter.convert(environment.getCredential());
             Cluster cluster = clusterService.getById(source.getCluster().getId());
+            secretService.prefetch(source, cluster);
             FileSystem fileSystem = cluster.getFileSystem();
             Optional<LdapView> ldapView = ldapConfigService.get(source.getEnvironmentCrn(), source.getName());
             ClouderaManagerRepo cm = clusterComponentConfigProvider.getClouderaManagerRepoDetails(cluster.getId());
@@ -48,6 +48,7 @@ import com.sequenceiq.cloudbreak.service.stack.flow.InstanceSyncState;
 import com.sequenceiq.cloudbreak.service.stack.flow.StackSyncService;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
 import com.sequenceiq.statuschecker.service.JobService;
 
 @Component
@@ -88,6 +89,7 @@ public class StackStatusCheckerJob extends StatusCheckerJob {
     protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
         if (flowLogService.isOtherFlowRunning(getStackId())) {
             LOGGER.debug("StackStatusCheckerJob cannot run, because flow is running for stack: {}", getStackId());
+            reportCheckResult(StatusCheckResult.CHANGED);
             return;
         }
         try {
@@ -105,6 +107,7 @@ public class StackStatusCheckerJob extends StatusCheckerJob {
             }
         } catch (Exception e) {
             LOGGER.info("Exception during cluster state check.", e);
+            reportCheckResult(StatusCheckResult.FAILED);
         } finally {
             MDCBuilder.cleanupMdc();
         }
@@ -190,6 +193,9 @@ public class StackStatusCheckerJob extends StatusCheckerJob {
                 .filter(i -> !Set.of(SERVICES_UNHEALTHY, STOPPED).contains(i.getInstanceStatus()))
                 .map(InstanceMetaData::getDiscoveryFQDN)
                 .collect(toSet());
+        if (!newFailedNodeNames.isEmpty() || !newHealtyHostNames.isEmpty()) {
+            reportCheckResult(StatusCheckResult.CHANGED);
+        }
         ifFlowNotRunning(() -> clusterOperationService.reportHealthChange(stack.getResourceCrn(), newFailedNodeNames, newHealtyHostNames));
         ifFlowNotRunning(() -> {
             if (!failedInstances.isEmpty()) {
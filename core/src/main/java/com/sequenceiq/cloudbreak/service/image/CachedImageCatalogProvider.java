@@ -2,11 +2,15 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -14,8 +18,11 @@ import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 
 import org.apache.commons.lang3.StringUtils;
@@ -28,18 +35,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sequenceiq.cloudbreak.client.RestClientUtil;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
 import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
-import com.sequenceiq.cloudbreak.util.FileReaderUtils;
 
 @Component
 public class CachedImageCatalogProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedImageCatalogProvider.class);
 
+    private static final long MAX_VALIDATED_CATALOGS = 100L;
+
+    private static final long VALIDATED_CATALOG_RETENTION_DAYS = 1L;
+
     @Value("${cb.etc.config.dir:}")
     private String etcConfigDir;
 
@@ -49,7 +61,16 @@ public class CachedImageCatalogProvider {
     @Inject
     private ObjectMapper objectMapper;
 
-    @Cacheable(cacheNames = "imageCatalogCache", key = "#catalogUrl")
+    private final Cache<String, ValidatedImageCatalog> validatedImageCatalogs = Caffeine.newBuilder()
+            .maximumSize(MAX_VALIDATED_CATALOGS)
+            .expireAfterAccess(VALIDATED_CATALOG_RETENTION_DAYS, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * Loads the catalog at most once at a time for a URL, concurrent callers wait for the result. A catalog downloaded over HTTP is
+     * revalidated with its ETag and Last-Modified headers when it is loaded again, so an unchanged catalog is not downloaded and parsed again.
+     */
+    @Cacheable(cacheNames = "imageCatalogCache", key = "#catalogUrl", sync = true)
     public CloudbreakImageCatalogV3 getImageCatalogV3(String catalogUrl) throws CloudbreakImageCatalogException {
         CloudbreakImageCatalogV3 catalog;
         if (catalogUrl == null) {
@@ -59,20 +80,13 @@ public class CachedImageCatalogProvider {
 
         try {
             long started = System.currentTimeMillis();
-            String content;
             if (catalogUrl.startsWith("http")) {
-                Client client = RestClientUtil.get();
-                WebTarget target = client.target(catalogUrl);
-                Response response = target.request().get();
-                content = readResponse(target, response);
+                catalog = getImageCatalogFromUrl(catalogUrl);
             } else {
-                content = readCatalogFromFile(catalogUrl);
+                try (InputStream content = readCatalogFromFile(catalogUrl)) {
+                    catalog = parseImageCatalog(content);
+                }
             }
-            catalog = objectMapper.readValue(content, CloudbreakImageCatalogV3.class);
-            validateImageCatalogUuids(catalog);
-            validateCloudBreakVersions(catalog);
-            cleanAndValidateMaps(catalog);
-            catalog = filterImagesByOsType(catalog);
             long timeOfParse = System.currentTimeMillis() - started;
             LOGGER.debug("ImageCatalog has been get and parsed from '{}' and took '{}' ms.", catalogUrl, timeOfParse);
         } catch (RuntimeException e) {
@@ -85,6 +99,43 @@ public class CachedImageCatalogProvider {
         return catalog;
     }
 
+    private CloudbreakImageCatalogV3 getImageCatalogFromUrl(String catalogUrl) throws CloudbreakImageCatalogException, IOException {
+        Client client = RestClientUtil.get();
+        WebTarget target = client.target(catalogUrl);
+        Builder request = target.request();
+        ValidatedImageCatalog previous = validatedImageCatalogs.getIfPresent(catalogUrl);
+        if (previous != null) {
+            Optional.ofNullable(previous.getETag()).ifPresent(eTag -> request.header(HttpHeaders.IF_NONE_MATCH, eTag));
+            Optional.ofNullable(previous.getLastModified()).ifPresent(lastModified -> request.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified));
+        }
+        Response response = request.get();
+        if (previous != null && response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+            LOGGER.debug("ImageCatalog at '{}' has not been modified since it was last downloaded", catalogUrl);
+            response.close();
+            return previous.getCatalog();
+        }
+        CloudbreakImageCatalogV3 catalog;
+        try (InputStream content = readResponse(target, response)) {
+            catalog = parseImageCatalog(content);
+        }
+        String eTag = response.getHeaderString(HttpHeaders.ETAG);
+        String lastModified = response.getHeaderString(HttpHeaders.LAST_MODIFIED);
+        if (eTag != null || lastModified != null) {
+            validatedImageCatalogs.put(catalogUrl, new ValidatedImageCatalog(catalog, eTag, lastModified));
+        }
+        return catalog;
+    }
+
+    private CloudbreakImageCatalogV3 parseImageCatalog(InputStream content) throws IOException, CloudbreakImageCatalogException {
+        CloudbreakImageCatalogV3 catalog = objectMapper.readValue(content, CloudbreakImageCatalogV3.class);
+        validateImageCatalogUuids(catalog);
+        validateCloudBreakVersions(catalog);
+        cleanAndValidateMaps(catalog);
+        catalog = filterImagesByOsType(catalog);
+        ImageCatalogIndex.of(catalog);
+        return catalog;
+    }
+
     private CloudbreakImageCatalogV3 filterImagesByOsType(CloudbreakImageCatalogV3 catalog) {
         LOGGER.debug("Filtering images by OS type {}", getEnabledLinuxTypes());
         if (CollectionUtils.isEmpty(getEnabledLinuxTypes()) || Objects.isNull(catalog) || Objects.isNull(catalog.getImages())) {
@@ -123,20 +174,25 @@ public class CachedImageCatalogProvider {
         return enabledLinuxTypes.stream().filter(StringUtils::isNoneBlank).collect(Collectors.toList());
     }
 
-    private String readResponse(WebTarget target, Response response) throws CloudbreakImageCatalogException {
-        CloudbreakImageCatalogV3 catalog;
+    private InputStream readResponse(WebTarget target, Response response) throws CloudbreakImageCatalogException {
         if (!response.getStatusInfo().getFamily().equals(Family.SUCCESSFUL)) {
+            String reason = response.getStatusInfo().getReasonPhrase();
+            response.close();
             throw new CloudbreakImageCatalogException(String.format("Failed to get image catalog from '%s' due to: '%s'",
-                    target.getUri().toString(), response.getStatusInfo().getReasonPhrase()));
+                    target.getUri().toString(), reason));
         }
         try {
-            return response.readEntity(String.class);
+            return response.readEntity(InputStream.class);
         } catch (ProcessingException e) {
+            response.close();
             throw new CloudbreakImageCatalogException(String.format("Failed to process image catalog from '%s' due to: '%s'",
                     target.getUri().toString(), e.getMessage()));
         }
     }
 
+    /**
+     * Evicts the catalog from the cache. It is still revalidated with its ETag and Last-Modified headers when it is loaded again.
+     */
     @CacheEvict(value = "imageCatalogCache", key = "#catalogUrl")
     public void evictImageCatalogCache(String catalogUrl) {
     }
@@ -147,18 +203,18 @@ public class CachedImageCatalogProvider {
         Stream<String> uuidStream = Stream.of(baseUuids, cdhUuids).
                 reduce(Stream::concat).
                 orElseGet(Stream::empty);
-        List<String> uuidList = uuidStream.collect(Collectors.toList());
+        Set<String> uuids = uuidStream.collect(Collectors.toSet());
         List<String> orphanUuids = imageCatalog.getVersions().getCloudbreakVersions().stream().flatMap(cbv -> cbv.getImageIds().stream()).
-                filter(imageId -> !uuidList.contains(imageId)).collect(Collectors.toList());
+                filter(imageId -> !uuids.contains(imageId)).collect(Collectors.toList());
         if (!orphanUuids.isEmpty()) {
             throw new CloudbreakImageCatalogException(String.format("Images with ids: %s is not present in cdh-images block",
                     StringUtils.join(orphanUuids, ",")));
         }
     }
 
-    private String readCatalogFromFile(String catalogUrl) throws IOException {
+    private InputStream readCatalogFromFile(String catalogUrl) throws IOException {
         File customCatalogFile = new File(etcConfigDir, catalogUrl);
-        return FileReaderUtils.readFileFromPath(customCatalogFile.toPath());
+        return Files.newInputStream(customCatalogFile.toPath());
     }
 
     private void cleanAndValidateMaps(CloudbreakImageCatalogV3 catalog) throws CloudbreakImageCatalogException {
@@ -181,4 +237,31 @@ public class CachedImageCatalogProvider {
             throw new CloudbreakImageCatalogException("Cloudbreak versions cannot be NULL");
         }
     }
+
+    private static class ValidatedImageCatalog {
+
+        private final CloudbreakImageCatalogV3 catalog;
+
+        private final String eTag;
+
+        private final String lastModified;
+
+        ValidatedImageCatalog(CloudbreakImageCatalogV3 catalog, String eTag, String lastModified) {
+            this.catalog = catalog;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        public CloudbreakImageCatalogV3 getCatalog() {
+            return catalog;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package com.sequenceiq.cloudbreak.service.image;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.StackDetails;
+
+/**
+ * Immutable lookup tables of the images of a parsed image catalog. The index of a catalog is built once, when it is first requested, and
+ * is weakly keyed by the catalog instance, so it is dropped together with the last strong reference to the catalog. Besides the image
+ * catalog cache, {@link CachedImageCatalogProvider} keeps the last validated catalog of every URL for up to a day to revalidate it, so the
+ * index of a catalog can outlive its entry in the image catalog cache by that long. Every key except the uuid is matched case
+ * insensitively, and every list keeps the order of the catalog.
+ */
+public class ImageCatalogIndex {
+
+    private static final Cache<CloudbreakImageCatalogV3, ImageCatalogIndex> INDEXES = Caffeine.newBuilder().weakKeys().build();
+
+    private static final String CM_PACKAGE_KEY = "cm";
+
+    private final Map<String, Image> imagesByUuid;
+
+    private final ListMultimap<String, Image> baseImagesByProvider;
+
+    private final ListMultimap<String, Image> cdhImagesByProvider;
+
+    private final ListMultimap<String, Image> imagesByProviderAndRegion;
+
+    private final ListMultimap<String, Image> imagesByOs;
+
+    private final ListMultimap<String, Image> imagesByCmVersion;
+
+    private final ListMultimap<String, Image> cdhImagesByStackVersion;
+
+    private ImageCatalogIndex(CloudbreakImageCatalogV3 catalog) {
+        List<Image> baseImages = catalog.getImages().getBaseImages();
+        List<Image> cdhImages = catalog.getImages().getCdhImages();
+        List<Image> images = Stream.concat(baseImages.stream(), cdhImages.stream()).collect(Collectors.toList());
+        Map<String, Image> byUuid = new HashMap<>();
+        images.stream().filter(image -> image.getUuid() != null).forEach(image -> byUuid.putIfAbsent(image.getUuid(), image));
+        imagesByUuid = ImmutableMap.copyOf(byUuid);
+        baseImagesByProvider = index(baseImages, image -> getImageSetsByProvider(image).keySet().stream());
+        cdhImagesByProvider = index(cdhImages, image -> getImageSetsByProvider(image).keySet().stream());
+        imagesByProviderAndRegion = index(images, image -> getImageSetsByProvider(image).entrySet().stream()
+                .filter(regions -> regions.getValue() != null)
+                .flatMap(regions -> regions.getValue().keySet().stream().map(region -> providerAndRegion(regions.getKey(), region))));
+        imagesByOs = index(images, image -> Stream.of(image.getOs(), image.getOsType()));
+        imagesByCmVersion = index(images, image -> Optional.ofNullable(image.getPackageVersions())
+                .map(packageVersions -> packageVersions.get(CM_PACKAGE_KEY)).stream());
+        cdhImagesByStackVersion = index(cdhImages, image -> Optional.ofNullable(image.getStackDetails())
+                .map(StackDetails::getVersion).stream());
+    }
+
+    /**
+     * @return the index of the catalog, built on the first call
+     */
+    public static ImageCatalogIndex of(CloudbreakImageCatalogV3 catalog) {
+        return INDEXES.get(catalog, ImageCatalogIndex::new);
+    }
+
+    /**
+     * @return the base or CDH image with the uuid, the base image if both exist
+     */
+    public Optional<Image> getImage(String uuid) {
+        return Optional.ofNullable(uuid).map(imagesByUuid::get);
+    }
+
+    /**
+     * @return the base images, then the CDH images of the provider
+     */
+    public List<Image> getImagesByProvider(String provider) {
+        return ImmutableList.<Image>builder().addAll(getBaseImagesByProvider(provider)).addAll(getCdhImagesByProvider(provider)).build();
+    }
+
+    public List<Image> getBaseImagesByProvider(String provider) {
+        return baseImagesByProvider.get(normalize(provider));
+    }
+
+    public List<Image> getCdhImagesByProvider(String provider) {
+        return cdhImagesByProvider.get(normalize(provider));
+    }
+
+    public List<Image> getImagesByProviderAndRegion(String provider, String region) {
+        return imagesByProviderAndRegion.get(providerAndRegion(provider, region));
+    }
+
+    /**
+     * @return the images with the operating system or operating system type
+     */
+    public List<Image> getImagesByOs(String os) {
+        return imagesByOs.get(normalize(os));
+    }
+
+    public List<Image> getImagesByCmVersion(String cmVersion) {
+        return imagesByCmVersion.get(normalize(cmVersion));
+    }
+
+    public List<Image> getCdhImagesByStackVersion(String stackVersion) {
+        return cdhImagesByStackVersion.get(normalize(stackVersion));
+    }
+
+    private static ListMultimap<String, Image> index(List<Image> images, Function<Image, Stream<String>> keys) {
+        ImmutableListMultimap.Builder<String, Image> index = ImmutableListMultimap.builder();
+        images.forEach(image -> keys.apply(image).filter(Objects::nonNull).map(ImageCatalogIndex::normalize).distinct()
+                .forEach(key -> index.put(key, image)));
+        return index.build();
+    }
+
+    private static Map<String, Map<String, String>> getImageSetsByProvider(Image image) {
+        return Optional.ofNullable(image.getImageSetsByProvider()).orElse(Map.of());
+    }
+
+    private static String providerAndRegion(String provider, String region) {
+        return normalize(provider) + '/' + normalize(region);
+    }
+
+    private static String normalize(String key) {
+        return key == null ? null : key.toLowerCase(Locale.ROOT);
+    }
+}
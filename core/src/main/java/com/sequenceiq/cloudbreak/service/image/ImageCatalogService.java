@@ -15,12 +15,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -209,11 +211,19 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         Set<String> operatingSystems = imageFilter.getOperatingSystems();
         ImageCatalog imageCatalog = imageFilter.getImageCatalog();
         boolean baseImageEnabled = imageFilter.isBaseImageEnabled();
-        StatedImages images = getImages(new ImageFilter(imageCatalog, platforms, cbVersion, baseImageEnabled, null, null));
-        if (!CollectionUtils.isEmpty(operatingSystems)) {
+        ImageFilter catalogImageFilter = new ImageFilter(imageCatalog, platforms, cbVersion, baseImageEnabled, null, null);
+        validateRequestPlatforms(platforms);
+        CloudbreakImageCatalogV3 imageCatalogV3 = imageCatalogProvider.getImageCatalogV3(imageCatalog.getImageCatalogUrl());
+        StatedImages images = getImages(catalogImageFilter, imageCatalogV3);
+        if (!CollectionUtils.isEmpty(operatingSystems) && imageCatalogV3 != null) {
             Images rawImages = images.getImages();
-            List<Image> baseImages = filterImagesByOperatingSystemsAndPackageVersion(rawImages.getBaseImages(), operatingSystems, imageFilterPredicate);
-            List<Image> cdhImages = filterImagesByOperatingSystemsAndPackageVersion(rawImages.getCdhImages(), operatingSystems, imageFilterPredicate);
+            ImageCatalogIndex imageCatalogIndex = ImageCatalogIndex.of(imageCatalogV3);
+            Set<Image> osImages = Collections.newSetFromMap(new IdentityHashMap<>());
+            operatingSystems.forEach(os -> osImages.addAll(imageCatalogIndex.getImagesByOs(os)));
+            List<Image> baseImages = filterImagesByOperatingSystemsAndPackageVersion(rawImages.getBaseImages(), operatingSystems, osImages,
+                    imageFilterPredicate);
+            List<Image> cdhImages = filterImagesByOperatingSystemsAndPackageVersion(rawImages.getCdhImages(), operatingSystems, osImages,
+                    imageFilterPredicate);
             images = statedImages(new Images(baseImages, cdhImages, rawImages.getSuppertedVersions()),
                     images.getImageCatalogUrl(), images.getImageCatalogName());
         }
@@ -300,11 +310,9 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
 
     public StatedImage getImage(String catalogUrl, String catalogName, String imageId) throws CloudbreakImageNotFoundException,
             CloudbreakImageCatalogException {
-        Images images = imageCatalogProvider.getImageCatalogV3(catalogUrl).getImages();
-        Optional<? extends Image> image = getImage(imageId, images);
+        Optional<Image> image = ImageCatalogIndex.of(imageCatalogProvider.getImageCatalogV3(catalogUrl)).getImage(imageId);
         if (image.isEmpty()) {
-            images = imageCatalogProvider.getImageCatalogV3(catalogUrl, true).getImages();
-            image = getImage(imageId, images);
+            image = ImageCatalogIndex.of(imageCatalogProvider.getImageCatalogV3(catalogUrl, true)).getImage(imageId);
         }
         if (image.isEmpty()) {
             throw new CloudbreakImageNotFoundException(String.format("Could not find any image with id: '%s' in catalog:. '%s'", imageId, catalogName));
@@ -438,22 +446,16 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         return new Images(emptyList(), emptyList(), emptySet());
     }
 
-    private Optional<? extends Image> getImage(String imageId, Images images) {
-        Optional<? extends Image> image = findFirstWithImageId(imageId, images.getBaseImages());
-        if (image.isEmpty()) {
-            image = findFirstWithImageId(imageId, images.getCdhImages());
-        }
-        return image;
+    public StatedImages getImages(ImageFilter imageFilter) throws CloudbreakImageCatalogException {
+        validateRequestPlatforms(imageFilter.getPlatforms());
+        CloudbreakImageCatalogV3 imageCatalogV3 = imageCatalogProvider.getImageCatalogV3(imageFilter.getImageCatalog().getImageCatalogUrl());
+        return getImages(imageFilter, imageCatalogV3);
     }
 
-    public StatedImages getImages(ImageFilter imageFilter) throws CloudbreakImageCatalogException {
+    private StatedImages getImages(ImageFilter imageFilter, CloudbreakImageCatalogV3 imageCatalogV3) {
         LOGGER.info("Determine images for imageCatalogUrl: '{}', platforms: '{}' and Cloudbreak version: '{}'.",
                 imageFilter.getImageCatalog().getImageCatalogUrl(), imageFilter.getPlatforms(), imageFilter.getCbVersion());
         StatedImages images;
-        validateRequestPlatforms(imageFilter.getPlatforms());
-
-        CloudbreakImageCatalogV3 imageCatalogV3 = imageCatalogProvider.getImageCatalogV3(imageFilter.getImageCatalog().getImageCatalogUrl());
-
         Set<String> suppertedVersions;
         if (imageCatalogV3 != null) {
             LOGGER.info("Image catalog found, filtering the images..");
@@ -483,11 +485,12 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
             }
             LOGGER.info("The following images are matching for CB version ({}): {} ", currentCbVersion, vMImageUUIDs);
 
-            List<Image> baseImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogV3.getImages().getBaseImages(), vMImageUUIDs);
-            List<Image> cdhImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogV3.getImages().getCdhImages(), vMImageUUIDs);
+            ImageCatalogIndex imageCatalogIndex = ImageCatalogIndex.of(imageCatalogV3);
+            List<Image> baseImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogIndex::getBaseImagesByProvider, vMImageUUIDs);
+            List<Image> cdhImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogIndex::getCdhImagesByProvider, vMImageUUIDs);
 
             List<Image> defaultImages = defaultVMImageUUIDs.stream()
-                    .map(imageId -> getImage(imageId, imageCatalogV3.getImages()))
+                    .map(imageCatalogIndex::getImage)
                     .flatMap(Optional::stream)
                     .collect(Collectors.toList());
 
@@ -551,29 +554,24 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         return baseImageEnabled;
     }
 
-    private Optional<? extends Image> findFirstWithImageId(String imageId, Collection<? extends Image> images) {
-        return images.stream()
-                .filter(img -> img.getUuid().equals(imageId))
-                .findFirst();
-    }
-
-    private List<Image> filterImagesByPlatforms(Collection<String> platforms, Collection<Image> images, Collection<String> vMImageUUIDs) {
-        return images.stream()
-                .filter(isPlatformMatching(platforms, vMImageUUIDs))
+    /**
+     * Looks the images of the platforms up in the catalog index, an image of more platforms is returned once, for the first of them.
+     */
+    private List<Image> filterImagesByPlatforms(Collection<String> platforms, Function<String, List<Image>> imagesByPlatform,
+            Collection<String> vMImageUUIDs) {
+        return platforms.stream()
+                .flatMap(platform -> imagesByPlatform.apply(platform).stream())
+                .filter(img -> vMImageUUIDs.contains(img.getUuid()))
+                .distinct()
                 .collect(toList());
     }
 
-    private static Predicate<Image> isPlatformMatching(Collection<String> platforms, Collection<String> vMImageUUIDs) {
-        return img -> vMImageUUIDs.contains(img.getUuid())
-                && img.getImageSetsByProvider().keySet().stream().anyMatch(p -> platforms.stream().anyMatch(platform -> platform.equalsIgnoreCase(p)));
-    }
-
-    private List<Image> filterImagesByOperatingSystemsAndPackageVersion(List<Image> images, Set<String> operatingSystems,
+    private List<Image> filterImagesByOperatingSystemsAndPackageVersion(List<Image> images, Set<String> operatingSystems, Set<Image> osImages,
             Predicate<Image> imageFilter) {
         Map<Boolean, List<Image>> partitionedImages = images
                 .stream()
                 .filter(imageFilter)
-                .collect(partitioningBy(isMatchingOs(operatingSystems)));
+                .collect(partitioningBy(osImages::contains));
         if (!partitionedImages.get(false).isEmpty()) {
             LOGGER.debug("Used filter OS: | {} | Images filtered: {}", operatingSystems,
                     partitionedImages.get(false).stream().map(Image::shortOsDescriptionFormat).collect(Collectors.joining(", ")));
@@ -604,12 +602,6 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         return userProfileService.getOrCreate(user);
     }
 
-    private static Predicate<Image> isMatchingOs(Set<String> operatingSystems) {
-        //This predicate should be used after image burning generates the right OS into the image catalog
-        //return img -> operatingSystems.stream().anyMatch(os -> img.getOs().equalsIgnoreCase(os));
-        return img -> operatingSystems.stream().anyMatch(os -> img.getOs().equalsIgnoreCase(os) || img.getOsType().equalsIgnoreCase(os));
-    }
-
     private Optional<Image> getLatestImageDefaultPreferred(List<Image> images) {
         List<Image> defaultImages = images.stream().filter(Image::isDefaultImage).collect(toList());
         return defaultImages.isEmpty() ? images.stream().max(getImageComparing(images)) : defaultImages.stream().max(getImageComparing(defaultImages));
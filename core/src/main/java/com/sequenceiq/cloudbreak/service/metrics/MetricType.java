@@ -25,10 +25,19 @@ public enum MetricType implements Metric {
 
     STACK_PREPARATION("stack.preparation.duration"),
 
+    MEASURED_METHOD("measured.method.duration"),
+
     EXTERNAL_DATABASE_CREATION_SUCCESSFUL("externaldatabase.creation.successful"),
     EXTERNAL_DATABASE_CREATION_FAILED("externaldatabase.creation.failed"),
     EXTERNAL_DATABASE_TERMINATION_SUCCESSFUL("externaldatabase.termination.successful"),
-    EXTERNAL_DATABASE_TERMINATION_FAILED("externaldatabase.termination.failed");
+    EXTERNAL_DATABASE_TERMINATION_FAILED("externaldatabase.termination.failed"),
+
+    STATUS_CHECK_PROVIDER_QUERY("statuscheck.provider.query"),
+    STATUS_CHECK_PROVIDER_QUERY_SAVED("statuscheck.provider.query.saved"),
+
+    STRUCTURED_EVENT_PIPELINE_QUEUE_DEPTH("structuredevent.pipeline.queue.depth"),
+    STRUCTURED_EVENT_PIPELINE_DROPPED("structuredevent.pipeline.dropped"),
+    STRUCTURED_EVENT_PIPELINE_FLUSH("structuredevent.pipeline.flush.duration");
 
     private final String metricName;
 
@@ -0,0 +1,236 @@
+package com.sequenceiq.cloudbreak.service.stack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudPlatformVariant;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerScheduledExecutor;
+import com.sequenceiq.cloudbreak.service.metrics.CloudbreakMetricService;
+import com.sequenceiq.cloudbreak.service.metrics.MetricType;
+
+/**
+ * Batches the provider status queries of the stack status checker jobs when {@code cb.statuschecker.batch.enabled} is set.
+ * <p>
+ * Every stack has its own status checker job, and each job used to authenticate and describe the instances of its own stack. The queries of
+ * the jobs that run within {@code cb.statuschecker.batch.window.ms} are grouped by platform variant, credential and region. Each group is
+ * authenticated once and checked with {@link InstanceStateQuery#getCloudVmInstanceStatusesInBatch}, and every job gets the statuses of its
+ * own instances back. A group is sent earlier if it reaches {@code cb.statuschecker.batch.max.instances}. Providers that can not check the
+ * instances of several stacks together are queried stack by stack, as before.
+ */
+@Service
+public class InstanceStatusBatchQueryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstanceStatusBatchQueryService.class);
+
+    @Value("${cb.statuschecker.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cb.statuschecker.batch.window.ms:5000}")
+    private long window;
+
+    @Value("${cb.statuschecker.batch.max.instances:1000}")
+    private int maxInstances;
+
+    @Value("${cb.statuschecker.batch.timeout.ms:300000}")
+    private long timeout;
+
+    @Value("${cb.statuschecker.batch.threads:4}")
+    private int threads;
+
+    @Inject
+    private InstanceStateQuery instanceStateQuery;
+
+    @Inject
+    private CloudbreakMetricService metricService;
+
+    private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            executor = new MDCCleanerScheduledExecutor(threads, new ThreadFactoryBuilder().setNameFormat("status-batch-%d").build());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled(CloudContext cloudContext) {
+        return enabled && instanceStateQuery.isBatchedCheckSupported(cloudContext);
+    }
+
+    public List<CloudVmInstanceStatus> query(CloudCredential cloudCredential, CloudContext cloudContext, List<CloudInstance> instances) {
+        CompletableFuture<List<CloudVmInstanceStatus>> result = addToBatch(cloudCredential, cloudContext, instances);
+        try {
+            return result.get(window + timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudbreakServiceException("Interrupted while waiting for the batched instance status query", e);
+        } catch (ExecutionException e) {
+            throw new CloudbreakServiceException("Batched instance status query failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new CloudbreakServiceException("Batched instance status query timed out", e);
+        }
+    }
+
+    private synchronized CompletableFuture<List<CloudVmInstanceStatus>> addToBatch(CloudCredential cloudCredential, CloudContext cloudContext,
+            List<CloudInstance> instances) {
+        BatchKey key = new BatchKey(cloudContext, cloudCredential);
+        Batch batch = openBatches.computeIfAbsent(key, k -> {
+            Batch newBatch = new Batch(cloudCredential, cloudContext);
+            executor.schedule(() -> send(k, newBatch), window, TimeUnit.MILLISECONDS);
+            return newBatch;
+        });
+        CompletableFuture<List<CloudVmInstanceStatus>> result = batch.add(instances);
+        if (batch.getInstanceCount() >= maxInstances) {
+            executor.execute(() -> send(key, batch));
+        }
+        return result;
+    }
+
+    private void send(BatchKey key, Batch batch) {
+        synchronized (this) {
+            openBatches.remove(key, batch);
+        }
+        if (batch.close()) {
+            batch.send();
+        }
+    }
+
+    private class Batch {
+
+        private final CloudCredential cloudCredential;
+
+        private final CloudContext cloudContext;
+
+        private final List<Request> requests = new ArrayList<>();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private int instanceCount;
+
+        Batch(CloudCredential cloudCredential, CloudContext cloudContext) {
+            this.cloudCredential = cloudCredential;
+            this.cloudContext = cloudContext;
+        }
+
+        CompletableFuture<List<CloudVmInstanceStatus>> add(List<CloudInstance> instances) {
+            Request request = new Request(instances);
+            requests.add(request);
+            instanceCount += instances.size();
+            return request.result;
+        }
+
+        int getInstanceCount() {
+            return instanceCount;
+        }
+
+        boolean close() {
+            return closed.compareAndSet(false, true);
+        }
+
+        void send() {
+            List<CloudInstance> instances = requests.stream().flatMap(request -> request.instances.stream()).collect(Collectors.toList());
+            LOGGER.debug("Query the status of {} instances of {} stacks in region {} together", instances.size(), requests.size(),
+                    cloudContext.getLocation().getRegion().value());
+            metricService.incrementMetricCounter(MetricType.STATUS_CHECK_PROVIDER_QUERY);
+            metricService.incrementMetricCounter(MetricType.STATUS_CHECK_PROVIDER_QUERY_SAVED, requests.size() - 1);
+            try {
+                Map<CloudInstance, CloudVmInstanceStatus> statuses = instanceStateQuery
+                        .getCloudVmInstanceStatusesInBatch(cloudCredential, cloudContext, instances).stream()
+                        .collect(Collectors.toMap(CloudVmInstanceStatus::getCloudInstance, Function.identity(), (first, second) -> first,
+                                IdentityHashMap::new));
+                requests.forEach(request -> request.result.complete(request.instances.stream()
+                        .map(statuses::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList())));
+            } catch (RuntimeException e) {
+                LOGGER.info("Batched instance status query failed in region {}", cloudContext.getLocation().getRegion().value(), e);
+                requests.forEach(request -> request.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private static class Request {
+
+        private final List<CloudInstance> instances;
+
+        private final CompletableFuture<List<CloudVmInstanceStatus>> result = new CompletableFuture<>();
+
+        Request(List<CloudInstance> instances) {
+            this.instances = instances;
+        }
+    }
+
+    private static class BatchKey {
+
+        private final CloudPlatformVariant platformVariant;
+
+        private final String credentialId;
+
+        private final String credentialName;
+
+        private final String region;
+
+        BatchKey(CloudContext cloudContext, CloudCredential cloudCredential) {
+            platformVariant = cloudContext.getPlatformVariant();
+            credentialId = cloudCredential.getId();
+            credentialName = cloudCredential.getName();
+            region = cloudContext.getLocation().getRegion().value();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return Objects.equals(platformVariant, batchKey.platformVariant)
+                    && Objects.equals(credentialId, batchKey.credentialId)
+                    && Objects.equals(credentialName, batchKey.credentialName)
+                    && Objects.equals(region, batchKey.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(platformVariant, credentialId, credentialName, region);
+        }
+    }
+}
@@ -36,6 +36,9 @@ public class StackInstanceStatusChecker {
     @Inject
     private InstanceStateQuery instanceStateQuery;
 
+    @Inject
+    private InstanceStatusBatchQueryService instanceStatusBatchQueryService;
+
     @Inject
     private EnvironmentInternalCrnClient environmentInternalCrnClient;
 
@@ -63,7 +66,9 @@ public class StackInstanceStatusChecker {
             CloudContext cloudContext, CloudCredential cloudCredential) {
         List<CloudVmInstanceStatus> instanceStatuses;
         try {
-            instanceStatuses = instanceStateQuery.getCloudVmInstanceStatuses(cloudCredential, cloudContext, cloudInstances);
+            instanceStatuses = instanceStatusBatchQueryService.isEnabled(cloudContext)
+                    ? instanceStatusBatchQueryService.query(cloudCredential, cloudContext, cloudInstances)
+                    : instanceStateQuery.getCloudVmInstanceStatuses(cloudCredential, cloudContext, cloudInstances);
         } catch (RuntimeException e) {
             instanceStatuses = cloudInstances.stream()
                     .map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.UNKNOWN))
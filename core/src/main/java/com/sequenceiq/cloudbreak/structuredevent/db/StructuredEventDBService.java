@@ -2,6 +2,7 @@ package com.sequenceiq.cloudbreak.structuredevent.db;
 
 import static com.sequenceiq.cloudbreak.exception.NotFoundException.notFound;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.StackType;
 import com.sequenceiq.cloudbreak.common.anonymizer.AnonymizerUtil;
+import com.sequenceiq.cloudbreak.common.json.Json;
 import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.domain.StructuredEventEntity;
 import com.sequenceiq.cloudbreak.domain.stack.Stack;
@@ -26,12 +28,14 @@ import com.sequenceiq.cloudbreak.domain.view.StackView;
 import com.sequenceiq.cloudbreak.service.AbstractWorkspaceAwareResourceService;
 import com.sequenceiq.cloudbreak.service.stack.StackService;
 import com.sequenceiq.cloudbreak.structuredevent.StructuredEventService;
+import com.sequenceiq.cloudbreak.structuredevent.db.converter.StructuredEventToStructuredEventEntityConverter;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEventContainer;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEventType;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredFlowEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredNotificationEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
 import com.sequenceiq.cloudbreak.workspace.model.User;
 import com.sequenceiq.cloudbreak.workspace.model.Workspace;
 import com.sequenceiq.cloudbreak.workspace.repository.workspace.WorkspaceResourceRepository;
@@ -44,6 +48,9 @@ public class StructuredEventDBService extends AbstractWorkspaceAwareResourceServ
     @Inject
     private ConversionService conversionService;
 
+    @Inject
+    private StructuredEventToStructuredEventEntityConverter structuredEventToStructuredEventEntityConverter;
+
     @Inject
     private StructuredEventRepository structuredEventRepository;
 
@@ -61,6 +68,54 @@ public class StructuredEventDBService extends AbstractWorkspaceAwareResourceServ
         create(structuredEventEntityEntity, structuredEventEntityEntity.getWorkspace(), null);
     }
 
+    /**
+     * Stores a batch of events, flushed by the {@link StructuredEventDBSink}, with a single save so Hibernate can send the inserts in JDBC
+     * batches. If the batch can not be saved, e.g. because one of its events violates a constraint, the events are saved one by one, so a
+     * single bad event does not lose the whole batch.
+     *
+     * @return the events that could not be stored
+     */
+    public List<SerializedStructuredEvent> createAll(List<SerializedStructuredEvent> structuredEvents) {
+        List<SerializedStructuredEvent> storedEvents = new ArrayList<>(structuredEvents.size());
+        List<StructuredEventEntity> structuredEventEntities = new ArrayList<>(structuredEvents.size());
+        List<SerializedStructuredEvent> failedEvents = new ArrayList<>();
+        for (SerializedStructuredEvent structuredEvent : structuredEvents) {
+            LOGGER.info("Stored StructuredEvent type: {}, payload: {}", structuredEvent.getEvent().getType(),
+                    AnonymizerUtil.anonymize(structuredEvent.getJson()));
+            try {
+                StructuredEventEntity structuredEventEntity = convert(structuredEvent);
+                if (structuredEventEntity != null) {
+                    storedEvents.add(structuredEvent);
+                    structuredEventEntities.add(structuredEventEntity);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to convert {} structured event", structuredEvent.getEvent().getType(), e);
+                failedEvents.add(structuredEvent);
+            }
+        }
+        try {
+            repository().saveAll(structuredEventEntities);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to store {} structured events in one batch, storing them one by one", structuredEventEntities.size(), e);
+            for (SerializedStructuredEvent structuredEvent : storedEvents) {
+                try {
+                    repository().save(convert(structuredEvent));
+                } catch (RuntimeException ex) {
+                    LOGGER.error("Failed to store {} structured event", structuredEvent.getEvent().getType(), ex);
+                    failedEvents.add(structuredEvent);
+                }
+            }
+        }
+        return failedEvents;
+    }
+
+    /**
+     * The entities of a failed batch may have got their ids already, so they are converted again for the one by one save.
+     */
+    private StructuredEventEntity convert(SerializedStructuredEvent structuredEvent) {
+        return structuredEventToStructuredEventEntityConverter.convert(structuredEvent.getEvent(), new Json(structuredEvent.getJson()));
+    }
+
     @Override
     public StructuredEventEntity create(StructuredEventEntity resource, @Nonnull Long workspaceId, User user) {
         Workspace workspace = getWorkspaceService().getByIdWithoutAuth(workspaceId);
@@ -73,8 +128,13 @@ public class StructuredEventDBService extends AbstractWorkspaceAwareResourceServ
         return repository().save(resource);
     }
 
+    /**
+     * The events sent with the structured event client are stored in batches by the {@link StructuredEventDBSink} of the structured event
+     * pipeline, {@link #create(StructuredEvent)} is left to the callers that store an event right away.
+     */
+    @Override
     public boolean isEnabled() {
-        return true;
+        return false;
     }
 
     @Override
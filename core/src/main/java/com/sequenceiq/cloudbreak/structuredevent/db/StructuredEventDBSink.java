@@ -0,0 +1,27 @@
+package com.sequenceiq.cloudbreak.structuredevent.db;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.StructuredEventSink;
+
+@Component
+public class StructuredEventDBSink implements StructuredEventSink {
+
+    @Inject
+    private StructuredEventDBService structuredEventDBService;
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public List<SerializedStructuredEvent> write(List<SerializedStructuredEvent> events) {
+        return structuredEventDBService.createAll(events);
+    }
+}
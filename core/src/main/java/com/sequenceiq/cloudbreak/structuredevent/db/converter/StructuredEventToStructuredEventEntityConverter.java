@@ -28,9 +28,21 @@ public class StructuredEventToStructuredEventEntityConverter extends AbstractCon
 
     @Override
     public StructuredEventEntity convert(StructuredEvent source) {
+        try {
+            return convert(source, new Json(source));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to parse structured event JSON", e);
+            return null;
+        }
+    }
+
+    /**
+     * Converts the event with the JSON it has already been written to, so it is not written again.
+     */
+    public StructuredEventEntity convert(StructuredEvent source, Json structuredEventJson) {
         try {
             StructuredEventEntity structuredEventEntity = new StructuredEventEntity();
-            structuredEventEntity.setStructuredEventJson(new Json(source));
+            structuredEventEntity.setStructuredEventJson(structuredEventJson);
             OperationDetails operationDetails = source.getOperation();
             structuredEventEntity.setEventType(operationDetails.getEventType());
             structuredEventEntity.setResourceType(operationDetails.getResourceType());
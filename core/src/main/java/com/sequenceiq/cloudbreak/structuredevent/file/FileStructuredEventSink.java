@@ -0,0 +1,49 @@
+package com.sequenceiq.cloudbreak.structuredevent.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.structuredevent.conf.StructuredEventEnablementConfig;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.StructuredEventSink;
+
+@Component
+public class FileStructuredEventSink implements StructuredEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileStructuredEventSink.class);
+
+    @Inject
+    private StructuredEventEnablementConfig structuredEventEnablementConfig;
+
+    @Override
+    public boolean isEnabled() {
+        return structuredEventEnablementConfig.isFilePathConfigured();
+    }
+
+    @Override
+    public synchronized List<SerializedStructuredEvent> write(List<SerializedStructuredEvent> events) {
+        File file = new File(structuredEventEnablementConfig.getAuditFilePath());
+        StringBuilder lines = new StringBuilder();
+        for (SerializedStructuredEvent event : events) {
+            lines.append(event.getJson()).append('\n');
+        }
+        try {
+            FileUtils.writeStringToFile(file, lines.toString(), StandardCharsets.UTF_8, true);
+            LOGGER.trace("{} structured events have been sent to file: {}", events.size(), file.getAbsolutePath());
+            return Collections.emptyList();
+        } catch (IOException e) {
+            LOGGER.error("Can not write structured events to file " + file.getAbsolutePath(), e);
+            return events;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.sequenceiq.cloudbreak.structuredevent.kafka;
+
+import static com.sequenceiq.cloudbreak.common.anonymizer.AnonymizerUtil.REPLACEMENT;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Inject;
+
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+import com.sequenceiq.cloudbreak.structuredevent.conf.StructuredEventEnablementConfig;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestRequestDetails;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestResponseDetails;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.StructuredEventSink;
+
+@Component
+public class KafkaStructuredEventSink implements StructuredEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaStructuredEventSink.class);
+
+    private static final String REST_CALL_EVENT_TYPE = "StructuredRestCallEvent";
+
+    @Inject
+    private StructuredEventEnablementConfig structuredEventEnablementConfig;
+
+    @Inject
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Override
+    public boolean isEnabled() {
+        return structuredEventEnablementConfig.isKafkaConfigured();
+    }
+
+    @Override
+    public List<SerializedStructuredEvent> write(List<SerializedStructuredEvent> events) {
+        List<SerializedStructuredEvent> failedEvents = new ArrayList<>();
+        Map<SerializedStructuredEvent, ListenableFuture<SendResult<String, String>>> sendResultFutures = new LinkedHashMap<>();
+        for (SerializedStructuredEvent event : events) {
+            String topicByType = getTopicNameForEvent(event.getEvent());
+            try {
+                sendResultFutures.put(event, kafkaTemplate.send(topicByType, getMessage(event)));
+            } catch (InvalidTopicException e) {
+                LOGGER.error("Structured event invalid topic name {}", topicByType, e);
+                failedEvents.add(event);
+            } catch (IOException e) {
+                LOGGER.error("Structured event json processing error", e);
+                failedEvents.add(event);
+            }
+        }
+        for (Map.Entry<SerializedStructuredEvent, ListenableFuture<SendResult<String, String>>> sendResultFuture : sendResultFutures.entrySet()) {
+            try {
+                SendResult<String, String> sendResult = sendResultFuture.getValue().get();
+                LOGGER.trace("Structured event sent to kafka: {}", sendResult.getProducerRecord());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Interrupted while sending structured events to kafka", e);
+                failedEvents.add(sendResultFuture.getKey());
+            } catch (ExecutionException e) {
+                LOGGER.error("Error happened in message sending to kafka", e);
+                failedEvents.add(sendResultFuture.getKey());
+            }
+        }
+        return failedEvents;
+    }
+
+    /**
+     * REST call events are sent without their bodies and headers. They are sanitized on a copy read back from the JSON, because the same event
+     * is also stored by the other sinks.
+     */
+    private String getMessage(SerializedStructuredEvent event) throws IOException {
+        if (!REST_CALL_EVENT_TYPE.equals(event.getEvent().getType())) {
+            return event.getJson();
+        }
+        StructuredEvent restEvent = JsonUtil.readValue(event.getJson(), StructuredRestCallEvent.class);
+        sanitizeSensitiveRestData(restEvent);
+        return JsonUtil.writeValueAsString(restEvent);
+    }
+
+    protected void sanitizeSensitiveRestData(StructuredEvent event) {
+        if (REST_CALL_EVENT_TYPE.equals(event.getType())) {
+            StructuredRestCallEvent restEvent = (StructuredRestCallEvent) event;
+            RestRequestDetails restRequestDetails = restEvent.getRestCall().getRestRequest();
+            restRequestDetails.setBody(REPLACEMENT);
+            restRequestDetails.setHeaders(new HashMap());
+            RestResponseDetails restResponseDetails = restEvent.getRestCall().getRestResponse();
+            restResponseDetails.setBody(REPLACEMENT);
+            restResponseDetails.setHeaders(new HashMap<>());
+        }
+    }
+
+    private String getTopicNameForEvent(StructuredEvent event) {
+        return "cb" + event.getType();
+    }
+}
@@ -0,0 +1,26 @@
+package com.sequenceiq.cloudbreak.structuredevent.pipeline;
+
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
+
+/**
+ * A structured event together with its JSON, written once by the {@link StructuredEventPipeline} and shared by every sink.
+ */
+public class SerializedStructuredEvent {
+
+    private final StructuredEvent event;
+
+    private final String json;
+
+    public SerializedStructuredEvent(StructuredEvent event, String json) {
+        this.event = event;
+        this.json = json;
+    }
+
+    public StructuredEvent getEvent() {
+        return event;
+    }
+
+    public String getJson() {
+        return json;
+    }
+}
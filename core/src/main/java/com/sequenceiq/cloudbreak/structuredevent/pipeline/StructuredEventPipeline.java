@@ -0,0 +1,251 @@
+package com.sequenceiq.cloudbreak.structuredevent.pipeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+import com.sequenceiq.cloudbreak.service.metrics.CloudbreakMetricService;
+import com.sequenceiq.cloudbreak.service.metrics.MetricType;
+import com.sequenceiq.cloudbreak.structuredevent.StructuredEventSenderService;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestCallDetails;
+
+/**
+ * Collects the structured events sent by the REST filter and the flows in a bounded queue, and hands them to the enabled
+ * {@link StructuredEventSink}s in batches on its own thread, so the callers do not wait for the file, database and Kafka writes.
+ * <p>
+ * Every event is written as JSON once per batch and shared by the sinks. A batch is flushed every {@code cb.structuredevent.pipeline.flush
+ * .interval.ms}, or earlier when {@code cb.structuredevent.pipeline.flush.size} events are waiting. When the queue is full, the
+ * {@code cb.structuredevent.pipeline.overflow.policy} decides: {@link OverflowPolicy#CALLER_RUNS} writes the event on the calling thread as
+ * before, the drop policies give up the newest or the oldest event and count it. The writes on the calling threads are serialized with the
+ * flushes, so a sink is never called by two threads at the same time.
+ * <p>
+ * The queue is also bounded by the size of the REST call bodies it holds. {@code StructuredEventFilter} cuts the request and the response
+ * body at 64 KiB each, so a queue of {@code cb.structuredevent.pipeline.queue.capacity} REST call events could hold up to capacity x 128 KiB
+ * of bodies, more than a gigabyte with the default capacity. Once the queued bodies reach {@code cb.structuredevent.pipeline.queue.body
+ * .limit} characters, the queue counts as full for the events that have a body. The events that a sink fails to write are counted as dropped
+ * as well, tagged with the name of the sink.
+ */
+@Component
+public class StructuredEventPipeline implements StructuredEventSenderService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StructuredEventPipeline.class);
+
+    private static final String NO_SINK = "none";
+
+    private static final String SERIALIZATION_FAILED = "SERIALIZATION_FAILED";
+
+    private static final String WRITE_FAILED = "WRITE_FAILED";
+
+    @Value("${cb.structuredevent.pipeline.queue.capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${cb.structuredevent.pipeline.flush.size:100}")
+    private int flushSize;
+
+    @Value("${cb.structuredevent.pipeline.flush.interval.ms:1000}")
+    private long flushInterval;
+
+    @Value("${cb.structuredevent.pipeline.overflow.policy:CALLER_RUNS}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${cb.structuredevent.pipeline.queue.body.limit:33554432}")
+    private long queueBodyLimit;
+
+    @Inject
+    private List<StructuredEventSink> sinks;
+
+    @Inject
+    private CloudbreakMetricService metricService;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong queuedBodySize = new AtomicLong();
+
+    private BlockingQueue<StructuredEvent> queue;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        metricService.registerGauge(MetricType.STRUCTURED_EVENT_PIPELINE_QUEUE_DEPTH, queue, Collection::size);
+        metricService.initMicrometerMetricCounter(MetricType.STRUCTURED_EVENT_PIPELINE_DROPPED);
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("structured-event-pipeline-%d").build());
+        executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(flushInterval, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Structured event pipeline did not stop in {} ms", flushInterval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return sinks.stream().anyMatch(StructuredEventSink::isEnabled);
+    }
+
+    @Override
+    public void create(StructuredEvent structuredEvent) {
+        if (enqueue(structuredEvent)) {
+            if (queue.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+                requestFlush();
+            }
+        } else {
+            overflow(structuredEvent);
+        }
+    }
+
+    synchronized void flush() {
+        flushRequested.set(false);
+        List<StructuredEvent> batch = new ArrayList<>(flushSize);
+        while (queue.drainTo(batch, flushSize) > 0) {
+            queuedBodySize.addAndGet(-batch.stream().mapToLong(this::bodySize).sum());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private boolean enqueue(StructuredEvent structuredEvent) {
+        long bodySize = bodySize(structuredEvent);
+        if (bodySize > 0 && queuedBodySize.addAndGet(bodySize) > queueBodyLimit) {
+            queuedBodySize.addAndGet(-bodySize);
+            return false;
+        }
+        if (!queue.offer(structuredEvent)) {
+            queuedBodySize.addAndGet(-bodySize);
+            return false;
+        }
+        return true;
+    }
+
+    private StructuredEvent dequeue() {
+        StructuredEvent structuredEvent = queue.poll();
+        if (structuredEvent != null) {
+            queuedBodySize.addAndGet(-bodySize(structuredEvent));
+        }
+        return structuredEvent;
+    }
+
+    private long bodySize(StructuredEvent structuredEvent) {
+        if (!(structuredEvent instanceof StructuredRestCallEvent) || ((StructuredRestCallEvent) structuredEvent).getRestCall() == null) {
+            return 0L;
+        }
+        RestCallDetails restCall = ((StructuredRestCallEvent) structuredEvent).getRestCall();
+        long size = 0L;
+        if (restCall.getRestRequest() != null && restCall.getRestRequest().getBody() != null) {
+            size += restCall.getRestRequest().getBody().length();
+        }
+        if (restCall.getRestResponse() != null && restCall.getRestResponse().getBody() != null) {
+            size += restCall.getRestResponse().getBody().length();
+        }
+        return size;
+    }
+
+    private void requestFlush() {
+        try {
+            executor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Structured event pipeline is stopping, the events are flushed by the shutdown", e);
+        }
+    }
+
+    private void overflow(StructuredEvent structuredEvent) {
+        switch (overflowPolicy) {
+            case CALLER_RUNS:
+                writeOnCaller(structuredEvent);
+                break;
+            case DROP_OLDEST:
+                StructuredEvent oldest = dequeue();
+                if (oldest != null) {
+                    drop(oldest, overflowPolicy.name(), NO_SINK);
+                }
+                if (!enqueue(structuredEvent)) {
+                    drop(structuredEvent, overflowPolicy.name(), NO_SINK);
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                drop(structuredEvent, overflowPolicy.name(), NO_SINK);
+                break;
+        }
+    }
+
+    private synchronized void writeOnCaller(StructuredEvent structuredEvent) {
+        write(List.of(structuredEvent));
+    }
+
+    private void drop(StructuredEvent structuredEvent, String reason, String sink) {
+        LOGGER.debug("Dropping {} event of {} {}, reason: {}, sink: {}", structuredEvent.getType(),
+                structuredEvent.getOperation() != null ? structuredEvent.getOperation().getResourceType() : null,
+                structuredEvent.getOperation() != null ? structuredEvent.getOperation().getResourceId() : null, reason, sink);
+        metricService.incrementMetricCounter(MetricType.STRUCTURED_EVENT_PIPELINE_DROPPED, "reason", reason, "sink", sink,
+                "type", String.valueOf(structuredEvent.getType()));
+    }
+
+    private void write(List<StructuredEvent> events) {
+        List<StructuredEventSink> enabledSinks = sinks.stream().filter(StructuredEventSink::isEnabled).collect(Collectors.toList());
+        if (enabledSinks.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<SerializedStructuredEvent> serializedEvents = new ArrayList<>(events.size());
+        for (StructuredEvent event : events) {
+            try {
+                serializedEvents.add(new SerializedStructuredEvent(event, JsonUtil.writeValueAsString(event)));
+            } catch (JsonProcessingException e) {
+                LOGGER.error("Structured event json processing error, the {} event is not sent", event.getType(), e);
+                drop(event, SERIALIZATION_FAILED, NO_SINK);
+            }
+        }
+        for (StructuredEventSink sink : enabledSinks) {
+            String sinkName = sink.getClass().getSimpleName();
+            List<SerializedStructuredEvent> failedEvents;
+            try {
+                failedEvents = sink.write(serializedEvents);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to write {} structured events with {}", serializedEvents.size(), sinkName, e);
+                failedEvents = serializedEvents;
+            }
+            failedEvents.forEach(failedEvent -> drop(failedEvent.getEvent(), WRITE_FAILED, sinkName));
+        }
+        metricService.recordTimer(MetricType.STRUCTURED_EVENT_PIPELINE_FLUSH, Duration.ofMillis(System.currentTimeMillis() - start));
+    }
+
+    public enum OverflowPolicy {
+        CALLER_RUNS,
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+}
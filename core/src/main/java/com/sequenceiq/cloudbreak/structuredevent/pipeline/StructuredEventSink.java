@@ -0,0 +1,17 @@
+package com.sequenceiq.cloudbreak.structuredevent.pipeline;
+
+import java.util.List;
+
+/**
+ * Destination of the batches flushed by the {@link StructuredEventPipeline}. A sink handles its own errors, a failing sink does not stop
+ * the batch from reaching the others. The pipeline calls a sink from one thread at a time.
+ */
+public interface StructuredEventSink {
+
+    boolean isEnabled();
+
+    /**
+     * Writes the batch and returns the events that could not be written, the pipeline counts them as dropped.
+     */
+    List<SerializedStructuredEvent> write(List<SerializedStructuredEvent> events);
+}
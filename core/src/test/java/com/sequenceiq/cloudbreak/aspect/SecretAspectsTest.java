@@ -1,13 +1,18 @@
 package com.sequenceiq.cloudbreak.aspect;
 
 import static org.hamcrest.Matchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.Assert;
@@ -113,7 +118,7 @@ public class SecretAspectsTest {
 
         underTest.proceedOnRepositorySave(proceedingJoinPoint);
 
-        verify(secretService, times(1)).put(anyString(), eq("raw"));
+        verify(secretService, times(1)).putAll(argThat(values -> values.size() == 1 && values.containsValue("raw")));
 
         Assert.assertTrue(dummyEntity.secret instanceof SecretProxy);
     }
@@ -126,11 +131,30 @@ public class SecretAspectsTest {
 
         underTest.proceedOnRepositorySaveAll(proceedingJoinPoint);
 
-        verify(secretService, times(1)).put(anyString(), eq("raw"));
+        verify(secretService, times(1)).putAll(argThat(values -> values.size() == 1 && values.containsValue("raw")));
 
         Assert.assertTrue(dummyEntity.secret instanceof SecretProxy);
     }
 
+    @Test
+    public void testproceedSaveAllEntitiesStoresSecretsInOneBatch() throws Exception {
+        DummyTenantAwareResourceEntity first = new DummyTenantAwareResourceEntity(new Secret("raw1"));
+        DummyTenantAwareResourceEntity second = new DummyTenantAwareResourceEntity(new Secret("raw2"));
+        when(proceedingJoinPoint.getArgs()).thenReturn(new Object[] { List.of(first, second) });
+        when(tenant.getName()).thenReturn("tenant");
+        when(secretService.putAll(anyMap())).then(i -> {
+            Map<String, String> values = i.getArgument(0);
+            return values.keySet().stream().collect(Collectors.toMap(Function.identity(), path -> "secret:" + values.get(path)));
+        });
+
+        underTest.proceedOnRepositorySaveAll(proceedingJoinPoint);
+
+        verify(secretService, times(1)).putAll(argThat(values -> values.size() == 2 && values.containsValue("raw1") && values.containsValue("raw2")));
+        verify(secretService, times(0)).put(anyString(), anyString());
+        Assert.assertEquals("secret:raw1", first.secret.getSecret());
+        Assert.assertEquals("secret:raw2", second.secret.getSecret());
+    }
+
     @Test
     public void testproceedDeleteEntityNotContainsSecret() {
         when(proceedingJoinPoint.getArgs()).thenReturn(new String[] { "test" });
@@ -180,6 +204,7 @@ public class SecretAspectsTest {
 
     private void verifySecretManagementIgnoredDuringSave(Secret secret) throws Exception {
         verify(secretService, times(0)).put(anyString(), anyString());
+        verify(secretService, times(0)).putAll(anyMap());
 
         Assert.assertFalse(secret instanceof SecretProxy);
     }
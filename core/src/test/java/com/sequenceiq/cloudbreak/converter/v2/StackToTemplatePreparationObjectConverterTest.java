@@ -77,6 +77,7 @@ import com.sequenceiq.cloudbreak.service.environment.tag.AccountTagClientService
 import com.sequenceiq.cloudbreak.service.hostgroup.HostGroupService;
 import com.sequenceiq.cloudbreak.service.identitymapping.AwsMockAccountMappingService;
 import com.sequenceiq.cloudbreak.service.resource.ResourceService;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
 import com.sequenceiq.cloudbreak.tag.CostTagging;
 import com.sequenceiq.cloudbreak.template.TemplatePreparationObject;
 import com.sequenceiq.cloudbreak.template.filesystem.BaseFileSystemConfigurationsView;
@@ -225,6 +226,9 @@ public class StackToTemplatePreparationObjectConverterTest {
     @Mock
     private GatewayConfigService gatewayConfigService;
 
+    @Mock
+    private SecretService secretService;
+
     @Before
     public void setUp() throws IOException {
         MockitoAnnotations.initMocks(this);
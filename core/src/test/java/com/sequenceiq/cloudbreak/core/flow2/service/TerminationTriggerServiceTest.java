@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -17,9 +18,11 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.Status;
@@ -34,6 +37,9 @@ import com.sequenceiq.cloudbreak.kerberos.KerberosConfigService;
 import com.sequenceiq.cloudbreak.reactor.api.event.stack.TerminationEvent;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.FlowLogService;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
+import com.sequenceiq.flow.core.codec.KryoFlowPayloadCodec;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.service.FlowCancelService;
 
@@ -57,6 +63,9 @@ public class TerminationTriggerServiceTest {
     @Mock
     private ApplicationFlowInformation applicationFlowInformation;
 
+    @Spy
+    private FlowPayloadCodecService flowPayloadCodecService = createFlowPayloadCodecService();
+
     @InjectMocks
     private TerminationTriggerService underTest;
 
@@ -197,6 +206,20 @@ public class TerminationTriggerServiceTest {
         verify(flowCancelService).cancelFlowSilently(flowLog);
     }
 
+    @Test
+    public void whenStackNotDeletedAndNotForcedLegacyJsonIoTerminationFlowLogAndForcedShouldTerminate() {
+        FlowLog flowLog = getTerminationFlowLog(false);
+        flowLog.setPayload(JsonWriter.objectToJson(new TerminationEvent("selector", 1L, false)));
+        flowLog.setPayloadCodec(null);
+        when(flowLogService.findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(anyLong())).thenReturn(List.of(flowLog));
+        setupKerberized();
+
+        underTest.triggerTermination(getAvailableStack(), true);
+
+        verifyTerminationEventFired(true, true);
+        verify(flowCancelService).cancelFlowSilently(flowLog);
+    }
+
     @Test
     public void whenStackDeletedShouldNotTerminate() {
         Stack stack = stackWithStatus(Status.DELETE_COMPLETED);
@@ -257,8 +280,18 @@ public class TerminationTriggerServiceTest {
         flowLog.setFlowType(StackTerminationFlowConfig.class);
         flowLog.setCurrentState("INIT_STATE");
         TerminationEvent event = new TerminationEvent("selector", 1L, forced);
-        flowLog.setPayload(JsonWriter.objectToJson(event));
+        flowPayloadCodecService.encode(flowLog, event, Map.of());
         flowLog.setPayloadType(TerminationEvent.class);
         return flowLog;
     }
+
+    private static FlowPayloadCodecService createFlowPayloadCodecService() {
+        FlowPayloadCodecService service = new FlowPayloadCodecService();
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec(Map.of());
+        ReflectionTestUtils.setField(service, "writeCodecName", KryoFlowPayloadCodec.NAME);
+        ReflectionTestUtils.setField(service, "codecs", List.of(new KryoFlowPayloadCodec(true, 1024), jsonIoFlowPayloadCodec));
+        ReflectionTestUtils.setField(service, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        service.init();
+        return service;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,11 @@ package com.sequenceiq.cloudbreak.orchestrator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.junit.Test;
 import org.slf4j.MDC;
@@ -42,6 +47,37 @@ public class SimpleOrchestratorBootstrapRunnerTest {
         assertNull(result);
     }
 
+    @Test
+    public void submittedBootstrapSucceedsAfterRetries() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Boolean result = new OrchestratorBootstrapRunner(new MockBootstrapRunner(2),
+                    new MockExitCriteria(),
+                    new MockExitCriteriaModel(),
+                    MDC.getCopyOfContextMap(), 3, 1, 3).submit(scheduler).get();
+            assertEquals(true, result);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void submittedBootstrapFailsWhenRetriesExhausted() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            new OrchestratorBootstrapRunner(new MockBootstrapRunner(-1),
+                    new MockExitCriteria(),
+                    new MockExitCriteriaModel(),
+                    MDC.getCopyOfContextMap(), 2, 1, 2).submit(scheduler).get();
+            fail("Expected the submitted bootstrap to fail");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof CloudbreakOrchestratorTimeoutException);
+            assertTrue(exception.getCause().getMessage().contains(EXCEPTION_MESSAGE));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
     private static class MockBootstrapRunner implements OrchestratorBootstrap {
 
         private int count;
@@ -0,0 +1,82 @@
+package com.sequenceiq.cloudbreak.service.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+
+class ImageCatalogIndexTest {
+
+    private static final String BASE_IMAGE_UUID = "f6e778fc-7f17-4535-9021-515351df3691";
+
+    private static final String SECOND_BASE_IMAGE_UUID = "7aca1fa6-980c-44e2-a75e-3144b18a5993";
+
+    private static final String CDH_IMAGE_UUID = "666aa8bf-bc1a-4cc6-43f1-427b4432c8c2";
+
+    private CloudbreakImageCatalogV3 catalog;
+
+    private ImageCatalogIndex underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        catalog = readCatalog();
+        underTest = ImageCatalogIndex.of(catalog);
+    }
+
+    @Test
+    void testIndexIsBuiltOncePerCatalog() throws IOException {
+        assertSame(underTest, ImageCatalogIndex.of(catalog));
+        assertNotSame(underTest, ImageCatalogIndex.of(readCatalog()));
+    }
+
+    @Test
+    void testGetImage() {
+        assertSame(catalog.getImages().getBaseImages().get(0), underTest.getImage(BASE_IMAGE_UUID).get());
+        assertSame(catalog.getImages().getCdhImages().get(0), underTest.getImage(CDH_IMAGE_UUID).get());
+        assertTrue(underTest.getImage("unknown").isEmpty());
+        assertTrue(underTest.getImage(null).isEmpty());
+    }
+
+    @Test
+    void testGetImagesByProviderAndRegion() {
+        assertEquals(List.of(BASE_IMAGE_UUID, SECOND_BASE_IMAGE_UUID), uuids(underTest.getImagesByProvider("GCP")));
+        assertEquals(List.of(BASE_IMAGE_UUID, SECOND_BASE_IMAGE_UUID), uuids(underTest.getBaseImagesByProvider("gcp")));
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getCdhImagesByProvider("Azure")));
+        assertEquals(List.of(BASE_IMAGE_UUID, SECOND_BASE_IMAGE_UUID), uuids(underTest.getImagesByProviderAndRegion("aws", "eu-west-1")));
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getImagesByProviderAndRegion("azure", "france central")));
+        assertTrue(underTest.getImagesByProviderAndRegion("aws", "unknown").isEmpty());
+    }
+
+    @Test
+    void testGetImagesByOs() {
+        assertEquals(List.of(BASE_IMAGE_UUID, SECOND_BASE_IMAGE_UUID), uuids(underTest.getImagesByOs("amazonlinux")));
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getImagesByOs("centos7")));
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getImagesByOs("RedHat7")));
+    }
+
+    @Test
+    void testGetImagesByVersions() {
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getImagesByCmVersion("6.1.1")));
+        assertEquals(List.of(CDH_IMAGE_UUID), uuids(underTest.getCdhImagesByStackVersion("6.1.1")));
+        assertTrue(underTest.getCdhImagesByStackVersion("7.0.0").isEmpty());
+    }
+
+    private List<String> uuids(List<Image> images) {
+        return images.stream().map(Image::getUuid).collect(Collectors.toList());
+    }
+
+    private CloudbreakImageCatalogV3 readCatalog() throws IOException {
+        return new ObjectMapper().readValue(getClass().getResourceAsStream("cb-image-catalog-v2.json"), CloudbreakImageCatalogV3.class);
+    }
+}
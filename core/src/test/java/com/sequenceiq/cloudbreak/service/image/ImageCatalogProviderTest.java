@@ -2,11 +2,22 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
@@ -18,11 +29,12 @@ import java.util.stream.Collectors;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 import javax.ws.rs.core.Response.StatusType;
 
-import org.apache.commons.io.FileUtils;
 import org.assertj.core.util.Lists;
 import org.junit.Assert;
 import org.junit.Before;
@@ -225,7 +237,7 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn(FileUtils.readFileToString(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new FileInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
@@ -249,7 +261,7 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn("image catalog");
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream("image catalog".getBytes()));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
@@ -257,6 +269,76 @@ public class ImageCatalogProviderTest {
         underTest.getImageCatalogV3(catalogUrl);
     }
 
+    @Test
+    public void testHttpImageCatalogNotModified() throws CloudbreakImageCatalogException, IOException {
+        String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
+        String catalogUrl = "http";
+
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new FileInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
+        when(responseMock.getHeaderString(HttpHeaders.ETAG)).thenReturn("\"etag\"");
+
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
+        ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
+
+        CloudbreakImageCatalogV3 downloadedCatalog = underTest.getImageCatalogV3(catalogUrl);
+        when(responseMock.getStatus()).thenReturn(Status.NOT_MODIFIED.getStatusCode());
+        CloudbreakImageCatalogV3 revalidatedCatalog = underTest.getImageCatalogV3(catalogUrl);
+
+        assertSame(downloadedCatalog, revalidatedCatalog);
+        verify(builderMock).header(HttpHeaders.IF_NONE_MATCH, "\"etag\"");
+        verify(builderMock, never()).header(eq(HttpHeaders.IF_MODIFIED_SINCE), any());
+        verify(responseMock, times(1)).readEntity(InputStream.class);
+    }
+
+    @Test
+    public void testHttpImageCatalogWithoutValidatorsIsDownloadedAgain() throws CloudbreakImageCatalogException, IOException {
+        String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
+        String catalogUrl = "http";
+
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
+        when(responseMock.readEntity(InputStream.class)).then(invocation -> new FileInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
+
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
+        ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
+
+        underTest.getImageCatalogV3(catalogUrl);
+        underTest.getImageCatalogV3(catalogUrl);
+
+        verify(builderMock, never()).header(any(), any());
+        verify(responseMock, times(2)).readEntity(InputStream.class);
+    }
+
+    @Test
+    public void testHttpImageCatalogErrorResponseIsClosed() {
+        String catalogUrl = "http";
+
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Family.SERVER_ERROR);
+        when(statusTypeMock.getReasonPhrase()).thenReturn("Service Unavailable");
+        when(webTargetMock.getUri()).thenReturn(URI.create("http://localhost/catalog.json"));
+
+        try {
+            underTest.getImageCatalogV3(catalogUrl);
+            fail("The image catalog should not be read from an error response");
+        } catch (CloudbreakImageCatalogException e) {
+            assertEquals("Failed to get image catalog from 'http://localhost/catalog.json' due to: 'Service Unavailable'", e.getMessage());
+        }
+        verify(responseMock).close();
+        verify(responseMock, never()).readEntity(InputStream.class);
+    }
+
     @Test
     public void testImageCatalogWithEmptyCloudBreakVersions() {
         String path = getPath(CB_IMAGE_CATALOG_EMPTY_CLOUDBREAK_VERSIONS_JSON);
@@ -0,0 +1,138 @@
+package com.sequenceiq.cloudbreak.service.stack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.Location;
+import com.sequenceiq.cloudbreak.cloud.model.Region;
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.cloudbreak.service.metrics.CloudbreakMetricService;
+import com.sequenceiq.cloudbreak.service.metrics.MetricType;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceStatusBatchQueryServiceTest {
+
+    private static final long WINDOW = 200L;
+
+    private static final long TIMEOUT_SEC = 5L;
+
+    @InjectMocks
+    private InstanceStatusBatchQueryService underTest;
+
+    @Mock
+    private InstanceStateQuery instanceStateQuery;
+
+    @Mock
+    private CloudbreakMetricService metricService;
+
+    private final CloudCredential credential = new CloudCredential("crn", "credential");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "window", WINDOW);
+        ReflectionTestUtils.setField(underTest, "maxInstances", 100);
+        ReflectionTestUtils.setField(underTest, "timeout", TimeUnit.SECONDS.toMillis(TIMEOUT_SEC));
+        ReflectionTestUtils.setField(underTest, "threads", 2);
+        underTest.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void testStacksOfTheSameRegionAreQueriedTogether() throws Exception {
+        when(instanceStateQuery.getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList())).then(invocation -> started(invocation.getArgument(2)));
+        List<CloudInstance> stack1Instances = List.of(new CloudInstance("i-1", null, null), new CloudInstance("i-2", null, null));
+        List<CloudInstance> stack2Instances = List.of(new CloudInstance("i-3", null, null));
+
+        CompletableFuture<List<CloudVmInstanceStatus>> stack1Result = CompletableFuture.supplyAsync(
+                () -> underTest.query(credential, cloudContext(1L, "eu-west-1"), stack1Instances));
+        CompletableFuture<List<CloudVmInstanceStatus>> stack2Result = CompletableFuture.supplyAsync(
+                () -> underTest.query(credential, cloudContext(2L, "eu-west-1"), stack2Instances));
+
+        assertThat(instanceIds(stack1Result.get(TIMEOUT_SEC, TimeUnit.SECONDS))).containsExactly("i-1", "i-2");
+        assertThat(instanceIds(stack2Result.get(TIMEOUT_SEC, TimeUnit.SECONDS))).containsExactly("i-3");
+        verify(instanceStateQuery, times(1)).getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList());
+        verify(metricService).incrementMetricCounter(MetricType.STATUS_CHECK_PROVIDER_QUERY_SAVED, 1);
+    }
+
+    @Test
+    void testStacksOfDifferentRegionsAreQueriedSeparately() throws Exception {
+        when(instanceStateQuery.getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList())).then(invocation -> started(invocation.getArgument(2)));
+
+        CompletableFuture<List<CloudVmInstanceStatus>> stack1Result = CompletableFuture.supplyAsync(
+                () -> underTest.query(credential, cloudContext(1L, "eu-west-1"), List.of(new CloudInstance("i-1", null, null))));
+        CompletableFuture<List<CloudVmInstanceStatus>> stack2Result = CompletableFuture.supplyAsync(
+                () -> underTest.query(credential, cloudContext(2L, "us-west-2"), List.of(new CloudInstance("i-2", null, null))));
+
+        assertThat(instanceIds(stack1Result.get(TIMEOUT_SEC, TimeUnit.SECONDS))).containsExactly("i-1");
+        assertThat(instanceIds(stack2Result.get(TIMEOUT_SEC, TimeUnit.SECONDS))).containsExactly("i-2");
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList());
+    }
+
+    @Test
+    void testFullBatchIsSentBeforeTheWindowEnds() throws Exception {
+        ReflectionTestUtils.setField(underTest, "window", TimeUnit.SECONDS.toMillis(TIMEOUT_SEC * 2));
+        ReflectionTestUtils.setField(underTest, "maxInstances", 1);
+        CountDownLatch queried = new CountDownLatch(1);
+        when(instanceStateQuery.getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList())).then(invocation -> {
+            queried.countDown();
+            return started(invocation.getArgument(2));
+        });
+
+        List<CloudVmInstanceStatus> result = underTest.query(credential, cloudContext(1L, "eu-west-1"), List.of(new CloudInstance("i-1", null, null)));
+
+        assertThat(queried.await(0L, TimeUnit.SECONDS)).isTrue();
+        assertThat(instanceIds(result)).containsExactly("i-1");
+    }
+
+    @Test
+    void testFailureIsReportedToEveryStackOfTheBatch() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesInBatch(eq(credential), any(), anyList())).thenThrow(new IllegalStateException("throttled"));
+
+        assertThrows(CloudbreakServiceException.class,
+                () -> underTest.query(credential, cloudContext(1L, "eu-west-1"), List.of(new CloudInstance("i-1", null, null))));
+    }
+
+    private CloudContext cloudContext(Long stackId, String region) {
+        return new CloudContext(stackId, "stack" + stackId, "AWS", "AWS", Location.location(Region.region(region)), "user", "account");
+    }
+
+    private List<CloudVmInstanceStatus> started(List<CloudInstance> instances) {
+        return instances.stream().map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.STARTED)).collect(Collectors.toList());
+    }
+
+    private List<String> instanceIds(List<CloudVmInstanceStatus> statuses) {
+        return statuses.stream().map(status -> status.getCloudInstance().getInstanceId()).collect(Collectors.toList());
+    }
+}
@@ -42,6 +42,9 @@ class StackInstanceStatusCheckerTest {
     @Mock
     private InstanceStateQuery instanceStateQuery;
 
+    @Mock
+    private InstanceStatusBatchQueryService instanceStatusBatchQueryService;
+
     @Mock
     private EnvironmentInternalCrnClient environmentInternalCrnClient;
 
@@ -89,6 +92,18 @@ class StackInstanceStatusCheckerTest {
         verify(instanceStateQuery).getCloudVmInstanceStatuses(any(), any(), any());
     }
 
+    @Test
+    void shouldQueryInBatchWhenBatchingIsEnabled() {
+        setUpCredentials();
+        instanceMetaData.add(new InstanceMetaData());
+        when(instanceStatusBatchQueryService.isEnabled(any())).thenReturn(true);
+
+        underTest.queryInstanceStatuses(stack, instanceMetaData);
+
+        verify(instanceStatusBatchQueryService).query(any(), any(), any());
+        verify(instanceStateQuery, never()).getCloudVmInstanceStatuses(any(), any(), any());
+    }
+
     @Test
     void shouldReportUnknownStatusWhenStatusQueryFails() {
         setUpCredentials();
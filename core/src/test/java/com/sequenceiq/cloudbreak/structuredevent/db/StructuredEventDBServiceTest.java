@@ -0,0 +1,83 @@
+package com.sequenceiq.cloudbreak.structuredevent.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.sequenceiq.cloudbreak.common.json.Json;
+import com.sequenceiq.cloudbreak.domain.StructuredEventEntity;
+import com.sequenceiq.cloudbreak.structuredevent.db.converter.StructuredEventToStructuredEventEntityConverter;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredNotificationEvent;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
+
+@ExtendWith(MockitoExtension.class)
+class StructuredEventDBServiceTest {
+
+    @Mock
+    private StructuredEventToStructuredEventEntityConverter structuredEventToStructuredEventEntityConverter;
+
+    @Mock
+    private StructuredEventRepository structuredEventRepository;
+
+    @InjectMocks
+    private StructuredEventDBService underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(structuredEventToStructuredEventEntityConverter.convert(any(StructuredEvent.class), any(Json.class))).thenAnswer(invocation -> {
+            StructuredEventEntity entity = new StructuredEventEntity();
+            entity.setResourceType(invocation.getArgument(0, StructuredEvent.class).getType());
+            return entity;
+        });
+    }
+
+    @Test
+    void testEventsAreStoredInOneBatch() {
+        List<SerializedStructuredEvent> failedEvents = underTest.createAll(List.of(event("first"), event("second")));
+
+        assertTrue(failedEvents.isEmpty());
+        verify(structuredEventRepository).saveAll(argThat(entities -> ((List<?>) entities).size() == 2));
+        verify(structuredEventRepository, never()).save(any());
+    }
+
+    @Test
+    void testEventsAreStoredOneByOneWhenTheBatchFails() {
+        when(structuredEventRepository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("batch failed"));
+        when(structuredEventRepository.save(any(StructuredEventEntity.class))).thenAnswer(invocation -> {
+            StructuredEventEntity entity = invocation.getArgument(0);
+            if ("bad".equals(entity.getResourceType())) {
+                throw new DataIntegrityViolationException("bad event");
+            }
+            return entity;
+        });
+        SerializedStructuredEvent bad = event("bad");
+
+        List<SerializedStructuredEvent> failedEvents = underTest.createAll(List.of(event("first"), bad, event("second")));
+
+        assertEquals(List.of(bad), failedEvents);
+        verify(structuredEventRepository, times(3)).save(any(StructuredEventEntity.class));
+    }
+
+    private SerializedStructuredEvent event(String type) {
+        StructuredNotificationEvent event = new StructuredNotificationEvent();
+        event.setType(type);
+        return new SerializedStructuredEvent(event, "{\"type\":\"" + type + "\"}");
+    }
+}
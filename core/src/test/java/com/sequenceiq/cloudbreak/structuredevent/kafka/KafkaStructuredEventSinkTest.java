@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.structuredevent.kafka;
 
 import static com.sequenceiq.cloudbreak.common.anonymizer.AnonymizerUtil.REPLACEMENT;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -8,10 +9,12 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -20,17 +23,16 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.util.concurrent.ListenableFuture;
 
 import com.google.common.collect.ImmutableMap;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.conf.StructuredEventSenderConfig;
-import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestCallDetails;
 import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestRequestDetails;
 import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestResponseDetails;
-
-import reactor.bus.Event;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.SerializedStructuredEvent;
 
 @RunWith(MockitoJUnitRunner.class)
-public class KafkaStructuredEventHandlerTest {
+public class KafkaStructuredEventSinkTest {
 
     @Mock
     private StructuredEventSenderConfig structuredEventSenderConfig;
@@ -39,20 +41,35 @@ public class KafkaStructuredEventHandlerTest {
     private KafkaTemplate<String, String> kafkaTemplate;
 
     @InjectMocks
-    private KafkaStructuredEventHandler classIntest;
+    private KafkaStructuredEventSink classIntest;
 
     @Test
-    public void checkEventTypeBasedTopicDistribution() throws ExecutionException, InterruptedException {
+    public void checkEventTypeBasedTopicDistribution() throws Exception {
         StructuredRestCallEvent structuredEvent = createDummyStructuredRestEvent();
-        Event<StructuredEvent> event = new Event<>(structuredEvent);
+        SerializedStructuredEvent event = new SerializedStructuredEvent(structuredEvent, JsonUtil.writeValueAsString(structuredEvent));
         ListenableFuture<SendResult<String, String>> futures = generateMockFutureWrappers();
         when(kafkaTemplate.send(eq("cbStructuredRestCallEvent"), anyString())).thenReturn(futures);
 
-        classIntest.accept(event);
+        classIntest.write(List.of(event));
 
         verify(kafkaTemplate).send(eq("cbStructuredRestCallEvent"), anyString());
     }
 
+    @Test
+    public void checkRestDataIsSanitizedOnACopy() throws Exception {
+        StructuredRestCallEvent structuredEvent = createDummyStructuredRestEvent();
+        SerializedStructuredEvent event = new SerializedStructuredEvent(structuredEvent, JsonUtil.writeValueAsString(structuredEvent));
+        ListenableFuture<SendResult<String, String>> futures = generateMockFutureWrappers();
+        when(kafkaTemplate.send(eq("cbStructuredRestCallEvent"), anyString())).thenReturn(futures);
+
+        classIntest.write(List.of(event));
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("cbStructuredRestCallEvent"), message.capture());
+        assertFalse("Should be sanitized from Kafka event", message.getValue().contains("RequestBodyContent"));
+        assertTrue("Should be left intact for the other sinks", structuredEvent.getRestCall().getRestRequest().getBody().equals("RequestBodyContent"));
+    }
+
     @Test
     public void checkIfPropertiesGetFilteredWithCustomMapper() {
         StructuredRestCallEvent restEvent = createDummyStructuredRestEvent();
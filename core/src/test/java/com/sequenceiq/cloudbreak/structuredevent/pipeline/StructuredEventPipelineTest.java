@@ -0,0 +1,266 @@
+package com.sequenceiq.cloudbreak.structuredevent.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.service.metrics.CloudbreakMetricService;
+import com.sequenceiq.cloudbreak.service.metrics.MetricType;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredNotificationEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestCallDetails;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestRequestDetails;
+import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestResponseDetails;
+import com.sequenceiq.cloudbreak.structuredevent.pipeline.StructuredEventPipeline.OverflowPolicy;
+
+@ExtendWith(MockitoExtension.class)
+class StructuredEventPipelineTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+
+    private static final long FLUSH_INTERVAL = 3_600_000L;
+
+    private static final int BODY_SIZE = 1000;
+
+    private static final long TIMEOUT_MILLIS = 5000L;
+
+    @Mock
+    private StructuredEventSink sink;
+
+    @Mock
+    private StructuredEventSink disabledSink;
+
+    @Mock
+    private CloudbreakMetricService metricService;
+
+    @InjectMocks
+    private StructuredEventPipeline underTest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "sinks", List.of(sink, disabledSink));
+        ReflectionTestUtils.setField(underTest, "queueCapacity", QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(underTest, "flushSize", QUEUE_CAPACITY + 1);
+        ReflectionTestUtils.setField(underTest, "flushInterval", FLUSH_INTERVAL);
+        ReflectionTestUtils.setField(underTest, "queueBodyLimit", Long.MAX_VALUE);
+        when(sink.isEnabled()).thenReturn(true);
+        when(disabledSink.isEnabled()).thenReturn(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void testEventsAreWrittenInOneBatchToTheEnabledSinks() {
+        init(OverflowPolicy.DROP_NEWEST);
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        verify(sink, never()).write(any());
+
+        underTest.flush();
+
+        List<SerializedStructuredEvent> written = captureWrittenEvents(1).get(0);
+        assertEquals(List.of("first", "second"), types(written));
+        assertTrue(written.get(0).getJson().contains("\"type\":\"first\""));
+        verify(disabledSink, never()).write(any());
+    }
+
+    @Test
+    void testDropNewestKeepsTheQueuedEvents() {
+        init(OverflowPolicy.DROP_NEWEST);
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        underTest.create(event("third"));
+        underTest.flush();
+
+        assertEquals(List.of("first", "second"), types(captureWrittenEvents(1).get(0)));
+        verifyDropped("DROP_NEWEST", "none", "third");
+    }
+
+    @Test
+    void testDropOldestMakesRoomForTheNewEvent() {
+        init(OverflowPolicy.DROP_OLDEST);
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        underTest.create(event("third"));
+        underTest.flush();
+
+        assertEquals(List.of("second", "third"), types(captureWrittenEvents(1).get(0)));
+        verifyDropped("DROP_OLDEST", "none", "first");
+    }
+
+    @Test
+    void testCallerRunsWritesTheEventWhenTheQueueIsFull() {
+        init(OverflowPolicy.CALLER_RUNS);
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        underTest.create(event("third"));
+        underTest.flush();
+
+        List<List<SerializedStructuredEvent>> batches = captureWrittenEvents(2);
+        assertEquals(List.of("third"), types(batches.get(0)));
+        assertEquals(List.of("first", "second"), types(batches.get(1)));
+        verify(metricService, never()).incrementMetricCounter(eq(MetricType.STRUCTURED_EVENT_PIPELINE_DROPPED), any(String[].class));
+    }
+
+    @Test
+    void testCallerRunsWaitsForTheRunningFlush() throws Exception {
+        init(OverflowPolicy.CALLER_RUNS);
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        AtomicInteger runningWrites = new AtomicInteger();
+        AtomicInteger maxRunningWrites = new AtomicInteger();
+        when(sink.write(any())).thenAnswer(invocation -> {
+            maxRunningWrites.accumulateAndGet(runningWrites.incrementAndGet(), Math::max);
+            flushStarted.countDown();
+            releaseFlush.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            runningWrites.decrementAndGet();
+            return List.of();
+        });
+        underTest.create(event("first"));
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(underTest::flush);
+        flushStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        underTest.create(event("second"));
+        underTest.create(event("third"));
+
+        Thread caller = new Thread(() -> underTest.create(event("fourth")), "structured-event-caller");
+        caller.start();
+        awaitBlocked(caller);
+        releaseFlush.countDown();
+        caller.join(TIMEOUT_MILLIS);
+        flush.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, maxRunningWrites.get());
+        List<List<SerializedStructuredEvent>> batches = captureWrittenEvents(3);
+        assertEquals(List.of("first"), types(batches.get(0)));
+        assertEquals(List.of("second", "third"), types(batches.get(1)));
+        assertEquals(List.of("fourth"), types(batches.get(2)));
+    }
+
+    @Test
+    void testEventsNotWrittenBySinkAreCountedAsDropped() {
+        init(OverflowPolicy.DROP_NEWEST);
+        when(sink.write(any())).thenAnswer(invocation -> List.of(invocation.getArgument(0, List.class).get(1)));
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        underTest.flush();
+
+        verifyDropped("WRITE_FAILED", sink.getClass().getSimpleName(), "second");
+        verify(metricService, never()).incrementMetricCounter(eq(MetricType.STRUCTURED_EVENT_PIPELINE_DROPPED), eq("reason"), eq("WRITE_FAILED"),
+                eq("sink"), any(), eq("type"), eq("first"));
+    }
+
+    @Test
+    void testFailingSinkDropsTheWholeBatch() {
+        init(OverflowPolicy.DROP_NEWEST);
+        when(sink.write(any())).thenThrow(new IllegalStateException("sink failed"));
+
+        underTest.create(event("first"));
+        underTest.create(event("second"));
+        underTest.flush();
+
+        verifyDropped("WRITE_FAILED", sink.getClass().getSimpleName(), "first");
+        verifyDropped("WRITE_FAILED", sink.getClass().getSimpleName(), "second");
+    }
+
+    @Test
+    void testRestBodiesOverTheLimitCountAsFullQueue() {
+        ReflectionTestUtils.setField(underTest, "queueBodyLimit", (long) BODY_SIZE * 3 / 2);
+        init(OverflowPolicy.DROP_NEWEST);
+
+        underTest.create(restEvent("first"));
+        underTest.create(restEvent("second"));
+        underTest.flush();
+        underTest.create(event("notification"));
+        underTest.create(restEvent("third"));
+        underTest.flush();
+
+        List<List<SerializedStructuredEvent>> batches = captureWrittenEvents(2);
+        assertEquals(List.of("first"), types(batches.get(0)));
+        assertEquals(List.of("notification", "third"), types(batches.get(1)));
+        verifyDropped("DROP_NEWEST", "none", "second");
+    }
+
+    private void init(OverflowPolicy overflowPolicy) {
+        ReflectionTestUtils.setField(underTest, "overflowPolicy", overflowPolicy);
+        underTest.init();
+    }
+
+    private void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.BLOCKED) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(thread.getName() + " did not wait for the flush, state: " + thread.getState());
+            }
+            Thread.sleep(1L);
+        }
+    }
+
+    private List<List<SerializedStructuredEvent>> captureWrittenEvents(int batchCount) {
+        ArgumentCaptor<List<SerializedStructuredEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sink, times(batchCount)).write(captor.capture());
+        return captor.getAllValues().stream().map(ArrayList::new).collect(Collectors.toList());
+    }
+
+    private void verifyDropped(String reason, String sinkName, String type) {
+        verify(metricService).incrementMetricCounter(eq(MetricType.STRUCTURED_EVENT_PIPELINE_DROPPED), eq("reason"), eq(reason),
+                eq("sink"), eq(sinkName), eq("type"), eq(type));
+    }
+
+    private List<String> types(List<SerializedStructuredEvent> events) {
+        return events.stream().map(SerializedStructuredEvent::getEvent).map(StructuredEvent::getType).collect(Collectors.toList());
+    }
+
+    private StructuredEvent restEvent(String type) {
+        RestRequestDetails restRequest = new RestRequestDetails();
+        restRequest.setBody("r".repeat(BODY_SIZE / 2));
+        RestResponseDetails restResponse = new RestResponseDetails();
+        restResponse.setBody("r".repeat(BODY_SIZE / 2));
+        restResponse.setStatusCode(200);
+        RestCallDetails restCall = new RestCallDetails();
+        restCall.setRestRequest(restRequest);
+        restCall.setRestResponse(restResponse);
+        StructuredRestCallEvent event = new StructuredRestCallEvent();
+        event.setType(type);
+        event.setRestCall(restCall);
+        return event;
+    }
+
+    private StructuredEvent event(String type) {
+        StructuredNotificationEvent event = new StructuredNotificationEvent();
+        event.setType(type);
+        return event;
+    }
+}
@@ -16,6 +16,13 @@ public class Node implements Comparable<Node> {
     @Column(nullable = false)
     private long lastUpdated;
 
+    private int runningFlows;
+
+    private Long leaseExpiry;
+
+    @Column(nullable = false)
+    private long assignmentVersion;
+
     @Version
     private Long version;
 
@@ -42,6 +49,30 @@ public class Node implements Comparable<Node> {
         this.lastUpdated = lastUpdated;
     }
 
+    public int getRunningFlows() {
+        return runningFlows;
+    }
+
+    public void setRunningFlows(int runningFlows) {
+        this.runningFlows = runningFlows;
+    }
+
+    public Long getLeaseExpiry() {
+        return leaseExpiry;
+    }
+
+    public void setLeaseExpiry(Long leaseExpiry) {
+        this.leaseExpiry = leaseExpiry;
+    }
+
+    public long getAssignmentVersion() {
+        return assignmentVersion;
+    }
+
+    public void setAssignmentVersion(long assignmentVersion) {
+        this.assignmentVersion = assignmentVersion;
+    }
+
     public Long getVersion() {
         return version;
     }
@@ -79,6 +110,8 @@ public class Node implements Comparable<Node> {
         StringBuilder sb = new StringBuilder("Node{");
         sb.append("uuid='").append(uuid).append('\'');
         sb.append(", lastUpdated=").append(lastUpdated);
+        sb.append(", runningFlows=").append(runningFlows);
+        sb.append(", leaseExpiry=").append(leaseExpiry);
         sb.append('}');
         return sb.toString();
     }
@@ -1,9 +1,14 @@
 package com.sequenceiq.cloudbreak.ha.repository;
 
+import java.util.Collection;
+
 import javax.transaction.Transactional;
 import javax.transaction.Transactional.TxType;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.sequenceiq.cloudbreak.ha.domain.Node;
 import com.sequenceiq.cloudbreak.workspace.repository.EntityType;
@@ -11,4 +16,19 @@ import com.sequenceiq.cloudbreak.workspace.repository.EntityType;
 @EntityType(entityClass = Node.class)
 @Transactional(TxType.REQUIRED)
 public interface NodeRepository extends JpaRepository<Node, String> {
+
+    @Query(value = "INSERT INTO node (uuid, lastupdated, leaseexpiry, runningflows, version) "
+            + "VALUES (:uuid, :lastUpdated, :leaseExpiry, :runningFlows, 0) "
+            + "ON CONFLICT (uuid) DO UPDATE SET lastupdated = EXCLUDED.lastupdated, leaseexpiry = EXCLUDED.leaseexpiry, "
+            + "runningflows = EXCLUDED.runningflows, version = node.version + 1 "
+            + "RETURNING assignmentversion", nativeQuery = true)
+    long renewLease(@Param("uuid") String uuid, @Param("lastUpdated") long lastUpdated, @Param("leaseExpiry") long leaseExpiry,
+            @Param("runningFlows") int runningFlows);
+
+    @Modifying
+    @Query("UPDATE Node n SET n.assignmentVersion = n.assignmentVersion + 1 WHERE n.uuid IN (:uuids)")
+    int incrementAssignmentVersion(@Param("uuids") Collection<String> uuids);
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryTransactionLock(@Param("key") long key);
 }
@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.ha.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -8,4 +9,12 @@ import com.sequenceiq.cloudbreak.ha.domain.Node;
 public interface FlowDistributor {
 
     Map<Node, List<String>> distribute(List<String> flows, List<Node> nodes);
+
+    /**
+     * Distributes the flows knowing the resource each of them belongs to. Implementations that do not care about the resources distribute
+     * the flow ids only.
+     */
+    default Map<Node, List<String>> distributeByResourceId(Map<String, Long> resourceIdsByFlowId, List<Node> nodes) {
+        return distribute(new ArrayList<>(resourceIdsByFlowId.keySet()), nodes);
+    }
 }
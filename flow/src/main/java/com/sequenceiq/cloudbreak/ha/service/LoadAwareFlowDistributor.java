@@ -0,0 +1,102 @@
+package com.sequenceiq.cloudbreak.ha.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.ha.domain.Node;
+
+/**
+ * Distributes the flows of failed nodes with consistent hashing with bounded loads. The flows of a resource are kept together and hashed by
+ * the resource id onto a ring of virtual nodes; a resource goes to the first node on the ring that stays under the load bound after taking it.
+ * The load of a node is the number of flows it already runs, as published in its heartbeat, plus the flows assigned to it in this round.
+ * The bound is the average load after the distribution multiplied by {@code cb.ha.flow.distributor.load.factor}, so no survivor gets much
+ * more than its share, while a resource lands on the same node as long as the set of nodes does not change.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(name = "cb.ha.flow.distributor.loadaware.enabled", havingValue = "true")
+public class LoadAwareFlowDistributor implements FlowDistributor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadAwareFlowDistributor.class);
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    @Value("${cb.ha.flow.distributor.virtual.nodes:100}")
+    private int virtualNodes;
+
+    @Value("${cb.ha.flow.distributor.load.factor:1.25}")
+    private double loadFactor;
+
+    @Override
+    public Map<Node, List<String>> distribute(List<String> flows, List<Node> nodes) {
+        return distributeByResourceId(flows.stream().collect(Collectors.toMap(Function.identity(), flowId -> (long) flowId.hashCode(),
+                (first, second) -> first, LinkedHashMap::new)), nodes);
+    }
+
+    @Override
+    public Map<Node, List<String>> distributeByResourceId(Map<String, Long> resourceIdsByFlowId, List<Node> nodes) {
+        Map<Node, List<String>> result = new HashMap<>();
+        if (nodes.isEmpty() || resourceIdsByFlowId.isEmpty()) {
+            return result;
+        }
+        Map<Long, List<String>> flowsByResourceId = resourceIdsByFlowId.entrySet().stream()
+                .collect(Collectors.groupingBy(Entry::getValue, TreeMap::new, Collectors.mapping(Entry::getKey, Collectors.toList())));
+        Map<Node, Integer> loads = nodes.stream().collect(Collectors.toMap(Function.identity(), Node::getRunningFlows));
+        long totalLoad = loads.values().stream().mapToLong(Integer::longValue).sum() + resourceIdsByFlowId.size();
+        long bound = (long) Math.ceil(totalLoad * loadFactor / nodes.size());
+        NavigableMap<Long, Node> ring = createRing(nodes);
+        LOGGER.debug("Distributing {} flows of {} resources across {} nodes, load bound: {}", resourceIdsByFlowId.size(), flowsByResourceId.size(),
+                nodes.size(), bound);
+        for (Entry<Long, List<String>> resourceFlows : flowsByResourceId.entrySet()) {
+            List<String> flows = resourceFlows.getValue();
+            Node node = selectNode(ring, HASH_FUNCTION.hashLong(resourceFlows.getKey()).asLong(), loads, flows.size(), bound);
+            loads.merge(node, flows.size(), Integer::sum);
+            result.computeIfAbsent(node, k -> new ArrayList<>()).addAll(flows);
+        }
+        LOGGER.debug("Result of flow distribution: {}, node loads after distribution: {}", result, loads);
+        return result;
+    }
+
+    private NavigableMap<Long, Node> createRing(List<Node> nodes) {
+        NavigableMap<Long, Node> ring = new TreeMap<>();
+        for (Node node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(HASH_FUNCTION.hashString(node.getUuid() + '#' + i, StandardCharsets.UTF_8).asLong(), node);
+            }
+        }
+        return ring;
+    }
+
+    private Node selectNode(NavigableMap<Long, Node> ring, long hash, Map<Node, Integer> loads, int flowCount, long bound) {
+        for (Node candidate : ring.tailMap(hash, true).values()) {
+            if (loads.get(candidate) + flowCount <= bound) {
+                return candidate;
+            }
+        }
+        for (Node candidate : ring.headMap(hash, false).values()) {
+            if (loads.get(candidate) + flowCount <= bound) {
+                return candidate;
+            }
+        }
+        return loads.entrySet().stream().min(Comparator.comparing(Entry::getValue)).map(Entry::getKey).orElseThrow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.ha.service;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -12,6 +13,8 @@ import com.sequenceiq.cloudbreak.ha.repository.NodeRepository;
 @Service
 public class NodeService {
 
+    private static final long FLOW_DISTRIBUTION_LOCK_KEY = "cb.ha.flow.distribution".hashCode();
+
     @Inject
     private NodeRepository repository;
 
@@ -31,4 +34,25 @@ public class NodeService {
         repository.deleteAll(nodes);
     }
 
+    /**
+     * Creates or extends the lease of the node in a single statement and returns the assignment version of the node. The version changes
+     * whenever another node assigns flows to this one.
+     */
+    public long renewLease(String nodeId, long now, long leaseExpiry, int runningFlows) {
+        return repository.renewLease(nodeId, now, leaseExpiry, runningFlows);
+    }
+
+    public void incrementAssignmentVersion(Collection<String> nodeIds) {
+        if (!nodeIds.isEmpty()) {
+            repository.incrementAssignmentVersion(nodeIds);
+        }
+    }
+
+    /**
+     * Takes the flow distribution lock for the current transaction, so only one node reassigns the flows of the failed nodes at a time.
+     * Returns false without waiting if another node holds the lock.
+     */
+    public boolean tryLockFlowDistribution() {
+        return repository.tryAdvisoryTransactionLock(FLOW_DISTRIBUTION_LOCK_KEY);
+    }
 }
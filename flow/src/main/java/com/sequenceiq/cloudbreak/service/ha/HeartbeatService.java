@@ -3,10 +3,13 @@ package com.sequenceiq.cloudbreak.service.ha;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -40,13 +43,27 @@ import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 
+/**
+ * Keeps the lease of this node alive and takes over the flows of the nodes whose lease has expired.
+ * <p>
+ * Every heartbeat extends the lease of the node by {@code cb.ha.lease.duration} with a single upsert, which also returns the assignment
+ * version of the node. The node that reassigns the flows of a failed node bumps the assignment version of the receivers, so a node only
+ * looks for new flows in the flow log when its version changed, instead of querying the flow log on every tick. Rows written by nodes that
+ * do not renew leases yet are judged by the last update and {@code cb.ha.heartbeat.threshold}. The reassignment itself runs under a
+ * transaction scoped advisory lock, so the survivors do not race each other for the same flows.
+ */
 @Service
 public class HeartbeatService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HeartbeatService.class);
 
+    private static final long UNKNOWN_ASSIGNMENT_VERSION = -1L;
+
     @Value("${cb.ha.heartbeat.threshold:60000}")
     private Integer heartbeatThresholdRate;
 
+    @Value("${cb.ha.lease.duration:15000}")
+    private long leaseDuration;
+
     @Inject
     private NodeConfig nodeConfig;
 
@@ -90,16 +107,20 @@ public class HeartbeatService {
     @Inject
     private ApplicationFlowInformation applicationFlowInformation;
 
-    @Scheduled(cron = "${cb.ha.heartbeat.rate:0/30 * * * * *}")
+    private final AtomicLong assignmentVersion = new AtomicLong(UNKNOWN_ASSIGNMENT_VERSION);
+
+    private final AtomicBoolean flowRestartNeeded = new AtomicBoolean(true);
+
+    private volatile long lastLeaseRenewal;
+
+    @Scheduled(cron = "${cb.ha.heartbeat.rate:0/5 * * * * *}")
     public void heartbeat() {
         if (shouldRun()) {
             String nodeId = nodeConfig.getId();
             try {
                 retryService.testWith2SecDelayMax5Times(() -> {
                     try {
-                        Node self = nodeService.findById(nodeId).orElse(new Node(nodeId));
-                        self.setLastUpdated(clock.getCurrentTimeMillis());
-                        nodeService.save(self);
+                        renewLease(nodeId);
                         return Boolean.TRUE;
                     } catch (RuntimeException e) {
                         LOGGER.error("Failed to update the heartbeat timestamp", e);
@@ -116,36 +137,58 @@ public class HeartbeatService {
         }
     }
 
-    @Scheduled(initialDelay = 35000L, fixedDelay = 30000L)
+    @Scheduled(initialDelay = 35000L, fixedDelayString = "${cb.ha.flow.distribution.rate:5000}")
     public void scheduledFlowDistribution() {
         if (shouldRun()) {
-            LOGGER.info("Scheduled flow distribution on node: {}", nodeConfig.getId());
+            LOGGER.debug("Scheduled flow distribution on node: {}", nodeConfig.getId());
             List<Node> failedNodes = new ArrayList<>();
             try {
                 failedNodes.addAll(distributeFlows());
             } catch (TransactionExecutionException e) {
                 LOGGER.error("Failed to distribute the flow logs across the active nodes, somebody might have already done it. Message: {}", e.getMessage());
+                flowRestartNeeded.set(true);
             }
-            LOGGER.info("Scheduled flow distribution failed nodes: {}", failedNodes);
-            try {
-                cleanupNodes(failedNodes);
-            } catch (TransactionExecutionException e) {
-                LOGGER.error("Failed to cleanup the nodes, somebody might have already done it. Message: {}", e.getMessage());
-            }
-
-            String nodeId = nodeConfig.getId();
-            Set<String> allMyFlows = flowLogService.findAllByCloudbreakNodeId(nodeId).stream()
-                    .map(FlowLog::getFlowId).collect(Collectors.toSet());
-            LOGGER.info("All my flows: {}", allMyFlows);
-            Set<String> newFlows = allMyFlows.stream().filter(f -> runningFlows.get(f) == null).collect(Collectors.toSet());
-            LOGGER.info("Restarted flows: {}", newFlows);
-            for (String flow : newFlows) {
+            if (!failedNodes.isEmpty()) {
+                LOGGER.info("Scheduled flow distribution failed nodes: {}", failedNodes);
                 try {
-                    flow2Handler.restartFlow(flow);
-                } catch (RuntimeException e) {
-                    LOGGER.error(String.format("Failed to restart flow: %s", flow), e);
+                    cleanupNodes(failedNodes);
+                } catch (TransactionExecutionException e) {
+                    LOGGER.error("Failed to cleanup the nodes, somebody might have already done it. Message: {}", e.getMessage());
                 }
             }
+            if (flowRestartNeeded.getAndSet(false)) {
+                restartAssignedFlows();
+            }
+        }
+    }
+
+    private void restartAssignedFlows() {
+        String nodeId = nodeConfig.getId();
+        Set<String> allMyFlows = flowLogService.findAllByCloudbreakNodeId(nodeId).stream()
+                .map(FlowLog::getFlowId).collect(Collectors.toSet());
+        LOGGER.info("All my flows: {}", allMyFlows);
+        Set<String> newFlows = allMyFlows.stream().filter(f -> runningFlows.get(f) == null).collect(Collectors.toSet());
+        LOGGER.info("Restarted flows: {}", newFlows);
+        for (String flow : newFlows) {
+            try {
+                flow2Handler.restartFlow(flow);
+            } catch (RuntimeException e) {
+                LOGGER.error(String.format("Failed to restart flow: %s", flow), e);
+            }
+        }
+    }
+
+    private void renewLease(String nodeId) {
+        long now = clock.getCurrentTimeMillis();
+        long currentAssignmentVersion = nodeService.renewLease(nodeId, now, now + leaseDuration, runningFlows.getRunningFlowIds().size());
+        if (lastLeaseRenewal > 0L && now - lastLeaseRenewal > leaseDuration) {
+            LOGGER.warn("The lease of node {} expired {} ms ago, its flows might have been taken over by other nodes",
+                    nodeId, now - lastLeaseRenewal - leaseDuration);
+            cancelEveryFlowWithoutDbUpdate();
+        }
+        lastLeaseRenewal = now;
+        if (assignmentVersion.getAndSet(currentAssignmentVersion) != currentAssignmentVersion) {
+            flowRestartNeeded.set(true);
         }
     }
 
@@ -157,10 +200,31 @@ public class HeartbeatService {
         List<Node> nodes = Lists.newArrayList(nodeService.findAll());
         long currentTimeMillis = clock.getCurrentTimeMillis();
         List<Node> failedNodes = nodes.stream()
-                .filter(node -> currentTimeMillis - node.getLastUpdated() > heartbeatThresholdRate).collect(Collectors.toList());
+                .filter(node -> isLeaseExpired(node, currentTimeMillis)).collect(Collectors.toList());
+        if (failedNodes.isEmpty()) {
+            return failedNodes;
+        }
         List<Node> activeNodes = nodes.stream().filter(c -> !failedNodes.contains(c)).collect(Collectors.toList());
         LOGGER.info("Active CB nodes: ({})[{}], failed CB nodes: ({})[{}]", activeNodes.size(), activeNodes, failedNodes.size(), failedNodes);
+        return transactionService.required(() -> {
+            if (!nodeService.tryLockFlowDistribution()) {
+                LOGGER.info("Another node is distributing the flows of the failed nodes");
+                return Collections.<Node>emptyList();
+            }
+            reassignFlows(failedNodes, activeNodes);
+            return failedNodes;
+        });
+    }
 
+    private boolean isLeaseExpired(Node node, long currentTimeMillis) {
+        Long leaseExpiry = node.getLeaseExpiry();
+        if (leaseExpiry != null && leaseExpiry > node.getLastUpdated()) {
+            return currentTimeMillis > leaseExpiry;
+        }
+        return currentTimeMillis - node.getLastUpdated() > heartbeatThresholdRate;
+    }
+
+    private void reassignFlows(List<Node> failedNodes, List<Node> activeNodes) {
         List<FlowLog> failedFlowLogs = failedNodes.stream()
                 .map(node -> flowLogService.findAllByCloudbreakNodeId(node.getUuid()))
                 .flatMap(Set::stream)
@@ -177,17 +241,26 @@ public class HeartbeatService {
             updatedFlowLogs.addAll(invalidFlows);
             failedFlowLogs.removeAll(invalidFlows);
             LOGGER.info("The following flows have been filtered out from distribution: {}", getFlowIds(invalidFlows));
-            Map<Node, List<String>> flowDistribution = flowDistributor.distribute(getFlowIds(failedFlowLogs), activeNodes);
+            Map<String, List<FlowLog>> flowLogsByFlowId = failedFlowLogs.stream()
+                    .collect(Collectors.groupingBy(FlowLog::getFlowId, LinkedHashMap::new, Collectors.toList()));
+            Map<String, Long> resourceIdsByFlowId = flowLogsByFlowId.entrySet().stream()
+                    .collect(Collectors.toMap(Entry::getKey, entry -> entry.getValue().get(0).getResourceId(), (first, second) -> first, LinkedHashMap::new));
+            Map<Node, List<String>> flowDistribution = flowDistributor.distributeByResourceId(resourceIdsByFlowId, activeNodes);
             for (Entry<Node, List<String>> entry : flowDistribution.entrySet()) {
-                entry.getValue().forEach(flowId ->
-                        failedFlowLogs.stream().filter(flowLog -> flowLog.getFlowId().equalsIgnoreCase(flowId)).forEach(flowLog -> {
-                            flowLog.setCloudbreakNodeId(entry.getKey().getUuid());
-                            updatedFlowLogs.add(flowLog);
-                        }));
+                for (String flowId : entry.getValue()) {
+                    flowLogsByFlowId.getOrDefault(flowId, List.of()).forEach(flowLog -> {
+                        flowLog.setCloudbreakNodeId(entry.getKey().getUuid());
+                        updatedFlowLogs.add(flowLog);
+                    });
+                }
+            }
+            flowLogService.saveAll(updatedFlowLogs);
+            Set<String> receivers = flowDistribution.keySet().stream().map(Node::getUuid).collect(Collectors.toSet());
+            nodeService.incrementAssignmentVersion(receivers);
+            if (receivers.contains(nodeConfig.getId())) {
+                flowRestartNeeded.set(true);
             }
-            transactionService.required(() -> flowLogService.saveAll(updatedFlowLogs));
         }
-        return failedNodes;
     }
 
     /**
@@ -270,6 +343,7 @@ public class HeartbeatService {
             }
             runningFlows.remove(id);
         }
+        flowRestartNeeded.set(true);
     }
 
     private void cancelRunningFlow(Long resourceId) {
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
 
 import com.sequenceiq.flow.reactor.api.handler.EventHandler;
+import com.sequenceiq.flow.reactor.handler.EventHandlerExecutionService;
 
 import reactor.bus.EventBus;
 
@@ -19,7 +20,8 @@ public class ReactorEventHandlerInitializer {
 
     private final EventHandlerConfiguration.EventHandlers eventHandlers;
 
-    public ReactorEventHandlerInitializer(EventHandlerConfiguration.EventHandlers eventHandlers, EventBus eventBus) {
+    public ReactorEventHandlerInitializer(EventHandlerConfiguration.EventHandlers eventHandlers, EventBus eventBus,
+            EventHandlerExecutionService eventHandlerExecutionService) {
         this.eventHandlers = eventHandlers;
 
         validateSelectors();
@@ -27,7 +29,7 @@ public class ReactorEventHandlerInitializer {
         for (EventHandler<?> handler : eventHandlers.getEventHandlers()) {
             String selector = handler.selector();
             LOGGER.debug("Registering handler [{}] for selector [{}]", handler.getClass(), selector);
-            eventBus.on($(selector), handler);
+            eventBus.on($(selector), eventHandlerExecutionService.decorate(handler));
         }
     }
 
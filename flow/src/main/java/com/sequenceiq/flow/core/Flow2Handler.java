@@ -1,5 +1,6 @@
 package com.sequenceiq.flow.core;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,10 +14,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.common.event.AcceptResult;
 import com.sequenceiq.cloudbreak.common.event.Acceptable;
 import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionRuntimeExecutionException;
@@ -24,6 +25,7 @@ import com.sequenceiq.cloudbreak.logger.LoggerContextKey;
 import com.sequenceiq.cloudbreak.logger.MDCBuilder;
 import com.sequenceiq.flow.core.chain.FlowChainHandler;
 import com.sequenceiq.flow.core.chain.FlowChains;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
 import com.sequenceiq.flow.core.config.FlowConfiguration;
 import com.sequenceiq.flow.core.exception.FlowNotFoundException;
 import com.sequenceiq.flow.core.model.FlowAcceptResult;
@@ -78,6 +80,12 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private FlowPayloadCodecService flowPayloadCodecService;
+
+    @Inject
+    private MetricService metricService;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -106,11 +114,14 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
             String flowTriggerUserCrn, SpanContext spanContext) {
         FlowParameters flowParameters = new FlowParameters(flowId, flowTriggerUserCrn, spanContext);
         Map<Object, Object> contextParams = getContextParams(event);
+        long start = System.currentTimeMillis();
         try {
             handle(key, payload, flowParameters, flowChainId, contextParams);
         } catch (Exception e) {
             LOGGER.error("Failed update last flow log status and save new flow log entry.", e);
             runningFlows.remove(flowId);
+        } finally {
+            metricService.recordTimer(FlowMetricType.FLOW_EVENT, Duration.ofMillis(System.currentTimeMillis() - start), "event", key.toLowerCase());
         }
     }
 
@@ -184,16 +195,22 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         LOGGER.debug("flow control event arrived: key: {}, flowid: {}, usercrn: {}, payload: {}", key, flowId, flowParameters.getFlowTriggerUserCrn(), payload);
         Flow flow = runningFlows.get(flowId);
         if (flow != null) {
-            transactionService.required(() -> {
-                Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.getFlowId());
-                lastFlowLog.ifPresent(flowLog -> updateFlowLogStatus(key, payload, flowChainId, flow, flowLog, flowParameters));
-            });
+            if (flowLogService.isWriteBehind()) {
+                updateLastFlowLog(key, payload, flowChainId, flow, flowParameters);
+            } else {
+                transactionService.required(() -> updateLastFlowLog(key, payload, flowChainId, flow, flowParameters));
+            }
             flow.sendEvent(key, flowParameters.getFlowTriggerUserCrn(), payload, flowParameters.getSpanContext());
         } else {
             LOGGER.debug("Cancelled flow finished running. Stack ID {}, flow ID {}, event {}", payload.getResourceId(), flowId, key);
         }
     }
 
+    private void updateLastFlowLog(String key, Payload payload, String flowChainId, Flow flow, FlowParameters flowParameters) {
+        Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.getFlowId());
+        lastFlowLog.ifPresent(flowLog -> updateFlowLogStatus(key, payload, flowChainId, flow, flowLog, flowParameters));
+    }
+
     private void updateFlowLogStatus(String key, Payload payload, String flowChainId, Flow flow, FlowLog lastFlowLog, FlowParameters flowParameters) {
         if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
             flowLogService.updateLastFlowLogPayload(lastFlowLog, payload, flow.getVariables());
@@ -271,13 +288,13 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                 Optional<FlowConfiguration<?>> flowConfig = flowConfigs.stream()
                         .filter(fc -> fc.getClass().equals(flowLog.getFlowType())).findFirst();
                 try {
-                    Payload payload = (Payload) JsonReader.jsonToJava(flowLog.getPayload());
+                    Payload payload = (Payload) flowPayloadCodecService.decodePayload(flowLog);
                     Flow flow = flowConfig.get().createFlow(flowLog.getFlowId(), payload.getResourceId());
                     runningFlows.put(flow, flowLog.getFlowChainId());
                     if (flowLog.getFlowChainId() != null) {
                         flowChainHandler.restoreFlowChain(flowLog.getFlowChainId());
                     }
-                    Map<Object, Object> variables = (Map<Object, Object>) JsonReader.jsonToJava(flowLog.getVariables());
+                    Map<Object, Object> variables = flowPayloadCodecService.decodeVariables(flowLog);
                     flow.initialize(flowLog.getCurrentState(), variables);
                     RestartAction restartAction = flowConfig.get().getRestartAction(flowLog.getNextEvent());
                     if (restartAction != null) {
@@ -55,4 +55,12 @@ public interface FlowLogService {
     List<FlowLog> findAllByResourceIdOrderByCreatedDesc(Long id);
 
     List<FlowLog> findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(Long id);
+
+    /**
+     * Whether the flow log writes of a state transition are committed together by the service itself. Callers must not wrap such writes in
+     * a transaction, otherwise they keep a database connection while waiting for the commit.
+     */
+    default boolean isWriteBehind() {
+        return false;
+    }
 }
@@ -4,7 +4,12 @@ import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 
 public enum FlowMetricType implements Metric {
     FLOW_STEP("flowstep"),
-    ACTIVE_FLOWS("activeflow");
+    FLOW_EVENT("flow.event.duration"),
+    ACTIVE_FLOWS("activeflow"),
+    FLOW_LOG_WRITE_BATCH("flowlog.write.batch"),
+    FLOW_LOG_WRITE_QUEUE("flowlog.write.queue"),
+    EVENTBUS_LANE_QUEUE("eventbus.lane.queue"),
+    EVENTBUS_LANE_WAIT("eventbus.lane.wait");
 
     private final String metricName;
 
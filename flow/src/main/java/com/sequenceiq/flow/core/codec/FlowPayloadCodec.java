@@ -0,0 +1,14 @@
+package com.sequenceiq.flow.core.codec;
+
+/**
+ * Serializes flow payloads and flow variables into the text columns of the flow log. The name of the codec is stored on every flow log row,
+ * so it has to contain the version of the wire format and must never change for an existing format.
+ */
+public interface FlowPayloadCodec {
+
+    String getName();
+
+    String encode(Object object);
+
+    Object decode(String encoded);
+}
@@ -0,0 +1,94 @@
+package com.sequenceiq.flow.core.codec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.flow.domain.FlowLog;
+
+/**
+ * Selects the codec used to write flow payloads and variables and resolves the codec of persisted flow logs by the name stored with them.
+ * Flow logs written before the codec column existed have no codec name and are read with json-io.
+ */
+@Service
+public class FlowPayloadCodecService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowPayloadCodecService.class);
+
+    @Value("${cb.flowlog.payload.codec:" + JsonIoFlowPayloadCodec.NAME + "}")
+    private String writeCodecName;
+
+    @Inject
+    private List<FlowPayloadCodec> codecs;
+
+    @Inject
+    private JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec;
+
+    private Map<String, FlowPayloadCodec> codecsByName;
+
+    private FlowPayloadCodec writeCodec;
+
+    @PostConstruct
+    public void init() {
+        codecsByName = codecs.stream().collect(Collectors.toMap(FlowPayloadCodec::getName, Function.identity()));
+        writeCodec = codecsByName.get(writeCodecName);
+        if (writeCodec == null) {
+            throw new IllegalStateException("Unknown flow payload codec: " + writeCodecName + ", available codecs: " + codecsByName.keySet());
+        }
+        LOGGER.info("Flow payloads are written with {} codec", writeCodecName);
+    }
+
+    /**
+     * Encodes the payload and the variables with the same codec and records the codec on the flow log. If the configured codec can not handle
+     * the objects, both are written with json-io, which is able to serialize anything the flows used before.
+     */
+    public void encode(FlowLog flowLog, Object payload, Map<Object, Object> variables) {
+        FlowPayloadCodec codec = writeCodec;
+        String encodedPayload;
+        String encodedVariables;
+        try {
+            encodedPayload = codec.encode(payload);
+            encodedVariables = codec.encode(variables);
+        } catch (RuntimeException e) {
+            if (codec == jsonIoFlowPayloadCodec) {
+                throw e;
+            }
+            LOGGER.warn("Flow payload {} can not be encoded with {} codec, falling back to json-io", payload.getClass(), codec.getName(), e);
+            codec = jsonIoFlowPayloadCodec;
+            encodedPayload = codec.encode(payload);
+            encodedVariables = codec.encode(variables);
+        }
+        flowLog.setPayload(encodedPayload);
+        flowLog.setVariables(encodedVariables);
+        flowLog.setPayloadCodec(codec.getName());
+    }
+
+    public Object decodePayload(FlowLog flowLog) {
+        return getCodec(flowLog.getPayloadCodec()).decode(flowLog.getPayload());
+    }
+
+    public Map<Object, Object> decodeVariables(FlowLog flowLog) {
+        return (Map<Object, Object>) getCodec(flowLog.getPayloadCodec()).decode(flowLog.getVariables());
+    }
+
+    private FlowPayloadCodec getCodec(String name) {
+        if (name == null) {
+            return jsonIoFlowPayloadCodec;
+        }
+        FlowPayloadCodec codec = codecsByName.get(name);
+        if (codec == null) {
+            throw new CloudbreakServiceException("Flow payload was written with unknown codec: " + name);
+        }
+        return codec;
+    }
+}
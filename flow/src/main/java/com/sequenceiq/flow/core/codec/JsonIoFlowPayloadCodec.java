@@ -0,0 +1,48 @@
+package com.sequenceiq.flow.core.codec;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cedarsoftware.util.io.JsonReader;
+import com.cedarsoftware.util.io.JsonWriter;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+
+@Component
+public class JsonIoFlowPayloadCodec implements FlowPayloadCodec {
+
+    public static final String NAME = "jsonio-v1";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonIoFlowPayloadCodec.class);
+
+    private final Map<String, Object> writeOptions;
+
+    public JsonIoFlowPayloadCodec(@Qualifier("JsonWriterOptions") Map<String, Object> writeOptions) {
+        this.writeOptions = writeOptions;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(Object object) {
+        String objectAsString;
+        try {
+            objectAsString = JsonWriter.objectToJson(object, writeOptions);
+        } catch (Exception e) {
+            LOGGER.debug("Somehow can not serialize object to string, try another method..", e);
+            objectAsString = JsonUtil.writeValueAsStringSilent(object);
+        }
+        return objectAsString;
+    }
+
+    @Override
+    public Object decode(String encoded) {
+        return JsonReader.jsonToJava(encoded);
+    }
+}
@@ -0,0 +1,171 @@
+package com.sequenceiq.flow.core.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+
+import reactor.rx.Promise;
+
+/**
+ * Binary flow payload codec based on Kryo. Fields are written with {@link CompatibleFieldSerializer}, so payload classes can gain or lose
+ * fields between releases without breaking the restart of persisted flows. The serialized form is prefixed with a flag byte that tells whether
+ * the rest is deflated, so the compression settings can be changed without affecting existing rows.
+ * <p>
+ * The accept promises of the events are not persisted, nobody can wait for them after a restart, so a restored event gets a new promise.
+ */
+@Component
+public class KryoFlowPayloadCodec implements FlowPayloadCodec {
+
+    public static final String NAME = "kryo-v1";
+
+    private static final byte RAW = 0;
+
+    private static final byte DEFLATED = 1;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final int POOL_SIZE = 16;
+
+    private final boolean compressionEnabled;
+
+    private final int compressionThreshold;
+
+    private final Pool<Kryo> kryoPool = new Pool<>(true, false, POOL_SIZE) {
+        @Override
+        protected Kryo create() {
+            Kryo kryo = new Kryo();
+            kryo.setRegistrationRequired(false);
+            kryo.setReferences(true);
+            kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+            kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+            kryo.addDefaultSerializer(Promise.class, new PromiseSerializer());
+            return kryo;
+        }
+    };
+
+    public KryoFlowPayloadCodec(@Value("${cb.flowlog.payload.compression.enabled:true}") boolean compressionEnabled,
+            @Value("${cb.flowlog.payload.compression.threshold:1024}") int compressionThreshold) {
+        this.compressionEnabled = compressionEnabled;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(Object object) {
+        byte[] serialized = serialize(object);
+        byte[] encoded;
+        if (compressionEnabled && serialized.length > compressionThreshold) {
+            encoded = withFlag(DEFLATED, deflate(serialized));
+        } else {
+            encoded = withFlag(RAW, serialized);
+        }
+        return Base64.getEncoder().encodeToString(encoded);
+    }
+
+    @Override
+    public Object decode(String encoded) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        byte[] serialized = Arrays.copyOfRange(bytes, 1, bytes.length);
+        if (bytes[0] == DEFLATED) {
+            serialized = inflate(serialized);
+        } else if (bytes[0] != RAW) {
+            throw new IllegalArgumentException("Unknown flow payload format flag: " + bytes[0]);
+        }
+        return deserialize(serialized);
+    }
+
+    private byte[] serialize(Object object) {
+        Kryo kryo = kryoPool.obtain();
+        try (Output output = new Output(BUFFER_SIZE, -1)) {
+            kryo.writeClassAndObject(output, object);
+            return output.toBytes();
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    private Object deserialize(byte[] serialized) {
+        Kryo kryo = kryoPool.obtain();
+        try (Input input = new Input(serialized)) {
+            return kryo.readClassAndObject(input);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    private byte[] withFlag(byte flag, byte[] data) {
+        byte[] result = new byte[data.length + 1];
+        result[0] = flag;
+        System.arraycopy(data, 0, result, 1, data.length);
+        return result;
+    }
+
+    private byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, count);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length * 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("Truncated deflated flow payload");
+                }
+                outputStream.write(buffer, 0, count);
+            }
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid deflated flow payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class PromiseSerializer extends Serializer<Promise<?>> {
+
+        @Override
+        public void write(Kryo kryo, Output output, Promise<?> promise) {
+        }
+
+        @Override
+        public Promise<?> read(Kryo kryo, Input input, Class<? extends Promise<?>> type) {
+            return new Promise<>();
+        }
+    }
+}
@@ -41,6 +41,8 @@ public class FlowLog {
     @Column(length = Integer.MAX_VALUE, columnDefinition = "TEXT")
     private String variables;
 
+    private String payloadCodec;
+
     private Class<?> flowType;
 
     private String currentState;
@@ -190,6 +192,14 @@ public class FlowLog {
         this.variables = variables;
     }
 
+    public String getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    public void setPayloadCodec(String payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
     public Long getVersion() {
         return version;
     }
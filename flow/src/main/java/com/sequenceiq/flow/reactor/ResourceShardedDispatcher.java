@@ -0,0 +1,318 @@
+package com.sequenceiq.flow.reactor;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.common.event.AwaitedRequest;
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.flow.core.FlowMetricType;
+
+import reactor.bus.Event;
+import reactor.core.Dispatcher;
+import reactor.core.processor.InsufficientCapacityException;
+import reactor.core.support.Exceptions;
+import reactor.fn.Consumer;
+
+/**
+ * Reactor dispatcher that hashes the events by the resource id of their payload onto a fixed number of lanes. Every lane is drained by a single
+ * thread, so the events of a resource are processed in the order they were sent and a resource with a lot of events can only delay the
+ * resources that share its lane.
+ * <p>
+ * Every lane accepts {@code laneBacklogSize} events from outside the dispatcher. When a lane is full, the sender waits for a free slot instead
+ * of dropping the event. Events sent from the lane threads themselves (e.g. a flow action triggering its next event) never wait: a lane
+ * re-dispatching to itself would wait for a slot only it can free, and two full lanes sending to each other would deadlock. Such events are
+ * still queued rather than run inline, so they are processed after the events already waiting on the lane.
+ * <p>
+ * Events of an {@link AwaitedRequest} (e.g. a cloud platform request a flow action waits for) are handed to the {@code requestDispatcher}
+ * instead of a lane. Their sender usually runs on the lane of the same resource and blocks until the request is answered, so queueing the
+ * request behind the sender would deadlock the lane.
+ */
+public class ResourceShardedDispatcher implements Dispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceShardedDispatcher.class);
+
+    private static final String LANE_LABEL = "lane";
+
+    private final Lane[] lanes;
+
+    private final int laneBacklogSize;
+
+    private final long backpressureWarnMs;
+
+    private final MetricService metricService;
+
+    private final Dispatcher requestDispatcher;
+
+    private volatile boolean alive = true;
+
+    public ResourceShardedDispatcher(String name, int laneCount, int laneBacklogSize, long backpressureWarnMs, MetricService metricService,
+            Dispatcher requestDispatcher) {
+        this.laneBacklogSize = laneBacklogSize;
+        this.backpressureWarnMs = backpressureWarnMs;
+        this.metricService = metricService;
+        this.requestDispatcher = requestDispatcher;
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(name + "-lane-" + i, i);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+    }
+
+    @Override
+    public <E> void dispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        if (isAwaitedRequest(data)) {
+            checkAlive();
+            requestDispatcher.dispatch(data, eventConsumer, errorConsumer);
+            return;
+        }
+        Lane lane = selectLane(data);
+        DispatchTask<E> task = new DispatchTask<>(data, eventConsumer, errorConsumer);
+        if (lane.isCurrent() || inContext()) {
+            lane.enqueue(task);
+        } else {
+            lane.acquireSlot();
+            task.holdsSlot = true;
+            lane.enqueue(task);
+        }
+    }
+
+    @Override
+    public <E> void tryDispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) throws InsufficientCapacityException {
+        if (isAwaitedRequest(data)) {
+            checkAlive();
+            requestDispatcher.tryDispatch(data, eventConsumer, errorConsumer);
+            return;
+        }
+        Lane lane = selectLane(data);
+        DispatchTask<E> task = new DispatchTask<>(data, eventConsumer, errorConsumer);
+        if (!lane.isCurrent() && !inContext()) {
+            if (!lane.slots.tryAcquire()) {
+                throw InsufficientCapacityException.get();
+            }
+            task.holdsSlot = true;
+        }
+        lane.enqueue(task);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        dispatch(command, Runnable::run, null);
+    }
+
+    @Override
+    public long remainingSlots() {
+        long remaining = 0;
+        for (Lane lane : lanes) {
+            remaining += lane.slots.availablePermits();
+        }
+        return remaining;
+    }
+
+    @Override
+    public long backlogSize() {
+        return (long) laneBacklogSize * lanes.length;
+    }
+
+    @Override
+    public boolean supportsOrdering() {
+        return true;
+    }
+
+    @Override
+    public boolean inContext() {
+        return Thread.currentThread() instanceof LaneThread;
+    }
+
+    @Override
+    public boolean alive() {
+        return alive;
+    }
+
+    @Override
+    public void shutdown() {
+        alive = false;
+        requestDispatcher.shutdown();
+    }
+
+    @Override
+    public boolean awaitAndShutdown() {
+        return awaitAndShutdown(Integer.MAX_VALUE, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+        alive = false;
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            for (Lane lane : lanes) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                if (lane.isCurrent()) {
+                    continue;
+                }
+                lane.thread.join(remainingMs);
+                if (lane.thread.isAlive()) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return requestDispatcher.awaitAndShutdown(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void forceShutdown() {
+        alive = false;
+        requestDispatcher.forceShutdown();
+        for (Lane lane : lanes) {
+            lane.queue.clear();
+            lane.thread.interrupt();
+        }
+    }
+
+    int laneOf(Object data) {
+        Object shardKey = data;
+        if (data instanceof Event) {
+            Event<?> event = (Event<?>) data;
+            shardKey = event.getData() instanceof Payload ? ((Payload) event.getData()).getResourceId() : event.getKey();
+        }
+        return shardKey == null ? 0 : Math.floorMod(shardKey.hashCode(), lanes.length);
+    }
+
+    private boolean isAwaitedRequest(Object data) {
+        return data instanceof Event && ((Event<?>) data).getData() instanceof AwaitedRequest;
+    }
+
+    private void checkAlive() {
+        if (!alive) {
+            throw new IllegalStateException("This Dispatcher has been shut down");
+        }
+    }
+
+    private Lane selectLane(Object data) {
+        checkAlive();
+        return lanes[laneOf(data)];
+    }
+
+    private static class DispatchTask<E> {
+
+        private final E data;
+
+        private final Consumer<E> eventConsumer;
+
+        private final Consumer<Throwable> errorConsumer;
+
+        private final long enqueuedAt = System.nanoTime();
+
+        private boolean holdsSlot;
+
+        DispatchTask(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+            this.data = data;
+            this.eventConsumer = eventConsumer;
+            this.errorConsumer = errorConsumer;
+        }
+
+        void run() {
+            try {
+                eventConsumer.accept(data);
+            } catch (Exception e) {
+                if (errorConsumer != null) {
+                    errorConsumer.accept(Exceptions.addValueAsLastCause(e, data));
+                } else {
+                    LOGGER.error("Exception happened in dispatcher lane without error consumer", e);
+                }
+            }
+        }
+    }
+
+    private static class LaneThread extends Thread {
+
+        private final Lane lane;
+
+        LaneThread(Lane lane, String name) {
+            super(lane::drain, name);
+            this.lane = lane;
+            setDaemon(true);
+        }
+    }
+
+    private class Lane {
+
+        private final BlockingQueue<DispatchTask<?>> queue = new LinkedBlockingQueue<>();
+
+        private final Semaphore slots = new Semaphore(laneBacklogSize);
+
+        private final Map<String, String> labels;
+
+        private final Thread thread;
+
+        Lane(String threadName, int index) {
+            labels = Map.of(LANE_LABEL, String.valueOf(index));
+            thread = new LaneThread(this, threadName);
+        }
+
+        boolean isCurrent() {
+            Thread current = Thread.currentThread();
+            return current instanceof LaneThread && ((LaneThread) current).lane == this;
+        }
+
+        void acquireSlot() {
+            try {
+                while (!slots.tryAcquire(backpressureWarnMs, TimeUnit.MILLISECONDS)) {
+                    LOGGER.warn("Dispatcher lane {} is full with {} events, waiting for a free slot", labels.get(LANE_LABEL), queue.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a free slot in dispatcher lane " + labels.get(LANE_LABEL), e);
+            }
+        }
+
+        void enqueue(DispatchTask<?> task) {
+            queue.add(task);
+        }
+
+        private void drain() {
+            while (alive || !queue.isEmpty()) {
+                try {
+                    DispatchTask<?> task = queue.poll(1, TimeUnit.SECONDS);
+                    if (task != null) {
+                        process(task);
+                    }
+                } catch (InterruptedException e) {
+                    LOGGER.info("Dispatcher lane {} has been interrupted", labels.get(LANE_LABEL));
+                    return;
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unexpected error in dispatcher lane {}", labels.get(LANE_LABEL), e);
+                }
+            }
+        }
+
+        private void process(DispatchTask<?> task) {
+            if (task.holdsSlot) {
+                slots.release();
+            }
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAt);
+            metricService.submit(FlowMetricType.EVENTBUS_LANE_QUEUE, queue.size(), labels);
+            metricService.submit(FlowMetricType.EVENTBUS_LANE_WAIT, waitMs, labels);
+            try {
+                task.run();
+            } finally {
+                MDCBuilder.cleanupMdc();
+            }
+        }
+    }
+}
@@ -15,9 +15,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.logger.MDCBuilder;
 import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
+import com.sequenceiq.flow.reactor.ResourceShardedDispatcher;
 import com.sequenceiq.flow.reactor.handler.ConsumerNotFoundHandler;
 import com.sequenceiq.flow.service.flowlog.FlowLogDBService;
 
@@ -25,6 +27,7 @@ import reactor.Environment;
 import reactor.bus.Event;
 import reactor.bus.EventBus;
 import reactor.bus.spec.EventBusSpec;
+import reactor.core.Dispatcher;
 import reactor.core.dispatch.ThreadPoolExecutorDispatcher;
 import reactor.core.support.Exceptions;
 import reactor.core.support.NamedDaemonThreadFactory;
@@ -44,6 +47,21 @@ public class EventBusConfig {
     @Value("${cb.eventbus.threadpool.backlog.size:1000}")
     private int eventBusThreadPoolBacklogSize;
 
+    @Value("${cb.eventbus.dispatcher.sharded.enabled:false}")
+    private boolean shardedDispatcherEnabled;
+
+    @Value("${cb.eventbus.dispatcher.sharded.lanes:100}")
+    private int shardedDispatcherLanes;
+
+    @Value("${cb.eventbus.dispatcher.sharded.lane.backlog.size:100}")
+    private int shardedDispatcherLaneBacklogSize;
+
+    @Value("${cb.eventbus.dispatcher.sharded.backpressure.warn.ms:5000}")
+    private long shardedDispatcherBackpressureWarnMs;
+
+    @Inject
+    private MetricService metricService;
+
     @Inject
     @Lazy
     private ApplicationFlowInformation applicationFlowInformation;
@@ -121,7 +139,7 @@ public class EventBusConfig {
     public EventBus reactor(MDCCleanerThreadPoolExecutor threadPoolExecutor, Environment env) {
         return new EventBusSpec()
                 .env(env)
-                .dispatcher(new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, eventBusThreadPoolCoreSize, threadPoolExecutor))
+                .dispatcher(createDispatcher(threadPoolExecutor))
                 .traceEventPath()
                 .dispatchErrorHandler(throwable -> {
                     handleFlowFail(throwable);
@@ -131,6 +149,17 @@ public class EventBusConfig {
                 .get();
     }
 
+    private Dispatcher createDispatcher(MDCCleanerThreadPoolExecutor threadPoolExecutor) {
+        Dispatcher threadPoolDispatcher = new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, eventBusThreadPoolCoreSize, threadPoolExecutor);
+        if (shardedDispatcherEnabled) {
+            LOGGER.info("Reactor events are dispatched on {} lanes sharded by resource id, awaited requests on the thread pool",
+                    shardedDispatcherLanes);
+            return new ResourceShardedDispatcher("reactorDispatcher", shardedDispatcherLanes, shardedDispatcherLaneBacklogSize,
+                    shardedDispatcherBackpressureWarnMs, metricService, threadPoolDispatcher);
+        }
+        return threadPoolDispatcher;
+    }
+
     @Bean("eventBusThreadPoolExecutor")
     public MDCCleanerThreadPoolExecutor getPoolExecutor() {
         return new MDCCleanerThreadPoolExecutor(eventBusThreadPoolCoreSize,
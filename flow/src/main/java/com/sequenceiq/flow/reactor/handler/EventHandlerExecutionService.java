@@ -0,0 +1,221 @@
+package com.sequenceiq.flow.reactor.handler;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import com.sequenceiq.flow.core.Flow2Handler;
+
+import reactor.bus.Event;
+import reactor.bus.EventBus;
+import reactor.core.support.Exceptions;
+import reactor.core.support.NamedDaemonThreadFactory;
+import reactor.fn.Consumer;
+
+/**
+ * Runs event handlers outside of the reactor dispatcher threads when {@code cb.eventhandler.offload.enabled} is set.
+ * <p>
+ * Handlers block their thread for minutes while polling the cloud provider, Salt or Cloudera Manager. Without offloading every blocked handler
+ * holds a dispatcher thread, so the dispatcher pool size caps the number of parallel operations and a burst of long operations starves every
+ * other event. With offloading the dispatcher threads only hand the events over, and the handlers run on a separate pool. Handlers listed in
+ * {@code cb.eventhandler.offload.concurrency.limits} (e.g. {@code LaunchStackHandler:20,UpscaleStackHandler:10}) get their own pool of that
+ * size, so a single handler type can not use up the shared pool. Events over the limit wait in the queue of the handler instead of in the
+ * dispatcher.
+ * <p>
+ * <p>
+ * Flow actions block as well, e.g. while waiting for the answer of a cloud platform request. When {@code cb.flowaction.offload.enabled} is
+ * set, {@link Flow2Handler} runs on a pool of {@code cb.flowaction.offload.max.threads} threads. The events of a flow, identified by the
+ * {@link Flow2Handler#FLOW_ID} header or by the resource id of a flow trigger, are run one after the other in the order of arrival, so a
+ * flow never runs two actions at the same time. Events of different flows of the same resource may run in parallel.
+ */
+@Service
+public class EventHandlerExecutionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventHandlerExecutionService.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    @Value("${cb.eventhandler.offload.enabled:false}")
+    private boolean offloadEnabled;
+
+    @Value("${cb.eventhandler.offload.max.threads:500}")
+    private int maxThreads;
+
+    @Value("${cb.eventhandler.offload.concurrency.limits:}")
+    private String concurrencyLimits;
+
+    @Value("${cb.flowaction.offload.enabled:false}")
+    private boolean flowActionOffloadEnabled;
+
+    @Value("${cb.flowaction.offload.max.threads:200}")
+    private int flowActionMaxThreads;
+
+    @Inject
+    @Lazy
+    private EventBus eventBus;
+
+    private final Map<String, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
+
+    private Map<String, Integer> limitsByHandler;
+
+    private final Map<String, CompletableFuture<Void>> lastFlowActions = new ConcurrentHashMap<>();
+
+    private ExecutorService sharedExecutor;
+
+    private ExecutorService flowActionExecutor;
+
+    @PostConstruct
+    public void init() {
+        limitsByHandler = parseLimits(concurrencyLimits);
+        if (offloadEnabled) {
+            sharedExecutor = createExecutor("eventHandler", maxThreads);
+            LOGGER.info("Event handlers are offloaded from the dispatcher threads, max threads: {}, concurrency limits: {}", maxThreads,
+                    limitsByHandler);
+        }
+        if (flowActionOffloadEnabled) {
+            flowActionExecutor = createExecutor("flowAction", flowActionMaxThreads);
+            LOGGER.info("Flow actions are offloaded from the dispatcher threads, max threads: {}", flowActionMaxThreads);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sharedExecutor != null) {
+            sharedExecutor.shutdown();
+        }
+        if (flowActionExecutor != null) {
+            flowActionExecutor.shutdown();
+        }
+        handlerExecutors.values().forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * Returns the consumer that should be registered on the event bus for the handler. If offloading is disabled, it is the handler itself.
+     */
+    public <E extends Event<?>> Consumer<E> decorate(Consumer<E> handler) {
+        if (!offloadEnabled) {
+            return handler;
+        }
+        String handlerName = ClassUtils.getUserClass(handler).getSimpleName();
+        ExecutorService executor = getExecutor(handlerName);
+        return event -> {
+            Map<String, String> mdcContext = MDCBuilder.getMdcContextMap();
+            executor.execute(() -> {
+                MDCBuilder.buildMdcContextFromMap(mdcContext);
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Offloaded handler {} failed", handlerName, e);
+                    eventBus.getDispatchErrorHandler().accept(Exceptions.addValueAsLastCause(e, event));
+                }
+            });
+        };
+    }
+
+    /**
+     * Returns the consumer that should be registered on the event bus for {@link Flow2Handler}. If offloading of flow actions is disabled, it
+     * is the handler itself.
+     */
+    public Consumer<Event<? extends Payload>> decorateFlowActions(Consumer<Event<? extends Payload>> flowHandler) {
+        if (!flowActionOffloadEnabled) {
+            return flowHandler;
+        }
+        return event -> {
+            Map<String, String> mdcContext = MDCBuilder.getMdcContextMap();
+            executeInOrder(flowKey(event), () -> {
+                MDCBuilder.buildMdcContextFromMap(mdcContext);
+                try {
+                    flowHandler.accept(event);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Offloaded flow action failed for event {}", event.getKey(), e);
+                    eventBus.getDispatchErrorHandler().accept(Exceptions.addValueAsLastCause(e, event));
+                }
+            });
+        };
+    }
+
+    private String flowKey(Event<? extends Payload> event) {
+        String flowId = event.getHeaders().get(Flow2Handler.FLOW_ID);
+        if (flowId != null) {
+            return flowId;
+        }
+        Payload payload = event.getData();
+        return payload == null ? String.valueOf(event.getKey()) : "resource-" + payload.getResourceId();
+    }
+
+    /**
+     * Chains the action after the previous action of the same flow, the chain is dropped when its last action has finished. The actions
+     * report their own failures, so a failed action does not stop the ones queued after it.
+     */
+    private void executeInOrder(String flowKey, Runnable action) {
+        CompletableFuture<Void> last = lastFlowActions.compute(flowKey, (key, previous) -> previous == null
+                ? CompletableFuture.runAsync(action, flowActionExecutor)
+                : previous.handle((result, error) -> null).thenRunAsync(action, flowActionExecutor));
+        last.whenComplete((result, error) -> lastFlowActions.remove(flowKey, last));
+    }
+
+    private ExecutorService getExecutor(String handlerName) {
+        Integer limit = limitsByHandler.get(handlerName);
+        if (limit == null) {
+            return sharedExecutor;
+        }
+        return handlerExecutors.computeIfAbsent(handlerName, name -> createExecutor(name, limit));
+    }
+
+    private ExecutorService createExecutor(String name, int threads) {
+        ThreadPoolExecutor executor = new MDCCleanerThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedDaemonThreadFactory(name),
+                (r, e) -> LOGGER.error("Task has been rejected from '{}' threadpool. Executor state: {}", name, e));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private Map<String, Integer> parseLimits(String limits) {
+        return Arrays.stream(limits.split(","))
+                .map(String::trim)
+                .filter(limit -> !limit.isEmpty())
+                .map(this::parseLimit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private Map.Entry<String, Integer> parseLimit(String limit) {
+        String[] handlerAndLimit = limit.split(":");
+        if (handlerAndLimit.length != 2 || handlerAndLimit[0].isBlank()) {
+            throw new IllegalStateException(invalidLimitMessage(limit));
+        }
+        try {
+            int threads = Integer.parseInt(handlerAndLimit[1].trim());
+            if (threads < 1) {
+                throw new IllegalStateException(invalidLimitMessage(limit));
+            }
+            return Map.entry(handlerAndLimit[0].trim(), threads);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(invalidLimitMessage(limit), e);
+        }
+    }
+
+    private String invalidLimitMessage(String limit) {
+        return String.format("Invalid entry '%s' in cb.eventhandler.offload.concurrency.limits, the expected format is "
+                + "HandlerName:threads, e.g. LaunchStackHandler:20", limit);
+    }
+}
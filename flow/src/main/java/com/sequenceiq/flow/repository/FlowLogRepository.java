@@ -1,5 +1,6 @@
 package com.sequenceiq.flow.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -26,6 +27,15 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
             + "WHERE fl.stateStatus = 'PENDING' AND fl.resourceId = :resourceId")
     Set<FlowLogIdWithTypeAndTimestamp> findAllRunningFlowLogByResourceId(@Param("resourceId") Long resourceId);
 
+    @Query("SELECT COUNT(fl.id) > 0 FROM FlowLog fl WHERE fl.stateStatus = 'PENDING' AND fl.resourceId = :resourceId")
+    Boolean isAnyFlowRunningByResourceId(@Param("resourceId") Long resourceId);
+
+    @Query("SELECT COUNT(fl.id) > 0 FROM FlowLog fl WHERE fl.stateStatus = 'PENDING' AND fl.resourceId = :resourceId AND fl.flowType NOT IN (:flowTypes)")
+    Boolean isAnyFlowRunningByResourceIdExceptFlowTypes(@Param("resourceId") Long resourceId, @Param("flowTypes") Collection<Class<?>> flowTypes);
+
+    @Query("SELECT DISTINCT fl.flowId FROM FlowLog fl WHERE fl.stateStatus = 'PENDING' AND fl.resourceId = :resourceId AND fl.flowType NOT IN (:flowTypes)")
+    Set<String> findAllRunningFlowIdsByResourceIdExceptFlowTypes(@Param("resourceId") Long resourceId, @Param("flowTypes") Collection<Class<?>> flowTypes);
+
     @Query("SELECT DISTINCT fl.flowId, fl.resourceId, fl.cloudbreakNodeId FROM FlowLog fl WHERE fl.stateStatus = 'PENDING'")
     List<Object[]> findAllPending();
 
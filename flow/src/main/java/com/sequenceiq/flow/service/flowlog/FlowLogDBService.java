@@ -13,8 +13,6 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import com.cedarsoftware.util.io.JsonWriter;
@@ -23,7 +21,6 @@ import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.common.event.Payload;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.cloudbreak.common.exception.NotFoundException;
-import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
@@ -32,6 +29,7 @@ import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.core.FlowParameters;
 import com.sequenceiq.flow.core.FlowState;
 import com.sequenceiq.flow.core.ResourceIdProvider;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
 import com.sequenceiq.flow.domain.FlowChainLog;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
@@ -39,7 +37,6 @@ import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 import com.sequenceiq.flow.repository.FlowLogRepository;
 
-@Primary
 @Service
 public class FlowLogDBService implements FlowLogService {
 
@@ -58,36 +55,23 @@ public class FlowLogDBService implements FlowLogService {
     private ApplicationFlowInformation applicationFlowInformation;
 
     @Inject
-    @Qualifier("JsonWriterOptions")
-    private Map<String, Object> writeOptions;
+    private TransactionService transactionService;
 
     @Inject
-    private TransactionService transactionService;
+    private FlowPayloadCodecService flowPayloadCodecService;
 
     @Inject
     private ResourceIdProvider resourceIdProvider;
 
     public FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState) {
-        String payloadAsString = getSerializedString(payload);
-        String variablesJson = getSerializedString(variables);
         FlowLog flowLog = new FlowLog(payload.getResourceId(), flowParameters.getFlowId(), flowChanId, flowParameters.getFlowTriggerUserCrn(), key,
-                payloadAsString, payload.getClass(), variablesJson, flowType, currentState.toString());
+                null, payload.getClass(), null, flowType, currentState.toString());
+        flowPayloadCodecService.encode(flowLog, payload, variables);
         flowLog.setCloudbreakNodeId(nodeConfig.getId());
         return flowLogRepository.save(flowLog);
     }
 
-    public String getSerializedString(Object object) {
-        String objectAsString;
-        try {
-            objectAsString = JsonWriter.objectToJson(object, writeOptions);
-        } catch (Exception e) {
-            LOGGER.debug("Somehow can not serialize object to string, try another method..", e);
-            objectAsString = JsonUtil.writeValueAsStringSilent(object);
-        }
-        return objectAsString;
-    }
-
     @Override
     public Iterable<FlowLog> saveAll(Iterable<FlowLog> flowLogs) {
         return flowLogRepository.saveAll(flowLogs);
@@ -108,7 +92,8 @@ public class FlowLogDBService implements FlowLogService {
     private FlowLog finalize(Long stackId, String flowId, String state) throws TransactionExecutionException {
         return transactionService.required(() -> {
             flowLogRepository.finalizeByFlowId(flowId);
-            getLastFlowLog(flowId).ifPresent(flowLog -> updateLastFlowLogStatus(flowLog, false));
+            flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(flowId)
+                    .ifPresent(flowLog -> flowLogRepository.updateLastLogStatusInFlow(flowLog.getId(), StateStatus.SUCCESSFUL));
             FlowLog flowLog = new FlowLog(stackId, flowId, state, Boolean.TRUE, StateStatus.SUCCESSFUL);
             flowLog.setCloudbreakNodeId(nodeConfig.getId());
             return flowLogRepository.save(flowLog);
@@ -144,30 +129,29 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     private Set<String> findAllRunningNonTerminationFlowIdsByResourceId(Long resourceId) {
-        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = flowLogRepository.findAllRunningFlowLogByResourceId(resourceId);
-        return allRunningFlowIdsByResourceId.stream()
-                .filter(flowLog -> applicationFlowInformation.getTerminationFlow().stream()
-                        .map(Class::getName)
-                        .noneMatch(terminationFlowClassName -> terminationFlowClassName.equals(flowLog.getFlowType().getName())))
-                .map(FlowLogIdWithTypeAndTimestamp::getFlowId)
-                .collect(Collectors.toSet());
+        List<Class<?>> terminationFlowTypes = getTerminationFlowTypes();
+        if (terminationFlowTypes.isEmpty()) {
+            return flowLogRepository.findAllRunningFlowLogByResourceId(resourceId).stream()
+                    .map(FlowLogIdWithTypeAndTimestamp::getFlowId)
+                    .collect(Collectors.toSet());
+        }
+        return flowLogRepository.findAllRunningFlowIdsByResourceIdExceptFlowTypes(resourceId, terminationFlowTypes);
     }
 
     public boolean isOtherNonTerminationFlowRunning(Long resourceId) {
-        Set<String> flowIds = findAllRunningNonTerminationFlowIdsByResourceId(resourceId);
-        return !flowIds.isEmpty();
+        List<Class<?>> terminationFlowTypes = getTerminationFlowTypes();
+        if (terminationFlowTypes.isEmpty()) {
+            return isOtherFlowRunning(resourceId);
+        }
+        return Boolean.TRUE.equals(flowLogRepository.isAnyFlowRunningByResourceIdExceptFlowTypes(resourceId, terminationFlowTypes));
     }
 
-    private Set<String> findAllRunningFlowIdsByResourceId(Long resourceId) {
-        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = flowLogRepository.findAllRunningFlowLogByResourceId(resourceId);
-        return allRunningFlowIdsByResourceId.stream()
-                .map(FlowLogIdWithTypeAndTimestamp::getFlowId)
-                .collect(Collectors.toSet());
+    public boolean isOtherFlowRunning(Long resourceId) {
+        return Boolean.TRUE.equals(flowLogRepository.isAnyFlowRunningByResourceId(resourceId));
     }
 
-    public boolean isOtherFlowRunning(Long resourceId) {
-        Set<String> flowIds = findAllRunningFlowIdsByResourceId(resourceId);
-        return !flowIds.isEmpty();
+    private List<Class<?>> getTerminationFlowTypes() {
+        return List.copyOf(applicationFlowInformation.getTerminationFlow());
     }
 
     public boolean repeatedFlowState(FlowLog lastFlowLog, String event) {
@@ -175,12 +159,9 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     public void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables) {
-        String payloadJson = JsonWriter.objectToJson(payload, writeOptions);
-        String variablesJson = JsonWriter.objectToJson(variables, writeOptions);
         Optional.ofNullable(lastFlowLog)
                 .ifPresent(flowLog -> {
-                    flowLog.setPayload(payloadJson);
-                    flowLog.setVariables(variablesJson);
+                    flowPayloadCodecService.encode(flowLog, payload, variables);
                     flowLogRepository.save(flowLog);
                 });
     }
@@ -0,0 +1,397 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.core.FlowParameters;
+import com.sequenceiq.flow.core.FlowState;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.ha.NodeConfig;
+
+/**
+ * Flow log persistence that keeps the last {@link FlowLog} of every running flow in memory and writes the flow log changes of many flows
+ * with batched JDBC statements in a single transaction (group commit).
+ * <p>
+ * Crash recovery relies on every accepted flow having a committed PENDING row assigned to its node, therefore {@link #save} only returns
+ * when the batch containing the new row has been committed. Status updates of the previous row are queued without waiting: they always land
+ * in the same or an earlier batch as the insert of the next row, and losing one in a crash has the same effect as crashing just before the
+ * update, i.e. the flow is restarted from its last PENDING state by {@code HeartbeatService}.
+ * <p>
+ * Callers should not hold a transaction while they wait for the writer: the transaction keeps a pooled connection busy while the writer
+ * needs another one. Writes of a caller that holds a transaction are therefore executed in its transaction, without the writer, so they
+ * also commit together with the other changes of the caller (e.g. removing the trigger event of a flow chain).
+ */
+@Primary
+@Service
+@ConditionalOnProperty(name = "cb.flowlog.writebehind.enabled", havingValue = "true")
+public class WriteBehindFlowLogDBService extends FlowLogDBService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindFlowLogDBService.class);
+
+    private static final String ALLOCATE_IDS = "SELECT nextval('flowlog_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_FLOW_LOG = "INSERT INTO flowlog (id, created, resourceid, resourcetype, flowid, flowchainid, flowtriggerusercrn, "
+            + "nextevent, payload, payloadtype, variables, flowtype, currentstate, finalized, cloudbreaknodeid, statestatus, payloadcodec, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String UPDATE_STATE_STATUS = "UPDATE flowlog SET statestatus = ? WHERE id = ?";
+
+    private static final String UPDATE_PAYLOAD = "UPDATE flowlog SET payload = ?, variables = ?, payloadcodec = ? WHERE id = ?";
+
+    @Value("${cb.flowlog.writebehind.batch.size:200}")
+    private int batchSize;
+
+    @Value("${cb.flowlog.writebehind.queue.size:10000}")
+    private int queueSize;
+
+    @Value("${cb.flowlog.writebehind.linger.ms:5}")
+    private long lingerMs;
+
+    @Value("${cb.flowlog.writebehind.commit.timeout.ms:30000}")
+    private long commitTimeoutMs;
+
+    @Inject
+    private NodeConfig nodeConfig;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private TransactionService transactionService;
+
+    @Inject
+    private MetricService metricService;
+
+    @Inject
+    private FlowPayloadCodecService flowPayloadCodecService;
+
+    private final Map<String, FlowLog> lastFlowLogs = new ConcurrentHashMap<>();
+
+    private BlockingQueue<FlowLogWrite> writeQueue;
+
+    private ExecutorService writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        writeQueue = new ArrayBlockingQueue<>(queueSize);
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flowLogWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        writer.submit(this::writeLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(commitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Flow log writer did not stop in time, {} queued flow log writes are not persisted", writeQueue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
+            FlowState currentState) {
+        FlowLog flowLog = new FlowLog(payload.getResourceId(), flowParameters.getFlowId(), flowChanId, flowParameters.getFlowTriggerUserCrn(), key,
+                null, payload.getClass(), null, flowType, currentState.toString());
+        flowPayloadCodecService.encode(flowLog, payload, variables);
+        flowLog.setCloudbreakNodeId(nodeConfig.getId());
+        FlowLogWrite insert = FlowLogWrite.insert(flowLog);
+        if (writeInCallerTransaction(insert)) {
+            forgetOnRollback(flowLog);
+        } else {
+            await(enqueue(insert));
+        }
+        lastFlowLogs.put(flowLog.getFlowId(), flowLog);
+        return flowLog;
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return true;
+    }
+
+    @Override
+    public void updateLastFlowLogStatus(FlowLog lastFlowLog, boolean failureEvent) {
+        lastFlowLog.setStateStatus(failureEvent ? StateStatus.FAILED : StateStatus.SUCCESSFUL);
+        FlowLogWrite statusUpdate = FlowLogWrite.updateStatus(lastFlowLog);
+        if (!writeInCallerTransaction(statusUpdate)) {
+            enqueue(statusUpdate);
+        }
+    }
+
+    @Override
+    public void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables) {
+        if (lastFlowLog != null) {
+            flowPayloadCodecService.encode(lastFlowLog, payload, variables);
+            FlowLogWrite payloadUpdate = FlowLogWrite.updatePayload(lastFlowLog);
+            if (!writeInCallerTransaction(payloadUpdate)) {
+                await(enqueue(payloadUpdate));
+            }
+        }
+    }
+
+    @Override
+    public Optional<FlowLog> getLastFlowLog(String flowId) {
+        FlowLog cached = lastFlowLogs.get(flowId);
+        return cached != null ? Optional.of(cached) : super.getLastFlowLog(flowId);
+    }
+
+    @Override
+    public FlowLog close(Long stackId, String flowId) throws TransactionExecutionException {
+        evict(flowId);
+        return super.close(stackId, flowId);
+    }
+
+    @Override
+    public FlowLog cancel(Long stackId, String flowId) throws TransactionExecutionException {
+        evict(flowId);
+        return super.cancel(stackId, flowId);
+    }
+
+    @Override
+    public FlowLog terminate(Long stackId, String flowId) throws TransactionExecutionException {
+        evict(flowId);
+        return super.terminate(stackId, flowId);
+    }
+
+    /**
+     * Finalization reads and updates the flow log rows with JPA, so the queued writes of the flow are committed first and its cached last
+     * flow log is dropped. A barrier write is enough, because the queue is drained in order.
+     */
+    private void evict(String flowId) {
+        FlowLog cached = lastFlowLogs.remove(flowId);
+        if (cached != null) {
+            await(enqueue(FlowLogWrite.barrier()));
+        }
+    }
+
+    private boolean writeInCallerTransaction(FlowLogWrite write) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        executeWrites(List.of(write));
+        return true;
+    }
+
+    private void forgetOnRollback(FlowLog flowLog) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        lastFlowLogs.remove(flowLog.getFlowId(), flowLog);
+                    }
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(FlowLogWrite write) {
+        if (!running) {
+            throw new CloudbreakServiceException("Flow log writer is not running, flow log can not be saved for flow " + write.getFlowId());
+        }
+        try {
+            if (!writeQueue.offer(write, commitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CloudbreakServiceException("Flow log write queue is full, flow log can not be saved for flow " + write.getFlowId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudbreakServiceException("Interrupted while queueing flow log write for flow " + write.getFlowId(), e);
+        }
+        return write.getCommitted();
+    }
+
+    private void await(CompletableFuture<Void> committed) {
+        try {
+            committed.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudbreakServiceException("Interrupted while waiting for flow log commit", e);
+        } catch (ExecutionException e) {
+            throw new CloudbreakServiceException("Flow log write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new CloudbreakServiceException("Flow log write was not committed in " + commitTimeoutMs + " ms", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<FlowLogWrite> batch = new ArrayList<>(batchSize);
+        while (running || !writeQueue.isEmpty()) {
+            try {
+                FlowLogWrite first = writeQueue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    writeQueue.drainTo(batch, batchSize - 1);
+                    metricService.submit(FlowMetricType.FLOW_LOG_WRITE_QUEUE, writeQueue.size());
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.info("Flow log writer has been interrupted");
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error in flow log writer", e);
+                batch.forEach(write -> write.getCommitted().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<FlowLogWrite> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            transactionService.required(() -> executeWrites(batch));
+            batch.forEach(write -> write.getCommitted().complete(null));
+        } catch (TransactionExecutionException e) {
+            LOGGER.warn("Batched flow log write of {} items failed, falling back to one transaction per item", batch.size(), e);
+            writeOneByOne(batch);
+        }
+        metricService.submit(FlowMetricType.FLOW_LOG_WRITE_BATCH, batch.size());
+        LOGGER.debug("Flow log batch of {} writes committed in {} ms", batch.size(), System.currentTimeMillis() - start);
+    }
+
+    private void writeOneByOne(List<FlowLogWrite> batch) {
+        for (FlowLogWrite write : batch) {
+            try {
+                transactionService.required(() -> executeWrites(List.of(write)));
+                write.getCommitted().complete(null);
+            } catch (TransactionExecutionException e) {
+                LOGGER.error("Flow log write failed for flow {}", write.getFlowId(), e);
+                write.getCommitted().completeExceptionally(e.getCause());
+            }
+        }
+    }
+
+    private void executeWrites(List<FlowLogWrite> writes) {
+        List<FlowLog> inserts = filter(writes, FlowLogWriteType.INSERT);
+        if (!inserts.isEmpty()) {
+            Iterator<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS, Long.class, inserts.size()).iterator();
+            inserts.forEach(flowLog -> flowLog.setId(ids.next()));
+            jdbcTemplate.batchUpdate(INSERT_FLOW_LOG, inserts.stream().map(this::toInsertArgs).collect(Collectors.toList()));
+            inserts.forEach(flowLog -> flowLog.setVersion(0L));
+        }
+        List<FlowLog> statusUpdates = filter(writes, FlowLogWriteType.UPDATE_STATUS);
+        if (!statusUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_STATE_STATUS, statusUpdates.stream()
+                    .map(flowLog -> new Object[]{flowLog.getStateStatus().name(), flowLog.getId()})
+                    .collect(Collectors.toList()));
+        }
+        List<FlowLog> payloadUpdates = filter(writes, FlowLogWriteType.UPDATE_PAYLOAD);
+        if (!payloadUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PAYLOAD, payloadUpdates.stream()
+                    .map(flowLog -> new Object[]{flowLog.getPayload(), flowLog.getVariables(), flowLog.getPayloadCodec(), flowLog.getId()})
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private List<FlowLog> filter(List<FlowLogWrite> writes, FlowLogWriteType type) {
+        return writes.stream().filter(write -> write.getType() == type).map(FlowLogWrite::getFlowLog).collect(Collectors.toList());
+    }
+
+    private Object[] toInsertArgs(FlowLog flowLog) {
+        return new Object[]{flowLog.getId(), flowLog.getCreated(), flowLog.getResourceId(), flowLog.getResourceType(), flowLog.getFlowId(),
+                flowLog.getFlowChainId(), flowLog.getFlowTriggerUserCrn(), flowLog.getNextEvent(), flowLog.getPayload(),
+                className(flowLog.getPayloadType()), flowLog.getVariables(), className(flowLog.getFlowType()), flowLog.getCurrentState(),
+                flowLog.getFinalized(), flowLog.getCloudbreakNodeId(), flowLog.getStateStatus().name(), flowLog.getPayloadCodec()};
+    }
+
+    private String className(Class<?> clazz) {
+        return clazz == null ? null : clazz.getName();
+    }
+
+    private enum FlowLogWriteType {
+        INSERT, UPDATE_STATUS, UPDATE_PAYLOAD, BARRIER
+    }
+
+    private static class FlowLogWrite {
+
+        private final FlowLogWriteType type;
+
+        private final FlowLog flowLog;
+
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private FlowLogWrite(FlowLogWriteType type, FlowLog flowLog) {
+            this.type = type;
+            this.flowLog = flowLog;
+        }
+
+        static FlowLogWrite insert(FlowLog flowLog) {
+            return new FlowLogWrite(FlowLogWriteType.INSERT, flowLog);
+        }
+
+        static FlowLogWrite updateStatus(FlowLog flowLog) {
+            return new FlowLogWrite(FlowLogWriteType.UPDATE_STATUS, flowLog);
+        }
+
+        static FlowLogWrite updatePayload(FlowLog flowLog) {
+            return new FlowLogWrite(FlowLogWriteType.UPDATE_PAYLOAD, flowLog);
+        }
+
+        static FlowLogWrite barrier() {
+            return new FlowLogWrite(FlowLogWriteType.BARRIER, null);
+        }
+
+        FlowLogWriteType getType() {
+            return type;
+        }
+
+        FlowLog getFlowLog() {
+            return flowLog;
+        }
+
+        String getFlowId() {
+            return flowLog == null ? null : flowLog.getFlowId();
+        }
+
+        CompletableFuture<Void> getCommitted() {
+            return committed;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- // running flow lookup index
+-- Migration SQL that makes the change goes here.
+
+CREATE INDEX IF NOT EXISTS idx_flowlog_pending_resourceid_flowtype ON flowlog USING btree (resourceid, flowtype) WHERE statestatus = 'PENDING';
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+DROP INDEX IF EXISTS idx_flowlog_pending_resourceid_flowtype;
@@ -0,0 +1,9 @@
+-- // flowlog payload codec
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE flowlog ADD COLUMN IF NOT EXISTS payloadcodec varchar(255);
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE flowlog DROP COLUMN IF EXISTS payloadcodec;
@@ -0,0 +1,9 @@
+-- // node running flows
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE node ADD COLUMN IF NOT EXISTS runningflows int4 NOT NULL DEFAULT 0;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE node DROP COLUMN IF EXISTS runningflows;
@@ -0,0 +1,11 @@
+-- // node lease
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE node ADD COLUMN IF NOT EXISTS leaseexpiry int8;
+ALTER TABLE node ADD COLUMN IF NOT EXISTS assignmentversion int8 NOT NULL DEFAULT 0;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE node DROP COLUMN IF EXISTS assignmentversion;
+ALTER TABLE node DROP COLUMN IF EXISTS leaseexpiry;
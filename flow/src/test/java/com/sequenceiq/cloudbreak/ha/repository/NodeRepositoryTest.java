@@ -0,0 +1,161 @@
+package com.sequenceiq.cloudbreak.ha.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.sequenceiq.cloudbreak.ha.domain.Node;
+
+/**
+ * Runs the native lease queries of {@link NodeRepository} against PostgreSQL, the embedded test databases do not support
+ * {@code INSERT ... ON CONFLICT} and advisory locks. The node table is created by the flow schema migrations. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.physical_naming_strategy=org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl"})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ContextConfiguration(initializers = NodeRepositoryTest.PostgresInitializer.class)
+class NodeRepositoryTest {
+
+    private static final List<String> NODE_MIGRATIONS = List.of(
+            "20190618210619_CB-1239_nodeconfig_table_for_HA.sql",
+            "20201018120000_node_running_flows.sql",
+            "20201018130000_node_lease.sql");
+
+    private static final String UNDO_SEPARATOR = "-- //@UNDO";
+
+    private static final long TIMEOUT_SEC = 10L;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:9.6");
+
+    @Inject
+    private NodeRepository underTest;
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Test
+    void testRenewLeaseCreatesTheNode() {
+        long assignmentVersion = underTest.renewLease("node-1", 1000L, 61000L, 2);
+
+        Node node = findNode("node-1");
+        assertEquals(0L, assignmentVersion);
+        assertEquals(1000L, node.getLastUpdated());
+        assertEquals(61000L, node.getLeaseExpiry());
+        assertEquals(2, node.getRunningFlows());
+        assertEquals(0L, node.getVersion());
+    }
+
+    @Test
+    void testRenewLeaseExtendsTheLeaseOfAnExistingNode() {
+        underTest.renewLease("node-1", 1000L, 61000L, 2);
+
+        long assignmentVersion = underTest.renewLease("node-1", 2000L, 62000L, 5);
+
+        Node node = findNode("node-1");
+        assertEquals(0L, assignmentVersion);
+        assertEquals(2000L, node.getLastUpdated());
+        assertEquals(62000L, node.getLeaseExpiry());
+        assertEquals(5, node.getRunningFlows());
+        assertEquals(1L, node.getVersion());
+    }
+
+    @Test
+    void testRenewLeaseReturnsTheAssignmentVersionAfterFlowsWereTakenOver() {
+        underTest.renewLease("node-1", 1000L, 61000L, 0);
+        underTest.renewLease("node-2", 1000L, 61000L, 0);
+
+        assertEquals(1, underTest.incrementAssignmentVersion(Set.of("node-1")));
+
+        assertEquals(1L, underTest.renewLease("node-1", 2000L, 62000L, 1));
+        assertEquals(0L, underTest.renewLease("node-2", 2000L, 62000L, 0));
+    }
+
+    @Test
+    void testFlowDistributionLockIsTakenByOneTransactionOnly() throws Exception {
+        assertTrue(underTest.tryAdvisoryTransactionLock(1L));
+
+        boolean lockedByOtherTransaction = CompletableFuture.supplyAsync(() -> underTest.tryAdvisoryTransactionLock(1L))
+                .get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        boolean otherLockedByOtherTransaction = CompletableFuture.supplyAsync(() -> underTest.tryAdvisoryTransactionLock(2L))
+                .get(TIMEOUT_SEC, TimeUnit.SECONDS);
+
+        assertFalse(lockedByOtherTransaction);
+        assertTrue(otherLockedByOtherTransaction);
+    }
+
+    private Node findNode(String uuid) {
+        entityManager.clear();
+        return underTest.findById(uuid).orElseThrow();
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = NodeRepository.class)
+    @EntityScan(basePackageClasses = Node.class)
+    static class TestConfig {
+    }
+
+    static class PostgresInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            migrateNodeTable();
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                    "spring.datasource.username=" + POSTGRES.getUsername(),
+                    "spring.datasource.password=" + POSTGRES.getPassword())
+                    .applyTo(applicationContext.getEnvironment());
+        }
+
+        private void migrateNodeTable() {
+            try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+                    Statement statement = connection.createStatement()) {
+                for (String migration : NODE_MIGRATIONS) {
+                    statement.execute(readMigration(migration));
+                }
+            } catch (SQLException | IOException e) {
+                throw new IllegalStateException("Could not create the node table", e);
+            }
+        }
+
+        private String readMigration(String migration) throws IOException {
+            try (InputStream script = getClass().getResourceAsStream("/schema/flow/" + migration)) {
+                String content = IOUtils.toString(script, StandardCharsets.UTF_8);
+                return content.substring(0, content.indexOf(UNDO_SEPARATOR));
+            }
+        }
+    }
+}
@@ -5,12 +5,16 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -73,6 +77,8 @@ public class HeartbeatServiceTest {
 
     private static final String NODE_2_ID = "854506AC-A0D5-4C98-A47C-70F6251FC604";
 
+    private static final long LEASE_DURATION = 15_000L;
+
     private static final LocalDateTime BASE_DATE_TIME = LocalDateTime.of(2018, 1, 1, 0, 0);
 
     @InjectMocks
@@ -119,6 +125,8 @@ public class HeartbeatServiceTest {
         when(nodeConfig.isNodeIdSpecified()).thenReturn(true);
         when(nodeConfig.getId()).thenReturn(MY_ID);
         ReflectionTestUtils.setField(heartbeatService, "heartbeatThresholdRate", 70000);
+        ReflectionTestUtils.setField(heartbeatService, "leaseDuration", LEASE_DURATION);
+        lenient().when(nodeService.tryLockFlowDistribution()).thenReturn(true);
         doAnswer(invocation -> {
             try {
                 return ((Supplier<?>) invocation.getArgument(0)).get();
@@ -154,7 +162,7 @@ public class HeartbeatServiceTest {
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs);
@@ -206,7 +214,7 @@ public class HeartbeatServiceTest {
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs);
@@ -258,7 +266,7 @@ public class HeartbeatServiceTest {
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs);
@@ -323,7 +331,7 @@ public class HeartbeatServiceTest {
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs);
@@ -374,7 +382,7 @@ public class HeartbeatServiceTest {
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(2)));
         distribution.computeIfAbsent(clusterNodes.get(2), v -> new ArrayList<>()).
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList()));
@@ -416,7 +424,7 @@ public class HeartbeatServiceTest {
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(2)));
         distribution.computeIfAbsent(clusterNodes.get(2), v -> new ArrayList<>()).
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowDistributor.distributeByResourceId(any(), any())).thenReturn(distribution);
 
         List<FlowLog> myNewFlowLogs = node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList());
         when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(myNewFlowLogs));
@@ -514,6 +522,127 @@ public class HeartbeatServiceTest {
         }
     }
 
+    @Test
+    public void testHeartbeatRenewsLease() {
+        ReflectionTestUtils.setField(heartbeatService, "retryService", new ExecutingRetry());
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        when(runningFlows.getRunningFlowIds()).thenReturn(Set.of("flow1", "flow2"));
+
+        heartbeatService.heartbeat();
+
+        verify(nodeService).renewLease(MY_ID, 200_000L, 200_000L + LEASE_DURATION, 2);
+    }
+
+    @Test
+    public void testFlowLogIsNotQueriedWhenNothingWasAssigned() throws TransactionExecutionException {
+        ReflectionTestUtils.setField(heartbeatService, "retryService", new ExecutingRetry());
+        List<Node> clusterNodes = getLeasedClusterNodes(200_000L);
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        when(nodeService.renewLease(anyString(), anyLong(), anyLong(), anyInt())).thenReturn(3L);
+
+        heartbeatService.heartbeat();
+        heartbeatService.scheduledFlowDistribution();
+        heartbeatService.heartbeat();
+        heartbeatService.scheduledFlowDistribution();
+
+        verify(flowLogService, times(1)).findAllByCloudbreakNodeId(MY_ID);
+        verify(transactionService, never()).required(any(Supplier.class));
+    }
+
+    @Test
+    public void testAssignedFlowsAreRestartedWhenAssignmentVersionChanges() {
+        ReflectionTestUtils.setField(heartbeatService, "retryService", new ExecutingRetry());
+        List<Node> clusterNodes = getLeasedClusterNodes(200_000L);
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        when(nodeService.renewLease(anyString(), anyLong(), anyLong(), anyInt())).thenReturn(3L, 4L);
+        FlowLog flowLog = getFlowLogs(1, 5000).get(0);
+        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(Collections.emptySet(), Set.of(flowLog));
+
+        heartbeatService.heartbeat();
+        heartbeatService.scheduledFlowDistribution();
+        heartbeatService.heartbeat();
+        heartbeatService.scheduledFlowDistribution();
+
+        verify(flow2Handler).restartFlow(flowLog.getFlowId());
+    }
+
+    @Test
+    public void testExpiredLeaseIsTakenOverBeforeHeartbeatThreshold() throws TransactionExecutionException {
+        List<Node> clusterNodes = getLeasedClusterNodes(200_000L);
+        Node failedNode = clusterNodes.get(1);
+        failedNode.setLastUpdated(200_000L - LEASE_DURATION - 1000L);
+        failedNode.setLeaseExpiry(199_000L);
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        Set<FlowLog> failedFlowLogs = new HashSet<>(getFlowLogs(1, 5000));
+        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(failedFlowLogs);
+        Map<Node, List<String>> distribution = Map.of(clusterNodes.get(2), List.of(failedFlowLogs.iterator().next().getFlowId()));
+        when(flowDistributor.distributeByResourceId(anyMap(), eq(List.of(clusterNodes.get(0), clusterNodes.get(2))))).thenReturn(distribution);
+
+        List<Node> failedNodes = heartbeatService.distributeFlows();
+
+        assertEquals(List.of(failedNode), failedNodes);
+        verify(nodeService).incrementAssignmentVersion(Set.of(NODE_2_ID));
+        verify(flowLogService).saveAll(anyCollection());
+    }
+
+    @Test
+    public void testFlowsAreNotDistributedWhenAnotherNodeHoldsTheLock() throws TransactionExecutionException {
+        List<Node> clusterNodes = getLeasedClusterNodes(200_000L);
+        clusterNodes.get(1).setLastUpdated(135_000L);
+        clusterNodes.get(1).setLeaseExpiry(150_000L);
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        when(nodeService.tryLockFlowDistribution()).thenReturn(false);
+
+        List<Node> failedNodes = heartbeatService.distributeFlows();
+
+        assertTrue(failedNodes.isEmpty());
+        verify(flowLogService, never()).findAllByCloudbreakNodeId(anyString());
+        verify(flowLogService, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    public void testLocalFlowsAreCancelledWhenLeaseWasNotRenewedInTime() {
+        ReflectionTestUtils.setField(heartbeatService, "retryService", new ExecutingRetry());
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L, 200_000L + LEASE_DURATION + 1L);
+        when(runningFlows.getRunningFlowIds()).thenReturn(Set.of());
+        Long stackId = 4242L;
+        InMemoryStateStore.putStack(stackId, PollGroup.POLLABLE);
+
+        heartbeatService.heartbeat();
+        assertEquals(PollGroup.POLLABLE, InMemoryStateStore.getStack(stackId));
+        heartbeatService.heartbeat();
+
+        assertEquals(PollGroup.CANCELLED, InMemoryStateStore.getStack(stackId));
+        InMemoryStateStore.deleteStack(stackId);
+    }
+
+    @Test
+    public void testLegacyNodeIsJudgedByHeartbeatThreshold() throws TransactionExecutionException {
+        List<Node> clusterNodes = getLeasedClusterNodes(200_000L);
+        Node legacyNode = clusterNodes.get(1);
+        legacyNode.setLeaseExpiry(100_000L);
+        legacyNode.setLastUpdated(150_000L);
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+
+        List<Node> failedNodes = heartbeatService.distributeFlows();
+
+        assertTrue(failedNodes.isEmpty());
+    }
+
+    private List<Node> getLeasedClusterNodes(long now) {
+        List<Node> nodes = getClusterNodes();
+        nodes.forEach(node -> {
+            node.setLastUpdated(now);
+            node.setLeaseExpiry(now + LEASE_DURATION);
+        });
+        return nodes;
+    }
+
     private List<Node> getClusterNodes() {
         List<Node> nodes = new ArrayList<>();
         nodes.add(new Node(MY_ID));
@@ -553,7 +682,7 @@ public class HeartbeatServiceTest {
         when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(failedFlowLogs2);
 
         Map<Node, List<String>> flowDistribution = createFlowDistribution(failedFLowLogs1, failedFlowLogs2);
-        when(flowDistributor.distribute(anyList(), eq(clusterNodes.subList(2, clusterNodes.size())))).thenReturn(flowDistribution);
+        when(flowDistributor.distributeByResourceId(anyMap(), eq(clusterNodes.subList(2, clusterNodes.size())))).thenReturn(flowDistribution);
 
         Set<Long> deletedResources = failedFLowLogs1.stream()
                 .map(FlowLog::getResourceId)
@@ -579,4 +708,22 @@ public class HeartbeatServiceTest {
         distribution.put(new Node(UUID.randomUUID().toString()), failedFLowLogs1.stream().map(FlowLog::getFlowId).collect(Collectors.toList()));
         return distribution;
     }
+
+    private static class ExecutingRetry implements Retry {
+
+        @Override
+        public Boolean testWith2SecDelayMax5Times(Supplier<Boolean> action) {
+            return action.get();
+        }
+
+        @Override
+        public <T> T testWith2SecDelayMax15Times(Supplier<T> action) throws ActionFailedException {
+            return action.get();
+        }
+
+        @Override
+        public <T> T testWith1SecDelayMax5Times(Supplier<T> action) throws ActionFailedException {
+            return action.get();
+        }
+    }
 }
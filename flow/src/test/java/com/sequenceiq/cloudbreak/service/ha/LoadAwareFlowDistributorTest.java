@@ -0,0 +1,110 @@
+package com.sequenceiq.cloudbreak.service.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.ha.domain.Node;
+import com.sequenceiq.cloudbreak.ha.service.LoadAwareFlowDistributor;
+
+public class LoadAwareFlowDistributorTest {
+
+    private static final double LOAD_FACTOR = 1.25;
+
+    private final LoadAwareFlowDistributor underTest = new LoadAwareFlowDistributor();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "virtualNodes", 100);
+        ReflectionTestUtils.setField(underTest, "loadFactor", LOAD_FACTOR);
+    }
+
+    @Test
+    public void testFlowsOfResourceStayTogether() {
+        List<Node> nodes = getNodes(0, 0, 0);
+        Map<String, Long> flows = new LinkedHashMap<>();
+        flows.put("flow1", 1L);
+        flows.put("flow2", 1L);
+        flows.put("flow3", 2L);
+
+        Map<Node, List<String>> result = underTest.distributeByResourceId(flows, nodes);
+
+        assertTrue(result.values().stream().anyMatch(assigned -> assigned.containsAll(List.of("flow1", "flow2"))));
+        assertEquals(3L, result.values().stream().mapToLong(List::size).sum());
+    }
+
+    @Test
+    public void testNoNodeGoesOverTheLoadBound() {
+        List<Node> nodes = getNodes(0, 0, 0, 0);
+        Map<String, Long> flows = getFlows(1000);
+
+        Map<Node, List<String>> result = underTest.distributeByResourceId(flows, nodes);
+
+        long bound = (long) Math.ceil(flows.size() * LOAD_FACTOR / nodes.size());
+        assertEquals(flows.size(), result.values().stream().mapToLong(List::size).sum());
+        for (Node node : nodes) {
+            assertTrue(result.get(node).size() <= bound);
+        }
+    }
+
+    @Test
+    public void testBusyNodeGetsFewerFlows() {
+        int busyNodeRunningFlows = 100;
+        List<Node> nodes = getNodes(busyNodeRunningFlows, 0, 0);
+        Map<String, Long> flows = getFlows(300);
+
+        Map<Node, List<String>> result = underTest.distributeByResourceId(flows, nodes);
+
+        long bound = (long) Math.ceil((flows.size() + busyNodeRunningFlows) * LOAD_FACTOR / nodes.size());
+        int busyNodeFlows = result.getOrDefault(nodes.get(0), List.of()).size();
+        assertTrue(busyNodeRunningFlows + busyNodeFlows <= bound);
+        assertTrue(busyNodeFlows < result.get(nodes.get(1)).size());
+        assertTrue(busyNodeFlows < result.get(nodes.get(2)).size());
+    }
+
+    @Test
+    public void testSameResourceGoesToSameNodeWhenNodesDoNotChange() {
+        List<Node> nodes = getNodes(0, 0, 0);
+
+        Map<Node, List<String>> first = underTest.distributeByResourceId(Map.of("flow1", 42L), nodes);
+        Map<Node, List<String>> second = underTest.distributeByResourceId(Map.of("flow2", 42L), nodes);
+
+        assertEquals(first.keySet(), second.keySet());
+    }
+
+    @Test
+    public void testFlowIdsWithoutResourceAreDistributed() {
+        List<Node> nodes = getNodes(0, 0);
+
+        Map<Node, List<String>> result = underTest.distribute(List.of("flow1", "flow2", "flow3"), nodes);
+
+        assertEquals(3L, result.values().stream().mapToLong(List::size).sum());
+    }
+
+    private List<Node> getNodes(int... runningFlows) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < runningFlows.length; i++) {
+            Node node = new Node("node-" + i);
+            node.setRunningFlows(runningFlows[i]);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private Map<String, Long> getFlows(int count) {
+        Map<String, Long> flows = new LinkedHashMap<>();
+        for (long i = 0; i < count; i++) {
+            flows.put(UUID.randomUUID().toString(), i);
+        }
+        return flows;
+    }
+}
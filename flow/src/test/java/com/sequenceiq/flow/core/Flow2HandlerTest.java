@@ -17,6 +17,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -44,10 +45,13 @@ import org.springframework.test.util.ReflectionTestUtils;
 import com.cedarsoftware.util.io.JsonWriter;
 import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.flow.core.chain.FlowChainHandler;
 import com.sequenceiq.flow.core.chain.FlowChains;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
 import com.sequenceiq.flow.core.config.FlowConfiguration;
 import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
 import com.sequenceiq.flow.core.restart.DefaultRestartAction;
@@ -150,6 +154,9 @@ public class Flow2HandlerTest {
     @Mock
     private SpanContext spanContext;
 
+    @Mock
+    private MetricService metricService;
+
     private FlowState flowState;
 
     private Event<? extends Payload> dummyEvent;
@@ -160,6 +167,7 @@ public class Flow2HandlerTest {
     public void setUp() throws TransactionExecutionException {
         underTest = new Flow2Handler();
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(underTest, "flowPayloadCodecService", createFlowPayloadCodecService());
         Map<String, Object> headers = new HashMap<>();
         headers.put(Flow2Handler.FLOW_ID, FLOW_ID);
         dummyEvent = new Event<>(new Headers(headers), payload);
@@ -191,6 +199,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1))
                 .save(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), any(), eq(flowConfig.getClass()), eq(flowState));
         verify(flow, times(1)).sendEvent(anyString(), isNull(), any(), any());
+        verify(metricService, times(1)).recordTimer(eq(FlowMetricType.FLOW_EVENT), any(Duration.class), eq("event"), eq("key"));
     }
 
     @Test
@@ -266,6 +275,25 @@ public class Flow2HandlerTest {
         assertNull(flowParameters.getFlowTriggerUserCrn());
     }
 
+    @Test
+    public void testExistingFlowWithWriteBehindFlowLogIsNotWrappedInTransaction() throws TransactionExecutionException {
+        FlowLog lastFlowLog = new FlowLog();
+        lastFlowLog.setNextEvent("KEY");
+        BDDMockito.<FlowConfiguration<?>>given(flowConfigurationMap.get(any())).willReturn(flowConfig);
+        given(runningFlows.get(anyString())).willReturn(flow);
+        given(flow.getCurrentState()).willReturn(flowState);
+        given(flow.getFlowId()).willReturn(FLOW_ID);
+        given(flowLogService.getLastFlowLog(FLOW_ID)).willReturn(Optional.of(lastFlowLog));
+        given(flowLogService.isWriteBehind()).willReturn(true);
+
+        dummyEvent.setKey("KEY");
+        underTest.accept(dummyEvent);
+        verify(transactionService, never()).required(any(Runnable.class));
+        verify(flowLogService, times(1))
+                .save(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), anyMap(), nullable(Class.class), eq(flowState));
+        verify(flow, times(1)).sendEvent(eq("KEY"), isNull(), any(), any());
+    }
+
     @Test
     public void testExistingFlowRepeatedState() {
         BDDMockito.<FlowConfiguration<?>>given(flowConfigurationMap.get(any())).willReturn(flowConfig);
@@ -458,6 +486,16 @@ public class Flow2HandlerTest {
         verify(defaultRestartAction, never()).restart(any(), any(), any(), any());
     }
 
+    private FlowPayloadCodecService createFlowPayloadCodecService() {
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec(Map.of());
+        FlowPayloadCodecService flowPayloadCodecService = new FlowPayloadCodecService();
+        ReflectionTestUtils.setField(flowPayloadCodecService, "writeCodecName", JsonIoFlowPayloadCodec.NAME);
+        ReflectionTestUtils.setField(flowPayloadCodecService, "codecs", List.of(jsonIoFlowPayloadCodec));
+        ReflectionTestUtils.setField(flowPayloadCodecService, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        flowPayloadCodecService.init();
+        return flowPayloadCodecService;
+    }
+
     private FlowLog createFlowLog(String flowChainId) {
         FlowLog flowLog = new FlowLog(STACK_ID, FLOW_ID, "START_STATE", true, StateStatus.SUCCESSFUL);
         flowLog.setFlowType(HelloWorldFlowConfig.class);
@@ -0,0 +1,92 @@
+package com.sequenceiq.flow.core.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cedarsoftware.util.io.JsonWriter;
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.flow.core.TestPayload;
+import com.sequenceiq.flow.domain.FlowLog;
+
+public class FlowPayloadCodecServiceTest {
+
+    private static final Long RESOURCE_ID = 1L;
+
+    private static final int THRESHOLD = 1024;
+
+    private final JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec(Map.of());
+
+    @Test
+    public void testEncodeWithConfiguredCodec() {
+        FlowPayloadCodecService underTest = createService(KryoFlowPayloadCodec.NAME, new KryoFlowPayloadCodec(true, THRESHOLD));
+        FlowLog flowLog = new FlowLog();
+
+        underTest.encode(flowLog, new TestPayload(RESOURCE_ID), Map.of("repeated", 2));
+
+        assertEquals(KryoFlowPayloadCodec.NAME, flowLog.getPayloadCodec());
+        assertEquals(RESOURCE_ID, ((TestPayload) underTest.decodePayload(flowLog)).getResourceId());
+        assertEquals(2, underTest.decodeVariables(flowLog).get("repeated"));
+    }
+
+    @Test
+    public void testEncodeFallsBackToJsonIo() {
+        FlowPayloadCodec failingCodec = mock(FlowPayloadCodec.class);
+        when(failingCodec.getName()).thenReturn("failing-v1");
+        when(failingCodec.encode(any())).thenThrow(new IllegalArgumentException("unsupported"));
+        FlowPayloadCodecService underTest = createService("failing-v1", failingCodec);
+        FlowLog flowLog = new FlowLog();
+
+        underTest.encode(flowLog, new TestPayload(RESOURCE_ID), Map.of());
+
+        assertEquals(JsonIoFlowPayloadCodec.NAME, flowLog.getPayloadCodec());
+        assertEquals(RESOURCE_ID, ((TestPayload) underTest.decodePayload(flowLog)).getResourceId());
+    }
+
+    @Test
+    public void testDecodeLegacyFlowLogWithJsonIo() {
+        FlowPayloadCodecService underTest = createService(KryoFlowPayloadCodec.NAME, new KryoFlowPayloadCodec(true, THRESHOLD));
+        FlowLog flowLog = new FlowLog();
+        flowLog.setPayload(JsonWriter.objectToJson(new TestPayload(RESOURCE_ID)));
+
+        assertEquals(RESOURCE_ID, ((TestPayload) underTest.decodePayload(flowLog)).getResourceId());
+    }
+
+    @Test(expected = CloudbreakServiceException.class)
+    public void testDecodeWithUnknownCodec() {
+        FlowPayloadCodecService underTest = createService(JsonIoFlowPayloadCodec.NAME);
+        FlowLog flowLog = new FlowLog();
+        flowLog.setPayload("payload");
+        flowLog.setPayloadCodec("unknown-v1");
+
+        underTest.decodePayload(flowLog);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnknownWriteCodec() {
+        createService("unknown-v1");
+    }
+
+    private FlowPayloadCodecService createService(String writeCodecName, FlowPayloadCodec... additionalCodecs) {
+        FlowPayloadCodecService service = new FlowPayloadCodecService();
+        ReflectionTestUtils.setField(service, "writeCodecName", writeCodecName);
+        ReflectionTestUtils.setField(service, "codecs", concat(additionalCodecs));
+        ReflectionTestUtils.setField(service, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        service.init();
+        return service;
+    }
+
+    private List<FlowPayloadCodec> concat(FlowPayloadCodec... additionalCodecs) {
+        List<FlowPayloadCodec> codecs = new ArrayList<>(List.of(additionalCodecs));
+        codecs.add(jsonIoFlowPayloadCodec);
+        return codecs;
+    }
+}
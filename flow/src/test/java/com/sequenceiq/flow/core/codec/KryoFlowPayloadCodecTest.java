@@ -0,0 +1,81 @@
+package com.sequenceiq.flow.core.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.common.event.AcceptResult;
+import com.sequenceiq.flow.core.TestPayload;
+import com.sequenceiq.flow.core.model.FlowAcceptResult;
+
+import reactor.rx.Promise;
+
+public class KryoFlowPayloadCodecTest {
+
+    private static final Long RESOURCE_ID = 1L;
+
+    private static final int THRESHOLD = 64;
+
+    @Test
+    public void testPayloadRoundTrip() {
+        KryoFlowPayloadCodec underTest = new KryoFlowPayloadCodec(true, THRESHOLD);
+
+        Object decoded = underTest.decode(underTest.encode(new TestPayload(RESOURCE_ID)));
+
+        assertTrue(decoded instanceof TestPayload);
+        assertEquals(RESOURCE_ID, ((TestPayload) decoded).getResourceId());
+    }
+
+    @Test
+    public void testVariablesRoundTrip() {
+        KryoFlowPayloadCodec underTest = new KryoFlowPayloadCodec(true, THRESHOLD);
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("repeated", 2);
+        variables.put("payload", new TestPayload(RESOURCE_ID));
+
+        Map<Object, Object> decoded = (Map<Object, Object>) underTest.decode(underTest.encode(variables));
+
+        assertEquals(2, decoded.get("repeated"));
+        assertEquals(RESOURCE_ID, ((TestPayload) decoded.get("payload")).getResourceId());
+    }
+
+    @Test
+    public void testLargePayloadIsCompressed() {
+        KryoFlowPayloadCodec underTest = new KryoFlowPayloadCodec(true, THRESHOLD);
+        String large = "a".repeat(THRESHOLD * 10);
+
+        String encoded = underTest.encode(large);
+
+        assertEquals(1, Base64.getDecoder().decode(encoded)[0]);
+        assertTrue(encoded.length() < large.length());
+        assertEquals(large, underTest.decode(encoded));
+    }
+
+    @Test
+    public void testCompressedPayloadIsReadableWithCompressionDisabled() {
+        String large = "a".repeat(THRESHOLD * 10);
+        String encoded = new KryoFlowPayloadCodec(true, THRESHOLD).encode(large);
+
+        KryoFlowPayloadCodec underTest = new KryoFlowPayloadCodec(false, THRESHOLD);
+
+        assertEquals(0, Base64.getDecoder().decode(underTest.encode(large))[0]);
+        assertEquals(large, underTest.decode(encoded));
+    }
+
+    @Test
+    public void testPromiseIsRecreated() {
+        KryoFlowPayloadCodec underTest = new KryoFlowPayloadCodec(true, THRESHOLD);
+        Promise<AcceptResult> accepted = new Promise<>();
+        accepted.accept(FlowAcceptResult.runningInFlow("flowId"));
+
+        Promise<AcceptResult> decoded = (Promise<AcceptResult>) underTest.decode(underTest.encode(accepted));
+
+        assertFalse(decoded.isComplete());
+    }
+}
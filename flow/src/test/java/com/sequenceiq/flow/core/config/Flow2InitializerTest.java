@@ -1,6 +1,7 @@
 package com.sequenceiq.flow.core.config;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -16,10 +17,10 @@ import org.mockito.MockitoAnnotations;
 
 import com.sequenceiq.flow.core.Flow2Handler;
 import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
+import com.sequenceiq.flow.reactor.handler.EventHandlerExecutionService;
 
 import reactor.bus.EventBus;
 import reactor.bus.selector.Selector;
-import reactor.fn.Consumer;
 
 public class Flow2InitializerTest {
 
@@ -35,6 +36,9 @@ public class Flow2InitializerTest {
     @Mock
     private Flow2Handler flow2Handler;
 
+    @Mock
+    private EventHandlerExecutionService eventHandlerExecutionService;
+
     @Before
     public void setUp() {
         underTest = new Flow2Initializer();
@@ -46,7 +50,8 @@ public class Flow2InitializerTest {
         List<FlowConfiguration<?>> flowConfigs = new ArrayList<>();
         flowConfigs.add(new HelloWorldFlowConfig());
         given(this.flowConfigs.stream()).willReturn(flowConfigs.stream());
+        given(eventHandlerExecutionService.decorateFlowActions(flow2Handler)).willReturn(flow2Handler);
         underTest.init();
-        verify(reactor, times(1)).on(any(Selector.class), any(Consumer.class));
+        verify(reactor, times(1)).on(any(Selector.class), eq(flow2Handler));
     }
 }
@@ -0,0 +1,206 @@
+package com.sequenceiq.flow.reactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.cloudbreak.common.event.AwaitedRequest;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.core.TestPayload;
+
+import reactor.bus.Event;
+import reactor.core.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.core.processor.InsufficientCapacityException;
+import reactor.core.support.Exceptions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceShardedDispatcherTest {
+
+    private static final int LANES = 4;
+
+    private static final int BACKLOG = 2;
+
+    private static final long TIMEOUT_SEC = 5L;
+
+    @Mock
+    private MetricService metricService;
+
+    private ResourceShardedDispatcher underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new ResourceShardedDispatcher("test", LANES, BACKLOG, 100L, metricService,
+                new ThreadPoolExecutorDispatcher(2, BACKLOG, "test-requests"));
+    }
+
+    @After
+    public void tearDown() {
+        underTest.forceShutdown();
+    }
+
+    @Test
+    public void testEventsOfTheSameResourceAreProcessedInOrder() throws InterruptedException {
+        int count = 50;
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            underTest.dispatch(Event.wrap(new TestPayload(1L)), event -> {
+                processed.add(index);
+                done.countDown();
+            }, null);
+        }
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), processed.get(i));
+        }
+        verify(metricService, atLeastOnce()).submit(eq(FlowMetricType.EVENTBUS_LANE_QUEUE), anyDouble(), anyMap());
+        verify(metricService, atLeastOnce()).submit(eq(FlowMetricType.EVENTBUS_LANE_WAIT), anyDouble(), anyMap());
+    }
+
+    @Test
+    public void testEventsAreShardedByResourceId() {
+        assertEquals(underTest.laneOf(Event.wrap(new TestPayload(1L))), underTest.laneOf(Event.wrap(new TestPayload(1L))));
+        assertEquals(underTest.laneOf(Event.wrap(new TestPayload(2L))), underTest.laneOf(Event.wrap(new TestPayload(2L + LANES))));
+    }
+
+    @Test(expected = InsufficientCapacityException.class)
+    public void testTryDispatchFailsWhenLaneIsFull() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Event<TestPayload> event = Event.wrap(new TestPayload(1L));
+        underTest.dispatch(event, e -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        }, null);
+        assertTrue(started.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        try {
+            for (int i = 0; i <= BACKLOG; i++) {
+                underTest.tryDispatch(event, e -> { }, null);
+            }
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    @Test
+    public void testDispatchFromLaneDoesNotWaitForFreeSlot() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Event<TestPayload> event = Event.wrap(new TestPayload(1L));
+        underTest.dispatch(event, e -> {
+            for (int i = 0; i < BACKLOG * 2; i++) {
+                underTest.dispatch(event, inner -> { }, null);
+            }
+            underTest.dispatch(event, inner -> done.countDown(), null);
+        }, null);
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFullLaneRedispatchingToItselfDoesNotBlock() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        Event<TestPayload> event = Event.wrap(new TestPayload(1L));
+        underTest.dispatch(event, e -> {
+            started.countDown();
+            awaitQuietly(blocker);
+            underTest.dispatch(event, inner -> processed.add("redispatched"), null);
+            try {
+                underTest.tryDispatch(event, inner -> {
+                    processed.add("tried");
+                    done.countDown();
+                }, null);
+            } catch (InsufficientCapacityException ex) {
+                processed.add("rejected");
+            }
+        }, null);
+        assertTrue(started.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        for (int i = 0; i < BACKLOG; i++) {
+            int index = i;
+            underTest.dispatch(event, e -> processed.add("outside-" + index), null);
+        }
+        assertEquals((long) (LANES - 1) * BACKLOG, underTest.remainingSlots());
+
+        blocker.countDown();
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(List.of("outside-0", "outside-1", "redispatched", "tried"), processed);
+    }
+
+    @Test
+    public void testAwaitedRequestIsNotQueuedBehindItsSender() throws InterruptedException {
+        CountDownLatch replied = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        underTest.dispatch(Event.wrap(new TestPayload(1L)), e -> {
+            underTest.dispatch(Event.wrap(new TestRequest(1L)), request -> replied.countDown(), null);
+            if (awaitQuietly(replied)) {
+                done.countDown();
+            }
+        }, null);
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals((long) LANES * BACKLOG, underTest.remainingSlots());
+    }
+
+    @Test
+    public void testErrorConsumerGetsFailedEvent() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Event<TestPayload> event = Event.wrap(new TestPayload(1L));
+        underTest.dispatch(event, e -> {
+            throw new IllegalStateException("failed");
+        }, throwable -> {
+            error.set(throwable);
+            done.countDown();
+        });
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertSame(event, Exceptions.getFinalValueCause(error.get()));
+    }
+
+    private boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class TestRequest implements AwaitedRequest {
+
+        private final Long resourceId;
+
+        TestRequest(Long resourceId) {
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return resourceId;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.sequenceiq.flow.reactor.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.flow.core.Flow2Handler;
+import com.sequenceiq.flow.core.TestPayload;
+
+import reactor.bus.Event;
+import reactor.bus.EventBus;
+import reactor.bus.Event.Headers;
+import reactor.core.support.Exceptions;
+import reactor.fn.Consumer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHandlerExecutionServiceTest {
+
+    private static final long TIMEOUT_SEC = 5L;
+
+    private static final int EVENT_COUNT = 20;
+
+    @InjectMocks
+    private EventHandlerExecutionService underTest;
+
+    @Mock
+    private EventBus eventBus;
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void testHandlerIsNotDecoratedWhenOffloadIsDisabled() {
+        init(false, "");
+        Consumer<Event<TestPayload>> handler = event -> { };
+
+        assertSame(handler, underTest.decorate(handler));
+    }
+
+    @Test
+    public void testBlockingHandlerDoesNotHoldCallerThread() throws InterruptedException {
+        init(true, "");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(EVENT_COUNT);
+        AtomicReference<Thread> handlerThread = new AtomicReference<>();
+        Consumer<Event<TestPayload>> decorated = underTest.decorate(event -> {
+            handlerThread.set(Thread.currentThread());
+            awaitQuietly(release);
+            done.countDown();
+        });
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            decorated.accept(Event.wrap(new TestPayload(1L)));
+        }
+        release.countDown();
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(), handlerThread.get());
+    }
+
+    @Test
+    public void testConcurrencyLimitOfHandler() throws InterruptedException {
+        init(true, "LimitedHandler:2");
+        LimitedHandler handler = new LimitedHandler();
+        Consumer<Event<TestPayload>> decorated = underTest.decorate(handler);
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            decorated.accept(Event.wrap(new TestPayload(1L)));
+        }
+
+        assertTrue(handler.done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(2, handler.maxRunning.get());
+    }
+
+    @Test
+    public void testFailureIsReportedToDispatchErrorHandler() throws InterruptedException {
+        init(true, "");
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        when(eventBus.getDispatchErrorHandler()).thenReturn(throwable -> {
+            error.set(throwable);
+            done.countDown();
+        });
+        Event<TestPayload> event = Event.wrap(new TestPayload(1L));
+
+        underTest.decorate(e -> {
+            throw new IllegalStateException("failed");
+        }).accept(event);
+
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertSame(event, Exceptions.getFinalValueCause(error.get()));
+    }
+
+    @Test
+    public void testLimitWithoutThreadCountIsRejected() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> init(true, "LimitedHandler:2,Foo"));
+
+        assertEquals("Invalid entry 'Foo' in cb.eventhandler.offload.concurrency.limits, the expected format is HandlerName:threads, "
+                + "e.g. LaunchStackHandler:20", exception.getMessage());
+    }
+
+    @Test
+    public void testLimitWithInvalidThreadCountIsRejected() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> init(true, "Foo:x"));
+
+        assertTrue(exception.getMessage().startsWith("Invalid entry 'Foo:x'"));
+    }
+
+    @Test
+    public void testLimitWithZeroThreadsIsRejected() {
+        assertThrows(IllegalStateException.class, () -> init(true, "Foo:0"));
+    }
+
+    @Test
+    public void testFlowActionsAreNotDecoratedWhenOffloadIsDisabled() {
+        init(true, "");
+        Consumer<Event<? extends Payload>> flowHandler = event -> { };
+
+        assertSame(flowHandler, underTest.decorateFlowActions(flowHandler));
+    }
+
+    @Test
+    public void testEventsOfAFlowRunInOrderWhileOtherFlowsRunInParallel() throws InterruptedException {
+        initFlowActions();
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch otherFlowDone = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(EVENT_COUNT);
+        List<String> handledEvents = new CopyOnWriteArrayList<>();
+        Consumer<Event<? extends Payload>> decorated = underTest.decorateFlowActions(event -> {
+            if ("0".equals(event.getKey())) {
+                awaitQuietly(releaseFirst);
+            }
+            if ("other".equals(event.getKey())) {
+                otherFlowDone.countDown();
+            } else {
+                handledEvents.add((String) event.getKey());
+                done.countDown();
+            }
+        });
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            decorated.accept(flowEvent("flow-1", String.valueOf(i)));
+        }
+        decorated.accept(flowEvent("flow-2", "other"));
+
+        assertTrue(otherFlowDone.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(List.of(), handledEvents);
+        releaseFirst.countDown();
+        assertTrue(done.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            assertEquals(String.valueOf(i), handledEvents.get(i));
+        }
+    }
+
+    @Test
+    public void testFailedFlowActionIsReportedAndDoesNotStopTheFlow() throws InterruptedException {
+        initFlowActions();
+        CountDownLatch reported = new CountDownLatch(1);
+        CountDownLatch secondHandled = new CountDownLatch(1);
+        when(eventBus.getDispatchErrorHandler()).thenReturn(throwable -> reported.countDown());
+        Consumer<Event<? extends Payload>> decorated = underTest.decorateFlowActions(event -> {
+            if ("first".equals(event.getKey())) {
+                throw new IllegalStateException("failed");
+            }
+            secondHandled.countDown();
+        });
+
+        decorated.accept(flowEvent("flow-1", "first"));
+        decorated.accept(flowEvent("flow-1", "second"));
+
+        assertTrue(reported.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertTrue(secondHandled.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+
+    private void init(boolean offloadEnabled, String limits) {
+        ReflectionTestUtils.setField(underTest, "offloadEnabled", offloadEnabled);
+        ReflectionTestUtils.setField(underTest, "maxThreads", EVENT_COUNT);
+        ReflectionTestUtils.setField(underTest, "concurrencyLimits", limits);
+        underTest.init();
+    }
+
+    private void initFlowActions() {
+        ReflectionTestUtils.setField(underTest, "flowActionOffloadEnabled", true);
+        ReflectionTestUtils.setField(underTest, "flowActionMaxThreads", 2);
+        init(false, "");
+    }
+
+    private Event<? extends Payload> flowEvent(String flowId, String key) {
+        Event<TestPayload> event = new Event<>(new Headers(Map.of(Flow2Handler.FLOW_ID, flowId)), new TestPayload(1L));
+        event.setKey(key);
+        return event;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class LimitedHandler implements Consumer<Event<TestPayload>> {
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        private final CountDownLatch done = new CountDownLatch(EVENT_COUNT);
+
+        @Override
+        public void accept(Event<TestPayload> event) {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -30,7 +31,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.common.event.Payload;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
@@ -40,6 +40,8 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.FlowEvent;
 import com.sequenceiq.flow.core.FlowState;
 import com.sequenceiq.flow.core.ResourceIdProvider;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
 import com.sequenceiq.flow.core.config.AbstractFlowConfiguration;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
@@ -83,6 +85,9 @@ public class FlowLogDBServiceTest {
     @Mock
     private NodeConfig nodeConfig;
 
+    @Mock
+    private FlowPayloadCodecService flowPayloadCodecService;
+
     @Test
     public void updateLastFlowLogStatus() {
         runUpdateLastFlowLogStatusTest(false, StateStatus.SUCCESSFUL);
@@ -121,6 +126,13 @@ public class FlowLogDBServiceTest {
 
         Payload payload = mock(Selectable.class);
         Map<Object, Object> variables = Map.of("repeated", 2);
+        doAnswer(invocation -> {
+            FlowLog encoded = invocation.getArgument(0);
+            encoded.setPayload("payload");
+            encoded.setVariables("variables");
+            encoded.setPayloadCodec(JsonIoFlowPayloadCodec.NAME);
+            return null;
+        }).when(flowPayloadCodecService).encode(flowLog, payload, variables);
 
         underTest.updateLastFlowLogPayload(flowLog, payload, variables);
 
@@ -129,11 +141,9 @@ public class FlowLogDBServiceTest {
 
         FlowLog savedFlowLog = flowLogCaptor.getValue();
         assertEquals(flowLog.getId(), savedFlowLog.getId());
-
-        String payloadJson = JsonWriter.objectToJson(payload, Map.of());
-        String variablesJson = JsonWriter.objectToJson(variables, Map.of());
-        assertEquals(payloadJson, savedFlowLog.getPayload());
-        assertEquals(variablesJson, savedFlowLog.getVariables());
+        assertEquals("payload", savedFlowLog.getPayload());
+        assertEquals("variables", savedFlowLog.getVariables());
+        assertEquals(JsonIoFlowPayloadCodec.NAME, savedFlowLog.getPayloadCodec());
     }
 
     @Test
@@ -243,6 +253,47 @@ public class FlowLogDBServiceTest {
         verify(flowLogRepository, times(0)).updateLastLogStatusInFlow(eq(10L), eq(StateStatus.SUCCESSFUL));
     }
 
+    @Test
+    public void testIsOtherNonTerminationFlowRunningExcludesTerminationFlowsInQuery() {
+        when(applicationFlowInformation.getTerminationFlow()).thenReturn(Collections.singletonList(TerminationFlowConfig.class));
+        when(flowLogRepository.isAnyFlowRunningByResourceIdExceptFlowTypes(eq(1L), eq(List.of(TerminationFlowConfig.class)))).thenReturn(Boolean.TRUE);
+
+        boolean actual = underTest.isOtherNonTerminationFlowRunning(1L);
+
+        assertEquals(true, actual);
+        verify(flowLogRepository, never()).findAllRunningFlowLogByResourceId(anyLong());
+    }
+
+    @Test
+    public void testIsOtherNonTerminationFlowRunningWithoutTerminationFlows() {
+        when(applicationFlowInformation.getTerminationFlow()).thenReturn(Collections.emptyList());
+        when(flowLogRepository.isAnyFlowRunningByResourceId(1L)).thenReturn(Boolean.FALSE);
+
+        boolean actual = underTest.isOtherNonTerminationFlowRunning(1L);
+
+        assertEquals(false, actual);
+        verify(flowLogRepository, never()).isAnyFlowRunningByResourceIdExceptFlowTypes(anyLong(), any());
+    }
+
+    @Test
+    public void testIsOtherFlowRunning() {
+        when(flowLogRepository.isAnyFlowRunningByResourceId(1L)).thenReturn(Boolean.TRUE);
+
+        assertEquals(true, underTest.isOtherFlowRunning(1L));
+        verify(flowLogRepository, never()).findAllRunningFlowLogByResourceId(anyLong());
+    }
+
+    @Test
+    public void testFindAllRunningNonTerminationFlowIdsByStackId() {
+        when(applicationFlowInformation.getTerminationFlow()).thenReturn(Collections.singletonList(TerminationFlowConfig.class));
+        when(flowLogRepository.findAllRunningFlowIdsByResourceIdExceptFlowTypes(eq(1L), eq(List.of(TerminationFlowConfig.class))))
+                .thenReturn(Set.of("flow1"));
+
+        Set<String> actual = underTest.findAllRunningNonTerminationFlowIdsByStackId(1L);
+
+        assertEquals(Set.of("flow1"), actual);
+    }
+
     @Test
     public void testNoPendingFlowEvent() {
         Boolean actual = underTest.hasPendingFlowEvent(Lists.newArrayList(createFlowLog(false, "1"), createFlowLog(false, "2")));
@@ -0,0 +1,210 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.flow.core.FlowParameters;
+import com.sequenceiq.flow.core.TestPayload;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.KryoFlowPayloadCodec;
+import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
+import com.sequenceiq.flow.core.helloworld.config.HelloWorldState;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.repository.FlowLogRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WriteBehindFlowLogDBServiceTest {
+
+    private static final String FLOW_ID = "flowId";
+
+    private static final String NODE_ID = "node1";
+
+    private static final Long RESOURCE_ID = 1L;
+
+    private static final Long FLOW_LOG_ID = 42L;
+
+    @InjectMocks
+    private WriteBehindFlowLogDBService underTest;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private NodeConfig nodeConfig;
+
+    @Mock
+    private MetricService metricService;
+
+    @Mock
+    private FlowLogRepository flowLogRepository;
+
+    @Mock
+    private FlowPayloadCodecService flowPayloadCodecService;
+
+    @Before
+    public void setUp() throws TransactionExecutionException {
+        ReflectionTestUtils.setField(underTest, "batchSize", 10);
+        ReflectionTestUtils.setField(underTest, "queueSize", 100);
+        ReflectionTestUtils.setField(underTest, "lingerMs", 1L);
+        ReflectionTestUtils.setField(underTest, "commitTimeoutMs", 5000L);
+        when(nodeConfig.getId()).thenReturn(NODE_ID);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, FlowLog.class).setPayloadCodec(KryoFlowPayloadCodec.NAME);
+            return null;
+        }).when(flowPayloadCodecService).encode(any(FlowLog.class), any(), any());
+        doAnswer(invocation -> {
+            try {
+                invocation.getArgument(0, Runnable.class).run();
+            } catch (RuntimeException e) {
+                throw new TransactionExecutionException("Transaction failed", e);
+            }
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyInt())).thenReturn(List.of(FLOW_LOG_ID));
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testSaveInsertsWithBatchAndCachesLastFlowLog() {
+        FlowLog flowLog = underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+
+        assertEquals(FLOW_LOG_ID, flowLog.getId());
+        assertEquals(NODE_ID, flowLog.getCloudbreakNodeId());
+        assertEquals(StateStatus.PENDING, flowLog.getStateStatus());
+        ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO flowlog"), argsCaptor.capture());
+        Object[] insertArgs = argsCaptor.getValue().get(0);
+        assertEquals(FLOW_LOG_ID, insertArgs[0]);
+        assertEquals(HelloWorldFlowConfig.class.getName(), insertArgs[11]);
+        assertEquals(StateStatus.PENDING.name(), insertArgs[15]);
+        assertEquals(KryoFlowPayloadCodec.NAME, insertArgs[16]);
+
+        Optional<FlowLog> lastFlowLog = underTest.getLastFlowLog(FLOW_ID);
+        assertTrue(lastFlowLog.isPresent());
+        assertSame(flowLog, lastFlowLog.get());
+        verify(flowLogRepository, never()).findFirstByFlowIdOrderByCreatedDesc(FLOW_ID);
+    }
+
+    @Test
+    public void testStatusUpdateIsCommittedBeforeSaveReturns() {
+        FlowLog lastFlowLog = new FlowLog();
+        lastFlowLog.setId(1L);
+        lastFlowLog.setFlowId(FLOW_ID);
+
+        underTest.updateLastFlowLogStatus(lastFlowLog, true);
+        underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+
+        ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE flowlog SET statestatus = ? WHERE id = ?"), argsCaptor.capture());
+        assertEquals(StateStatus.FAILED.name(), argsCaptor.getValue().get(0)[0]);
+        assertEquals(1L, argsCaptor.getValue().get(0)[1]);
+    }
+
+    @Test
+    public void testFailedBatchFallsBackToSingleWrites() throws TransactionExecutionException {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO flowlog"), anyList()))
+                .thenThrow(new IllegalStateException("batch failed"))
+                .thenReturn(new int[]{1});
+
+        FlowLog flowLog = underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+
+        assertEquals(FLOW_LOG_ID, flowLog.getId());
+        verify(transactionService, times(2)).required(any(Runnable.class));
+    }
+
+    @Test
+    public void testCloseEvictsCachedFlowLog() throws TransactionExecutionException {
+        underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+        when(flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(FLOW_ID)).thenReturn(Optional.empty());
+
+        underTest.close(RESOURCE_ID, FLOW_ID);
+        underTest.getLastFlowLog(FLOW_ID);
+
+        verify(flowLogRepository, times(1)).findFirstByFlowIdOrderByCreatedDesc(FLOW_ID);
+    }
+
+    @Test
+    public void testSaveInCallerTransactionDoesNotWaitForTheWriter() throws TransactionExecutionException {
+        underTest.shutdown();
+        beginCallerTransaction();
+
+        FlowLog flowLog = underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+        underTest.updateLastFlowLogStatus(flowLog, false);
+
+        assertEquals(FLOW_LOG_ID, flowLog.getId());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO flowlog"), anyList());
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE flowlog SET statestatus = ? WHERE id = ?"), anyList());
+        verify(transactionService, never()).required(any(Runnable.class));
+        assertSame(flowLog, underTest.getLastFlowLog(FLOW_ID).get());
+    }
+
+    @Test
+    public void testRolledBackCallerTransactionEvictsCachedFlowLog() {
+        beginCallerTransaction();
+        underTest.save(new FlowParameters(FLOW_ID, "userCrn", null), null, "KEY", new TestPayload(RESOURCE_ID), Map.of(),
+                HelloWorldFlowConfig.class, HelloWorldState.INIT_STATE);
+        when(flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(FLOW_ID)).thenReturn(Optional.empty());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(underTest.getLastFlowLog(FLOW_ID).isPresent());
+    }
+
+    private void beginCallerTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
@@ -23,7 +23,12 @@ import org.apache.commons.lang3.reflect.TypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResponse;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Ca;
 import com.sequenceiq.freeipa.client.model.Cert;
 import com.sequenceiq.freeipa.client.model.Config;
@@ -58,6 +63,10 @@ public class FreeIpaClient {
 
     private static final Pattern RESPONSE_CODE_PATTERN = Pattern.compile("^Server returned HTTP response code: (\\d+)");
 
+    private static final ParameterizedType USER_LIST_TYPE = TypeUtils.parameterize(List.class, User.class);
+
+    private static final JavaType USER_LIST_JAVA_TYPE = TypeFactory.defaultInstance().constructType(USER_LIST_TYPE);
+
     private JsonRpcHttpClient jsonRpcHttpClient;
 
     private final String apiVersion;
@@ -92,14 +101,40 @@ public class FreeIpaClient {
     }
 
     public Optional<User> userFind(String user) throws FreeIpaClientException {
-        List<Object> flags = List.of(user);
-        Map<String, Object> params = Map.of(
-                "uid", user,
-                "all", true
-        );
-        ParameterizedType type = TypeUtils
-                .parameterize(List.class, User.class);
-        List<User> foundUsers = (List<User>) invoke("user_find", flags, params, type).getResult();
+        BatchOperation operation = userFindOperation(user);
+        List<User> foundUsers = (List<User>) invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), USER_LIST_TYPE).getResult();
+        return firstFoundUser(user, foundUsers);
+    }
+
+    /**
+     * Looks up the users with {@code batchSize} {@code user_find} commands per request.
+     *
+     * @return the users found by uid, users that do not exist are left out
+     */
+    public Map<String, User> userFind(Collection<String> users, int batchSize) throws FreeIpaClientException {
+        List<String> uids = List.copyOf(users);
+        Map<String, User> foundUsers = new HashMap<>();
+        for (int from = 0; from < uids.size(); from += batchSize) {
+            List<String> batch = uids.subList(from, Math.min(from + batchSize, uids.size()));
+            List<BatchOperation> operations = new ArrayList<>(batch.size());
+            for (String uid : batch) {
+                operations.add(userFindOperation(uid));
+            }
+            List<BatchResult> results = invokeBatch(operations);
+            for (int i = 0; i < batch.size(); i++) {
+                String uid = batch.get(i);
+                BatchResult result = results.get(i);
+                if (!result.isSuccess()) {
+                    throw new FreeIpaClientException(String.format("Failed to find user '%s': %s", uid, result.getError()));
+                }
+                List<User> found = ObjectMapperBuilder.getObjectMapper().convertValue(result.getResult(), USER_LIST_JAVA_TYPE);
+                firstFoundUser(uid, found).ifPresent(user -> foundUsers.put(uid, user));
+            }
+        }
+        return foundUsers;
+    }
+
+    private Optional<User> firstFoundUser(String user, List<User> foundUsers) {
         if (foundUsers.size() > 1) {
             LOGGER.error("Found more than 1 user with uid {}.", user);
         }
@@ -178,10 +213,8 @@ public class FreeIpaClient {
     }
 
     public User deleteUser(String userUid) throws FreeIpaClientException {
-        FreeIpaChecks.checkUserNotProtected(userUid, () -> String.format("User '%s' is protected and cannot be deleted from FreeIPA", userUid));
-        List<Object> flags = List.of(userUid);
-        Map<String, Object> params = Map.of();
-        return (User) invoke("user_del", flags, params, User.class).getResult();
+        BatchOperation operation = deleteUserOperation(userUid);
+        return (User) invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), User.class).getResult();
     }
 
     public Role deleteRole(String roleName) throws FreeIpaClientException {
@@ -191,16 +224,8 @@ public class FreeIpaClient {
     }
 
     public User userAdd(String user, String firstName, String lastName) throws FreeIpaClientException {
-        FreeIpaChecks.checkUserNotProtected(user, () -> String.format("User '%s' is protected and cannot be added to FreeIPA", user));
-        List<Object> flags = List.of(user);
-        Map<String, Object> params = Map.of(
-                "givenname", firstName,
-                "sn", lastName,
-                "loginshell", "/bin/bash",
-                "random", true,
-                "setattr", "krbPasswordExpiration=" + MAX_PASSWORD_EXPIRATION_DATETIME
-        );
-        return (User) invoke("user_add", flags, params, User.class).getResult();
+        BatchOperation operation = userAddOperation(user, firstName, lastName);
+        return (User) invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), User.class).getResult();
     }
 
     /**
@@ -265,17 +290,13 @@ public class FreeIpaClient {
     }
 
     public Group groupAdd(String group) throws FreeIpaClientException {
-        FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be added to FreeIPA", group));
-        List<Object> flags = List.of(group);
-        Map<String, Object> params = Map.of();
-        return (Group) invoke("group_add", flags, params, Group.class).getResult();
+        BatchOperation operation = groupAddOperation(group);
+        return (Group) invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), Group.class).getResult();
     }
 
     public void deleteGroup(String group) throws FreeIpaClientException {
-        FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be deleted from FreeIPA", group));
-        List<Object> flags = List.of(group);
-        Map<String, Object> params = Map.of();
-        invoke("group_del", flags, params, Object.class);
+        BatchOperation operation = deleteGroupOperation(group);
+        invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), Object.class);
     }
 
     public RPCResponse<Group> groupAddMembers(String group, Collection<String> users) throws FreeIpaClientException {
@@ -557,6 +578,12 @@ public class FreeIpaClient {
     }
 
     public <T> RPCResponse<T> invoke(String method, List<Object> flags, Map<String, Object> params, Type resultType) throws FreeIpaClientException {
+        ParameterizedType type = TypeUtils
+                .parameterize(RPCResponse.class, resultType);
+        return invokeRpc(method, flags, params, type);
+    }
+
+    private <R> R invokeRpc(String method, List<Object> flags, Map<String, Object> params, Type responseType) throws FreeIpaClientException {
         Map<String, Object> parameterMap = new HashMap<>();
         if (params != null && !params.isEmpty()) {
             parameterMap.putAll(params);
@@ -564,10 +591,8 @@ public class FreeIpaClient {
         parameterMap.put("version", apiVersion);
 
         LOGGER.debug("Issuing JSON-RPC request:\n\n method: {}\n flags: {}\n", method, flags);
-        ParameterizedType type = TypeUtils
-                .parameterize(RPCResponse.class, resultType);
         try {
-            RPCResponse<T> response = (RPCResponse<T>) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), type);
+            R response = (R) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), responseType);
             LOGGER.debug("Response object: {}", response);
             if (response == null) {
                 // TODO CDPCP-1028 investigate why invoke returns null instead of throwing an exception
@@ -587,6 +612,72 @@ public class FreeIpaClient {
         }
     }
 
+    /**
+     * Executes the operations in a single {@code batch} request. The operations are executed by FreeIPA one after the other, and the failure
+     * of an operation does not stop the rest, so the result of every operation has to be checked.
+     * <p>
+     * Unlike the other commands, {@code batch} has no {@code result} of its own, the {@code count} and the {@code results} of the operations
+     * are the fields of the JSON-RPC result itself, so the reply is not read as an {@link RPCResponse}.
+     *
+     * @param operations the operations to execute
+     * @return the results of the operations, in the order of the operations
+     * @throws FreeIpaClientException if the batch request itself failed
+     */
+    public List<BatchResult> invokeBatch(List<BatchOperation> operations) throws FreeIpaClientException {
+        if (operations.isEmpty()) {
+            return List.of();
+        }
+        List<Object> commands = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            Map<String, Object> parameterMap = new HashMap<>(operation.getParams());
+            parameterMap.put("version", apiVersion);
+            commands.add(Map.of("method", operation.getMethod(), "params", List.of(operation.getFlags(), parameterMap)));
+        }
+        BatchResponse response = invokeRpc("batch", commands, Map.of(), BatchResponse.class);
+        List<BatchResult> results = response == null ? null : response.getResults();
+        if (results == null || results.size() != operations.size()) {
+            throw new FreeIpaClientException(String.format("Batch request of %d operations returned %s results", operations.size(),
+                    results == null ? "no" : String.valueOf(results.size())));
+        }
+        return results;
+    }
+
+    public static BatchOperation userAddOperation(String user, String firstName, String lastName) throws FreeIpaClientException {
+        FreeIpaChecks.checkUserNotProtected(user, () -> String.format("User '%s' is protected and cannot be added to FreeIPA", user));
+        List<Object> flags = List.of(user);
+        Map<String, Object> params = Map.of(
+                "givenname", firstName,
+                "sn", lastName,
+                "loginshell", "/bin/bash",
+                "random", true,
+                "setattr", "krbPasswordExpiration=" + MAX_PASSWORD_EXPIRATION_DATETIME
+        );
+        return new BatchOperation("user_add", flags, params);
+    }
+
+    public static BatchOperation deleteUserOperation(String userUid) throws FreeIpaClientException {
+        FreeIpaChecks.checkUserNotProtected(userUid, () -> String.format("User '%s' is protected and cannot be deleted from FreeIPA", userUid));
+        return new BatchOperation("user_del", List.of(userUid), Map.of());
+    }
+
+    public static BatchOperation groupAddOperation(String group) throws FreeIpaClientException {
+        FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be added to FreeIPA", group));
+        return new BatchOperation("group_add", List.of(group), Map.of());
+    }
+
+    public static BatchOperation deleteGroupOperation(String group) throws FreeIpaClientException {
+        FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be deleted from FreeIPA", group));
+        return new BatchOperation("group_del", List.of(group), Map.of());
+    }
+
+    public static BatchOperation userFindOperation(String user) {
+        Map<String, Object> params = Map.of(
+                "uid", user,
+                "all", true
+        );
+        return new BatchOperation("user_find", List.of(user), params);
+    }
+
     private OptionalInt extractResponseCode(Exception e) {
         OptionalInt responseCode = OptionalInt.empty();
         try {
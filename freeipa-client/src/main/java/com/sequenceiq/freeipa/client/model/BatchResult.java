@@ -0,0 +1,90 @@
+package com.sequenceiq.freeipa.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The outcome of a single command of a FreeIPA {@code batch} request. A failed command does not fail the whole batch, its error is reported
+ * in the {@code error}, {@code error_code} and {@code error_name} fields instead.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchResult {
+    private Object result;
+
+    private Object value;
+
+    private String summary;
+
+    private String error;
+
+    @JsonProperty("error_code")
+    private Integer errorCode;
+
+    @JsonProperty("error_name")
+    private String errorName;
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return error == null && errorCode == null;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Integer getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(Integer errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorName() {
+        return errorName;
+    }
+
+    public void setErrorName(String errorName) {
+        this.errorName = errorName;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{"
+                + "value=" + value
+                + ", summary='" + summary + '\''
+                + ", error='" + error + '\''
+                + ", errorCode=" + errorCode
+                + ", errorName='" + errorName + '\''
+                + '}';
+    }
+}
@@ -1,27 +1,53 @@
 package com.sequenceiq.freeipa.client;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.mockito.verification.VerificationMode;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sequenceiq.freeipa.client.model.BatchResult;
+import com.sequenceiq.freeipa.client.model.User;
 
 class FreeIpaClientTest {
 
+    private JsonRpcHttpClient jsonRpcHttpClient;
+
     private FreeIpaClient underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new FreeIpaClient(
-                mock(JsonRpcHttpClient.class),
+        jsonRpcHttpClient = mock(JsonRpcHttpClient.class);
+        underTest = spy(new FreeIpaClient(
+                jsonRpcHttpClient,
                 "apiVersion",
                 "apiAddress",
                 "hostname"
-        );
+        ));
     }
 
     @Test
@@ -65,4 +91,146 @@ class FreeIpaClientTest {
                 underTest.groupAddMembers(FreeIpaChecks.IPA_UNMANAGED_GROUPS.get(0), List.of("harry", "sally"))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void userAddOperationThrowsOnProtectedUser() {
+        assertThrows(FreeIpaClientException.class, () ->
+                FreeIpaClient.userAddOperation(FreeIpaChecks.IPA_PROTECTED_USERS.get(0), "first", "last")
+        );
+    }
+
+    @Test
+    void deleteGroupOperationThrowsOnProtectedGroup() {
+        assertThrows(FreeIpaClientException.class, () ->
+                FreeIpaClient.deleteGroupOperation(FreeIpaChecks.IPA_PROTECTED_GROUPS.get(0))
+        );
+    }
+
+    @Test
+    void invokeBatchSendsOperationsInOneRequest() throws Exception {
+        BatchResult success = new BatchResult();
+        BatchResult duplicate = new BatchResult();
+        duplicate.setError("user with name \"harry\" already exists");
+        duplicate.setErrorCode(FreeIpaErrorCodes.DUPLICATE_ENTRY.getValue());
+        stubBatchReply(jsonRpcReply(batchReply(List.of(success, duplicate))));
+
+        List<BatchResult> results = underTest.invokeBatch(List.of(
+                FreeIpaClient.userAddOperation("sally", "Sally", "Albright"),
+                FreeIpaClient.userAddOperation("harry", "Harry", "Burns")));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        List<Map<String, Object>> commands = (List) verifyBatchRequests(times(1)).get(0).get(0);
+        assertEquals(2, commands.size());
+        assertEquals("user_add", commands.get(0).get("method"));
+        List<Object> params = (List<Object>) commands.get(0).get("params");
+        assertEquals(List.of("sally"), params.get(0));
+        assertEquals("apiVersion", ((Map<String, Object>) params.get(1)).get("version"));
+    }
+
+    @Test
+    void invokeBatchReadsTheBatchReplyOfFreeIpa() throws Exception {
+        String reply = new String(getClass().getResourceAsStream("/freeipa/batch-reply.json").readAllBytes(), StandardCharsets.UTF_8);
+        stubBatchReply(jsonRpcReply(reply));
+
+        List<BatchResult> results = underTest.invokeBatch(List.of(
+                FreeIpaClient.userAddOperation("sally", "Sally", "Albright"),
+                FreeIpaClient.userAddOperation("harry", "Harry", "Burns"),
+                FreeIpaClient.userFindOperation("marie")));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("sally", results.get(0).getValue());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(FreeIpaErrorCodes.DUPLICATE_ENTRY.getValue(), results.get(1).getErrorCode());
+        assertEquals("DuplicateEntry", results.get(1).getErrorName());
+        assertTrue(results.get(2).isSuccess());
+        List<User> found = ObjectMapperBuilder.getObjectMapper().convertValue(results.get(2).getResult(), new TypeReference<List<User>>() { });
+        assertEquals("marie", found.get(0).getUid());
+        assertEquals(List.of("ipausers", "scientists"), found.get(0).getMemberOfGroup());
+    }
+
+    @Test
+    void invokeBatchThrowsOnMissingResults() throws Exception {
+        stubBatchReply(jsonRpcReply(batchReply(List.of(new BatchResult()))));
+
+        assertThrows(FreeIpaClientException.class, () ->
+                underTest.invokeBatch(List.of(FreeIpaClient.deleteUserOperation("sally"), FreeIpaClient.deleteUserOperation("harry")))
+        );
+    }
+
+    @Test
+    void invokeBatchWithoutOperationsDoesNotCallFreeIpa() throws Exception {
+        assertTrue(underTest.invokeBatch(List.of()).isEmpty());
+
+        verifyBatchRequests(never());
+    }
+
+    @Test
+    void userFindInBatches() throws Exception {
+        stubBatchReply(invocation -> {
+            List<Map<String, Object>> commands = (List<Map<String, Object>>) ((List<Object>) invocation.getArgument(1)).get(0);
+            List<BatchResult> results = new ArrayList<>();
+            for (Map<String, Object> command : commands) {
+                String uid = (String) ((List<Object>) ((List<Object>) command.get("params")).get(0)).get(0);
+                BatchResult result = new BatchResult();
+                result.setResult("missing".equals(uid) ? List.of() : List.of(Map.of("uid", List.of(uid), "memberof_group", List.of("group"))));
+                results.add(result);
+            }
+            return jsonRpcReply(batchReply(results)).answer(invocation);
+        });
+
+        Map<String, User> users = underTest.userFind(List.of("sally", "harry", "missing", "marie", "jess"), 2);
+
+        assertEquals(4, users.size());
+        assertEquals("harry", users.get("harry").getUid());
+        assertEquals(List.of("group"), users.get("harry").getMemberOfGroup());
+        assertFalse(users.containsKey("missing"));
+        verifyBatchRequests(times(3));
+    }
+
+    @Test
+    void userFindThrowsOnFailedOperation() throws Exception {
+        BatchResult failed = new BatchResult();
+        failed.setError("error");
+        failed.setErrorCode(FreeIpaErrorCodes.INTERNAL_ERROR.getValue());
+        stubBatchReply(jsonRpcReply(batchReply(List.of(failed))));
+
+        assertThrows(FreeIpaClientException.class, () -> underTest.userFind(List.of("sally"), 2));
+    }
+
+    private void stubBatchReply(Answer<Object> answer) {
+        try {
+            doAnswer(answer).when(jsonRpcHttpClient).invoke(eq("batch"), any(), any(Type.class));
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private List<List<Object>> verifyBatchRequests(VerificationMode mode) {
+        ArgumentCaptor<List<Object>> request = ArgumentCaptor.forClass(List.class);
+        try {
+            verify(jsonRpcHttpClient, mode).invoke(eq("batch"), request.capture(), any(Type.class));
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+        return request.getAllValues();
+    }
+
+    /**
+     * Reads the JSON-RPC result of the reply into the requested type, the way the JsonRpcHttpClient does.
+     */
+    private Answer<Object> jsonRpcReply(String reply) {
+        return invocation -> {
+            ObjectMapper objectMapper = ObjectMapperBuilder.getObjectMapper();
+            JsonNode result = objectMapper.readTree(reply).get("result");
+            Type type = invocation.getArgument(2);
+            return objectMapper.readValue(objectMapper.treeAsTokens(result), objectMapper.getTypeFactory().constructType(type));
+        };
+    }
+
+    private String batchReply(List<BatchResult> results) throws JsonProcessingException {
+        return ObjectMapperBuilder.getObjectMapper().writeValueAsString(Map.of("result", Map.of("count", results.size(), "results", results)));
+    }
+}
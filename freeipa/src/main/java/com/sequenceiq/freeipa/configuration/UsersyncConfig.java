@@ -17,12 +17,22 @@ public class UsersyncConfig {
 
     public static final String USERSYNC_TASK_EXECUTOR = "USERSYNC_TASK_EXECUTOR";
 
+    public static final String UMS_FETCH_TASK_EXECUTOR = "UMS_FETCH_TASK_EXECUTOR";
+
+    public static final String IPA_REQUEST_TASK_EXECUTOR = "IPA_REQUEST_TASK_EXECUTOR";
+
     @Value("${freeipa.usersync.threadpool.core.size}")
     private int usersyncCorePoolSize;
 
     @Value("${freeipa.usersync.threadpool.capacity.size}")
     private int usersyncQueueCapacity;
 
+    @Value("${freeipa.usersync.ums.fetch.threadpool.core.size:20}")
+    private int umsFetchCorePoolSize;
+
+    @Value("${freeipa.usersync.ipa.request.threadpool.core.size:40}")
+    private int ipaRequestCorePoolSize;
+
     @Bean(name = USERSYNC_TASK_EXECUTOR)
     public AsyncTaskExecutor usersyncTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -35,4 +45,28 @@ public class UsersyncConfig {
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = UMS_FETCH_TASK_EXECUTOR)
+    public AsyncTaskExecutor umsFetchTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(umsFetchCorePoolSize);
+        executor.setThreadNamePrefix("umsFetchExecutor-");
+        executor.setTaskDecorator(
+                new CompositeTaskDecorator(
+                        List.of(new MDCCleanerTaskDecorator(), new ActorCrnTaskDecorator())));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = IPA_REQUEST_TASK_EXECUTOR)
+    public AsyncTaskExecutor ipaRequestTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ipaRequestCorePoolSize);
+        executor.setThreadNamePrefix("ipaRequestExecutor-");
+        executor.setTaskDecorator(
+                new CompositeTaskDecorator(
+                        List.of(new MDCCleanerTaskDecorator(), new ActorCrnTaskDecorator())));
+        executor.initialize();
+        return executor;
+    }
 }
@@ -6,12 +6,13 @@ import java.util.concurrent.TimeUnit;
 
 import org.reactivestreams.Subscriber;
 
+import com.sequenceiq.cloudbreak.common.event.AwaitedRequest;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 
 import reactor.rx.Promise;
 import reactor.rx.Promises;
 
-public class FreeIpaClientRequest<T> implements Selectable {
+public class FreeIpaClientRequest<T> implements Selectable, AwaitedRequest {
 
     private final Long stackId;
 
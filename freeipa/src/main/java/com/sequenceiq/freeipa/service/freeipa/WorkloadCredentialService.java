@@ -5,14 +5,18 @@ import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
+import javax.inject.Inject;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto;
+import com.google.common.annotations.VisibleForTesting;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
 import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
+import com.sequenceiq.freeipa.service.freeipa.user.FreeIpaRequestInvoker;
 import com.sequenceiq.freeipa.service.freeipa.user.kerberos.KrbKeySetEncoder;
 import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 
@@ -20,6 +24,10 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 public class WorkloadCredentialService {
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadCredentialService.class);
 
+    @VisibleForTesting
+    @Inject
+    FreeIpaRequestInvoker freeIpaRequestInvoker;
+
     public void setWorkloadCredential(FreeIpaClient freeIpaClient, String username, WorkloadCredential workloadCredential)
             throws IOException, FreeIpaClientException {
         LOGGER.debug("Setting workload credentials for user '{}'", username);
@@ -40,19 +48,18 @@ public class WorkloadCredentialService {
 
     public void setWorkloadCredentials(FreeIpaClient freeIpaClient, Map<String, WorkloadCredential> workloadCredentials,
             BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (Map.Entry<String, WorkloadCredential> entry : workloadCredentials.entrySet()) {
-            try {
-                setWorkloadCredential(freeIpaClient, entry.getKey(), entry.getValue());
-            } catch (IOException e) {
-                recordWarning(entry.getKey(), e, warnings);
-            } catch (FreeIpaClientException e) {
-                recordWarning(entry.getKey(), e, warnings);
-                if (e.isClientUnusable()) {
+        freeIpaRequestInvoker.invokeAll(workloadCredentials.entrySet(), entry -> {
+            setWorkloadCredential(freeIpaClient, entry.getKey(), entry.getValue());
+            return entry.getKey();
+        }, (entry, result, failure) -> {
+            if (failure != null) {
+                recordWarning(entry.getKey(), failure, warnings);
+                if (failure instanceof FreeIpaClientException && ((FreeIpaClientException) failure).isClientUnusable()) {
                     LOGGER.warn("Client is not usable for further usage");
-                    throw e;
+                    throw (FreeIpaClientException) failure;
                 }
             }
-        }
+        });
     }
 
     private void recordWarning(String username, Exception e, BiConsumer<String, String> warnings) {
@@ -0,0 +1,106 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.configuration.UsersyncConfig;
+
+/**
+ * Sends independent requests to a FreeIPA server with at most {@code freeipa.usersync.ipa.max-concurrent-requests} of them in flight.
+ * The results are handed over to the calling thread in the order of the subjects, so the result handlers don't have to be thread safe
+ * and can stop the remaining requests by throwing an exception.
+ */
+@Component
+public class FreeIpaRequestInvoker {
+
+    @VisibleForTesting
+    @Inject
+    @Qualifier(UsersyncConfig.IPA_REQUEST_TASK_EXECUTOR)
+    AsyncTaskExecutor ipaRequestTaskExecutor;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.ipa.max-concurrent-requests:4}")
+    int maxConcurrentRequests;
+
+    /**
+     * Invokes the request for each subject. Requests are sent one by one from the calling thread if at most one concurrent request is allowed.
+     *
+     * @param subjects      the subjects of the requests
+     * @param request       the request of a subject
+     * @param resultHandler called with the result of every request. A checked exception thrown by a request is passed to the handler, an
+     *                      unchecked one is rethrown after the requests in flight are finished.
+     */
+    public <T, R> void invokeAll(Collection<T> subjects, Request<T, R> request, ResultHandler<T, R> resultHandler) throws FreeIpaClientException {
+        int limit = ipaRequestTaskExecutor == null ? 1 : Math.max(1, maxConcurrentRequests);
+        Deque<Map.Entry<T, Future<R>>> inFlight = new ArrayDeque<>(limit);
+        Iterator<T> remaining = subjects.iterator();
+        try {
+            while (remaining.hasNext() || !inFlight.isEmpty()) {
+                while (remaining.hasNext() && inFlight.size() < limit) {
+                    T subject = remaining.next();
+                    FutureTask<R> task = new FutureTask<>(() -> request.invoke(subject));
+                    if (limit > 1) {
+                        ipaRequestTaskExecutor.execute(task);
+                    } else {
+                        task.run();
+                    }
+                    inFlight.add(new SimpleImmutableEntry<>(subject, task));
+                }
+                Map.Entry<T, Future<R>> next = inFlight.poll();
+                handleResult(next.getKey(), next.getValue(), resultHandler);
+            }
+        } finally {
+            inFlight.forEach(entry -> entry.getValue().cancel(false));
+        }
+    }
+
+    private <T, R> void handleResult(T subject, Future<R> future, ResultHandler<T, R> resultHandler) throws FreeIpaClientException {
+        R result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Exception) {
+                resultHandler.handle(subject, null, (Exception) cause);
+                return;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FreeIpaClientException("Interrupted while waiting for FreeIPA", e);
+        }
+        resultHandler.handle(subject, result, null);
+    }
+
+    @FunctionalInterface
+    public interface Request<T, R> {
+        R invoke(T subject) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ResultHandler<T, R> {
+        /**
+         * @param result  the result of the request, {@code null} if it failed
+         * @param failure the checked exception thrown by the request, {@code null} if it succeeded
+         */
+        void handle(T subject, R result, Exception failure) throws FreeIpaClientException;
+    }
+}
@@ -3,11 +3,15 @@ package com.sequenceiq.freeipa.service.freeipa.user;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_PROTECTED_USERS;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_UNMANAGED_GROUPS;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -21,6 +25,10 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
 public class FreeIpaUsersStateProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(FreeIpaUsersStateProvider.class);
 
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch-size:50}")
+    int batchSize;
+
     public UsersState getUsersState(FreeIpaClient freeIpaClient) throws FreeIpaClientException {
         LOGGER.debug("Retrieving all users from FreeIPA");
         UsersState.Builder builder = new UsersState.Builder();
@@ -47,26 +55,39 @@ public class FreeIpaUsersStateProvider {
 
     public UsersState getFilteredFreeIpaState(FreeIpaClient freeIpaClient, Set<FmsUser> users) throws FreeIpaClientException {
         LOGGER.debug("Retrieving users with user ids [{}] from FreeIPA", users);
+        // get all groups from IPA
+        Set<FmsGroup> groups = freeIpaClient.groupFindAll().stream()
+                .map(this::fromIpaGroup)
+                .collect(Collectors.toSet());
+        return getUsersState(freeIpaClient, users.stream().map(FmsUser::getName).collect(Collectors.toList()), groups);
+    }
+
+    /**
+     * Retrieves the given users from FreeIPA, without listing the groups of FreeIPA.
+     *
+     * @param groups the groups known to exist in FreeIPA
+     */
+    public UsersState getUsersState(FreeIpaClient freeIpaClient, Collection<String> usernames, Set<FmsGroup> groups) throws FreeIpaClientException {
+        LOGGER.debug("Retrieving {} users from FreeIPA", usernames.size());
         UsersState.Builder builder = new UsersState.Builder();
 
-        // get all groups from IPA
-        freeIpaClient.groupFindAll().stream()
-                .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group.getCn()))
-                .forEach(group -> builder.addGroup(fromIpaGroup(group)));
+        groups.stream()
+                .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group.getName()))
+                .forEach(builder::addGroup);
 
-        for (FmsUser user : users) {
-            if (IPA_PROTECTED_USERS.contains(user.getName())) {
-                continue;
-            }
-            Optional<com.sequenceiq.freeipa.client.model.User> ipaUserOptional = freeIpaClient.userFind(user.getName());
-            if (ipaUserOptional.isPresent()) {
-                com.sequenceiq.freeipa.client.model.User ipaUser = ipaUserOptional.get();
+        List<String> filteredUsernames = usernames.stream()
+                .filter(username -> !IPA_PROTECTED_USERS.contains(username))
+                .collect(Collectors.toList());
+        Map<String, com.sequenceiq.freeipa.client.model.User> ipaUsers = freeIpaClient.userFind(filteredUsernames, batchSize);
+        for (String username : filteredUsernames) {
+            com.sequenceiq.freeipa.client.model.User ipaUser = ipaUsers.get(username);
+            if (ipaUser != null) {
                 builder.addUser(fromIpaUser(ipaUser));
                 if (ipaUser.getMemberOfGroup() != null) {
                     ipaUser.getMemberOfGroup().stream()
                             .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group))
                             .forEach(groupname -> {
-                                builder.addMemberToGroup(groupname, user.getName());
+                                builder.addMemberToGroup(groupname, username);
                             });
                 }
             }
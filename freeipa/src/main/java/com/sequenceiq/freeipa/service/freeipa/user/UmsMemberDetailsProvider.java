@@ -0,0 +1,145 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider.INTERNAL_ACTOR_CRN;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.Group;
+import com.sequenceiq.cloudbreak.auth.altus.Crn;
+import com.sequenceiq.cloudbreak.auth.altus.GrpcUmsClient;
+import com.sequenceiq.freeipa.configuration.UsersyncConfig;
+import com.sequenceiq.freeipa.service.freeipa.user.model.EnvironmentAccessRights;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsMemberDetails;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * Fetches everything the user sync needs to know about the members of an account in one pass, so that the state of every environment
+ * can be calculated from the same data instead of querying UMS for every member in every environment. The calls are executed
+ * concurrently on the {@link UsersyncConfig#UMS_FETCH_TASK_EXECUTOR} executor.
+ */
+@Component
+public class UmsMemberDetailsProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UmsMemberDetailsProvider.class);
+
+    @Inject
+    private GrpcUmsClient grpcUmsClient;
+
+    @Inject
+    private UmsCredentialProvider umsCredentialProvider;
+
+    @Inject
+    @Qualifier(UsersyncConfig.UMS_FETCH_TASK_EXECUTOR)
+    private AsyncTaskExecutor umsFetchTaskExecutor;
+
+    /**
+     * Checks the rights of the members in every environment.
+     *
+     * @return the rights of the members by member CRN and environment CRN
+     */
+    public Map<String, Map<String, EnvironmentAccessRights>> getEnvironmentAccessRights(Map<String, EnvironmentAccessChecker> environmentAccessCheckers,
+            Collection<String> memberCrns, Optional<String> requestId) {
+        return fetchAll(memberCrns, memberCrn -> {
+            Map<String, EnvironmentAccessRights> rights = new HashMap<>();
+            environmentAccessCheckers.forEach((environmentCrn, checker) -> rights.put(environmentCrn, checker.hasAccess(memberCrn, requestId)));
+            return rights;
+        });
+    }
+
+    /**
+     * Retrieves the group memberships, the workload administration group memberships and the workload credentials of the members.
+     * <p>
+     * On a full sync the group memberships are listed per group, which takes far fewer calls than listing them per member. Members
+     * that have been deleted since they were listed are left out of the result.
+     *
+     * @param accountId  the account Id
+     * @param groups     every group of the account
+     * @param memberCrns the members to fetch
+     * @param fullSync   whether every member of the account is synchronized
+     * @param requestId  an optional request Id
+     * @return the details of the members by member CRN
+     */
+    public Map<String, UmsMemberDetails> getMemberDetails(String accountId, Collection<Group> groups, Collection<String> memberCrns,
+            boolean fullSync, Optional<String> requestId) {
+        Map<String, List<String>> groupCrnsForMembers = fullSync ? getGroupCrnsForMembers(accountId, groups, requestId) : null;
+        return fetchAll(memberCrns, memberCrn -> {
+            try {
+                // Retrieve all information from UMS before the member is added to any state. This is so that
+                // we don't partially add the member if the member has been deleted after we started the sync
+                List<String> groupCrns = groupCrnsForMembers != null
+                        ? groupCrnsForMembers.getOrDefault(memberCrn, List.of())
+                        : grpcUmsClient.listGroupsForMember(INTERNAL_ACTOR_CRN, Crn.safeFromString(memberCrn).getAccountId(), memberCrn, requestId);
+                List<String> workloadAdministrationGroupNames = grpcUmsClient.listWorkloadAdministrationGroupsForMember(INTERNAL_ACTOR_CRN, memberCrn,
+                        requestId).getWorkloadAdministrationGroupNameList();
+                WorkloadCredential workloadCredential = umsCredentialProvider.getCredentials(memberCrn, requestId);
+                return new UmsMemberDetails(groupCrns, workloadAdministrationGroupNames, workloadCredential);
+            } catch (StatusRuntimeException e) {
+                // NOT_FOUND errors indicate that a user/machineUser has been deleted after we have
+                // retrieved the list of users/machineUsers from the UMS.
+                if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                    LOGGER.warn("Member CRN {} not found in UMS. Member will not be added to the UMS Users State. {}",
+                            memberCrn, e.getLocalizedMessage());
+                    return null;
+                } else {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private Map<String, List<String>> getGroupCrnsForMembers(String accountId, Collection<Group> groups, Optional<String> requestId) {
+        Map<String, List<String>> membersOfGroups = fetchAll(groups.stream().map(Group::getCrn).collect(Collectors.toList()),
+                groupCrn -> grpcUmsClient.listMembersFromGroup(INTERNAL_ACTOR_CRN, accountId, groupCrn, requestId));
+        Map<String, List<String>> groupCrnsForMembers = new HashMap<>();
+        membersOfGroups.forEach((groupCrn, memberCrns) ->
+                memberCrns.forEach(memberCrn -> groupCrnsForMembers.computeIfAbsent(memberCrn, key -> new ArrayList<>()).add(groupCrn)));
+        return groupCrnsForMembers;
+    }
+
+    private <T> Map<String, T> fetchAll(Collection<String> keys, Function<String, T> fetcher) {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        Set.copyOf(keys).forEach(key -> futures.put(key, umsFetchTaskExecutor.submit(() -> fetcher.apply(key))));
+        Map<String, T> results = new HashMap<>();
+        try {
+            for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+                T result = future.getValue().get();
+                if (result != null) {
+                    results.put(future.getKey(), result);
+                }
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching state from UMS", e);
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -19,7 +20,6 @@ import org.springframework.stereotype.Service;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.CloudIdentity;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.Group;
-import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListWorkloadAdministrationGroupsForMemberResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.MachineUser;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.User;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.WorkloadAdministrationGroup;
@@ -31,12 +31,10 @@ import com.sequenceiq.cloudbreak.auth.altus.exception.UmsOperationException;
 import com.sequenceiq.freeipa.service.freeipa.user.model.EnvironmentAccessRights;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsAccountState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsMemberDetails;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
-import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
-
-import io.grpc.Status;
-import io.grpc.StatusRuntimeException;
 
 @Service
 public class UmsUsersStateProvider {
@@ -48,95 +46,134 @@ public class UmsUsersStateProvider {
     private GrpcUmsClient grpcUmsClient;
 
     @Inject
-    private UmsCredentialProvider umsCredentialProvider;
+    private UmsRightProvider umsRightProvider;
 
     @Inject
-    private UmsRightProvider umsRightProvider;
+    private UmsMemberDetailsProvider umsMemberDetailsProvider;
 
     public Map<String, UmsUsersState> getEnvToUmsUsersStateMap(String accountId, String actorCrn, Set<String> environmentCrns,
+        Set<String> userCrns, Set<String> machineUserCrns, Optional<String> requestIdOptional) {
+        UmsAccountState umsAccountState = getUmsAccountState(accountId, actorCrn, environmentCrns, userCrns, machineUserCrns, requestIdOptional);
+        Map<String, UmsUsersState> envUsersStateMap = new HashMap<>();
+        environmentCrns.forEach(environmentCrn -> envUsersStateMap.put(environmentCrn, getUmsUsersState(umsAccountState, environmentCrn)));
+        return envUsersStateMap;
+    }
+
+    /**
+     * Fetches the state of the account from UMS, which the state of every given environment can be calculated from with
+     * {@link #getUmsUsersState(UmsAccountState, String)}.
+     */
+    public UmsAccountState getUmsAccountState(String accountId, String actorCrn, Set<String> environmentCrns,
         Set<String> userCrns, Set<String> machineUserCrns, Optional<String> requestIdOptional) {
         try {
             LOGGER.debug("Getting UMS state for environments {} with requestId {}", environmentCrns, requestIdOptional);
 
-            Map<String, UmsUsersState> envUsersStateMap = new HashMap<>();
-
             boolean fullSync = userCrns.isEmpty() && machineUserCrns.isEmpty();
 
             List<User> users = getUsers(actorCrn, accountId, requestIdOptional, fullSync, userCrns);
 
             List<MachineUser> machineUsers = getMachineUsers(actorCrn, accountId, requestIdOptional, fullSync, machineUserCrns);
 
-            Map<String, FmsGroup> crnToFmsGroup = grpcUmsClient.listGroups(actorCrn, accountId, List.of(), requestIdOptional).stream()
-                    .collect(Collectors.toMap(Group::getCrn, this::umsGroupToGroup));
-
-            Map<String, List<CloudIdentity>> groupCloudIdentityMap = grpcUmsClient.listGroups(actorCrn, accountId, List.of(), requestIdOptional).stream()
-                    .collect(Collectors.toMap(Group::getGroupName, Group::getCloudIdentitiesList));
+            List<Group> groups = grpcUmsClient.listGroups(actorCrn, accountId, List.of(), requestIdOptional);
 
             Map<WorkloadAdministrationGroup, FmsGroup> wags = grpcUmsClient.listWorkloadAdministrationGroups(INTERNAL_ACTOR_CRN, accountId, requestIdOptional)
                     .stream()
                     .collect(Collectors.toMap(wag -> wag, wag -> nameToGroup(wag.getWorkloadAdministrationGroupName())));
-            environmentCrns.forEach(environmentCrn -> {
-                UmsUsersState.Builder umsUsersStateBuilder = new UmsUsersState.Builder()
-                        .setWorkloadAdministrationGroups(wags.values());
-
-                UsersState.Builder usersStateBuilder = new UsersState.Builder();
-                Set<String> wagNamesForOtherEnvironments = new HashSet<>();
-
-                crnToFmsGroup.values().forEach(usersStateBuilder::addGroup);
-
-                groupCloudIdentityMap.forEach(umsUsersStateBuilder::addGroupCloudIdentities);
-
-                // Only add workload admin groups that belong to this environment.
-                // At the same time, build a set of workload admin groups that are
-                // associated with other environments so we can filter these out in
-                // the per-user group listing in handleUser.
-                wags.entrySet().forEach(wagEntry -> {
-                    WorkloadAdministrationGroup wag = wagEntry.getKey();
-                    String groupName = wag.getWorkloadAdministrationGroupName();
-                    if (wag.getResource().equalsIgnoreCase(environmentCrn)) {
-                        usersStateBuilder.addGroup(wagEntry.getValue());
-                    } else {
-                        Crn resourceCrn = getCrn(wag);
-                        if (resourceCrn != null && resourceCrn.getService() == Crn.Service.ENVIRONMENTS
-                                && resourceCrn.getResourceType() == ResourceType.ENVIRONMENT) {
-                            wagNamesForOtherEnvironments.add(groupName);
-                        }
-                    }
-                });
 
-                // Add internal usersync group for each environment
-                usersStateBuilder.addGroup(nameToGroup(UserSyncConstants.CDP_USERSYNC_INTERNAL_GROUP));
+            // Fetch the rights and details of every member once, the state of each environment is derived from them
+            Map<String, EnvironmentAccessChecker> environmentAccessCheckers = environmentCrns.stream()
+                    .collect(Collectors.toMap(environmentCrn -> environmentCrn, this::createEnvironmentAccessChecker));
+            List<String> memberCrns = Stream.concat(users.stream().map(User::getCrn), machineUsers.stream().map(MachineUser::getCrn))
+                    .collect(Collectors.toList());
+            Map<String, Map<String, EnvironmentAccessRights>> memberAccessRights =
+                    umsMemberDetailsProvider.getEnvironmentAccessRights(environmentAccessCheckers, memberCrns, requestIdOptional);
+            Set<String> membersWithAccess = memberAccessRights.entrySet().stream()
+                    .filter(entry -> entry.getValue().values().stream().anyMatch(EnvironmentAccessRights::hasEnvironmentAccessRight))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+            Map<String, UmsMemberDetails> memberDetails =
+                    umsMemberDetailsProvider.getMemberDetails(accountId, groups, membersWithAccess, fullSync, requestIdOptional);
+
+            return new UmsAccountState(users, machineUsers, groups, wags, memberAccessRights, memberDetails);
+        } catch (RuntimeException e) {
+            throw new UmsOperationException(String.format("Error during UMS operation: '%s'", e.getLocalizedMessage()), e);
+        }
+    }
+
+    /**
+     * Calculates the state of an environment from the state of its account.
+     *
+     * @param umsAccountState the state of the account, fetched for a set of environments that contains {@code environmentCrn}
+     * @param environmentCrn  the environment CRN
+     */
+    public UmsUsersState getUmsUsersState(UmsAccountState umsAccountState, String environmentCrn) {
+        try {
+            Map<String, FmsGroup> crnToFmsGroup = umsAccountState.getGroups().stream()
+                    .collect(Collectors.toMap(Group::getCrn, this::umsGroupToGroup));
+
+            Map<String, List<CloudIdentity>> groupCloudIdentityMap = umsAccountState.getGroups().stream()
+                    .collect(Collectors.toMap(Group::getGroupName, Group::getCloudIdentitiesList));
 
-                EnvironmentAccessChecker environmentAccessChecker = createEnvironmentAccessChecker(environmentCrn);
+            Map<String, Map<String, EnvironmentAccessRights>> memberAccessRights = umsAccountState.getMemberAccessRights();
+            Map<String, UmsMemberDetails> memberDetails = umsAccountState.getMemberDetails();
+            Map<WorkloadAdministrationGroup, FmsGroup> wags = umsAccountState.getWorkloadAdministrationGroups();
+
+            UmsUsersState.Builder umsUsersStateBuilder = new UmsUsersState.Builder()
+                    .setWorkloadAdministrationGroups(wags.values());
+
+            UsersState.Builder usersStateBuilder = new UsersState.Builder();
+            Set<String> wagNamesForOtherEnvironments = new HashSet<>();
+
+            crnToFmsGroup.values().forEach(usersStateBuilder::addGroup);
+
+            groupCloudIdentityMap.forEach(umsUsersStateBuilder::addGroupCloudIdentities);
+
+            // Only add workload admin groups that belong to this environment.
+            // At the same time, build a set of workload admin groups that are
+            // associated with other environments so we can filter these out in
+            // the per-user group listing in handleUser.
+            wags.entrySet().forEach(wagEntry -> {
+                WorkloadAdministrationGroup wag = wagEntry.getKey();
+                String groupName = wag.getWorkloadAdministrationGroupName();
+                if (wag.getResource().equalsIgnoreCase(environmentCrn)) {
+                    usersStateBuilder.addGroup(wagEntry.getValue());
+                } else {
+                    Crn resourceCrn = getCrn(wag);
+                    if (resourceCrn != null && resourceCrn.getService() == Crn.Service.ENVIRONMENTS
+                            && resourceCrn.getResourceType() == ResourceType.ENVIRONMENT) {
+                        wagNamesForOtherEnvironments.add(groupName);
+                    }
+                }
+            });
 
-                users.forEach(u -> {
-                    FmsUser fmsUser = umsUserToUser(u);
-                    // add workload username for each user. This will be helpful in getting users from IPA.
-                    umsUsersStateBuilder.addRequestedWorkloadUsers(fmsUser);
+            // Add internal usersync group for each environment
+            usersStateBuilder.addGroup(nameToGroup(UserSyncConstants.CDP_USERSYNC_INTERNAL_GROUP));
 
-                    umsUsersStateBuilder.addUserCloudIdentities(u.getWorkloadUsername(), u.getCloudIdentitiesList());
+            umsAccountState.getUsers().forEach(u -> {
+                FmsUser fmsUser = umsUserToUser(u);
+                // add workload username for each user. This will be helpful in getting users from IPA.
+                umsUsersStateBuilder.addRequestedWorkloadUsers(fmsUser);
 
-                    handleUser(umsUsersStateBuilder, usersStateBuilder, crnToFmsGroup, u.getCrn(), fmsUser,
-                            environmentAccessChecker.hasAccess(u.getCrn(), requestIdOptional), requestIdOptional, wagNamesForOtherEnvironments);
+                umsUsersStateBuilder.addUserCloudIdentities(u.getWorkloadUsername(), u.getCloudIdentitiesList());
 
-                });
+                handleUser(umsUsersStateBuilder, usersStateBuilder, crnToFmsGroup, u.getCrn(), fmsUser,
+                        memberAccessRights.get(u.getCrn()).get(environmentCrn), memberDetails.get(u.getCrn()), wagNamesForOtherEnvironments);
 
-                machineUsers.forEach(mu -> {
-                    FmsUser fmsUser = umsMachineUserToUser(mu);
-                    // add workload username for each user. This will be helpful in getting users from IPA.
-                    umsUsersStateBuilder.addRequestedWorkloadUsers(fmsUser);
+            });
 
-                    umsUsersStateBuilder.addUserCloudIdentities(mu.getWorkloadUsername(), mu.getCloudIdentitiesList());
+            umsAccountState.getMachineUsers().forEach(mu -> {
+                FmsUser fmsUser = umsMachineUserToUser(mu);
+                // add workload username for each user. This will be helpful in getting users from IPA.
+                umsUsersStateBuilder.addRequestedWorkloadUsers(fmsUser);
 
-                    handleUser(umsUsersStateBuilder, usersStateBuilder, crnToFmsGroup, mu.getCrn(), fmsUser,
-                            environmentAccessChecker.hasAccess(mu.getCrn(), requestIdOptional), requestIdOptional, wagNamesForOtherEnvironments);
-                });
+                umsUsersStateBuilder.addUserCloudIdentities(mu.getWorkloadUsername(), mu.getCloudIdentitiesList());
 
-                umsUsersStateBuilder.setUsersState(usersStateBuilder.build());
-                envUsersStateMap.put(environmentCrn, umsUsersStateBuilder.build());
+                handleUser(umsUsersStateBuilder, usersStateBuilder, crnToFmsGroup, mu.getCrn(), fmsUser,
+                        memberAccessRights.get(mu.getCrn()).get(environmentCrn), memberDetails.get(mu.getCrn()), wagNamesForOtherEnvironments);
             });
 
-            return envUsersStateMap;
+            umsUsersStateBuilder.setUsersState(usersStateBuilder.build());
+            return umsUsersStateBuilder.build();
         } catch (RuntimeException e) {
             throw new UmsOperationException(String.format("Error during UMS operation: '%s'", e.getLocalizedMessage()), e);
         }
@@ -166,60 +203,40 @@ public class UmsUsersStateProvider {
     @SuppressWarnings("ParameterNumber")
     private void handleUser(UmsUsersState.Builder umsUsersStateBuilder, UsersState.Builder usersStateBuilder, Map<String, FmsGroup> crnToFmsGroup,
             String memberCrn, FmsUser fmsUser, EnvironmentAccessRights environmentAccessRights,
-            Optional<String> requestId, Set<String> wagNamesForOtherEnvironments) {
-        try {
-            if (environmentAccessRights.hasEnvironmentAccessRight()) {
-                String username = fmsUser.getName();
-                String accountId = Crn.safeFromString(memberCrn).getAccountId();
-
-                // Retrieve all information from UMS before modifying to the UmsUsersState or UsersState. This is so that
-                // we don't partially modify the state if the member has been deleted after we started the sync
-                List<String> groupCrnsForMember = grpcUmsClient.listGroupsForMember(INTERNAL_ACTOR_CRN, accountId, memberCrn, requestId);
-                ListWorkloadAdministrationGroupsForMemberResponse workloadAdministrationGroupsForUser =
-                        grpcUmsClient.listWorkloadAdministrationGroupsForMember(INTERNAL_ACTOR_CRN, memberCrn, requestId);
-                WorkloadCredential workloadCredential = umsCredentialProvider.getCredentials(memberCrn, requestId);
-
-                groupCrnsForMember.forEach(gcrn -> {
-                    FmsGroup group = crnToFmsGroup.get(gcrn);
-                    // If the group is null, then there has been a group membership change after we started the sync
-                    // the group and group membership will be updated on the next sync
-                    if (group != null) {
-                        usersStateBuilder.addMemberToGroup(group.getName(), username);
-                    } else {
-                        LOGGER.warn("{} is a member of unexpected group {}. Group must have been added after UMS state calculation started",
-                                memberCrn, gcrn);
-                    }
-                });
-
-                workloadAdministrationGroupsForUser.getWorkloadAdministrationGroupNameList().forEach(groupName -> {
-                    if (!wagNamesForOtherEnvironments.contains(groupName)) {
-                        usersStateBuilder.addGroup(nameToGroup(groupName));
-                        usersStateBuilder.addMemberToGroup(groupName, username);
-                    }
-                });
+            UmsMemberDetails memberDetails, Set<String> wagNamesForOtherEnvironments) {
+        // Member details are missing if the member has been deleted after we have retrieved the list of users/machineUsers from the UMS
+        if (environmentAccessRights.hasEnvironmentAccessRight() && memberDetails != null) {
+            String username = fmsUser.getName();
+
+            memberDetails.getGroupCrns().forEach(gcrn -> {
+                FmsGroup group = crnToFmsGroup.get(gcrn);
+                // If the group is null, then there has been a group membership change after we started the sync
+                // the group and group membership will be updated on the next sync
+                if (group != null) {
+                    usersStateBuilder.addMemberToGroup(group.getName(), username);
+                } else {
+                    LOGGER.warn("{} is a member of unexpected group {}. Group must have been added after UMS state calculation started",
+                            memberCrn, gcrn);
+                }
+            });
 
-                if (environmentAccessRights.hasAdminFreeIpaRight()) {
-                    usersStateBuilder.addMemberToGroup(ADMIN_FREEIPA_GROUP, username);
+            memberDetails.getWorkloadAdministrationGroupNames().forEach(groupName -> {
+                if (!wagNamesForOtherEnvironments.contains(groupName)) {
+                    usersStateBuilder.addGroup(nameToGroup(groupName));
+                    usersStateBuilder.addMemberToGroup(groupName, username);
                 }
+            });
 
-                addMemberToInternalTrackingGroup(usersStateBuilder, username);
+            if (environmentAccessRights.hasAdminFreeIpaRight()) {
+                usersStateBuilder.addMemberToGroup(ADMIN_FREEIPA_GROUP, username);
+            }
 
-                umsUsersStateBuilder.addWorkloadCredentials(fmsUser.getName(), workloadCredential);
+            addMemberToInternalTrackingGroup(usersStateBuilder, username);
 
-                usersStateBuilder.addUser(fmsUser);
-            }
-        } catch (StatusRuntimeException e) {
-            // NOT_FOUND errors indicate that a user/machineUser has been deleted after we have
-            // retrieved the list of users/machineUsers from the UMS. Interrupt calculation of group
-            // membership.
-            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
-                LOGGER.warn("Member CRN {} not found in UMS. Member will not be added to the UMS Users State. {}",
-                        memberCrn, e.getLocalizedMessage());
-            } else {
-                throw e;
-            }
-        }
+            umsUsersStateBuilder.addWorkloadCredentials(fmsUser.getName(), memberDetails.getWorkloadCredential());
 
+            usersStateBuilder.addUser(fmsUser);
+        }
     }
 
     private void addMemberToInternalTrackingGroup(UsersState.Builder usersStateBuilder, String username) {
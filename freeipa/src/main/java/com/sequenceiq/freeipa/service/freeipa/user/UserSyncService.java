@@ -3,15 +3,21 @@ package com.sequenceiq.freeipa.service.freeipa.user;
 import static com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider.INTERNAL_ACTOR_CRN;
 import static java.util.Objects.requireNonNull;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -28,6 +34,7 @@ import org.springframework.stereotype.Service;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.sequenceiq.authorization.resource.AuthorizationResourceAction;
 import com.sequenceiq.authorization.service.CommonPermissionCheckingUtils;
@@ -46,7 +53,9 @@ import com.sequenceiq.freeipa.api.v1.operation.model.OperationType;
 import com.sequenceiq.freeipa.client.FreeIpaCapabilities;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
-import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
+import com.sequenceiq.freeipa.client.FreeIpaErrorCodes;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Group;
 import com.sequenceiq.freeipa.client.model.RPCResponse;
 import com.sequenceiq.freeipa.configuration.UsersyncConfig;
@@ -60,10 +69,12 @@ import com.sequenceiq.freeipa.service.freeipa.WorkloadCredentialService;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
 import com.sequenceiq.freeipa.service.freeipa.user.model.SyncStatusDetail;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsAccountState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UmsEventGenerationIds;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateDifference;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateSnapshot;
 import com.sequenceiq.freeipa.service.operation.OperationService;
 import com.sequenceiq.freeipa.service.stack.StackService;
 
@@ -78,6 +89,7 @@ public class UserSyncService {
         RETRIEVE_FULL_UMS_STATE,
         RETRIEVE_PARTIAL_UMS_STATE,
         RETRIEVE_FULL_IPA_STATE,
+        RETRIEVE_INCREMENTAL_IPA_STATE,
         RETRIEVE_PARTIAL_IPA_STATE,
         CALCULATE_UMS_IPA_DIFFERENCE,
         APPLY_DIFFERENCE_TO_IPA,
@@ -95,6 +107,18 @@ public class UserSyncService {
     @Value("${freeipa.usersync.max-subjects-per-request}")
     int maxSubjectsPerRequest;
 
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch-size:50}")
+    int batchSize;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.max-parallel-environments:20}")
+    int maxParallelEnvironments;
+
+    @VisibleForTesting
+    @Inject
+    FreeIpaRequestInvoker freeIpaRequestInvoker;
+
     @Inject
     private StackService stackService;
 
@@ -132,6 +156,9 @@ public class UserSyncService {
     @Inject
     private EntitlementService entitlementService;
 
+    @Inject
+    private UsersStateSnapshotService usersStateSnapshotService;
+
     public Operation synchronizeUsers(String accountId, String actorCrn, Set<String> environmentCrnFilter,
             Set<String> userCrnFilter, Set<String> machineUserCrnFilter) {
         List<Stack> stacks = getStacksForSync(accountId, actorCrn, environmentCrnFilter, userCrnFilter, machineUserCrnFilter);
@@ -219,6 +246,7 @@ public class UserSyncService {
     private void internalSynchronizeUsers(String operationId, String accountId, String actorCrn, List<Stack> stacks,
             Set<String> userCrnFilter, Set<String> machineUserCrnFilter, boolean fullSync) {
         tryWithOperationCleanup(operationId, accountId, () -> {
+            long startTime = System.nanoTime();
             Set<String> environmentCrns = stacks.stream().map(Stack::getEnvironmentCrn).collect(Collectors.toSet());
 
             Optional<String> requestId = MDCUtils.getRequestId();
@@ -231,21 +259,28 @@ public class UserSyncService {
             LOGGER.info("Starting {} for environments {} with operationId {} ...", logUserSyncEvent, environmentCrns, operationId);
             LogEvent logRetrieveUmsEvent = fullSync ? LogEvent.RETRIEVE_FULL_UMS_STATE : LogEvent.RETRIEVE_PARTIAL_UMS_STATE;
             LOGGER.debug("Starting {} for environments {} ...", logRetrieveUmsEvent, environmentCrns);
-            Map<String, UmsUsersState> envToUmsStateMap = umsUsersStateProvider
-                    .getEnvToUmsUsersStateMap(accountId, actorCrn, environmentCrns, userCrnFilter, machineUserCrnFilter, requestId);
+            UmsAccountState umsAccountState = umsUsersStateProvider
+                    .getUmsAccountState(accountId, actorCrn, environmentCrns, userCrnFilter, machineUserCrnFilter, requestId);
             LOGGER.debug("Finished {}.", logRetrieveUmsEvent);
 
             List<SuccessDetails> success = new ArrayList<>();
             List<FailureDetails> failure = new ArrayList<>();
 
-            Map<String, Future<SyncStatusDetail>> statusFutures = stacks.stream()
-                    .collect(Collectors.toMap(Stack::getEnvironmentCrn,
-                            stack -> asyncSynchronizeStack(stack, envToUmsStateMap.get(stack.getEnvironmentCrn()), umsEventGenerationIds, fullSync,
-                                    operationId, accountId)));
+            // Environments are synchronized as soon as one of the slots is free, so that only the UMS state of the environments in progress
+            // is kept in memory, and one slow environment doesn't hold back the others
+            Semaphore environmentSlots = new Semaphore(Math.max(1, maxParallelEnvironments));
+            Map<String, Future<SyncStatusDetail>> statusFutures = new LinkedHashMap<>();
+            for (Stack stack : stacks) {
+                statusFutures.put(stack.getEnvironmentCrn(),
+                        asyncSynchronizeStack(stack, umsAccountState, umsEventGenerationIds, fullSync, operationId, accountId, environmentSlots));
+            }
 
-            statusFutures.forEach((envCrn, statusFuture) -> {
+            long peakHeapUsage = 0L;
+            for (Map.Entry<String, Future<SyncStatusDetail>> statusFuture : statusFutures.entrySet()) {
+                String envCrn = statusFuture.getKey();
                 try {
-                    SyncStatusDetail statusDetail = statusFuture.get();
+                    SyncStatusDetail statusDetail = statusFuture.getValue().get();
+                    peakHeapUsage = Math.max(peakHeapUsage, statusDetail.getPeakHeapUsage());
                     switch (statusDetail.getStatus()) {
                         case COMPLETED:
                             success.add(new SuccessDetails(envCrn));
@@ -261,9 +296,10 @@ public class UserSyncService {
                     LOGGER.error("Sync is interrupted for env: {}", envCrn, e);
                     failure.add(new FailureDetails(envCrn, e.getLocalizedMessage()));
                 }
-            });
+            }
             operationService.completeOperation(accountId, operationId, success, failure);
-            LOGGER.info("Finished {} for environments {} with operationId {}.", logUserSyncEvent, environmentCrns, operationId);
+            LOGGER.info("Finished {} for environments {} with operationId {} in {} ms, peak heap usage {} bytes.", logUserSyncEvent, environmentCrns,
+                    operationId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), peakHeapUsage);
         });
     }
 
@@ -279,36 +315,90 @@ public class UserSyncService {
         return failureDetails;
     }
 
-    private Future<SyncStatusDetail> asyncSynchronizeStack(Stack stack, UmsUsersState umsUsersState, UmsEventGenerationIds umsEventGenerationIds,
-            boolean fullSync, String operationId, String accountId) {
-        return asyncTaskExecutor.submit(() -> {
-            SyncStatusDetail statusDetail = internalSynchronizeStack(stack, umsUsersState, fullSync);
-            if (fullSync && statusDetail.getStatus() == SynchronizationStatus.COMPLETED) {
-                UserSyncStatus userSyncStatus = userSyncStatusService.getOrCreateForStack(stack);
+    @SuppressWarnings("ParameterNumber")
+    private Future<SyncStatusDetail> asyncSynchronizeStack(Stack stack, UmsAccountState umsAccountState, UmsEventGenerationIds umsEventGenerationIds,
+            boolean fullSync, String operationId, String accountId, Semaphore environmentSlots) {
+        environmentSlots.acquireUninterruptibly();
+        try {
+            return asyncTaskExecutor.submit(() -> {
+                try {
+                    long startTime = System.nanoTime();
+                    LongAccumulator peakHeapUsage = new LongAccumulator(Long::max, getUsedHeap());
+                    UmsUsersState umsUsersState = umsUsersStateProvider.getUmsUsersState(umsAccountState, stack.getEnvironmentCrn());
+                    SyncStatusDetail statusDetail = synchronizeStack(stack, umsUsersState, umsEventGenerationIds, fullSync, operationId, accountId,
+                            peakHeapUsage);
+                    Duration duration = Duration.ofNanos(System.nanoTime() - startTime);
+                    LOGGER.debug("Synchronized environment {} in {} ms, peak heap usage {} bytes", stack.getEnvironmentCrn(), duration.toMillis(),
+                            peakHeapUsage.get());
+                    return statusDetail.withStatistics(duration, peakHeapUsage.get());
+                } finally {
+                    environmentSlots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            environmentSlots.release();
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("ParameterNumber")
+    private SyncStatusDetail synchronizeStack(Stack stack, UmsUsersState umsUsersState, UmsEventGenerationIds umsEventGenerationIds,
+            boolean fullSync, String operationId, String accountId, LongAccumulator peakHeapUsage) {
+        Optional<UsersStateSnapshot> snapshot = fullSync
+                ? usersStateSnapshotService.getSnapshotForIncrementalSync(userSyncStatusService.getOrCreateForStack(stack))
+                : Optional.empty();
+        SyncStatusDetail statusDetail = internalSynchronizeStack(stack, umsUsersState, fullSync, snapshot, peakHeapUsage);
+        if (fullSync) {
+            UserSyncStatus userSyncStatus = userSyncStatusService.getOrCreateForStack(stack);
+            if (statusDetail.getStatus() == SynchronizationStatus.COMPLETED) {
                 userSyncStatus.setUmsEventGenerationIds(new Json(umsEventGenerationIds));
                 userSyncStatus.setLastSuccessfulFullSync(operationService.getOperationForAccountIdAndOperationId(accountId, operationId));
+                userSyncStatus.setUsersStateSnapshot(new Json(usersStateSnapshotService.createSnapshot(umsUsersState, snapshot)));
+            } else {
+                // FreeIPA may differ from the snapshot after a failed sync, the next one has to read the whole state of FreeIPA
+                userSyncStatus.setUsersStateSnapshot(null);
+            }
+            userSyncStatusService.save(userSyncStatus);
+        } else {
+            UserSyncStatus userSyncStatus = userSyncStatusService.findByStack(stack);
+            if (usersStateSnapshotService.invalidateUsers(userSyncStatus,
+                    umsUsersState.getRequestedWorkloadUsers().stream().map(FmsUser::getName).collect(Collectors.toSet()))) {
                 userSyncStatusService.save(userSyncStatus);
             }
-            return statusDetail;
-        });
-
+        }
+        return statusDetail;
     }
 
-    private SyncStatusDetail internalSynchronizeStack(Stack stack, UmsUsersState umsUsersState, boolean fullSync) {
+    private SyncStatusDetail internalSynchronizeStack(Stack stack, UmsUsersState umsUsersState, boolean fullSync,
+            Optional<UsersStateSnapshot> snapshot, LongAccumulator peakHeapUsage) {
         MDCBuilder.buildMdcContext(stack);
         String environmentCrn = stack.getEnvironmentCrn();
         Multimap<String, String> warnings = ArrayListMultimap.create();
         try {
             FreeIpaClient freeIpaClient = freeIpaClientFactory.getFreeIpaClientForStack(stack);
-            LogEvent logEvent = fullSync ? LogEvent.RETRIEVE_FULL_IPA_STATE : LogEvent.RETRIEVE_PARTIAL_IPA_STATE;
-            LOGGER.debug("Starting {} ...", logEvent);
-            UsersState ipaUsersState = getIpaUserState(freeIpaClient, umsUsersState, fullSync);
-            LOGGER.debug("Finished {}, found {} users and {} groups.", logEvent,
-                    ipaUsersState.getUsers().size(), ipaUsersState.getGroups().size());
+            UmsUsersState syncedUmsUsersState = umsUsersState;
+            UsersState ipaUsersState;
+            if (snapshot.isPresent()) {
+                LOGGER.debug("Starting {} ...", LogEvent.RETRIEVE_INCREMENTAL_IPA_STATE);
+                Set<String> changedUsers = usersStateSnapshotService.getChangedUsers(snapshot.get(), umsUsersState);
+                syncedUmsUsersState = usersStateSnapshotService.filterUsers(umsUsersState, changedUsers);
+                ipaUsersState = freeIpaUsersStateProvider.getUsersState(freeIpaClient, changedUsers, snapshot.get().getGroups().stream()
+                        .map(group -> new FmsGroup().withName(group))
+                        .collect(Collectors.toSet()));
+                LOGGER.debug("Finished {}, found {} of {} changed users.", LogEvent.RETRIEVE_INCREMENTAL_IPA_STATE,
+                        ipaUsersState.getUsers().size(), changedUsers.size());
+            } else {
+                LogEvent logEvent = fullSync ? LogEvent.RETRIEVE_FULL_IPA_STATE : LogEvent.RETRIEVE_PARTIAL_IPA_STATE;
+                LOGGER.debug("Starting {} ...", logEvent);
+                ipaUsersState = getIpaUserState(freeIpaClient, umsUsersState, fullSync);
+                LOGGER.debug("Finished {}, found {} users and {} groups.", logEvent,
+                        ipaUsersState.getUsers().size(), ipaUsersState.getGroups().size());
+            }
 
             LOGGER.debug("Starting {} ...", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
-            UsersStateDifference usersStateDifference = UsersStateDifference.fromUmsAndIpaUsersStates(umsUsersState, ipaUsersState);
+            UsersStateDifference usersStateDifference = UsersStateDifference.fromUmsAndIpaUsersStates(syncedUmsUsersState, ipaUsersState);
             LOGGER.debug("Finished {}.", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
+            peakHeapUsage.accumulate(getUsedHeap());
 
             LOGGER.debug("Starting {} ...", LogEvent.APPLY_DIFFERENCE_TO_IPA);
             applyStateDifferenceToIpa(stack.getEnvironmentCrn(), freeIpaClient, usersStateDifference, warnings::put);
@@ -317,9 +407,10 @@ public class UserSyncService {
             if (!FreeIpaCapabilities.hasSetPasswordHashSupport(freeIpaClient.getConfig())) {
                 LOGGER.debug("IPA doesn't have password hash support, no credentials sync required for env:{}", environmentCrn);
             } else {
-                // Sync credentials for all users and not just diff. At present there is no way to identify that there is a change in password for a user
-                LOGGER.debug("Starting {} for {} users ...", LogEvent.SET_WORKLOAD_CREDENTIALS, umsUsersState.getUsersWorkloadCredentialMap().size());
-                workloadCredentialService.setWorkloadCredentials(freeIpaClient, umsUsersState.getUsersWorkloadCredentialMap(), warnings::put);
+                // Without a snapshot credentials are synced for all users and not just diff, as there is no way to identify that there is a change
+                // in password for a user. The snapshot hashes the credentials, so an incremental sync only sets them for the changed users.
+                LOGGER.debug("Starting {} for {} users ...", LogEvent.SET_WORKLOAD_CREDENTIALS, syncedUmsUsersState.getUsersWorkloadCredentialMap().size());
+                workloadCredentialService.setWorkloadCredentials(freeIpaClient, syncedUmsUsersState.getUsersWorkloadCredentialMap(), warnings::put);
                 LOGGER.debug("Finished {}.", LogEvent.SET_WORKLOAD_CREDENTIALS);
             }
 
@@ -329,6 +420,7 @@ public class UserSyncService {
                 cloudIdentitySyncService.syncCloudIdentites(stack, umsUsersState, warnings::put);
                 LOGGER.debug("Finished {}.", LogEvent.SYNC_CLOUD_IDENTITIES);
             }
+            peakHeapUsage.accumulate(getUsedHeap());
 
             if (warnings.isEmpty()) {
                 return SyncStatusDetail.succeed(environmentCrn);
@@ -341,6 +433,13 @@ public class UserSyncService {
         }
     }
 
+    /**
+     * The heap usage of the whole JVM, sampled between the steps of a sync to give an idea of the memory needed to synchronize an environment.
+     */
+    private long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
     @VisibleForTesting
     UsersState getIpaUserState(FreeIpaClient freeIpaClient, UmsUsersState umsUsersState, boolean fullSync)
             throws FreeIpaClientException {
@@ -379,80 +478,99 @@ public class UserSyncService {
     }
 
     private void addGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<String, BatchOperation> operations = new LinkedHashMap<>();
         for (FmsGroup fmsGroup : fmsGroups) {
             LOGGER.debug("adding group {}", fmsGroup.getName());
             try {
-                com.sequenceiq.freeipa.client.model.Group groupAdd = freeIpaClient.groupAdd(fmsGroup.getName());
-                LOGGER.debug("Success: {}", groupAdd);
+                operations.put(fmsGroup.getName(), FreeIpaClient.groupAddOperation(fmsGroup.getName()));
             } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("group '{}' already exists", fmsGroup.getName());
-                } else {
-                    LOGGER.warn("Failed to add group {}", fmsGroup.getName(), e);
-                    warnings.accept(fmsGroup.getName(), "Failed to add group:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
+                LOGGER.warn("Failed to add group {}", fmsGroup.getName(), e);
+                warnings.accept(fmsGroup.getName(), "Failed to add group:" + e.getMessage());
             }
         }
+        invokeInBatches(freeIpaClient, operations, FreeIpaErrorCodes.DUPLICATE_ENTRY, "Failed to add group:", warnings);
     }
 
     private void addUsers(FreeIpaClient freeIpaClient, Set<FmsUser> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<String, BatchOperation> operations = new LinkedHashMap<>();
         for (FmsUser fmsUser : fmsUsers) {
             String username = fmsUser.getName();
             LOGGER.debug("adding user {}", username);
             try {
-                com.sequenceiq.freeipa.client.model.User userAdd = freeIpaClient.userAdd(
-                        username, fmsUser.getFirstName(), fmsUser.getLastName());
-                LOGGER.debug("Success: {}", userAdd);
+                operations.put(username, FreeIpaClient.userAddOperation(username, fmsUser.getFirstName(), fmsUser.getLastName()));
             } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("user '{}' already exists", fmsUser.getName());
-                } else {
-                    LOGGER.error("Failed to add {}", username, e);
-                    warnings.accept(fmsUser.getName(), "Failed to add user:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
+                LOGGER.error("Failed to add {}", username, e);
+                warnings.accept(username, "Failed to add user:" + e.getMessage());
             }
         }
+        invokeInBatches(freeIpaClient, operations, FreeIpaErrorCodes.DUPLICATE_ENTRY, "Failed to add user:", warnings);
     }
 
     private void removeUsers(FreeIpaClient freeIpaClient, Set<String> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<String, BatchOperation> operations = new LinkedHashMap<>();
         for (String username : fmsUsers) {
             LOGGER.debug("Removing user {}", username);
             try {
-                com.sequenceiq.freeipa.client.model.User userRemove = freeIpaClient.deleteUser(username);
-                LOGGER.debug("Success: {}", userRemove);
+                operations.put(username, FreeIpaClient.deleteUserOperation(username));
             } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("user '{}' already does not exists", username);
-                } else {
-                    LOGGER.error("Failed to delete {}", username, e);
-                    warnings.accept(username, "Failed to remove user:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
+                LOGGER.error("Failed to delete {}", username, e);
+                warnings.accept(username, "Failed to remove user:" + e.getMessage());
             }
         }
+        invokeInBatches(freeIpaClient, operations, FreeIpaErrorCodes.NOT_FOUND, "Failed to remove user:", warnings);
     }
 
     private void removeGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<String, BatchOperation> operations = new LinkedHashMap<>();
         for (FmsGroup fmsGroup : fmsGroups) {
             String groupname = fmsGroup.getName();
-
             LOGGER.debug("Removing group {}", groupname);
-
             try {
-                freeIpaClient.deleteGroup(groupname);
-                LOGGER.debug("Success: {}", groupname);
+                operations.put(groupname, FreeIpaClient.deleteGroupOperation(groupname));
             } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("group '{}' already does not exists", groupname);
+                LOGGER.error("Failed to delete {}", groupname, e);
+                warnings.accept(groupname, "Failed to remove group: " + e.getMessage());
+            }
+        }
+        invokeInBatches(freeIpaClient, operations, FreeIpaErrorCodes.NOT_FOUND, "Failed to remove group: ", warnings);
+    }
+
+    /**
+     * Sends the operations to FreeIPA in batches of {@code batchSize}, with up to {@code freeipa.usersync.ipa.max-concurrent-requests}
+     * batches in flight. A failed operation is reported as a warning of its subject, except if it failed with {@code ignoredError}, which
+     * means the subject is already in the desired state. If a whole batch fails, every subject of the batch gets a warning, and the rest of
+     * the batches are only sent if the client is still usable.
+     */
+    private void invokeInBatches(FreeIpaClient freeIpaClient, Map<String, BatchOperation> operations, FreeIpaErrorCodes ignoredError,
+            String failureMessage, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        List<List<Map.Entry<String, BatchOperation>>> batches = Lists.partition(List.copyOf(operations.entrySet()), batchSize);
+        freeIpaRequestInvoker.invokeAll(batches, batch -> freeIpaClient.invokeBatch(getBatchOperations(batch)), (batch, results, failure) -> {
+            List<BatchOperation> batchOperations = getBatchOperations(batch);
+            if (failure != null) {
+                LOGGER.error("Failed to execute batch {}", batchOperations, failure);
+                batch.forEach(entry -> warnings.accept(entry.getKey(), failureMessage + failure.getMessage()));
+                if (failure instanceof FreeIpaClientException) {
+                    checkIfClientStillUsable((FreeIpaClientException) failure);
+                }
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                String subject = batch.get(i).getKey();
+                BatchResult result = results.get(i);
+                if (result.isSuccess()) {
+                    LOGGER.debug("Success: {} {}", batchOperations.get(i).getMethod(), subject);
+                } else if (Integer.valueOf(ignoredError.getValue()).equals(result.getErrorCode())) {
+                    LOGGER.debug("{} {} has no effect: {}", batchOperations.get(i).getMethod(), subject, result.getError());
                 } else {
-                    LOGGER.error("Failed to delete {}", groupname, e);
-                    warnings.accept(groupname, "Failed to remove group: " + e.getMessage());
-                    checkIfClientStillUsable(e);
+                    LOGGER.error("{} {} failed: {}", batchOperations.get(i).getMethod(), subject, result);
+                    warnings.accept(subject, failureMessage + result.getError());
                 }
             }
-        }
+        });
+    }
+
+    private List<BatchOperation> getBatchOperations(List<Map.Entry<String, BatchOperation>> batch) {
+        return batch.stream().map(Map.Entry::getValue).collect(Collectors.toList());
     }
 
     @VisibleForTesting
@@ -0,0 +1,203 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.protobuf.MessageLite;
+import com.sequenceiq.cloudbreak.common.json.Json;
+import com.sequenceiq.freeipa.entity.UserSyncStatus;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateSnapshot;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+/**
+ * Keeps track of what the last successful full user sync wrote to an environment, so that the next full sync only has to look up and write
+ * the users that changed since. A full sync is done without the snapshot when there is none, when the last sync failed or completed with
+ * warnings, and every {@code freeipa.usersync.incremental.full-sync-interval}, to correct changes made to FreeIPA outside of the user sync.
+ */
+@Component
+public class UsersStateSnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsersStateSnapshotService.class);
+
+    private static final int HASH_BYTES = 16;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.incremental.enabled:true}")
+    boolean incrementalSyncEnabled;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.incremental.full-sync-interval:PT24H}")
+    Duration fullSyncInterval;
+
+    /**
+     * @return the snapshot of the environment, if the next full sync can be incremental
+     */
+    public Optional<UsersStateSnapshot> getSnapshotForIncrementalSync(UserSyncStatus userSyncStatus) {
+        if (!incrementalSyncEnabled || userSyncStatus == null || userSyncStatus.getUsersStateSnapshot() == null) {
+            return Optional.empty();
+        }
+        Optional<UsersStateSnapshot> snapshot = readSnapshot(userSyncStatus);
+        if (snapshot.isPresent() && Instant.ofEpochMilli(snapshot.get().getFullSyncTime()).plus(fullSyncInterval).isBefore(Instant.now())) {
+            LOGGER.debug("The last non-incremental user sync was more than {} ago, the snapshot is not used", fullSyncInterval);
+            return Optional.empty();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Creates the snapshot of a successfully synchronized UMS state.
+     *
+     * @param previous the snapshot the sync was based on, empty if it was not incremental
+     */
+    public UsersStateSnapshot createSnapshot(UmsUsersState umsUsersState, Optional<UsersStateSnapshot> previous) {
+        UsersStateSnapshot snapshot = new UsersStateSnapshot();
+        snapshot.setFullSyncTime(previous.map(UsersStateSnapshot::getFullSyncTime).orElseGet(System::currentTimeMillis));
+        snapshot.setUserHashes(hashUsers(umsUsersState));
+        snapshot.setGroups(umsUsersState.getUsersState().getGroups().stream().map(FmsGroup::getName).collect(Collectors.toSet()));
+        return snapshot;
+    }
+
+    /**
+     * @return the names of the users that were added, changed or removed since the snapshot
+     */
+    public Set<String> getChangedUsers(UsersStateSnapshot snapshot, UmsUsersState umsUsersState) {
+        Map<String, String> currentHashes = hashUsers(umsUsersState);
+        Set<String> changedUsers = currentHashes.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(snapshot.getUserHashes().get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(HashSet::new));
+        snapshot.getUserHashes().keySet().stream()
+                .filter(username -> !currentHashes.containsKey(username))
+                .forEach(changedUsers::add);
+        LOGGER.debug("{} of {} users changed since the snapshot", changedUsers.size(), currentHashes.size());
+        return changedUsers;
+    }
+
+    /**
+     * Restricts the users, group memberships and workload credentials of the UMS state to the given users. Groups and cloud identities of
+     * groups are kept.
+     */
+    public UmsUsersState filterUsers(UmsUsersState umsUsersState, Set<String> usernames) {
+        UsersState usersState = umsUsersState.getUsersState();
+        UsersState.Builder usersStateBuilder = new UsersState.Builder();
+        usersState.getGroups().forEach(usersStateBuilder::addGroup);
+        usersState.getUsers().stream()
+                .filter(user -> usernames.contains(user.getName()))
+                .forEach(usersStateBuilder::addUser);
+        usersState.getGroupMembership().forEach((group, user) -> {
+            if (usernames.contains(user)) {
+                usersStateBuilder.addMemberToGroup(group, user);
+            }
+        });
+        UmsUsersState.Builder builder = new UmsUsersState.Builder()
+                .setUsersState(usersStateBuilder.build())
+                .setWorkloadAdministrationGroups(umsUsersState.getWorkloadAdministrationGroups());
+        umsUsersState.getUsersWorkloadCredentialMap().forEach((user, credential) -> {
+            if (usernames.contains(user)) {
+                builder.addWorkloadCredentials(user, credential);
+            }
+        });
+        umsUsersState.getRequestedWorkloadUsers().stream()
+                .filter(user -> usernames.contains(user.getName()))
+                .forEach(builder::addRequestedWorkloadUsers);
+        umsUsersState.getUserToCloudIdentityMap().forEach((user, cloudIdentities) -> {
+            if (usernames.contains(user)) {
+                builder.addUserCloudIdentities(user, cloudIdentities);
+            }
+        });
+        umsUsersState.getGroupToCloudIdentityMap().forEach(builder::addGroupCloudIdentities);
+        return builder.build();
+    }
+
+    /**
+     * Drops the users from the snapshot, so that the next incremental sync looks them up in FreeIPA. Needed after the users were synchronized
+     * by a partial sync.
+     *
+     * @return whether the snapshot has been changed
+     */
+    public boolean invalidateUsers(UserSyncStatus userSyncStatus, Collection<String> usernames) {
+        if (userSyncStatus == null || userSyncStatus.getUsersStateSnapshot() == null || usernames.isEmpty()) {
+            return false;
+        }
+        Optional<UsersStateSnapshot> snapshot = readSnapshot(userSyncStatus);
+        if (snapshot.isPresent()) {
+            snapshot.get().getUserHashes().keySet().removeAll(usernames);
+            userSyncStatus.setUsersStateSnapshot(new Json(snapshot.get()));
+        } else {
+            userSyncStatus.setUsersStateSnapshot(null);
+        }
+        return true;
+    }
+
+    private Optional<UsersStateSnapshot> readSnapshot(UserSyncStatus userSyncStatus) {
+        try {
+            return Optional.ofNullable(userSyncStatus.getUsersStateSnapshot().get(UsersStateSnapshot.class));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read the users state snapshot of environment {}, a full sync is needed",
+                    userSyncStatus.getStack().getEnvironmentCrn(), e);
+            return Optional.empty();
+        }
+    }
+
+    @VisibleForTesting
+    Map<String, String> hashUsers(UmsUsersState umsUsersState) {
+        Multimap<String, String> groupsOfUsers = HashMultimap.create();
+        umsUsersState.getUsersState().getGroupMembership().forEach((group, user) -> groupsOfUsers.put(user, group));
+        Map<String, String> hashes = new HashMap<>();
+        for (FmsUser user : umsUsersState.getUsersState().getUsers()) {
+            Hasher hasher = Hashing.sha256().newHasher();
+            putString(hasher, user.getName());
+            putString(hasher, user.getFirstName());
+            putString(hasher, user.getLastName());
+            new TreeSet<>(groupsOfUsers.get(user.getName())).forEach(group -> putString(hasher, group));
+            putCredential(hasher, umsUsersState.getUsersWorkloadCredentialMap().get(user.getName()));
+            hashes.put(user.getName(), BaseEncoding.base64().omitPadding().encode(hasher.hash().asBytes(), 0, HASH_BYTES));
+        }
+        return hashes;
+    }
+
+    private void putCredential(Hasher hasher, WorkloadCredential credential) {
+        if (credential != null) {
+            putString(hasher, credential.getHashedPassword());
+            putMessages(hasher, credential.getKeys());
+            hasher.putLong(credential.getExpirationDate().map(Instant::toEpochMilli).orElse(-1L));
+            putMessages(hasher, credential.getSshPublicKeys());
+        }
+    }
+
+    private void putMessages(Hasher hasher, List<? extends MessageLite> messages) {
+        hasher.putInt(messages.size());
+        messages.forEach(message -> hasher.putBytes(message.toByteArray()));
+    }
+
+    private void putString(Hasher hasher, String value) {
+        hasher.putString(value == null ? "" : value, UTF_8).putByte((byte) 0);
+    }
+}
@@ -2,6 +2,8 @@ package com.sequenceiq.freeipa.service.freeipa.user.model;
 
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
+
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.sequenceiq.freeipa.api.v1.freeipa.user.model.SynchronizationStatus;
@@ -16,6 +18,10 @@ public class SyncStatusDetail {
 
     private ImmutableMultimap<String, String> warnings;
 
+    private Duration duration = Duration.ZERO;
+
+    private long peakHeapUsage;
+
     public SyncStatusDetail(String environmentCrn, SynchronizationStatus status, String details, Multimap<String, String> warnings) {
         this.environmentCrn = requireNonNull(environmentCrn);
         this.status = requireNonNull(status);
@@ -39,6 +45,24 @@ public class SyncStatusDetail {
         return warnings;
     }
 
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the highest heap usage of the JVM in bytes sampled during the sync of the environment
+     */
+    public long getPeakHeapUsage() {
+        return peakHeapUsage;
+    }
+
+    public SyncStatusDetail withStatistics(Duration duration, long peakHeapUsage) {
+        SyncStatusDetail syncStatusDetail = new SyncStatusDetail(environmentCrn, status, details, warnings);
+        syncStatusDetail.duration = requireNonNull(duration);
+        syncStatusDetail.peakHeapUsage = peakHeapUsage;
+        return syncStatusDetail;
+    }
+
     public static SyncStatusDetail fail(String environmentCrn, String failureMessage, Multimap<String, String> warnings) {
         return new SyncStatusDetail(environmentCrn, SynchronizationStatus.FAILED, failureMessage, warnings);
     }
@@ -0,0 +1,63 @@
+package com.sequenceiq.freeipa.service.freeipa.user.model;
+
+import java.util.List;
+import java.util.Map;
+
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.Group;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.MachineUser;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.User;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.WorkloadAdministrationGroup;
+
+/**
+ * Everything fetched from UMS for the user sync of an account. The {@link UmsUsersState} of each environment is calculated from it on
+ * demand, so that the states of every environment don't have to be kept in memory at the same time.
+ */
+public class UmsAccountState {
+
+    private final List<User> users;
+
+    private final List<MachineUser> machineUsers;
+
+    private final List<Group> groups;
+
+    private final Map<WorkloadAdministrationGroup, FmsGroup> workloadAdministrationGroups;
+
+    private final Map<String, Map<String, EnvironmentAccessRights>> memberAccessRights;
+
+    private final Map<String, UmsMemberDetails> memberDetails;
+
+    public UmsAccountState(List<User> users, List<MachineUser> machineUsers, List<Group> groups,
+            Map<WorkloadAdministrationGroup, FmsGroup> workloadAdministrationGroups, Map<String, Map<String, EnvironmentAccessRights>> memberAccessRights,
+            Map<String, UmsMemberDetails> memberDetails) {
+        this.users = users;
+        this.machineUsers = machineUsers;
+        this.groups = groups;
+        this.workloadAdministrationGroups = workloadAdministrationGroups;
+        this.memberAccessRights = memberAccessRights;
+        this.memberDetails = memberDetails;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public List<MachineUser> getMachineUsers() {
+        return machineUsers;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public Map<WorkloadAdministrationGroup, FmsGroup> getWorkloadAdministrationGroups() {
+        return workloadAdministrationGroups;
+    }
+
+    public Map<String, Map<String, EnvironmentAccessRights>> getMemberAccessRights() {
+        return memberAccessRights;
+    }
+
+    public Map<String, UmsMemberDetails> getMemberDetails() {
+        return memberDetails;
+    }
+}
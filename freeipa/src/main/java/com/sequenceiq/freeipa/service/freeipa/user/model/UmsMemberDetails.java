@@ -0,0 +1,33 @@
+package com.sequenceiq.freeipa.service.freeipa.user.model;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+public class UmsMemberDetails {
+
+    private final ImmutableList<String> groupCrns;
+
+    private final ImmutableList<String> workloadAdministrationGroupNames;
+
+    private final WorkloadCredential workloadCredential;
+
+    public UmsMemberDetails(Collection<String> groupCrns, Collection<String> workloadAdministrationGroupNames, WorkloadCredential workloadCredential) {
+        this.groupCrns = ImmutableList.copyOf(groupCrns);
+        this.workloadAdministrationGroupNames = ImmutableList.copyOf(workloadAdministrationGroupNames);
+        this.workloadCredential = workloadCredential;
+    }
+
+    public List<String> getGroupCrns() {
+        return groupCrns;
+    }
+
+    public List<String> getWorkloadAdministrationGroupNames() {
+        return workloadAdministrationGroupNames;
+    }
+
+    public WorkloadCredential getWorkloadCredential() {
+        return workloadCredential;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sequenceiq.freeipa.service.freeipa.user.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The state of an environment as it was written to FreeIPA by the last successful full user sync. Only a hash is kept per user, which covers
+ * the name, the group memberships and the workload credentials of the user.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UsersStateSnapshot {
+
+    private long fullSyncTime;
+
+    private Map<String, String> userHashes = new HashMap<>();
+
+    private Set<String> groups = new HashSet<>();
+
+    public long getFullSyncTime() {
+        return fullSyncTime;
+    }
+
+    public void setFullSyncTime(long fullSyncTime) {
+        this.fullSyncTime = fullSyncTime;
+    }
+
+    public Map<String, String> getUserHashes() {
+        return userHashes;
+    }
+
+    public void setUserHashes(Map<String, String> userHashes) {
+        this.userHashes = userHashes;
+    }
+
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Set<String> groups) {
+        this.groups = groups;
+    }
+
+    @Override
+    public String toString() {
+        return "UsersStateSnapshot{"
+                + "fullSyncTime=" + fullSyncTime
+                + ", users=" + userHashes.size()
+                + ", groups=" + groups.size()
+                + '}';
+    }
+}
@@ -27,6 +27,7 @@ import com.sequenceiq.freeipa.service.stack.StackService;
 import com.sequenceiq.freeipa.service.stack.StackUpdater;
 import com.sequenceiq.freeipa.service.stack.instance.InstanceMetaDataService;
 import com.sequenceiq.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
 
 @Component
 public class StackStatusCheckerJob extends StatusCheckerJob {
@@ -61,6 +62,7 @@ public class StackStatusCheckerJob extends StatusCheckerJob {
         prepareMdcContextWithStack(stack);
         if (flowLogService.isOtherFlowRunning(stackId)) {
             LOGGER.debug("StackStatusCheckerJob cannot run, because flow is running for stack: {}", stackId);
+            reportCheckResult(StatusCheckResult.CHANGED);
             return;
         }
         syncAStack(stack);
@@ -102,12 +104,14 @@ public class StackStatusCheckerJob extends StatusCheckerJob {
             }, LOGGER, ":::Auto sync::: freeipa stack sync in {}ms");
         } catch (Exception e) {
             LOGGER.info(":::Auto sync::: Error occurred during freeipa sync: {}", e.getMessage(), e);
+            reportCheckResult(StatusCheckResult.FAILED);
         }
     }
 
     private void updateStackStatus(Stack stack, SyncResult result, List<ProviderSyncResult> providerSyncResults) {
         DetailedStackStatus status = getStackStatus(providerSyncResults, result);
         if (status != stack.getStackStatus().getDetailedStackStatus()) {
+            reportCheckResult(StatusCheckResult.CHANGED);
             if (autoSyncConfig.isUpdateStatus()) {
                 stackUpdater.updateStackStatus(stack, status, result.getMessage());
             } else {
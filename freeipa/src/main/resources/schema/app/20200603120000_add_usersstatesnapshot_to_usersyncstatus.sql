@@ -0,0 +1,9 @@
+-- // add the snapshot of the last synchronized users state for incremental user sync
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE usersyncstatus ADD COLUMN IF NOT EXISTS usersstatesnapshot TEXT;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE usersyncstatus DROP COLUMN IF EXISTS usersstatesnapshot;
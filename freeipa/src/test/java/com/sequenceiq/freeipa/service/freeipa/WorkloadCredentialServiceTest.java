@@ -16,11 +16,13 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.service.freeipa.user.FreeIpaRequestInvoker;
 import com.sequenceiq.freeipa.service.freeipa.user.kerberos.KrbKeySetEncoder;
 import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 
@@ -28,6 +30,11 @@ class WorkloadCredentialServiceTest {
 
     private WorkloadCredentialService underTest = new WorkloadCredentialService();
 
+    @BeforeEach
+    void setUp() {
+        underTest.freeIpaRequestInvoker = new FreeIpaRequestInvoker();
+    }
+
     @Test
     void setWorkloadCredential() throws Exception {
         FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
@@ -0,0 +1,117 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+
+class FreeIpaRequestInvokerTest {
+
+    private static final int MAX_CONCURRENT_REQUESTS = 3;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(10);
+
+    private FreeIpaRequestInvoker underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FreeIpaRequestInvoker();
+        underTest.ipaRequestTaskExecutor = new ConcurrentTaskExecutor(executorService);
+        underTest.maxConcurrentRequests = MAX_CONCURRENT_REQUESTS;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testResultsAreHandledInOrderWithBoundedConcurrency() throws FreeIpaClientException {
+        List<Integer> subjects = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> handled = new ArrayList<>();
+
+        underTest.invokeAll(subjects, subject -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(subject % 3 * 5);
+            inFlight.decrementAndGet();
+            return subject * 2;
+        }, (subject, result, failure) -> {
+            assertEquals(subject * 2, result);
+            handled.add(subject);
+        });
+
+        assertEquals(subjects, handled);
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENT_REQUESTS);
+    }
+
+    @Test
+    void testCheckedExceptionIsPassedToTheHandler() throws FreeIpaClientException {
+        IOException exception = new IOException("failed");
+        List<Exception> failures = new ArrayList<>();
+
+        underTest.invokeAll(List.of(1, 2), subject -> {
+            if (subject == 1) {
+                throw exception;
+            }
+            return subject;
+        }, (subject, result, failure) -> failures.add(failure));
+
+        assertEquals(2, failures.size());
+        assertSame(exception, failures.get(0));
+        assertNull(failures.get(1));
+    }
+
+    @Test
+    void testHandlerStopsTheRemainingRequests() {
+        AtomicInteger requests = new AtomicInteger();
+        FreeIpaClientException exception = new FreeIpaClientException("unusable");
+
+        FreeIpaClientException thrown = assertThrows(FreeIpaClientException.class, () -> underTest.invokeAll(List.of(1, 2, 3, 4, 5, 6),
+                subject -> requests.incrementAndGet(), (subject, result, failure) -> {
+                    throw exception;
+                }));
+
+        assertSame(exception, thrown);
+        assertTrue(requests.get() <= MAX_CONCURRENT_REQUESTS);
+    }
+
+    @Test
+    void testUncheckedExceptionIsRethrown() {
+        IllegalStateException exception = new IllegalStateException("bug");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> underTest.invokeAll(List.of(1),
+                subject -> {
+                    throw exception;
+                }, (subject, result, failure) -> {
+                }));
+
+        assertSame(exception, thrown);
+    }
+
+    @Test
+    void testRequestsAreSentFromTheCallingThreadWithoutConcurrency() throws FreeIpaClientException {
+        underTest.maxConcurrentRequests = 1;
+        Thread caller = Thread.currentThread();
+
+        underTest.invokeAll(List.of(1, 2), subject -> Thread.currentThread(), (subject, result, failure) -> assertSame(caller, result));
+    }
+}
@@ -4,6 +4,11 @@ import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_PROTECTED_USERS;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_UNMANAGED_GROUPS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
@@ -108,6 +113,35 @@ class FreeIpaUsersStateProviderTest {
         assertEquals(username, ipaUser.getName());
     }
 
+    @Test
+    void testGetFilteredFreeIpaState() throws Exception {
+        underTest.batchSize = 10;
+        Set<FmsUser> users = Set.of(new FmsUser().withName("user1"), new FmsUser().withName("missing"),
+                new FmsUser().withName(IPA_PROTECTED_USERS.get(0)));
+        when(freeIpaClient.groupFindAll()).thenReturn(Set.of(createIpaGroup("group1"), createIpaGroup(IPA_UNMANAGED_GROUPS.get(0))));
+        when(freeIpaClient.userFind(anyCollection(), eq(10)))
+                .thenReturn(Map.of("user1", createIpaUser("user1", List.of("group1", IPA_UNMANAGED_GROUPS.get(0)))));
+
+        UsersState ipaState = underTest.getFilteredFreeIpaState(freeIpaClient, users);
+
+        verify(freeIpaClient).userFind(argThat(uids -> Set.copyOf(uids).equals(Set.of("user1", "missing"))), eq(10));
+        assertEquals(Set.of("user1"), ipaState.getUsers().stream().map(FmsUser::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("group1"), ipaState.getGroups().stream().map(FmsGroup::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("user1"), Set.copyOf(ipaState.getGroupMembership().get("group1")));
+    }
+
+    @Test
+    void testGetUsersStateUsesGivenGroups() throws Exception {
+        underTest.batchSize = 10;
+        when(freeIpaClient.userFind(List.of("user1"), 10)).thenReturn(Map.of("user1", createIpaUser("user1", List.of("group1"))));
+
+        UsersState ipaState = underTest.getUsersState(freeIpaClient, List.of("user1"), Set.of(new FmsGroup().withName("group1")));
+
+        verify(freeIpaClient, never()).groupFindAll();
+        assertEquals(Set.of("group1"), ipaState.getGroups().stream().map(FmsGroup::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("user1"), Set.copyOf(ipaState.getGroupMembership().get("group1")));
+    }
+
     @Test
     void testFromIpaUser() {
         com.sequenceiq.freeipa.client.model.User ipaUser = createIpaUser("uid", List.of("group1", "group2"));
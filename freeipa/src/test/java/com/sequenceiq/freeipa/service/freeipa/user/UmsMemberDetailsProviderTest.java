@@ -0,0 +1,149 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.Group;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListWorkloadAdministrationGroupsForMemberResponse;
+import com.sequenceiq.cloudbreak.auth.altus.GrpcUmsClient;
+import com.sequenceiq.freeipa.service.freeipa.user.model.EnvironmentAccessRights;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsMemberDetails;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+@ExtendWith(MockitoExtension.class)
+class UmsMemberDetailsProviderTest {
+
+    private static final String ACCOUNT_ID = UUID.randomUUID().toString();
+
+    private static final String USER_CRN = "crn:cdp:iam:us-west-1:" + ACCOUNT_ID + ":user:" + UUID.randomUUID().toString();
+
+    private static final String MACHINE_USER_CRN = "crn:cdp:iam:us-west-1:" + ACCOUNT_ID + ":machineUser:" + UUID.randomUUID().toString();
+
+    private static final String GROUP_CRN_1 = "crn:cdp:iam:us-west-1:" + ACCOUNT_ID + ":group:group1";
+
+    private static final String GROUP_CRN_2 = "crn:cdp:iam:us-west-1:" + ACCOUNT_ID + ":group:group2";
+
+    private static final List<Group> GROUPS = List.of(
+            Group.newBuilder().setCrn(GROUP_CRN_1).setGroupName("group1").build(),
+            Group.newBuilder().setCrn(GROUP_CRN_2).setGroupName("group2").build());
+
+    private static final String ENV_CRN = "crn:cdp:environments:us-west-1:" + ACCOUNT_ID + ":environment:" + UUID.randomUUID().toString();
+
+    @Mock
+    private GrpcUmsClient grpcUmsClient;
+
+    @Mock
+    private UmsCredentialProvider umsCredentialProvider;
+
+    @Spy
+    private AsyncTaskExecutor umsFetchTaskExecutor = new ConcurrentTaskExecutor(Executors.newFixedThreadPool(2));
+
+    @InjectMocks
+    private UmsMemberDetailsProvider underTest;
+
+    @Test
+    void testFullSyncListsGroupMembershipsPerGroup() {
+        when(grpcUmsClient.listMembersFromGroup(anyString(), eq(ACCOUNT_ID), eq(GROUP_CRN_1), any())).thenReturn(List.of(USER_CRN, MACHINE_USER_CRN));
+        when(grpcUmsClient.listMembersFromGroup(anyString(), eq(ACCOUNT_ID), eq(GROUP_CRN_2), any())).thenReturn(List.of(USER_CRN));
+        WorkloadCredential userCredential = mockMember(USER_CRN, "wag1");
+        mockMember(MACHINE_USER_CRN, "wag2");
+
+        Map<String, UmsMemberDetails> result =
+                underTest.getMemberDetails(ACCOUNT_ID, GROUPS, Set.of(USER_CRN, MACHINE_USER_CRN), true, Optional.empty());
+
+        assertEquals(Set.of(GROUP_CRN_1, GROUP_CRN_2), Set.copyOf(result.get(USER_CRN).getGroupCrns()));
+        assertEquals(List.of("wag1"), result.get(USER_CRN).getWorkloadAdministrationGroupNames());
+        assertSame(userCredential, result.get(USER_CRN).getWorkloadCredential());
+        assertEquals(List.of(GROUP_CRN_1), result.get(MACHINE_USER_CRN).getGroupCrns());
+        assertEquals(List.of("wag2"), result.get(MACHINE_USER_CRN).getWorkloadAdministrationGroupNames());
+        verify(grpcUmsClient, never()).listGroupsForMember(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testPartialSyncListsGroupMembershipsPerMember() {
+        when(grpcUmsClient.listGroupsForMember(anyString(), eq(ACCOUNT_ID), eq(USER_CRN), any())).thenReturn(List.of(GROUP_CRN_2));
+        mockMember(USER_CRN, "wag1");
+
+        Map<String, UmsMemberDetails> result = underTest.getMemberDetails(ACCOUNT_ID, GROUPS, Set.of(USER_CRN), false, Optional.empty());
+
+        assertEquals(List.of(GROUP_CRN_2), result.get(USER_CRN).getGroupCrns());
+        verify(grpcUmsClient, never()).listMembersFromGroup(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void testDeletedMemberIsLeftOut() {
+        when(grpcUmsClient.listGroupsForMember(anyString(), eq(ACCOUNT_ID), eq(USER_CRN), any())).thenReturn(List.of(GROUP_CRN_1));
+        mockMember(USER_CRN, "wag1");
+        when(grpcUmsClient.listGroupsForMember(anyString(), eq(ACCOUNT_ID), eq(MACHINE_USER_CRN), any()))
+                .thenThrow(new StatusRuntimeException(Status.NOT_FOUND));
+
+        Map<String, UmsMemberDetails> result =
+                underTest.getMemberDetails(ACCOUNT_ID, GROUPS, Set.of(USER_CRN, MACHINE_USER_CRN), false, Optional.empty());
+
+        assertTrue(result.containsKey(USER_CRN));
+        assertFalse(result.containsKey(MACHINE_USER_CRN));
+    }
+
+    @Test
+    void testOtherErrorsArePropagated() {
+        when(grpcUmsClient.listGroupsForMember(anyString(), eq(ACCOUNT_ID), eq(USER_CRN), any()))
+                .thenThrow(new StatusRuntimeException(Status.UNAVAILABLE));
+
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> underTest.getMemberDetails(ACCOUNT_ID, GROUPS, Set.of(USER_CRN), false, Optional.empty()));
+
+        assertEquals(Status.Code.UNAVAILABLE, exception.getStatus().getCode());
+    }
+
+    @Test
+    void testGetEnvironmentAccessRights() {
+        EnvironmentAccessChecker environmentAccessChecker = mock(EnvironmentAccessChecker.class);
+        EnvironmentAccessRights userRights = new EnvironmentAccessRights(true, false);
+        EnvironmentAccessRights machineUserRights = new EnvironmentAccessRights(false, false);
+        when(environmentAccessChecker.hasAccess(USER_CRN, Optional.empty())).thenReturn(userRights);
+        when(environmentAccessChecker.hasAccess(MACHINE_USER_CRN, Optional.empty())).thenReturn(machineUserRights);
+
+        Map<String, Map<String, EnvironmentAccessRights>> result =
+                underTest.getEnvironmentAccessRights(Map.of(ENV_CRN, environmentAccessChecker), List.of(USER_CRN, MACHINE_USER_CRN), Optional.empty());
+
+        assertSame(userRights, result.get(USER_CRN).get(ENV_CRN));
+        assertSame(machineUserRights, result.get(MACHINE_USER_CRN).get(ENV_CRN));
+    }
+
+    private WorkloadCredential mockMember(String memberCrn, String workloadAdministrationGroupName) {
+        when(grpcUmsClient.listWorkloadAdministrationGroupsForMember(anyString(), eq(memberCrn), any())).thenReturn(
+                ListWorkloadAdministrationGroupsForMemberResponse.newBuilder().addWorkloadAdministrationGroupName(workloadAdministrationGroupName).build());
+        WorkloadCredential workloadCredential = new WorkloadCredential("hash", List.of(), Optional.empty(), List.of());
+        when(umsCredentialProvider.getCredentials(eq(memberCrn), any())).thenReturn(workloadCredential);
+        return workloadCredential;
+    }
+}
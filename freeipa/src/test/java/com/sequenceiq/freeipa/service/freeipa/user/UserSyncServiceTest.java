@@ -22,11 +22,14 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -40,8 +43,12 @@ import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationState;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationType;
+import com.sequenceiq.freeipa.client.FreeIpaChecks;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.FreeIpaErrorCodes;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Group;
 import com.sequenceiq.freeipa.client.model.RPCResponse;
 import com.sequenceiq.freeipa.controller.exception.BadRequestException;
@@ -75,6 +82,8 @@ class UserSyncServiceTest {
 
     private static final int MAX_SUBJECTS_PER_REQUEST = 10;
 
+    private static final int BATCH_SIZE = 2;
+
     @Mock
     StackService stackService;
 
@@ -93,6 +102,8 @@ class UserSyncServiceTest {
     @BeforeEach
     void setUp() {
         underTest.maxSubjectsPerRequest = MAX_SUBJECTS_PER_REQUEST;
+        underTest.batchSize = BATCH_SIZE;
+        underTest.freeIpaRequestInvoker = new FreeIpaRequestInvoker();
     }
 
     @Test
@@ -283,6 +294,7 @@ class UserSyncServiceTest {
         when(mockRemoveResponse.getResult()).thenReturn(removeResponseGroup);
         when(removeResponseGroup.getMemberUser()).thenReturn(null);
         when(freeIpaClient.groupRemoveMembers(anyString(), anyCollection())).thenReturn(mockRemoveResponse);
+        when(freeIpaClient.invokeBatch(anyList())).thenAnswer(invocation -> successfulResults(invocation.getArgument(0)));
 
         UsersStateDifference usersStateDifference = new UsersStateDifference(
                 ImmutableSet.of(groupToAdd1, groupToAdd2),
@@ -301,11 +313,13 @@ class UserSyncServiceTest {
 
         underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient, usersStateDifference, warnings::put);
 
-        verify(freeIpaClient).groupAdd(groupToAdd1.getName());
-        verify(freeIpaClient).groupAdd(groupToAdd2.getName());
-
-        verify(freeIpaClient).userAdd(userToAdd1.getName(), userToAdd1.getFirstName(), userToAdd1.getLastName());
-        verify(freeIpaClient).userAdd(userToAdd2.getName(), userToAdd2.getFirstName(), userToAdd2.getLastName());
+        ArgumentCaptor<List<BatchOperation>> batches = ArgumentCaptor.forClass(List.class);
+        verify(freeIpaClient, times(4)).invokeBatch(batches.capture());
+        assertBatch(batches.getAllValues().get(0), "group_add", groupToAdd1.getName(), groupToAdd2.getName());
+        assertBatch(batches.getAllValues().get(1), "user_add", userToAdd1.getName(), userToAdd2.getName());
+        assertBatch(batches.getAllValues().get(2), "user_del", userToRemove1, userToRemove2);
+        assertBatch(batches.getAllValues().get(3), "group_del", groupToRemove1.getName(), groupToRemove2.getName());
+        assertTrue(warnings.isEmpty());
 
         verify(freeIpaClient).groupAddMembers(groupToAdd1.getName(), usersStateDifference.getGroupMembershipToAdd().get(groupToAdd1.getName()));
         verify(freeIpaClient).groupAddMembers(groupToAdd2.getName(), usersStateDifference.getGroupMembershipToAdd().get(groupToAdd2.getName()));
@@ -313,13 +327,64 @@ class UserSyncServiceTest {
         verify(freeIpaClient).groupRemoveMembers(groupToRemove1.getName(), usersStateDifference.getGroupMembershipToRemove().get(groupToRemove1.getName()));
         verify(freeIpaClient).groupRemoveMembers(groupToRemove2.getName(), usersStateDifference.getGroupMembershipToRemove().get(groupToRemove2.getName()));
 
-        verify(freeIpaClient).deleteUser(userToRemove1);
-        verify(freeIpaClient).deleteUser(userToRemove2);
+        verifyNoMoreInteractions(freeIpaClient);
+    }
+
+    @Test
+    void testApplyStateDifferenceToIpaMapsBatchErrorsToWarnings() throws FreeIpaClientException {
+        Set<FmsUser> usersToAdd = Stream.of("existing", "failing", "new", FreeIpaChecks.IPA_PROTECTED_USERS.get(0))
+                .map(name -> new FmsUser().withName(name).withFirstName("first").withLastName("last"))
+                .collect(Collectors.toSet());
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.invokeBatch(anyList())).thenAnswer(invocation -> {
+            List<BatchOperation> operations = invocation.getArgument(0);
+            List<BatchResult> results = successfulResults(operations);
+            for (int i = 0; i < operations.size(); i++) {
+                String username = (String) operations.get(i).getFlags().get(0);
+                if ("existing".equals(username)) {
+                    results.get(i).setErrorCode(FreeIpaErrorCodes.DUPLICATE_ENTRY.getValue());
+                    results.get(i).setError("user with name \"existing\" already exists");
+                } else if ("failing".equals(username)) {
+                    results.get(i).setErrorCode(FreeIpaErrorCodes.INTERNAL_ERROR.getValue());
+                    results.get(i).setError("internal error");
+                }
+            }
+            return results;
+        });
+        Multimap<String, String> warnings = ArrayListMultimap.create();
 
-        verify(freeIpaClient).deleteGroup(groupToRemove1.getName());
-        verify(freeIpaClient).deleteGroup(groupToRemove2.getName());
+        underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient, new UsersStateDifference(ImmutableSet.of(), ImmutableSet.of(),
+                ImmutableSet.copyOf(usersToAdd), ImmutableSet.of(), ImmutableMultimap.of(), ImmutableMultimap.of()), warnings::put);
 
-        verifyNoMoreInteractions(freeIpaClient);
+        verify(freeIpaClient, times(2)).invokeBatch(anyList());
+        assertEquals(Set.of("failing", FreeIpaChecks.IPA_PROTECTED_USERS.get(0)), warnings.keySet());
+        assertEquals(List.of("Failed to add user:internal error"), warnings.get("failing"));
+    }
+
+    @Test
+    void testApplyStateDifferenceToIpaStopsWhenClientIsUnusable() throws FreeIpaClientException {
+        Set<String> usersToRemove = Set.of("user1", "user2", "user3", "user4");
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        FreeIpaClientException exception = mock(FreeIpaClientException.class);
+        when(exception.isClientUnusable()).thenReturn(true);
+        when(freeIpaClient.invokeBatch(anyList())).thenThrow(exception);
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+
+        Assertions.assertThrows(FreeIpaClientException.class, () -> underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient,
+                new UsersStateDifference(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.copyOf(usersToRemove),
+                        ImmutableMultimap.of(), ImmutableMultimap.of()), warnings::put));
+
+        verify(freeIpaClient, times(1)).invokeBatch(anyList());
+        assertEquals(BATCH_SIZE, warnings.size());
+    }
+
+    private List<BatchResult> successfulResults(List<BatchOperation> operations) {
+        return operations.stream().map(operation -> new BatchResult()).collect(Collectors.toList());
+    }
+
+    private void assertBatch(List<BatchOperation> operations, String method, String... subjects) {
+        assertTrue(operations.stream().allMatch(operation -> method.equals(operation.getMethod())));
+        assertEquals(Set.of(subjects), operations.stream().map(operation -> operation.getFlags().get(0)).collect(Collectors.toSet()));
     }
 
     private Multimap<String, String> setupGroupMapping(int numGroups, int numPerGroup) {
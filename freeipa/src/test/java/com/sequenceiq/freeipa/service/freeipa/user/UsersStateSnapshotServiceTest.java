@@ -0,0 +1,138 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sequenceiq.cloudbreak.common.json.Json;
+import com.sequenceiq.freeipa.entity.UserSyncStatus;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateSnapshot;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+class UsersStateSnapshotServiceTest {
+
+    private UsersStateSnapshotService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new UsersStateSnapshotService();
+        underTest.incrementalSyncEnabled = true;
+        underTest.fullSyncInterval = Duration.ofHours(24);
+    }
+
+    @Test
+    void testUnchangedStateHasNoChangedUsers() {
+        UsersStateSnapshot snapshot = underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty());
+
+        assertTrue(underTest.getChangedUsers(snapshot, createUmsUsersState("hash1", "group1")).isEmpty());
+        assertEquals(Set.of("group1", "group2"), snapshot.getGroups());
+    }
+
+    @Test
+    void testGroupMembershipChange() {
+        UsersStateSnapshot snapshot = underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty());
+
+        assertEquals(Set.of("user1"), underTest.getChangedUsers(snapshot, createUmsUsersState("hash1", "group2")));
+    }
+
+    @Test
+    void testWorkloadCredentialChange() {
+        UsersStateSnapshot snapshot = underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty());
+
+        assertEquals(Set.of("user1"), underTest.getChangedUsers(snapshot, createUmsUsersState("hash2", "group1")));
+    }
+
+    @Test
+    void testAddedAndRemovedUsers() {
+        UsersStateSnapshot snapshot = underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty());
+        snapshot.getUserHashes().put("removed", "hash");
+        snapshot.getUserHashes().remove("user2");
+
+        assertEquals(Set.of("removed", "user2"), underTest.getChangedUsers(snapshot, createUmsUsersState("hash1", "group1")));
+    }
+
+    @Test
+    void testSnapshotIsNotUsedAfterFullSyncInterval() throws IOException {
+        UsersStateSnapshot snapshot = underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty());
+        UserSyncStatus userSyncStatus = new UserSyncStatus();
+        userSyncStatus.setUsersStateSnapshot(new Json(snapshot));
+
+        assertTrue(underTest.getSnapshotForIncrementalSync(userSyncStatus).isPresent());
+
+        snapshot.setFullSyncTime(Instant.now().minus(Duration.ofHours(25)).toEpochMilli());
+        userSyncStatus.setUsersStateSnapshot(new Json(snapshot));
+
+        assertFalse(underTest.getSnapshotForIncrementalSync(userSyncStatus).isPresent());
+    }
+
+    @Test
+    void testIncrementalSyncDisabled() {
+        underTest.incrementalSyncEnabled = false;
+        UserSyncStatus userSyncStatus = new UserSyncStatus();
+        userSyncStatus.setUsersStateSnapshot(new Json(underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty())));
+
+        assertFalse(underTest.getSnapshotForIncrementalSync(userSyncStatus).isPresent());
+    }
+
+    @Test
+    void testIncrementalSnapshotKeepsFullSyncTime() {
+        UsersStateSnapshot previous = new UsersStateSnapshot();
+        previous.setFullSyncTime(1L);
+
+        assertEquals(1L, underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.of(previous)).getFullSyncTime());
+        assertNotEquals(1L, underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty()).getFullSyncTime());
+    }
+
+    @Test
+    void testInvalidateUsers() throws IOException {
+        UserSyncStatus userSyncStatus = new UserSyncStatus();
+        userSyncStatus.setUsersStateSnapshot(new Json(underTest.createSnapshot(createUmsUsersState("hash1", "group1"), Optional.empty())));
+
+        assertTrue(underTest.invalidateUsers(userSyncStatus, Set.of("user1")));
+
+        UsersStateSnapshot snapshot = userSyncStatus.getUsersStateSnapshot().get(UsersStateSnapshot.class);
+        assertEquals(Set.of("user2"), snapshot.getUserHashes().keySet());
+        assertFalse(underTest.invalidateUsers(new UserSyncStatus(), Set.of("user1")));
+    }
+
+    @Test
+    void testFilterUsers() {
+        UmsUsersState filtered = underTest.filterUsers(createUmsUsersState("hash1", "group1"), Set.of("user1"));
+
+        assertEquals(Set.of("user1"), Set.copyOf(filtered.getUsersState().getGroupMembership().values()));
+        assertEquals(1, filtered.getUsersState().getUsers().size());
+        assertEquals(2, filtered.getUsersState().getGroups().size());
+        assertEquals(Set.of("user1"), filtered.getUsersWorkloadCredentialMap().keySet());
+    }
+
+    private UmsUsersState createUmsUsersState(String user1PasswordHash, String user1Group) {
+        UsersState usersState = new UsersState.Builder()
+                .addGroup(new FmsGroup().withName("group1"))
+                .addGroup(new FmsGroup().withName("group2"))
+                .addUser(new FmsUser().withName("user1").withFirstName("first1").withLastName("last1"))
+                .addUser(new FmsUser().withName("user2").withFirstName("first2").withLastName("last2"))
+                .addMemberToGroup(user1Group, "user1")
+                .addMemberToGroup("group2", "user2")
+                .build();
+        return new UmsUsersState.Builder()
+                .setUsersState(usersState)
+                .addWorkloadCredentials("user1", new WorkloadCredential(user1PasswordHash, List.of(), Optional.empty(), List.of()))
+                .addWorkloadCredentials("user2", new WorkloadCredential("hash", List.of(), Optional.empty(), List.of()))
+                .build();
+    }
+}
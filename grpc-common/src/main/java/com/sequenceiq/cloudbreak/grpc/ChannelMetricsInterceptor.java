@@ -0,0 +1,64 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes the number of in-flight calls ({@code grpc.client.calls.inflight}) and the latency of the calls ({@code grpc.client.calls})
+ * of the channels of an endpoint.
+ */
+class ChannelMetricsInterceptor implements ClientInterceptor {
+
+    private final String endpoint;
+
+    private final AtomicInteger inFlight;
+
+    ChannelMetricsInterceptor(String endpoint) {
+        this.endpoint = endpoint;
+        inFlight = Metrics.gauge("grpc.client.calls.inflight", Tags.of("endpoint", endpoint), new AtomicInteger());
+    }
+
+    @Override
+    public <Q, R> ClientCall<Q, R> interceptCall(MethodDescriptor<Q, R> method, CallOptions callOptions, Channel next) {
+        return new SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<R> responseListener, Metadata headers) {
+                long start = System.nanoTime();
+                inFlight.incrementAndGet();
+                try {
+                    super.start(new SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            inFlight.decrementAndGet();
+                            Timer.builder("grpc.client.calls")
+                                    .tags("endpoint", endpoint, "method", method.getFullMethodName(), "status", status.getCode().name())
+                                    .register(Metrics.globalRegistry)
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    inFlight.decrementAndGet();
+                    throw e;
+                }
+            }
+        };
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
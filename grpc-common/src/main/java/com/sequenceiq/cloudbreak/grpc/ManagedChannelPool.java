@@ -0,0 +1,218 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Shares long-lived gRPC channels between the Thunderhead connectors. Opening a channel per call costs a TCP and HTTP/2 connection setup on
+ * every RPC, while a single channel multiplexes any number of concurrent calls.
+ * <p>
+ * Every endpoint gets {@code grpc.channel.pool.size} channels, handed out round-robin. A channel in {@link ConnectivityState#TRANSIENT_FAILURE}
+ * is skipped as long as another channel of the endpoint is usable. Connections are kept alive with HTTP/2 pings, and channels older than
+ * {@code grpc.channel.max.age.minutes} are replaced, so that the connections follow DNS and load balancer changes. A replaced channel is
+ * shut down gracefully once the last caller that borrowed it has closed its {@link ManagedChannelWrapper}.
+ */
+@Component
+public class ManagedChannelPool implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedChannelPool.class);
+
+    @Value("${grpc.channel.pool.size:2}")
+    private int poolSize;
+
+    @Value("${grpc.channel.keepalive.time.seconds:300}")
+    private long keepAliveTime;
+
+    @Value("${grpc.channel.keepalive.timeout.seconds:20}")
+    private long keepAliveTimeout;
+
+    @Value("${grpc.channel.max.age.minutes:30}")
+    private long maxAge;
+
+    @Value("${grpc.channel.shutdown.timeout.seconds:10}")
+    private long shutdownTimeout;
+
+    private final Map<EndpointKey, EndpointChannels> endpoints = new ConcurrentHashMap<>();
+
+    private final Map<String, ChannelMetricsInterceptor> interceptors = new ConcurrentHashMap<>();
+
+    /**
+     * Borrows a channel of the endpoint. Closing the returned wrapper gives the channel back to the pool, it does not shut it down.
+     */
+    public ManagedChannelWrapper getChannel(String host, int port, int maxInboundMessageSize) {
+        EndpointChannels channels = endpoints.computeIfAbsent(new EndpointKey(host, port, maxInboundMessageSize), EndpointChannels::new);
+        PooledChannel pooledChannel = channels.borrow();
+        return new ManagedChannelWrapper(pooledChannel.channel, pooledChannel::release);
+    }
+
+    @Override
+    public void destroy() {
+        endpoints.values().forEach(EndpointChannels::shutdown);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeout);
+        for (EndpointChannels channels : endpoints.values()) {
+            channels.awaitTermination(deadline);
+        }
+        endpoints.clear();
+    }
+
+    private ManagedChannel createChannel(EndpointKey key) {
+        String address = key.host + ':' + key.port;
+        LOGGER.debug("Creating gRPC channel to {}", address);
+        Metrics.counter("grpc.channel.created", "endpoint", address).increment();
+        return ManagedChannelBuilder.forAddress(key.host, key.port)
+                .usePlaintext()
+                .maxInboundMessageSize(key.maxInboundMessageSize)
+                .keepAliveTime(keepAliveTime, TimeUnit.SECONDS)
+                .keepAliveTimeout(keepAliveTimeout, TimeUnit.SECONDS)
+                .intercept(interceptors.computeIfAbsent(address, ChannelMetricsInterceptor::new))
+                .build();
+    }
+
+    private static class EndpointKey {
+
+        private final String host;
+
+        private final int port;
+
+        private final int maxInboundMessageSize;
+
+        EndpointKey(String host, int port, int maxInboundMessageSize) {
+            this.host = host;
+            this.port = port;
+            this.maxInboundMessageSize = maxInboundMessageSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EndpointKey that = (EndpointKey) o;
+            return port == that.port && maxInboundMessageSize == that.maxInboundMessageSize && Objects.equals(host, that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, maxInboundMessageSize);
+        }
+    }
+
+    private static class PooledChannel {
+
+        private final ManagedChannel channel;
+
+        private final long createdAt = System.nanoTime();
+
+        private final AtomicInteger borrowers = new AtomicInteger();
+
+        private volatile boolean retired;
+
+        PooledChannel(ManagedChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean isUsable() {
+            ConnectivityState state = channel.getState(false);
+            return state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+        }
+
+        boolean isExpired(long maxAgeNanos) {
+            return System.nanoTime() - createdAt > maxAgeNanos;
+        }
+
+        void release() {
+            if (borrowers.decrementAndGet() == 0 && retired) {
+                channel.shutdown();
+            }
+        }
+
+        void retire() {
+            retired = true;
+            if (borrowers.get() == 0) {
+                channel.shutdown();
+            }
+        }
+    }
+
+    private class EndpointChannels {
+
+        private final EndpointKey key;
+
+        private final PooledChannel[] channels;
+
+        private int next;
+
+        EndpointChannels(EndpointKey key) {
+            this.key = key;
+            channels = new PooledChannel[Math.max(1, poolSize)];
+        }
+
+        synchronized PooledChannel borrow() {
+            int start = next;
+            next = (next + 1) % channels.length;
+            PooledChannel selected = null;
+            for (int i = 0; i < channels.length && selected == null; i++) {
+                PooledChannel candidate = refresh((start + i) % channels.length);
+                if (candidate.isUsable()) {
+                    selected = candidate;
+                }
+            }
+            if (selected == null) {
+                selected = channels[start];
+            }
+            selected.borrowers.incrementAndGet();
+            return selected;
+        }
+
+        synchronized void shutdown() {
+            for (PooledChannel channel : channels) {
+                if (channel != null) {
+                    channel.channel.shutdown();
+                }
+            }
+        }
+
+        void awaitTermination(long deadline) {
+            for (PooledChannel channel : channels) {
+                try {
+                    if (channel != null && !channel.channel.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        channel.channel.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    channel.channel.shutdownNow();
+                }
+            }
+        }
+
+        private PooledChannel refresh(int slot) {
+            PooledChannel channel = channels[slot];
+            if (channel == null || channel.channel.isShutdown() || channel.isExpired(TimeUnit.MINUTES.toNanos(maxAge))) {
+                if (channel != null) {
+                    LOGGER.debug("Replacing gRPC channel to {}:{}", key.host, key.port);
+                    channel.retire();
+                }
+                channel = new PooledChannel(createChannel(key));
+                channels[slot] = channel;
+            }
+            return channel;
+        }
+    }
+}
@@ -18,13 +18,26 @@ public class ManagedChannelWrapper implements AutoCloseable {
 
     private final ManagedChannel channel;
 
+    private final Runnable releaseAction;
+
     /**
      * Constructor.
      *
      * @param channel the channel
      */
     public ManagedChannelWrapper(ManagedChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * Constructor for a channel borrowed from a pool. Closing the wrapper runs the release action instead of shutting down the channel.
+     *
+     * @param channel       the channel
+     * @param releaseAction the action that gives the channel back to its pool
+     */
+    ManagedChannelWrapper(ManagedChannel channel, Runnable releaseAction) {
         this.channel = checkNotNull(channel);
+        this.releaseAction = releaseAction;
     }
 
     /**
@@ -36,6 +49,10 @@ public class ManagedChannelWrapper implements AutoCloseable {
 
     @Override
     public void close() {
+        if (releaseAction != null) {
+            releaseAction.run();
+            return;
+        }
         channel.shutdown();
         try {
             if (!channel.awaitTermination(1, TimeUnit.MINUTES)) {
@@ -0,0 +1,105 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.grpc.ManagedChannel;
+
+public class ManagedChannelPoolTest {
+
+    private static final String HOST = "localhost";
+
+    private static final int PORT = 8982;
+
+    private static final int MAX_MESSAGE_SIZE = 1024;
+
+    private ManagedChannelPool underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new ManagedChannelPool();
+        ReflectionTestUtils.setField(underTest, "poolSize", 2);
+        ReflectionTestUtils.setField(underTest, "keepAliveTime", 300L);
+        ReflectionTestUtils.setField(underTest, "keepAliveTimeout", 20L);
+        ReflectionTestUtils.setField(underTest, "maxAge", 30L);
+        ReflectionTestUtils.setField(underTest, "shutdownTimeout", 1L);
+    }
+
+    @After
+    public void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    public void testChannelsAreHandedOutRoundRobin() {
+        ManagedChannel first = borrowAndClose();
+        ManagedChannel second = borrowAndClose();
+
+        assertNotSame(first, second);
+        assertSame(first, borrowAndClose());
+        assertSame(second, borrowAndClose());
+    }
+
+    @Test
+    public void testClosingTheWrapperKeepsTheChannelOpen() {
+        ManagedChannel channel = borrowAndClose();
+
+        assertFalse(channel.isShutdown());
+    }
+
+    @Test
+    public void testEndpointsDoNotShareChannels() {
+        ManagedChannel channel = borrowAndClose();
+
+        try (ManagedChannelWrapper wrapper = underTest.getChannel(HOST, PORT + 1, MAX_MESSAGE_SIZE)) {
+            assertNotSame(channel, wrapper.getChannel());
+        }
+    }
+
+    @Test
+    public void testExpiredChannelIsShutDownWhenReleased() {
+        ReflectionTestUtils.setField(underTest, "poolSize", 1);
+        ManagedChannelWrapper borrowed = underTest.getChannel(HOST, PORT, MAX_MESSAGE_SIZE);
+        ReflectionTestUtils.setField(underTest, "maxAge", 0L);
+
+        ManagedChannel replacement = borrowAndClose();
+
+        assertNotSame(borrowed.getChannel(), replacement);
+        assertFalse(borrowed.getChannel().isShutdown());
+        borrowed.close();
+        assertTrue(borrowed.getChannel().isShutdown());
+    }
+
+    @Test
+    public void testShutdownChannelIsReplaced() {
+        ReflectionTestUtils.setField(underTest, "poolSize", 1);
+        ManagedChannel channel = borrowAndClose();
+        channel.shutdownNow();
+
+        assertNotSame(channel, borrowAndClose());
+    }
+
+    @Test
+    public void testDestroyShutsDownChannels() {
+        ManagedChannel first = borrowAndClose();
+        ManagedChannel second = borrowAndClose();
+
+        underTest.destroy();
+
+        assertTrue(first.isShutdown());
+        assertTrue(second.isShutdown());
+    }
+
+    private ManagedChannel borrowAndClose() {
+        try (ManagedChannelWrapper wrapper = underTest.getChannel(HOST, PORT, MAX_MESSAGE_SIZE)) {
+            return wrapper.getChannel();
+        }
+    }
+}
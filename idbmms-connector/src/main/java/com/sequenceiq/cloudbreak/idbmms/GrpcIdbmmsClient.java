@@ -12,13 +12,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.idbmms.config.IdbmmsConfig;
 import com.sequenceiq.cloudbreak.idbmms.exception.IdbmmsOperationException;
 import com.sequenceiq.cloudbreak.idbmms.model.MappingsConfig;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 
 /**
  * A GRPC-based client for the IDBroker Mapping Management Service (IDBMMS).
@@ -31,6 +31,9 @@ public class GrpcIdbmmsClient {
     @Inject
     private IdbmmsConfig idbmmsConfig;
 
+    @Inject
+    private ManagedChannelPool channelPool;
+
     /**
      * Retrieves IDBroker mappings from IDBMMS for a particular environment.
      *
@@ -82,11 +85,7 @@ public class GrpcIdbmmsClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(idbmmsConfig.getEndpoint(), idbmmsConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelPool.getChannel(idbmmsConfig.getEndpoint(), idbmmsConfig.getPort(), DEFAULT_MAX_MESSAGE_SIZE);
     }
 
     private IdbmmsClient makeClient(ManagedChannel channel, String actorCrn) {
@@ -0,0 +1,63 @@
+package com.sequenceiq.it.cloudbreak.mock.freeipa;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+import com.sequenceiq.freeipa.client.model.BatchResponse;
+import com.sequenceiq.freeipa.client.model.BatchResult;
+
+import spark.Request;
+import spark.Response;
+
+@Component
+public class FreeIpaBatchResponse extends AbstractFreeIpaResponse<BatchResponse> {
+    @Override
+    public String method() {
+        return "batch";
+    }
+
+    /**
+     * The {@code batch} command of FreeIPA has no result of its own, the count and the results of the commands are the fields of the JSON-RPC
+     * result, so they are not wrapped in an RPC response like the replies of the other commands.
+     */
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        response.type(MediaType.APPLICATION_JSON);
+        response.status(HttpStatus.OK.value());
+        return Map.of("result", handleInternal(request, response));
+    }
+
+    @Override
+    protected BatchResponse handleInternal(Request request, Response response) {
+        JsonNode commands;
+        try {
+            commands = JsonUtil.readTree(request.body()).get("params").get(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<BatchResult> results = new ArrayList<>();
+        for (JsonNode command : commands) {
+            BatchResult result = new BatchResult();
+            result.setValue(command.get("params").get(0).path(0).asText());
+            if ("user_find".equals(command.get("method").asText())) {
+                result.setResult(List.of());
+                result.setSummary("0 users matched");
+            }
+            results.add(result);
+        }
+        BatchResponse batchResponse = new BatchResponse();
+        batchResponse.setCount(results.size());
+        batchResponse.setResults(results);
+        return batchResponse;
+    }
+}
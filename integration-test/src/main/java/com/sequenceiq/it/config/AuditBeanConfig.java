@@ -4,6 +4,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 import com.sequenceiq.cloudbreak.audit.AuditClient;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelPool;
 
 @Configuration()
 @ComponentScan(basePackages = {
@@ -11,7 +12,7 @@ import com.sequenceiq.cloudbreak.audit.AuditClient;
         "com.sequenceiq.cloudbreak.audit.converter",
         "com.sequenceiq.cloudbreak.audit.model",
         "com.sequenceiq.cloudbreak.audit.util"},
-        basePackageClasses = AuditClient.class)
+        basePackageClasses = {AuditClient.class, ManagedChannelPool.class})
 public class AuditBeanConfig {
 
 }
@@ -0,0 +1,141 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.ui.freemarker.FreeMarkerConfigurationFactoryBean;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.cloud.aws.CloudFormationTemplateBuilder;
+import com.sequenceiq.cloudbreak.cloud.aws.CloudFormationTemplateBuilder.ModelContext;
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.model.AvailabilityZone;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudStack;
+import com.sequenceiq.cloudbreak.cloud.model.Group;
+import com.sequenceiq.cloudbreak.cloud.model.Image;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceAuthentication;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceTemplate;
+import com.sequenceiq.cloudbreak.cloud.model.Location;
+import com.sequenceiq.cloudbreak.cloud.model.Network;
+import com.sequenceiq.cloudbreak.cloud.model.PortDefinition;
+import com.sequenceiq.cloudbreak.cloud.model.Region;
+import com.sequenceiq.cloudbreak.cloud.model.Security;
+import com.sequenceiq.cloudbreak.cloud.model.SecurityRule;
+import com.sequenceiq.cloudbreak.cloud.model.Subnet;
+import com.sequenceiq.cloudbreak.cloud.model.Volume;
+import com.sequenceiq.cloudbreak.util.FreeMarkerTemplateUtils;
+import com.sequenceiq.common.api.type.InstanceGroupType;
+import com.sequenceiq.common.api.type.OutboundInternetTraffic;
+
+import freemarker.template.Configuration;
+
+/**
+ * Measures rendering the AWS CloudFormation stack template for a stack with a gateway and a number of core host groups. Run with
+ * {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloudFormationTemplateBuilderBenchmark {
+
+    private static final String CLOUD_FORMATION_TEMPLATE_PATH = "templates/aws-cf-stack.ftl";
+
+    private static final String IMAGE_NAME = "cb-centos66-amb200-2015-05-25";
+
+    private static final int ROOT_VOLUME_SIZE = 50;
+
+    private static final int VOLUME_SIZE = 100;
+
+    @Param({"1", "10"})
+    private int coreGroupCount;
+
+    private CloudFormationTemplateBuilder cloudFormationTemplateBuilder;
+
+    private ModelContext modelContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        FreeMarkerConfigurationFactoryBean factoryBean = new FreeMarkerConfigurationFactoryBean();
+        factoryBean.setPreferFileSystemAccess(false);
+        factoryBean.setTemplateLoaderPath("classpath:/");
+        factoryBean.afterPropertiesSet();
+        Configuration configuration = factoryBean.getObject();
+        cloudFormationTemplateBuilder = new CloudFormationTemplateBuilder();
+        setField(cloudFormationTemplateBuilder, "freemarkerConfiguration", configuration);
+        setField(cloudFormationTemplateBuilder, "freeMarkerTemplateUtils", BeanUtils.instantiateClass(FreeMarkerTemplateUtils.class));
+
+        Location location = Location.location(Region.region("eu-west-1"), AvailabilityZone.availabilityZone("eu-west-1a"));
+        CloudContext cloudContext = new CloudContext(1L, "name", "AWS", "AWS", location, "user", 1L);
+        AuthenticatedContext authenticatedContext = new AuthenticatedContext(cloudContext, new CloudCredential("crn", null));
+        modelContext = new ModelContext()
+                .withAuthenticatedContext(authenticatedContext)
+                .withStack(createCloudStack())
+                .withExistingVpc(true)
+                .withExistingIGW(true)
+                .withExistingSubnetCidr(List.of("10.0.0.0/24"))
+                .mapPublicIpOnLaunch(true)
+                .withEnableInstanceProfile(true)
+                .withInstanceProfileAvailable(true)
+                .withOutboundInternetTraffic(OutboundInternetTraffic.ENABLED)
+                .withTemplate(configuration.getTemplate(CLOUD_FORMATION_TEMPLATE_PATH, "UTF-8").toString());
+    }
+
+    @Benchmark
+    public String build() {
+        return cloudFormationTemplateBuilder.build(modelContext);
+    }
+
+    private CloudStack createCloudStack() {
+        InstanceAuthentication instanceAuthentication = new InstanceAuthentication("sshkey", "", "cloudbreak");
+        Security security = new Security(List.of(new SecurityRule("0.0.0.0/0",
+                new PortDefinition[]{new PortDefinition("22", "22"), new PortDefinition("443", "443")}, "tcp")), List.of());
+        List<Group> groups = new ArrayList<>();
+        groups.add(createGroup("gateway", InstanceGroupType.GATEWAY, security, instanceAuthentication));
+        for (int i = 0; i < coreGroupCount; i++) {
+            groups.add(createGroup("worker" + i, InstanceGroupType.CORE, security, instanceAuthentication));
+        }
+        Image image = new Image(IMAGE_NAME, Map.of(InstanceGroupType.CORE, "CORE", InstanceGroupType.GATEWAY, "GATEWAY"), "redhat7", "redhat7", "",
+                "default", "default-id", new HashMap<>());
+        return new CloudStack(groups, new Network(new Subnet("10.0.0.0/16")), image, Map.of(), Map.of("owner", "benchmark"), null,
+                instanceAuthentication, instanceAuthentication.getLoginUserName(), instanceAuthentication.getPublicKey(), null);
+    }
+
+    private Group createGroup(String name, InstanceGroupType type, Security security, InstanceAuthentication instanceAuthentication) {
+        List<Volume> volumes = List.of(new Volume("/hadoop/fs1", "standard", VOLUME_SIZE), new Volume("/hadoop/fs2", "standard", VOLUME_SIZE));
+        InstanceTemplate instanceTemplate = new InstanceTemplate("m5.xlarge", name, 0L, volumes, InstanceStatus.CREATE_REQUESTED, new HashMap<>(), 0L,
+                IMAGE_NAME);
+        CloudInstance instance = new CloudInstance("instance-" + name, instanceTemplate, instanceAuthentication);
+        return new Group(name, type, List.of(instance), security, null, instanceAuthentication, instanceAuthentication.getLoginUserName(),
+                instanceAuthentication.getPublicKey(), ROOT_VOLUME_SIZE, Optional.empty());
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.cloudbreak.cmtemplate.CmTemplateProcessor;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+import com.sequenceiq.cloudbreak.util.FileReaderUtils;
+
+/**
+ * Measures parsing a Cloudera Manager template into a {@link CmTemplateProcessor}, writing it back as text and the host group lookups
+ * done on it while a cluster is created. The templates are the default blueprints shipped with core. Run with
+ * {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmTemplateProcessorBenchmark {
+
+    @Param({"cdp-sdx-721", "cdp-data-engineering-ha-721"})
+    private String blueprint;
+
+    private String templateText;
+
+    private CmTemplateProcessor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+        String blueprintText = FileReaderUtils.readFileFromClasspath("defaults/blueprints/" + blueprint + ".bp");
+        templateText = JsonUtil.readTree(blueprintText).get("blueprint").toString();
+        processor = new CmTemplateProcessor(templateText);
+    }
+
+    @Benchmark
+    public CmTemplateProcessor parse() {
+        return new CmTemplateProcessor(templateText);
+    }
+
+    @Benchmark
+    public String asText() {
+        return processor.asText();
+    }
+
+    @Benchmark
+    public String parseAndWrite() {
+        return new CmTemplateProcessor(templateText).asText();
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> componentsByHostGroup() {
+        return processor.getComponentsByHostGroup();
+    }
+}
@@ -0,0 +1,189 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import com.sequenceiq.flow.core.Flow2Handler;
+import com.sequenceiq.flow.reactor.handler.EventHandlerExecutionService;
+
+import reactor.Environment;
+import reactor.bus.Event;
+import reactor.bus.EventBus;
+import reactor.bus.selector.Selectors;
+import reactor.bus.spec.EventBusSpec;
+import reactor.core.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.core.support.NamedDaemonThreadFactory;
+import reactor.fn.Consumer;
+
+/**
+ * Load test of a node running many stack provisions at the same time. A provision is {@link #STEPS} flow steps, each step runs a flow
+ * action that blocks for {@link #ACTION_MILLIS} (e.g. waiting for the answer of a cloud platform request) and an event handler that blocks
+ * for {@link #HANDLER_MILLIS} (e.g. polling the cloud provider), so an unloaded provision takes one second. The event bus is set up like
+ * {@code EventBusConfig} with the default {@code cb.eventbus.threadpool.*} sizes, the offload pools with the core defaults of
+ * {@code cb.eventhandler.offload.max.threads} and {@code cb.flowaction.offload.max.threads}. The score is the time until every provision
+ * has finished, the node carries the provisions as long as it stays close to one second. Modes:
+ * <ul>
+ *     <li>{@code dispatcher}: flow actions and handlers block the reactor dispatcher threads</li>
+ *     <li>{@code offload}: flow actions and handlers run on the offload pools, see {@link EventHandlerExecutionService}</li>
+ * </ul>
+ * Run with {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowExecutionCapacityBenchmark {
+
+    private static final int STEPS = 10;
+
+    private static final long ACTION_MILLIS = 20L;
+
+    private static final long HANDLER_MILLIS = 80L;
+
+    private static final int DISPATCHER_CORE_THREADS = 100;
+
+    private static final int DISPATCHER_MAX_THREADS = 150;
+
+    private static final int DISPATCHER_BACKLOG = 1000;
+
+    private static final int HANDLER_THREADS = 500;
+
+    private static final int FLOW_ACTION_THREADS = 200;
+
+    private static final long TIMEOUT_MINUTES = 5L;
+
+    private static final String FLOW_STEP = "PROVISION_STEP_EVENT";
+
+    private static final String HANDLER_REQUEST = "PROVISION_HANDLER_REQUEST";
+
+    @Param({"dispatcher", "offload"})
+    private String mode;
+
+    @Param({"100", "200", "400", "800"})
+    private int provisions;
+
+    private MDCCleanerThreadPoolExecutor dispatcherExecutor;
+
+    private EventHandlerExecutionService eventHandlerExecutionService;
+
+    private EventBus eventBus;
+
+    private CountDownLatch finished;
+
+    @Setup
+    public void setUp() {
+        dispatcherExecutor = new MDCCleanerThreadPoolExecutor(DISPATCHER_CORE_THREADS, DISPATCHER_MAX_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(DISPATCHER_BACKLOG), new NamedDaemonThreadFactory("reactorDispatcher"), new ThreadPoolExecutor.AbortPolicy());
+        eventBus = new EventBusSpec()
+                .env(Environment.initializeIfEmpty())
+                .dispatcher(new ThreadPoolExecutorDispatcher(DISPATCHER_BACKLOG, DISPATCHER_CORE_THREADS, dispatcherExecutor))
+                .get();
+        eventHandlerExecutionService = new EventHandlerExecutionService();
+        boolean offload = "offload".equals(mode);
+        setField(eventHandlerExecutionService, "eventBus", eventBus);
+        setField(eventHandlerExecutionService, "offloadEnabled", offload);
+        setField(eventHandlerExecutionService, "maxThreads", HANDLER_THREADS);
+        setField(eventHandlerExecutionService, "concurrencyLimits", "");
+        setField(eventHandlerExecutionService, "flowActionOffloadEnabled", offload);
+        setField(eventHandlerExecutionService, "flowActionMaxThreads", FLOW_ACTION_THREADS);
+        eventHandlerExecutionService.init();
+        eventBus.on(Selectors.$(FLOW_STEP), eventHandlerExecutionService.decorateFlowActions(this::flowAction));
+        Consumer<Event<ProvisionStep>> handler = this::handler;
+        eventBus.on(Selectors.$(HANDLER_REQUEST), eventHandlerExecutionService.decorate(handler));
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventHandlerExecutionService.shutdown();
+        dispatcherExecutor.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetProvisions() {
+        finished = new CountDownLatch(provisions);
+    }
+
+    @Benchmark
+    public void provisionStacks() throws InterruptedException {
+        for (long stackId = 0; stackId < provisions; stackId++) {
+            notifyFlow(new ProvisionStep(stackId, 0));
+        }
+        if (!finished.await(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(finished.getCount() + " of " + provisions + " provisions did not finish");
+        }
+    }
+
+    private void flowAction(Event<? extends Payload> event) {
+        sleep(ACTION_MILLIS);
+        eventBus.notify(HANDLER_REQUEST, new Event<>(event.getHeaders(), (ProvisionStep) event.getData()));
+    }
+
+    private void handler(Event<ProvisionStep> event) {
+        sleep(HANDLER_MILLIS);
+        ProvisionStep step = event.getData();
+        if (step.step + 1 < STEPS) {
+            notifyFlow(new ProvisionStep(step.stackId, step.step + 1));
+        } else {
+            finished.countDown();
+        }
+    }
+
+    private void notifyFlow(ProvisionStep step) {
+        Event<ProvisionStep> event = new Event<>(new Event.Headers(Map.of(Flow2Handler.FLOW_ID, "flow-" + step.stackId)), step);
+        eventBus.notify(FLOW_STEP, event);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static class ProvisionStep implements Payload {
+
+        private final long stackId;
+
+        private final int step;
+
+        ProvisionStep(long stackId, int step) {
+            this.stackId = stackId;
+            this.step = step;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return stackId;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Selectable;
+import com.sequenceiq.cloudbreak.core.flow2.event.StackScaleTriggerEvent;
+import com.sequenceiq.cloudbreak.core.flow2.stack.provision.StackCreationFlowConfig;
+import com.sequenceiq.cloudbreak.core.flow2.stack.provision.StackCreationState;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackEvent;
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.core.FlowParameters;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.repository.FlowChainLogRepository;
+import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.FlowChainLogService;
+import com.sequenceiq.flow.service.flowlog.FlowLogDBService;
+
+/**
+ * Measures the json-io serialization done by {@link FlowLogDBService} when a flow step or a flow chain is persisted. The repositories are
+ * stand-ins that return the saved entity, so only building and serializing the flow log is measured. Run with
+ * {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowLogSerializationBenchmark {
+
+    private static final long STACK_ID = 1L;
+
+    private static final int CHAIN_LENGTH = 10;
+
+    @Param({"1", "100"})
+    private int hostCount;
+
+    private FlowLogDBService flowLogDBService;
+
+    private FlowParameters flowParameters;
+
+    private StackScaleTriggerEvent payload;
+
+    private Map<Object, Object> variables;
+
+    private Queue<Selectable> chain;
+
+    @Setup
+    public void setUp() {
+        JsonIoConfig jsonIoConfig = new JsonIoConfig();
+        jsonIoConfig.setupJsonReader();
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec(jsonIoConfig.getCustomWriteOptions());
+        FlowPayloadCodecService flowPayloadCodecService = new FlowPayloadCodecService();
+        setField(flowPayloadCodecService, "writeCodecName", JsonIoFlowPayloadCodec.NAME);
+        setField(flowPayloadCodecService, "codecs", List.of(jsonIoFlowPayloadCodec));
+        setField(flowPayloadCodecService, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        flowPayloadCodecService.init();
+
+        NodeConfig nodeConfig = new NodeConfig();
+        setField(nodeConfig, "id", "node-1");
+        FlowChainLogService flowChainLogService = new FlowChainLogService();
+        setField(flowChainLogService, "repository", savingRepository(FlowChainLogRepository.class));
+
+        flowLogDBService = new FlowLogDBService();
+        setField(flowLogDBService, "nodeConfig", nodeConfig);
+        setField(flowLogDBService, "flowLogRepository", savingRepository(FlowLogRepository.class));
+        setField(flowLogDBService, "flowChainLogService", flowChainLogService);
+        setField(flowLogDBService, "flowPayloadCodecService", flowPayloadCodecService);
+
+        flowParameters = new FlowParameters("flow-id", "crn:cdp:iam:us-west-1:account:user:user", null);
+        Set<String> hostNames = IntStream.range(0, hostCount)
+                .mapToObj(i -> "host-" + i + ".cluster.example.com")
+                .collect(Collectors.toSet());
+        payload = new StackScaleTriggerEvent("ADD_INSTANCES_EVENT", STACK_ID, "worker", hostCount, hostNames);
+        variables = new HashMap<>();
+        variables.put("repeated", 1);
+        chain = new ArrayDeque<>();
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            chain.add(new StackEvent("STACK_SYNC_EVENT", STACK_ID));
+        }
+    }
+
+    @Benchmark
+    public FlowLog saveFlowLog() {
+        return flowLogDBService.save(flowParameters, "flow-chain-id", "ADD_INSTANCES_EVENT", payload, variables, StackCreationFlowConfig.class,
+                StackCreationState.IMAGE_CHECK_STATE);
+    }
+
+    @Benchmark
+    public void saveChain() {
+        flowLogDBService.saveChain("flow-chain-id", null, chain, "crn:cdp:iam:us-west-1:account:user:user");
+    }
+
+    private static <T> T savingRepository(Class<T> repositoryClass) {
+        return repositoryClass.cast(Proxy.newProxyInstance(FlowLogSerializationBenchmark.class.getClassLoader(), new Class[]{repositoryClass},
+                (proxy, method, args) -> "save".equals(method.getName()) ? args[0] : null));
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
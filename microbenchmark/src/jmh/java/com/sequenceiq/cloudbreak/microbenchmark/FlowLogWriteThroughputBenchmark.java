@@ -0,0 +1,311 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.core.FlowParameters;
+import com.sequenceiq.flow.core.FlowState;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodecService;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.FlowLogDBService;
+import com.sequenceiq.flow.service.flowlog.WriteBehindFlowLogDBService;
+
+/**
+ * Measures how many flow state transitions (status update of the last flow log and insert of the next one) the flow log services persist
+ * per second when many flows move at the same time. The database is a stand-in with {@link #CONNECTIONS} pooled connections (the default
+ * {@code cb.db.env.poolsize}), {@link #STATEMENT_LATENCY_MICROS} per statement and {@code commitLatencyMicros} per commit, so the numbers
+ * show the effect of sharing commits and connections, not the speed of a real database. Modes:
+ * <ul>
+ *     <li>{@code jpa}: {@link FlowLogDBService} in one transaction per transition, as {@code Flow2Handler} persists flow control events</li>
+ *     <li>{@code writeBehind}: {@link WriteBehindFlowLogDBService} without a caller transaction, the writes are group committed</li>
+ *     <li>{@code writeBehindInTransaction}: {@link WriteBehindFlowLogDBService} in a caller transaction, as a flow is started from a flow
+ *     chain, the writes are executed in the caller transaction</li>
+ * </ul>
+ * Run with {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(100)
+@State(Scope.Benchmark)
+public class FlowLogWriteThroughputBenchmark {
+
+    private static final int CONNECTIONS = 30;
+
+    private static final long STATEMENT_LATENCY_MICROS = 200L;
+
+    private static final long ROW_LATENCY_MICROS = 10L;
+
+    private static final int WRITE_BEHIND_BATCH_SIZE = 200;
+
+    private static final int WRITE_BEHIND_QUEUE_SIZE = 10000;
+
+    private static final long WRITE_BEHIND_LINGER_MS = 5L;
+
+    private static final long WRITE_BEHIND_COMMIT_TIMEOUT_MS = 30000L;
+
+    @Param({"jpa", "writeBehind", "writeBehindInTransaction"})
+    private String mode;
+
+    @Param({"1000", "5000"})
+    private long commitLatencyMicros;
+
+    private DatabaseStandIn database;
+
+    private TransactionService transactionService;
+
+    private FlowLogDBService flowLogService;
+
+    @Setup
+    public void setUp() {
+        database = new DatabaseStandIn(commitLatencyMicros);
+        transactionService = new TransactionServiceStandIn(database);
+        JsonIoConfig jsonIoConfig = new JsonIoConfig();
+        jsonIoConfig.setupJsonReader();
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec(jsonIoConfig.getCustomWriteOptions());
+        FlowPayloadCodecService flowPayloadCodecService = new FlowPayloadCodecService();
+        setField(flowPayloadCodecService, "writeCodecName", JsonIoFlowPayloadCodec.NAME);
+        setField(flowPayloadCodecService, "codecs", List.of(jsonIoFlowPayloadCodec));
+        setField(flowPayloadCodecService, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        flowPayloadCodecService.init();
+        NodeConfig nodeConfig = new NodeConfig();
+        setField(nodeConfig, "id", "node-1");
+
+        if ("jpa".equals(mode)) {
+            flowLogService = new FlowLogDBService();
+        } else {
+            WriteBehindFlowLogDBService writeBehindFlowLogDBService = new WriteBehindFlowLogDBService();
+            setField(writeBehindFlowLogDBService, "batchSize", WRITE_BEHIND_BATCH_SIZE);
+            setField(writeBehindFlowLogDBService, "queueSize", WRITE_BEHIND_QUEUE_SIZE);
+            setField(writeBehindFlowLogDBService, "lingerMs", WRITE_BEHIND_LINGER_MS);
+            setField(writeBehindFlowLogDBService, "commitTimeoutMs", WRITE_BEHIND_COMMIT_TIMEOUT_MS);
+            setField(writeBehindFlowLogDBService, "jdbcTemplate", new JdbcTemplateStandIn(database));
+            setField(writeBehindFlowLogDBService, "metricService", Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class[]{MetricService.class}, (proxy, method, args) -> null));
+            flowLogService = writeBehindFlowLogDBService;
+        }
+        setField(flowLogService, "nodeConfig", nodeConfig);
+        setField(flowLogService, "transactionService", transactionService);
+        setField(flowLogService, "flowPayloadCodecService", flowPayloadCodecService);
+        setField(flowLogService, "flowLogRepository", flowLogRepository(database));
+        if (flowLogService instanceof WriteBehindFlowLogDBService) {
+            ((WriteBehindFlowLogDBService) flowLogService).init();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (flowLogService instanceof WriteBehindFlowLogDBService) {
+            ((WriteBehindFlowLogDBService) flowLogService).shutdown();
+        }
+    }
+
+    @Benchmark
+    public FlowLog transition(RunningFlow flow) throws Exception {
+        if ("writeBehind".equals(mode)) {
+            return persistTransition(flow);
+        }
+        return transactionService.required(() -> persistTransition(flow));
+    }
+
+    private FlowLog persistTransition(RunningFlow flow) {
+        Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.flowParameters.getFlowId());
+        lastFlowLog.ifPresent(flowLog -> flowLogService.updateLastFlowLogStatus(flowLog, false));
+        return flowLogService.save(flow.flowParameters, null, "TRANSITION_EVENT", flow.payload, Map.of(), FlowLogWriteThroughputBenchmark.class,
+                TransitionState.RUNNING_STATE);
+    }
+
+    private static FlowLogRepository flowLogRepository(DatabaseStandIn database) {
+        Map<String, FlowLog> lastFlowLogs = new ConcurrentHashMap<>();
+        return (FlowLogRepository) Proxy.newProxyInstance(FlowLogWriteThroughputBenchmark.class.getClassLoader(),
+                new Class[]{FlowLogRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findFirstByFlowIdOrderByCreatedDesc":
+                            database.execute(1);
+                            return Optional.ofNullable(lastFlowLogs.get(args[0]));
+                        case "save":
+                            FlowLog flowLog = (FlowLog) args[0];
+                            flowLog.setId(database.nextIds(1).get(0));
+                            database.execute(1);
+                            lastFlowLogs.put(flowLog.getFlowId(), flowLog);
+                            return flowLog;
+                        case "updateLastLogStatusInFlow":
+                            database.execute(1);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    @State(Scope.Thread)
+    public static class RunningFlow {
+
+        private final FlowParameters flowParameters = new FlowParameters(UUID.randomUUID().toString(), "crn:cdp:iam:us-west-1:account:user:user",
+                null);
+
+        private final TransitionPayload payload = new TransitionPayload(1L);
+    }
+
+    public static class TransitionPayload implements Payload {
+
+        private final Long resourceId;
+
+        public TransitionPayload(Long resourceId) {
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return resourceId;
+        }
+    }
+
+    private enum TransitionState implements FlowState {
+        RUNNING_STATE
+    }
+
+    private static class DatabaseStandIn {
+
+        private final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        private final long commitLatencyNanos;
+
+        DatabaseStandIn(long commitLatencyMicros) {
+            commitLatencyNanos = TimeUnit.MICROSECONDS.toNanos(commitLatencyMicros);
+        }
+
+        void begin() {
+            connections.acquireUninterruptibly();
+        }
+
+        void execute(int rows) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(STATEMENT_LATENCY_MICROS + rows * ROW_LATENCY_MICROS));
+        }
+
+        void commit() {
+            LockSupport.parkNanos(commitLatencyNanos);
+        }
+
+        void end() {
+            connections.release();
+        }
+
+        List<Long> nextIds(int count) {
+            long last = sequence.addAndGet(count);
+            return LongStream.rangeClosed(last - count + 1, last).boxed().collect(Collectors.toList());
+        }
+    }
+
+    private static class TransactionServiceStandIn extends TransactionService {
+
+        private final DatabaseStandIn database;
+
+        TransactionServiceStandIn(DatabaseStandIn database) {
+            this.database = database;
+        }
+
+        @Override
+        public void required(Runnable callback) throws TransactionExecutionException {
+            required(() -> {
+                callback.run();
+                return null;
+            });
+        }
+
+        @Override
+        public <T> T required(Supplier<T> callback) throws TransactionExecutionException {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return callback.get();
+            }
+            database.begin();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            TransactionSynchronizationManager.initSynchronization();
+            int status = TransactionSynchronization.STATUS_ROLLED_BACK;
+            try {
+                T result = callback.get();
+                database.commit();
+                status = TransactionSynchronization.STATUS_COMMITTED;
+                return result;
+            } catch (RuntimeException e) {
+                throw new TransactionExecutionException("Transaction failed", e);
+            } finally {
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                TransactionSynchronizationManager.clearSynchronization();
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+                database.end();
+                int completionStatus = status;
+                synchronizations.forEach(synchronization -> synchronization.afterCompletion(completionStatus));
+            }
+        }
+    }
+
+    private static class JdbcTemplateStandIn extends JdbcTemplate {
+
+        private final DatabaseStandIn database;
+
+        JdbcTemplateStandIn(DatabaseStandIn database) {
+            this.database = database;
+        }
+
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            int count = (Integer) args[0];
+            database.execute(count);
+            return database.nextIds(count).stream().map(elementType::cast).collect(Collectors.toList());
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            database.execute(batchArgs.size());
+            return new int[batchArgs.size()];
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.cloudbreak.core.flow2.event.StackScaleTriggerEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackEvent;
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodec;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
+import com.sequenceiq.flow.core.codec.KryoFlowPayloadCodec;
+
+/**
+ * Compares the flow payload codecs on core flow events. Run with {@code ./gradlew :microbenchmark:jmh}, the average encoded size of a payload is
+ * the {@code encodedBytes} secondary result divided by {@code encodings}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowPayloadCodecBenchmark {
+
+    private static final long STACK_ID = 1L;
+
+    private static final int HOST_COUNT = 100;
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    @Param({JsonIoFlowPayloadCodec.NAME, KryoFlowPayloadCodec.NAME})
+    private String codecName;
+
+    @Param({"stack", "upscale"})
+    private String payloadType;
+
+    private FlowPayloadCodec codec;
+
+    private Object payload;
+
+    private Map<Object, Object> variables;
+
+    private String encodedPayload;
+
+    @Setup
+    public void setUp() {
+        JsonIoConfig jsonIoConfig = new JsonIoConfig();
+        jsonIoConfig.setupJsonReader();
+        codec = JsonIoFlowPayloadCodec.NAME.equals(codecName)
+                ? new JsonIoFlowPayloadCodec(jsonIoConfig.getCustomWriteOptions())
+                : new KryoFlowPayloadCodec(true, COMPRESSION_THRESHOLD);
+        payload = "stack".equals(payloadType) ? new StackEvent("STACK_SYNC_EVENT", STACK_ID) : createUpscaleEvent();
+        variables = new HashMap<>();
+        variables.put("repeated", 1);
+        encodedPayload = codec.encode(payload);
+    }
+
+    @Benchmark
+    public String encode(EncodedSize encodedSize) {
+        String encoded = codec.encode(payload);
+        encodedSize.record(encoded.length());
+        return encoded;
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(encodedPayload);
+    }
+
+    @Benchmark
+    public Object encodeVariables() {
+        return codec.encode(variables);
+    }
+
+    private StackScaleTriggerEvent createUpscaleEvent() {
+        Set<String> hostNames = IntStream.range(0, HOST_COUNT)
+                .mapToObj(i -> "host-" + i + ".cluster.example.com")
+                .collect(Collectors.toSet());
+        return new StackScaleTriggerEvent("ADD_INSTANCES_EVENT", STACK_ID, "worker", HOST_COUNT, hostNames);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        private long encodedBytes;
+
+        private long encodings;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            encodings = 0;
+        }
+
+        public long encodedBytes() {
+            return encodedBytes;
+        }
+
+        public long encodings() {
+            return encodings;
+        }
+
+        void record(int bytes) {
+            encodedBytes += bytes;
+            encodings++;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.core.codec.FlowPayloadCodec;
+import com.sequenceiq.flow.core.codec.JsonIoFlowPayloadCodec;
+import com.sequenceiq.flow.core.codec.KryoFlowPayloadCodec;
+import com.sequenceiq.freeipa.flow.freeipa.cleanup.CleanupEvent;
+import com.sequenceiq.freeipa.flow.freeipa.upscale.event.UpscaleEvent;
+
+/**
+ * Compares the flow payload codecs on FreeIPA flow events. Run with {@code ./gradlew :microbenchmark:jmh}, the average encoded size of a payload is
+ * the {@code encodedBytes} secondary result divided by {@code encodings}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FreeIpaFlowPayloadCodecBenchmark {
+
+    private static final long STACK_ID = 1L;
+
+    private static final int HOST_COUNT = 100;
+
+    private static final int USER_COUNT = 1000;
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    @Param({JsonIoFlowPayloadCodec.NAME, KryoFlowPayloadCodec.NAME})
+    private String codecName;
+
+    @Param({"upscale", "cleanup"})
+    private String payloadType;
+
+    private FlowPayloadCodec codec;
+
+    private Object payload;
+
+    private Map<Object, Object> variables;
+
+    private String encodedPayload;
+
+    @Setup
+    public void setUp() {
+        JsonIoConfig jsonIoConfig = new JsonIoConfig();
+        jsonIoConfig.setupJsonReader();
+        codec = JsonIoFlowPayloadCodec.NAME.equals(codecName)
+                ? new JsonIoFlowPayloadCodec(jsonIoConfig.getCustomWriteOptions())
+                : new KryoFlowPayloadCodec(true, COMPRESSION_THRESHOLD);
+        payload = "upscale".equals(payloadType)
+                ? new UpscaleEvent("UPSCALE_EVENT", STACK_ID, HOST_COUNT, Boolean.FALSE, "operationId")
+                : createCleanupEvent();
+        variables = new HashMap<>();
+        variables.put("repeated", 1);
+        encodedPayload = codec.encode(payload);
+    }
+
+    @Benchmark
+    public String encode(EncodedSize encodedSize) {
+        String encoded = codec.encode(payload);
+        encodedSize.record(encoded.length());
+        return encoded;
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(encodedPayload);
+    }
+
+    @Benchmark
+    public Object encodeVariables() {
+        return codec.encode(variables);
+    }
+
+    private CleanupEvent createCleanupEvent() {
+        return new CleanupEvent(STACK_ID, names("user", USER_COUNT), names("host", HOST_COUNT), names("role", HOST_COUNT), names("10.0.0.", HOST_COUNT),
+                Set.of(), "accountId", "operationId", "cluster", "crn:cdp:environments:us-west-1:accountId:environment:environmentId");
+    }
+
+    private Set<String> names(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> prefix + i)
+                .collect(Collectors.toSet());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        private long encodedBytes;
+
+        private long encodings;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            encodings = 0;
+        }
+
+        public long encodedBytes() {
+            return encodedBytes;
+        }
+
+        public long encodings() {
+            return encodings;
+        }
+
+        void record(int bytes) {
+            encodedBytes += bytes;
+            encodings++;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.StackDetails;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.StackRepoDetails;
+import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
+import com.sequenceiq.cloudbreak.core.CloudbreakImageNotFoundException;
+import com.sequenceiq.cloudbreak.service.image.ImageCatalogIndex;
+import com.sequenceiq.cloudbreak.service.image.ImageCatalogProvider;
+import com.sequenceiq.cloudbreak.service.image.ImageCatalogService;
+import com.sequenceiq.cloudbreak.service.image.StatedImage;
+
+/**
+ * Measures looking up images of a parsed image catalog through {@link ImageCatalogService} and its {@link ImageCatalogIndex}, compared with
+ * scanning the image lists. The platform filters select the base images of a platform that belong to a Cloudbreak version, the way
+ * {@code ImageCatalogService.getImages} does. The catalog is built in memory and served by a provider stand-in, so nothing is downloaded.
+ * Run with {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageCatalogLookupBenchmark {
+
+    private static final String CATALOG_URL = "http://localhost/image-catalog.json";
+
+    private static final List<String> REGIONS = List.of("eu-west-1", "us-west-1", "us-east-1", "ap-northeast-1");
+
+    private static final List<String> PLATFORMS = List.of("aws", "azure", "gcp");
+
+    private static final int STACK_VERSION_COUNT = 3;
+
+    @Param({"100", "2000"})
+    private int imageCount;
+
+    private CloudbreakImageCatalogV3 catalog;
+
+    private ImageCatalogService imageCatalogService;
+
+    private String lastImageUuid;
+
+    private Set<String> cloudbreakVersionImageUuids;
+
+    @Setup
+    public void setUp() {
+        List<Image> baseImages = new ArrayList<>();
+        List<Image> cdhImages = new ArrayList<>();
+        for (int i = 0; i < imageCount; i++) {
+            if (i % 2 == 0) {
+                baseImages.add(createImage(i, null));
+            } else {
+                cdhImages.add(createImage(i, new StackDetails("7.2." + i % STACK_VERSION_COUNT, new StackRepoDetails(Map.of(), Map.of()), "1")));
+            }
+        }
+        catalog = new CloudbreakImageCatalogV3(new Images(baseImages, cdhImages, null), null);
+        lastImageUuid = "image-" + (imageCount - 1);
+        cloudbreakVersionImageUuids = IntStream.range(0, imageCount).filter(i -> i % 2 == 0).mapToObj(i -> "image-" + i).collect(Collectors.toSet());
+        imageCatalogService = new ImageCatalogService();
+        setField(imageCatalogService, "imageCatalogProvider", new ImageCatalogProvider() {
+            @Override
+            public CloudbreakImageCatalogV3 getImageCatalogV3(String catalogUrl) {
+                return catalog;
+            }
+
+            @Override
+            public CloudbreakImageCatalogV3 getImageCatalogV3(String catalogUrl, boolean forceRefresh) {
+                return catalog;
+            }
+        });
+        ImageCatalogIndex.of(catalog);
+    }
+
+    @Benchmark
+    public StatedImage getImage() throws CloudbreakImageNotFoundException, CloudbreakImageCatalogException {
+        return imageCatalogService.getImage(CATALOG_URL, "benchmark", lastImageUuid);
+    }
+
+    @Benchmark
+    public Image scanForImage() {
+        for (Image image : catalog.getImages().getBaseImages()) {
+            if (lastImageUuid.equals(image.getUuid())) {
+                return image;
+            }
+        }
+        for (Image image : catalog.getImages().getCdhImages()) {
+            if (lastImageUuid.equals(image.getUuid())) {
+                return image;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public List<Image> getBaseImagesByPlatform() {
+        return ImageCatalogIndex.of(catalog).getBaseImagesByProvider("aws").stream()
+                .filter(image -> cloudbreakVersionImageUuids.contains(image.getUuid()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Image> scanForBaseImagesByPlatform() {
+        return catalog.getImages().getBaseImages().stream()
+                .filter(image -> cloudbreakVersionImageUuids.contains(image.getUuid())
+                        && image.getImageSetsByProvider().keySet().stream().anyMatch("aws"::equalsIgnoreCase))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Image> getImagesByProviderAndRegion() {
+        return ImageCatalogIndex.of(catalog).getImagesByProviderAndRegion("aws", "us-east-1");
+    }
+
+    @Benchmark
+    public List<Image> getCdhImagesByStackVersion() {
+        return ImageCatalogIndex.of(catalog).getCdhImagesByStackVersion("7.2.1");
+    }
+
+    private Image createImage(int index, StackDetails stackDetails) {
+        String region = REGIONS.get(index % REGIONS.size());
+        String platform = PLATFORMS.get(index / 2 % PLATFORMS.size());
+        return new Image("2020-10-01", (long) index, "image " + index, "redhat7", "image-" + index, "2.32.0", Map.of(),
+                Map.of(platform, Map.of(region, "ami-" + index)), stackDetails, "redhat7", Map.of("cm", "7.2." + index % STACK_VERSION_COUNT), null, null,
+                "1");
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sequenceiq.cloudbreak.certificate.PkiUtil;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
+
+/**
+ * Measures what {@link SaltConnector#pillar} does before a pillar is sent to the salt bootstrap: writing the hosts pillar as JSON and
+ * signing it with the gateway signature key. The pillar is written with a default {@link ObjectMapper}, the same as the connector does.
+ * Run with {@code ./gradlew :microbenchmark:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaltPillarSerializationBenchmark {
+
+    private static final int ADDRESSES_IN_SUBNET = 256;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"10", "500"})
+    private int hostCount;
+
+    private String signatureKey;
+
+    private Pillar pillar;
+
+    private byte[] pillarJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        signatureKey = PkiUtil.convert(PkiUtil.generateKeypair().getPrivate());
+        Map<String, Map<String, Object>> hosts = new HashMap<>();
+        for (int i = 0; i < hostCount; i++) {
+            hosts.put(privateIp(i), discovery("host-" + i + ".cluster.example.com", "i-" + i));
+        }
+        Set<String> targets = IntStream.range(0, hostCount)
+                .mapToObj(SaltPillarSerializationBenchmark::privateIp)
+                .collect(Collectors.toSet());
+        pillar = new Pillar("/nodes/hosts.sls", Map.of("hosts", hosts), targets);
+        pillarJson = MAPPER.writeValueAsBytes(pillar);
+    }
+
+    @Benchmark
+    public String toJson() throws JsonProcessingException {
+        return MAPPER.writeValueAsString(pillar);
+    }
+
+    @Benchmark
+    public String sign() {
+        return PkiUtil.generateSignature(signatureKey, pillarJson);
+    }
+
+    @Benchmark
+    public String toJsonAndSign() throws JsonProcessingException {
+        return PkiUtil.generateSignature(signatureKey, MAPPER.writeValueAsString(pillar).getBytes());
+    }
+
+    private static String privateIp(int index) {
+        return "10.0." + index / ADDRESSES_IN_SUBNET + '.' + index % ADDRESSES_IN_SUBNET;
+    }
+
+    private Map<String, Object> discovery(String hostname, String instanceId) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("fqdn", hostname);
+        map.put("hostname", hostname.split("\\.")[0]);
+        map.put("domain", hostname.replaceFirst(hostname.split("\\.")[0] + '.', ""));
+        map.put("custom_domain", true);
+        map.put("public_address", Boolean.FALSE);
+        map.put("instance_id", instanceId);
+        map.put("instance_type", "m5.xlarge");
+        return map;
+    }
+}
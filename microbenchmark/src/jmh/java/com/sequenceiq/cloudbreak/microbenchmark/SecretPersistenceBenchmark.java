@@ -0,0 +1,185 @@
+package com.sequenceiq.cloudbreak.microbenchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.service.secret.SecretEngine;
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+import com.sequenceiq.cloudbreak.service.secret.domain.AccountIdAwareResource;
+import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
+import com.sequenceiq.cloudbreak.service.secret.model.SecretResponse;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretAspectService;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
+import com.sequenceiq.cloudbreak.service.secret.service.VaultRetryService;
+
+/**
+ * Measures saving a batch of entities with secret fields through the secret aspect against a local Vault stand-in that answers every
+ * write after {@link #VAULT_LATENCY_MILLIS}. Run with {@code ./gradlew :microbenchmark:jmh}, a parallelism of 1 matches writing the secrets one by
+ * one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecretPersistenceBenchmark {
+
+    private static final long VAULT_LATENCY_MILLIS = 2L;
+
+    @Param({"1", "8"})
+    private int parallelism;
+
+    @Param({"1", "20"})
+    private int entityCount;
+
+    private SecretService secretService;
+
+    private SecretAspectService secretAspectService;
+
+    private List<SecretEntity> entities;
+
+    private ProceedingJoinPoint saveAll;
+
+    @Setup
+    public void setUp() {
+        MetricService metricService = (MetricService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MetricService.class},
+                (proxy, method, args) -> null);
+        secretService = new SecretService(metricService, List.of(new VaultStandIn()), new VaultRetryService(metricService));
+        setField(secretService, "engineClass", VaultStandIn.class.getCanonicalName());
+        setField(secretService, "requestParallelism", parallelism);
+        secretService.init();
+        secretAspectService = new SecretAspectService(secretService);
+        saveAll = (ProceedingJoinPoint) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ProceedingJoinPoint.class},
+                (proxy, method, args) -> "getArgs".equals(method.getName()) ? new Object[]{entities} : null);
+    }
+
+    @Setup(Level.Invocation)
+    public void createEntities() {
+        entities = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            entities.add(new SecretEntity());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        secretService.destroy();
+    }
+
+    @Benchmark
+    public Object saveAll() {
+        return secretAspectService.proceedSave(saveAll);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static class SecretEntity implements AccountIdAwareResource {
+
+        @SecretValue
+        private Secret username = new Secret("username");
+
+        @SecretValue
+        private Secret password = new Secret("password");
+
+        @SecretValue
+        private Secret certificate = new Secret("certificate");
+
+        @SecretValue
+        private Secret privateKey = new Secret("privateKey");
+
+        @Override
+        public String getAccountId() {
+            return "accountId";
+        }
+    }
+
+    private static class VaultStandIn implements SecretEngine {
+
+        private final Map<String, String> secrets = new ConcurrentHashMap<>();
+
+        @Override
+        public String put(String key, String value) {
+            sleep();
+            secrets.put(key, value);
+            return key;
+        }
+
+        @Override
+        public boolean isExists(String secret) {
+            sleep();
+            return secrets.containsKey(secret);
+        }
+
+        @Override
+        public String get(String secret) {
+            sleep();
+            return secrets.get(secret);
+        }
+
+        @Override
+        public void delete(String secret) {
+            sleep();
+            secrets.remove(secret);
+        }
+
+        @Override
+        public boolean isSecret(String secret) {
+            return true;
+        }
+
+        @Override
+        public SecretResponse convertToExternal(String secret) {
+            return null;
+        }
+
+        @Override
+        public String scarifySecret(String secret) {
+            return secret;
+        }
+
+        @Override
+        public List<String> listEntries(String secretPathPrefix) {
+            return List.of();
+        }
+
+        @Override
+        public void cleanup(String path) {
+            secrets.clear();
+        }
+
+        private void sleep() {
+            try {
+                Thread.sleep(VAULT_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.model.BatchResponse;
+import com.sequenceiq.freeipa.client.model.BatchResult;
+import com.sequenceiq.freeipa.client.model.Group;
+import com.sequenceiq.freeipa.client.model.RPCResponse;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateDifference;
+
+/**
+ * Counts the FreeIPA round trips of applying a 5000 user difference to an environment. Run with {@code ./gradlew :microbenchmark:jmh}, the
+ * {@code roundTrips} secondary result divided by {@code syncs} is the number of JSON-RPC requests of one sync. A batch size of 1 matches
+ * sending every user and group operation in its own request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSyncRoundTripBenchmark {
+
+    private static final String ENVIRONMENT_CRN = "crn:cdp:environments:us-west-1:accountId:environment:environmentId";
+
+    private static final int USER_COUNT = 5000;
+
+    private static final int GROUP_COUNT = 20;
+
+    private static final int MAX_SUBJECTS_PER_REQUEST = 10;
+
+    @Param({"1", "50", "200"})
+    private int batchSize;
+
+    private UserSyncService userSyncService;
+
+    private UsersStateDifference difference;
+
+    @Setup
+    public void setUp() {
+        userSyncService = new UserSyncService();
+        userSyncService.batchSize = batchSize;
+        userSyncService.maxSubjectsPerRequest = MAX_SUBJECTS_PER_REQUEST;
+        userSyncService.freeIpaRequestInvoker = new FreeIpaRequestInvoker();
+        ImmutableSet.Builder<FmsGroup> groupsToAdd = ImmutableSet.builder();
+        ImmutableSet.Builder<FmsUser> usersToAdd = ImmutableSet.builder();
+        ImmutableSet.Builder<String> usersToRemove = ImmutableSet.builder();
+        ImmutableMultimap.Builder<String, String> groupMembershipToAdd = ImmutableMultimap.builder();
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            groupsToAdd.add(new FmsGroup().withName("group" + i));
+        }
+        for (int i = 0; i < USER_COUNT; i++) {
+            String username = "user" + i;
+            if (i % 2 == 0) {
+                usersToAdd.add(new FmsUser().withName(username).withFirstName("first").withLastName("last"));
+                groupMembershipToAdd.put("group" + i % GROUP_COUNT, username);
+            } else {
+                usersToRemove.add(username);
+            }
+        }
+        difference = new UsersStateDifference(groupsToAdd.build(), ImmutableSet.of(), usersToAdd.build(), usersToRemove.build(),
+                groupMembershipToAdd.build(), ImmutableMultimap.of());
+    }
+
+    @Benchmark
+    public void applyStateDifference(RoundTrips roundTrips) throws FreeIpaClientException {
+        userSyncService.applyStateDifferenceToIpa(ENVIRONMENT_CRN, new CountingFreeIpaClient(roundTrips), difference, (subject, warning) -> {
+            throw new IllegalStateException(subject + ": " + warning);
+        });
+        roundTrips.syncs++;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        private long roundTrips;
+
+        private long syncs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            roundTrips = 0;
+            syncs = 0;
+        }
+
+        public long roundTrips() {
+            return roundTrips;
+        }
+
+        public long syncs() {
+            return syncs;
+        }
+    }
+
+    /**
+     * Answers every request locally with a successful response, so that only the requests are counted, not the latency of FreeIPA.
+     */
+    private static class CountingFreeIpaClient extends FreeIpaClient {
+
+        private final RoundTrips roundTrips;
+
+        CountingFreeIpaClient(RoundTrips roundTrips) {
+            super(null, "apiAddress", "hostname");
+            this.roundTrips = roundTrips;
+        }
+
+        @Override
+        public <T> RPCResponse<T> invoke(String method, List<Object> flags, Map<String, Object> params, Type resultType) {
+            roundTrips.roundTrips++;
+            RPCResponse<Object> response = new RPCResponse<>();
+            if ("batch".equals(method)) {
+                List<BatchResult> results = new ArrayList<>(flags.size());
+                flags.forEach(flag -> results.add(new BatchResult()));
+                BatchResponse batchResponse = new BatchResponse();
+                batchResponse.setCount(results.size());
+                batchResponse.setResults(results);
+                response.setResult(batchResponse);
+            } else {
+                Group group = new Group();
+                group.setMemberUser("group_add_member".equals(method) ? List.copyOf((Collection<String>) params.get("user")) : List.of());
+                response.setResult(group);
+            }
+            return (RPCResponse<T>) response;
+        }
+    }
+}
@@ -77,6 +77,8 @@ import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetWo
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetWorkloadAdministrationGroupNameResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListAccessKeysRequest;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListAccessKeysResponse;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersRequest;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsForMemberRequest;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsForMemberResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupsRequest;
@@ -418,6 +420,22 @@ public class MockUserManagementService extends UserManagementImplBase {
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void listGroupMembers(ListGroupMembersRequest request, StreamObserver<ListGroupMembersResponse> responseObserver) {
+        String accountId = request.getAccountId();
+        LOGGER.info("List members of group {} in account {}", request.getGroupNameOrCrn(), accountId);
+        // Every user is a member of every user group, see listGroupsForMember
+        ListGroupMembersResponse.Builder responseBuilder = ListGroupMembersResponse.newBuilder();
+        ofNullable(accountUsers.get(accountId)).orElse(Set.of()).stream()
+                .map(userName -> createUser(accountId, userName).getCrn())
+                .forEach(responseBuilder::addMemberCrn);
+        for (int i = 0; i < MOCK_USER_COUNT; i++) {
+            responseBuilder.addMemberCrn(createUser(accountId, "fakeMockUser" + i).getCrn());
+        }
+        responseObserver.onNext(responseBuilder.build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void listWorkloadAdministrationGroups(ListWorkloadAdministrationGroupsRequest request,
             StreamObserver<ListWorkloadAdministrationGroupsResponse> responseObserver) {
@@ -27,10 +27,14 @@ import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetAc
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetAccountResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetActorWorkloadCredentialsRequest;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.GetActorWorkloadCredentialsResponse;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersRequest;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ListGroupMembersResponse;
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.WorkloadPasswordPolicy;
+import com.sequenceiq.thunderhead.grpc.GrpcActorContext;
 import com.sequenceiq.thunderhead.util.JsonUtil;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 
+import io.grpc.Context;
 import io.grpc.internal.testing.StreamRecorder;
 
 @ExtendWith(ExpectedExceptionSupport.class)
@@ -226,4 +230,21 @@ public class MockUserManagementServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void testListGroupMembersListsEveryUserOfTheAccount() {
+        String accountId = UUID.randomUUID().toString();
+        String actorCrn = "crn:cdp:iam:us-west-1:" + accountId + ":user:" + UUID.randomUUID().toString();
+        ListGroupMembersRequest req = ListGroupMembersRequest.newBuilder()
+                .setAccountId(accountId)
+                .setGroupNameOrCrn("crn:cdp:iam:us-west-1:" + accountId + ":group:fakemockgroup0")
+                .build();
+        StreamRecorder<ListGroupMembersResponse> observer = StreamRecorder.create();
+
+        Context.current().withValue(GrpcActorContext.ACTOR_CONTEXT, new GrpcActorContext(actorCrn)).run(() -> underTest.listGroupMembers(req, observer));
+
+        assertThat(observer.getValues().size()).isEqualTo(1);
+        List<String> memberCrns = observer.getValues().get(0).getMemberCrnList();
+        assertThat(memberCrns).hasSize(10);
+        assertThat(memberCrns).allMatch(memberCrn -> Crn.fromString(memberCrn).getAccountId().equals(accountId));
+    }
+}
@@ -2,6 +2,9 @@ package com.sequenceiq.cloudbreak.orchestrator;
 
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,59 +77,48 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
         return doCall();
     }
 
+    /**
+     * Runs the attempts on the given scheduler. Instead of holding a thread while sleeping between two attempts, the next attempt is
+     * scheduled once the sleep time has passed, so the component start is awaited without blocking any thread.
+     *
+     * @return the result of the attempts, completed exceptionally the same way {@link #call()} fails
+     */
+    public CompletableFuture<Boolean> submit(ScheduledExecutorService scheduler) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Attempts attempts = new Attempts();
+        scheduler.execute(() -> runScheduledAttempt(scheduler, attempts, result));
+        return result;
+    }
+
     private Boolean doCall() throws CloudbreakOrchestratorCancelledException, CloudbreakOrchestratorFailedException, CloudbreakOrchestratorTimeoutException {
-        Boolean success = null;
-        int retryCount = 1;
-        int errorCount = 1;
-        Exception actualException = null;
-        String type = orchestratorBootstrap.getClass().getSimpleName().replace("Bootstrap", "");
-        long initialStartTime = System.currentTimeMillis();
-        while (success == null && belowAttemptThreshold(retryCount, errorCount)) {
-            if (isExitNeeded()) {
-                LOGGER.debug(exitCriteria.exitMessage());
-                throw new CloudbreakOrchestratorCancelledException(exitCriteria.exitMessage());
-            }
-            long startTime = System.currentTimeMillis();
-            try {
-                LOGGER.debug("Calling orchestrator bootstrap: {}, additional info: {}", type, orchestratorBootstrap);
-                orchestratorBootstrap.call();
-                success = Boolean.TRUE;
-                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
-                LOGGER.debug("Orchestrator component {} successfully started! {}, "
-                        + "additional info: {}", type, elapsedTimeLog, orchestratorBootstrap);
-            } catch (CloudbreakOrchestratorTerminateException te) {
-                actualException = te;
-                success = Boolean.FALSE;
-                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
-                LOGGER.info("Failed to execute orchestrator component {}! {}, "
-                        + "additional info: {}", type, elapsedTimeLog, orchestratorBootstrap);
-            } catch (CloudbreakOrchestratorInProgressException ex) {
-                actualException = ex;
-                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
-                LOGGER.debug("Orchestrator component {} start in progress, retrying [{}/{}] {}, Reason: {}, additional info: {}",
-                        type, retryCount, maxRetryCount, elapsedTimeLog, actualException, orchestratorBootstrap);
-                retryCount++;
-                if (retryCount <= maxRetryCount) {
-                    trySleeping();
-                } else {
-                    success = Boolean.FALSE;
-                }
-            } catch (Exception ex) {
-                actualException = ex;
-                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
-                LOGGER.debug("Orchestrator component {} failed to start, retrying [{}/{}], error count [{}/{}]. {}, Reason: {}, additional info: {}",
-                        type, retryCount, maxRetryCount, errorCount, maxRetryOnError, elapsedTimeLog, actualException, orchestratorBootstrap, actualException);
-                retryCount++;
-                errorCount++;
-                if (belowAttemptThreshold(retryCount, errorCount)) {
-                    trySleeping();
-                } else {
-                    success = Boolean.FALSE;
-                }
+        Attempts attempts = new Attempts();
+        while (attempts.hasNext()) {
+            attempts.attempt();
+            if (attempts.hasNext()) {
+                trySleeping();
             }
         }
+        return attempts.getResult();
+    }
 
-        return checkResult(success, retryCount, actualException);
+    private void runScheduledAttempt(ScheduledExecutorService scheduler, Attempts attempts, CompletableFuture<Boolean> result) {
+        if (mdcMap != null) {
+            MDC.setContextMap(mdcMap);
+        }
+        try {
+            if (attempts.hasNext()) {
+                attempts.attempt();
+            }
+            if (attempts.hasNext()) {
+                scheduler.schedule(() -> runScheduledAttempt(scheduler, attempts, result), sleepTime, TimeUnit.MILLISECONDS);
+            } else {
+                result.complete(attempts.getResult());
+            }
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        } finally {
+            MDC.clear();
+        }
     }
 
     private String createElapseTimeLog(long initialStartTime, long startTime) {
@@ -193,4 +185,68 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
         LOGGER.debug("isExitNeeded: {}", exitNeeded);
         return exitNeeded;
     }
+
+    private class Attempts {
+
+        private final String type = orchestratorBootstrap.getClass().getSimpleName().replace("Bootstrap", "");
+
+        private final long initialStartTime = System.currentTimeMillis();
+
+        private Boolean success;
+
+        private int retryCount = 1;
+
+        private int errorCount = 1;
+
+        private Exception actualException;
+
+        private boolean hasNext() {
+            return success == null && belowAttemptThreshold(retryCount, errorCount);
+        }
+
+        private void attempt() throws CloudbreakOrchestratorCancelledException {
+            if (isExitNeeded()) {
+                LOGGER.debug(exitCriteria.exitMessage());
+                throw new CloudbreakOrchestratorCancelledException(exitCriteria.exitMessage());
+            }
+            long startTime = System.currentTimeMillis();
+            try {
+                LOGGER.debug("Calling orchestrator bootstrap: {}, additional info: {}", type, orchestratorBootstrap);
+                orchestratorBootstrap.call();
+                success = Boolean.TRUE;
+                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
+                LOGGER.debug("Orchestrator component {} successfully started! {}, "
+                        + "additional info: {}", type, elapsedTimeLog, orchestratorBootstrap);
+            } catch (CloudbreakOrchestratorTerminateException te) {
+                actualException = te;
+                success = Boolean.FALSE;
+                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
+                LOGGER.info("Failed to execute orchestrator component {}! {}, "
+                        + "additional info: {}", type, elapsedTimeLog, orchestratorBootstrap);
+            } catch (CloudbreakOrchestratorInProgressException ex) {
+                actualException = ex;
+                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
+                LOGGER.debug("Orchestrator component {} start in progress, retrying [{}/{}] {}, Reason: {}, additional info: {}",
+                        type, retryCount, maxRetryCount, elapsedTimeLog, actualException, orchestratorBootstrap);
+                retryCount++;
+                if (retryCount > maxRetryCount) {
+                    success = Boolean.FALSE;
+                }
+            } catch (Exception ex) {
+                actualException = ex;
+                String elapsedTimeLog = createElapseTimeLog(initialStartTime, startTime);
+                LOGGER.debug("Orchestrator component {} failed to start, retrying [{}/{}], error count [{}/{}]. {}, Reason: {}, additional info: {}",
+                        type, retryCount, maxRetryCount, errorCount, maxRetryOnError, elapsedTimeLog, actualException, orchestratorBootstrap, actualException);
+                retryCount++;
+                errorCount++;
+                if (!belowAttemptThreshold(retryCount, errorCount)) {
+                    success = Boolean.FALSE;
+                }
+            }
+        }
+
+        private Boolean getResult() throws CloudbreakOrchestratorFailedException, CloudbreakOrchestratorTimeoutException {
+            return checkResult(success, retryCount, actualException);
+        }
+    }
 }
@@ -19,8 +19,10 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -180,7 +182,6 @@ SaltOrchestrator implements HostOrchestrator {
         Target<String> allHosts = new HostList(nodes.stream().map(Node::getHostname).collect(Collectors.toSet()));
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
             initializePillar(allNodes, exitModel, gatewayTargetIpAddresses, sc);
-            Callable<Boolean> saltPillarRunner;
 
             Map<String, String> dataVolumeMap = nodes.stream().collect(Collectors.toMap(Node::getHostname, Node::getDataVolumes));
             Map<String, String> serialIdMap = nodes.stream().collect(Collectors.toMap(Node::getHostname, Node::getSerialIds));
@@ -196,15 +197,11 @@ SaltOrchestrator implements HostOrchestrator {
             SaltPillarProperties mounDiskProperties = new SaltPillarProperties("/mount/disk.sls", Collections.singletonMap("mount_data", hostnameDiskMountMap));
 
             OrchestratorBootstrap pillarSave = new PillarSave(sc, gatewayTargetIpAddresses, mounDiskProperties);
-            saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel);
-            saltPillarRunner.call();
-
-            saltCommandRunner.runSaltCommand(sc, new GrainAddRunner(hostnameDiskMountMap.keySet(), allNodes, "mount_disks"), exitModel, exitCriteria);
-
             StateAllRunner stateAllRunner = new StateAllRunner(gatewayTargetIpAddresses, allNodes, "disks.format-and-mount");
-            OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, stateAllRunner);
-            Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitModel);
-            saltJobRunBootstrapRunner.call();
+            saltRunner.await(saltRunner.submit(pillarSave, exitCriteria, exitModel)
+                    .thenCompose(saved -> saltCommandRunner.submitSaltCommand(sc, new GrainAddRunner(hostnameDiskMountMap.keySet(), allNodes, "mount_disks"),
+                            exitModel, exitCriteria))
+                    .thenCompose(added -> saltRunner.submit(new SaltJobIdTracker(sc, stateAllRunner), exitCriteria, exitModel)));
 
             Map<String, String> uuidResponse = SaltStates.getUuidList(sc);
 
@@ -326,14 +323,8 @@ SaltOrchestrator implements HostOrchestrator {
         Set<String> allNodeHostname = allNodes.stream().map(Node::getHostname).collect(Collectors.toSet());
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
             OrchestratorBootstrap hostSave = new PillarSave(sc, gatewayTargetIpAddresses, allNodes);
-            Callable<Boolean> saltPillarRunner = saltRunner.runner(hostSave, exitCriteria, exitModel);
-            saltPillarRunner.call();
-
-            for (Entry<String, SaltPillarProperties> propertiesEntry : saltConfig.getServicePillarConfig().entrySet()) {
-                OrchestratorBootstrap pillarSave = new PillarSave(sc, gatewayTargetIpAddresses, propertiesEntry.getValue());
-                saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel);
-                saltPillarRunner.call();
-            }
+            saltRunner.await(saltRunner.submit(hostSave, exitCriteria, exitModel)
+                    .thenCompose(saved -> submitServicePillars(sc, gatewayTargetIpAddresses, saltConfig, exitModel)));
 
             setAdMemberRoleIfNeeded(allNodes, saltConfig, exitModel, sc, allNodeHostname);
             setIpaMemberRoleIfNeeded(allNodes, saltConfig, exitModel, sc, allNodeHostname);
@@ -375,14 +366,8 @@ SaltOrchestrator implements HostOrchestrator {
         Set<String> gatewayTargets = getGatewayPrivateIps(allGateway);
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
             OrchestratorBootstrap hostSave = new PillarSave(sc, gatewayTargets, allNodes);
-            Callable<Boolean> saltPillarRunner = saltRunner.runner(hostSave, exitCriteria, exitModel);
-            saltPillarRunner.call();
-
-            for (Entry<String, SaltPillarProperties> propertiesEntry : saltConfig.getServicePillarConfig().entrySet()) {
-                OrchestratorBootstrap pillarSave = new PillarSave(sc, gatewayTargets, propertiesEntry.getValue());
-                saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel);
-                saltPillarRunner.call();
-            }
+            saltRunner.await(saltRunner.submit(hostSave, exitCriteria, exitModel)
+                    .thenCompose(saved -> submitServicePillars(sc, gatewayTargets, saltConfig, exitModel)));
         } catch (ExecutionException e) {
             LOGGER.warn("Error occurred during bootstrap", e);
             if (e.getCause() instanceof CloudbreakOrchestratorFailedException) {
@@ -396,6 +381,18 @@ SaltOrchestrator implements HostOrchestrator {
         }
     }
 
+    /**
+     * The service pillars are independent files, so they are saved at the same time and their retries share the salt retry scheduler.
+     */
+    private CompletableFuture<Void> submitServicePillars(SaltConnector sc, Set<String> gatewayTargets, SaltConfig saltConfig, ExitCriteriaModel exitModel) {
+        return submitPillars(saltConfig.getServicePillarConfig().values().stream()
+                .map(pillar -> saltRunner.submit(new PillarSave(sc, gatewayTargets, pillar), exitCriteria, exitModel)));
+    }
+
+    private CompletableFuture<Void> submitPillars(Stream<CompletableFuture<Boolean>> pillarSaves) {
+        return CompletableFuture.allOf(pillarSaves.toArray(CompletableFuture[]::new));
+    }
+
     private void addClusterManagerRoles(Set<Node> allNodes, ExitCriteriaModel exitModel,
             SaltConnector sc, Set<String> serverHostnames, Set<String> allNodeHostname) throws Exception {
         saltCommandRunner.runSaltCommand(sc, new GrainAddRunner(allNodeHostname, allNodes, "manager_agent"), exitModel, exitCriteria);
@@ -927,16 +924,11 @@ SaltOrchestrator implements HostOrchestrator {
     private void callBackupRestore(GatewayConfig primaryGateway, Set<String> target, Set<Node> allNodes, SaltConfig saltConfig,
             ExitCriteriaModel exitModel, String state) throws CloudbreakOrchestratorFailedException {
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
-            for (Entry<String, SaltPillarProperties> propertiesEntry : saltConfig.getServicePillarConfig().entrySet()) {
-                OrchestratorBootstrap pillarSave = new PillarSave(sc, Sets.newHashSet(primaryGateway.getPrivateAddress()), propertiesEntry.getValue());
-                Callable<Boolean> saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel, maxDatabaseDrRetryOnError, true);
-                saltPillarRunner.call();
-            }
-
+            Set<String> pillarTargets = Sets.newHashSet(primaryGateway.getPrivateAddress());
             StateRunner stateRunner = new StateRunner(target, allNodes, state);
-            OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, stateRunner);
-            Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitModel, maxDatabaseDrRetryOnError, true);
-            saltJobRunBootstrapRunner.call();
+            saltRunner.await(submitPillars(saltConfig.getServicePillarConfig().values().stream()
+                    .map(pillar -> saltRunner.submit(new PillarSave(sc, pillarTargets, pillar), exitCriteria, exitModel, maxDatabaseDrRetryOnError, true)))
+                    .thenCompose(saved -> saltRunner.submit(new SaltJobIdTracker(sc, stateRunner), exitCriteria, exitModel, maxDatabaseDrRetryOnError, true)));
         } catch (Exception e) {
             LOGGER.error("Error occurred during database backup/restore", e);
             throw new CloudbreakOrchestratorFailedException(e);
@@ -957,9 +949,16 @@ SaltOrchestrator implements HostOrchestrator {
 
     private void runNewService(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel, int maxRetry, boolean retryOnFail)
             throws Exception {
+        saltRunner.await(submitNewService(sc, baseSaltJobRunner, exitCriteriaModel, maxRetry, retryOnFail));
+    }
+
+    /**
+     * Starts the salt job and the checks of its job id on the salt retry scheduler, no thread waits between two checks.
+     */
+    private CompletableFuture<Boolean> submitNewService(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel,
+            int maxRetry, boolean retryOnFail) {
         OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, baseSaltJobRunner, retryOnFail);
-        Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitCriteriaModel, maxRetry, true);
-        saltJobRunBootstrapRunner.call();
+        return saltRunner.submit(saltJobIdTracker, exitCriteria, exitCriteriaModel, maxRetry, true);
     }
 
     @SuppressFBWarnings("REC_CATCH_EXCEPTION")
@@ -969,19 +968,20 @@ SaltOrchestrator implements HostOrchestrator {
         try (SaltConnector sc = saltService.createSaltConnector(gatewayConfig)) {
             // add 'recipe' grain to all nodes
             Set<String> targetHostnames = allNodes.stream().map(Node::getHostname).collect(Collectors.toSet());
-            saltCommandRunner.runSaltCommand(sc, new GrainAddRunner(targetHostnames, allNodes, "recipes", phase.value()), exitCriteriaModel, maxRetry,
-                    exitCriteria);
             Set<String> allHostnames = allNodes.stream().map(Node::getHostname).collect(Collectors.toSet());
-            saltCommandRunner.runSaltCommand(sc, new SyncAllRunner(allHostnames, allNodes), exitCriteriaModel, maxRetry, exitCriteria);
+            CompletableFuture<Boolean> synced = saltCommandRunner.submitSaltCommand(sc, new GrainAddRunner(targetHostnames, allNodes, "recipes", phase.value()),
+                    exitCriteriaModel, maxRetry, exitCriteria)
+                    .thenCompose(added -> saltCommandRunner.submitSaltCommand(sc, new SyncAllRunner(allHostnames, allNodes), exitCriteriaModel, maxRetry,
+                            exitCriteria));
             if (phase == PRE_CLOUDERA_MANAGER_START) {
                 // Execute highstate before recipe. Otherwise ipa domain names will not be resolvable in recipe scripts.
-                runNewService(sc, new HighStateAllRunner(allHostnames, allNodes), exitCriteriaModel, maxRetryRecipe, true);
+                saltRunner.await(synced.thenCompose(done -> submitNewService(sc, new HighStateAllRunner(allHostnames, allNodes), exitCriteriaModel,
+                        maxRetryRecipe, true)));
             } else {
                 // Skip highstate and just execute other recipes for performace.
                 StateAllRunner stateAllRunner = new StateAllRunner(targetHostnames, allNodes, "recipes." + phase.value());
-                OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, stateAllRunner);
-                Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitCriteriaModel, maxRetry, false);
-                saltJobRunBootstrapRunner.call();
+                saltRunner.await(synced.thenCompose(done -> saltRunner.submit(new SaltJobIdTracker(sc, stateAllRunner), exitCriteria, exitCriteriaModel,
+                        maxRetry, false)));
             }
         } catch (CloudbreakOrchestratorTimeoutException e) {
             LOGGER.info("Recipe execution timeout. {}", phase, e);
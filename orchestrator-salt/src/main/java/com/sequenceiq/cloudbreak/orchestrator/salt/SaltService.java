@@ -4,12 +4,14 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
+import javax.ws.rs.client.Client;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.sequenceiq.cloudbreak.client.TlsClientRegistry;
 import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
 import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
@@ -22,11 +24,16 @@ public class SaltService {
     @Inject
     private SaltErrorResolver saltErrorResolver;
 
+    @Inject
+    private TlsClientRegistry tlsClientRegistry;
+
     @Value("${rest.debug}")
     private boolean restDebug;
 
     public SaltConnector createSaltConnector(GatewayConfig gatewayConfig) {
-        return new SaltConnector(gatewayConfig, saltErrorResolver, restDebug);
+        Client restClient = tlsClientRegistry.getClient(gatewayConfig.getGatewayUrl(), gatewayConfig.getServerCert(), gatewayConfig.getClientCert(),
+                gatewayConfig.getClientKey(), restDebug);
+        return new SaltConnector(gatewayConfig, saltErrorResolver, restClient);
     }
 
     public GatewayConfig getPrimaryGatewayConfig(List<GatewayConfig> allGatewayConfigs) throws CloudbreakOrchestratorFailedException {
@@ -4,7 +4,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -71,8 +70,7 @@ public class SaltTelemetryOrchestrator implements TelemetryOrchestrator {
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
             StateAllRunner stateAllJobRunner = new StateAllRunner(serverHostname, nodes, MONITORING_INIT);
             OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, stateAllJobRunner);
-            Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitModel);
-            saltJobRunBootstrapRunner.call();
+            saltRunner.await(saltRunner.submit(saltJobIdTracker, exitCriteria, exitModel));
         } catch (Exception e) {
             LOGGER.info("Error occurred during cluster monitoring start", e);
             throw new CloudbreakOrchestratorFailedException(e);
@@ -124,8 +122,7 @@ public class SaltTelemetryOrchestrator implements TelemetryOrchestrator {
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
             ConcurrentParameterizedStateRunner stateRunner = new ConcurrentParameterizedStateRunner(targetHostnames, nodes, saltState, parameters);
             OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, stateRunner, retryOnFail);
-            Callable<Boolean> saltJobRunBootstrapRunner = saltRunner.runner(saltJobIdTracker, exitCriteria, exitModel, retryCount, false);
-            saltJobRunBootstrapRunner.call();
+            saltRunner.await(saltRunner.submit(saltJobIdTracker, exitCriteria, exitModel, retryCount, false));
         } catch (Exception e) {
             LOGGER.info(errorMessage, e);
             throw new CloudbreakOrchestratorFailedException(e);
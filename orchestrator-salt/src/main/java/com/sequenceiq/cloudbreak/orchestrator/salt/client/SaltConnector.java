@@ -81,10 +81,23 @@ public class SaltConnector implements Closeable {
 
     private final SaltErrorResolver saltErrorResolver;
 
+    private final boolean sharedClient;
+
     public SaltConnector(GatewayConfig gatewayConfig, SaltErrorResolver saltErrorResolver, boolean debug) {
+        this(gatewayConfig, saltErrorResolver, createClient(gatewayConfig, debug), false);
+    }
+
+    /**
+     * Creates a connector on a shared client, which is not closed when the connector is closed.
+     */
+    public SaltConnector(GatewayConfig gatewayConfig, SaltErrorResolver saltErrorResolver, Client sharedRestClient) {
+        this(gatewayConfig, saltErrorResolver, sharedRestClient, true);
+    }
+
+    private SaltConnector(GatewayConfig gatewayConfig, SaltErrorResolver saltErrorResolver, Client restClient, boolean sharedClient) {
+        this.restClient = restClient;
+        this.sharedClient = sharedClient;
         try {
-            restClient = RestClientUtil.createClient(
-                    gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(), debug);
             String saltBootPasswd = Optional.ofNullable(gatewayConfig.getSaltBootPassword()).orElse(SALT_BOOT_PASSWORD);
             saltTarget = restClient.target(gatewayConfig.getGatewayUrl())
                     .register(HttpAuthenticationFeature.basic(SALT_BOOT_USER, saltBootPasswd))
@@ -324,15 +337,27 @@ public class SaltConnector implements Closeable {
 
     @Override
     public void close() {
-        if (restClient != null) {
+        if (restClient != null && !sharedClient) {
             restClient.close();
         }
     }
 
+    private static Client createClient(GatewayConfig gatewayConfig, boolean debug) {
+        try {
+            return RestClientUtil.createClient(gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(), debug);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create rest client with 2-way-ssl config", e);
+        }
+    }
+
     public String getSaltPassword() {
         return saltPassword;
     }
 
+    public String getGatewayUrl() {
+        return saltTarget.getUri().toString();
+    }
+
     public SaltErrorResolver getSaltErrorResolver() {
         return saltErrorResolver;
     }
@@ -0,0 +1,44 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.domain;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MinionRunningJobsResponse {
+
+    private static final String JID = "jid";
+
+    @JsonProperty("return")
+    private List<Map<String, Object>> result;
+
+    public List<Map<String, Object>> getResult() {
+        return result;
+    }
+
+    public void setResult(List<Map<String, Object>> result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the jids of the jobs running on any of the minions that answered
+     */
+    public Set<String> getRunningJobIds() {
+        Set<String> jobIds = new HashSet<>();
+        if (result != null) {
+            result.forEach(jobsByMinion -> jobsByMinion.values().stream()
+                    .filter(List.class::isInstance)
+                    .flatMap(jobs -> ((List<?>) jobs).stream())
+                    .filter(Map.class::isInstance)
+                    .map(job -> ((Map<?, ?>) job).get(JID))
+                    .filter(Objects::nonNull)
+                    .forEach(jid -> jobIds.add(jid.toString())));
+        }
+        return jobIds;
+    }
+}
@@ -71,7 +71,7 @@ public class SaltJobIdTracker implements OrchestratorBootstrap {
     }
 
     private void checkIsFinished(String jobId) throws CloudbreakOrchestratorFailedException {
-        boolean jobRunning = SaltStates.jobIsRunning(saltConnector, jobId);
+        boolean jobRunning = SaltStates.jobIsRunning(saltConnector, jobId, saltJobRunner.getTargetHostnames());
         if (jobRunning) {
             LOGGER.debug("Job: {} is running currently, waiting for next polling attempt.", jobId);
             saltJobRunner.setJobState(JobState.IN_PROGRESS);
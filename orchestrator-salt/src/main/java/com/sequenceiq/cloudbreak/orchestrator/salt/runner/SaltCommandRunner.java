@@ -1,12 +1,11 @@
 package com.sequenceiq.cloudbreak.orchestrator.salt.runner;
 
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
-import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.BaseSaltJobRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
@@ -21,15 +20,24 @@ public class SaltCommandRunner {
 
     public void runSaltCommand(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel, ExitCriteria exitCriteria)
             throws Exception {
-        OrchestratorBootstrap saltCommandTracker = new SaltCommandTracker(sc, baseSaltJobRunner);
-        Callable<Boolean> saltCommandRunBootstrapRunner = saltRunner.runner(saltCommandTracker, exitCriteria, exitCriteriaModel);
-        saltCommandRunBootstrapRunner.call();
+        saltRunner.await(submitSaltCommand(sc, baseSaltJobRunner, exitCriteriaModel, exitCriteria));
     }
 
     public void runSaltCommand(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel, int retry,
             ExitCriteria exitCriteria) throws Exception {
-        OrchestratorBootstrap saltCommandTracker = new SaltCommandTracker(sc, baseSaltJobRunner);
-        Callable<Boolean> saltCommandRunBootstrapRunner = saltRunner.runner(saltCommandTracker, exitCriteria, exitCriteriaModel, retry, false);
-        saltCommandRunBootstrapRunner.call();
+        saltRunner.await(submitSaltCommand(sc, baseSaltJobRunner, exitCriteriaModel, retry, exitCriteria));
+    }
+
+    /**
+     * Starts the command and its result checks on the salt retry scheduler, no thread waits between two checks.
+     */
+    public CompletableFuture<Boolean> submitSaltCommand(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel,
+            ExitCriteria exitCriteria) {
+        return saltRunner.submit(new SaltCommandTracker(sc, baseSaltJobRunner), exitCriteria, exitCriteriaModel);
+    }
+
+    public CompletableFuture<Boolean> submitSaltCommand(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel,
+            int retry, ExitCriteria exitCriteria) {
+        return saltRunner.submit(new SaltCommandTracker(sc, baseSaltJobRunner), exitCriteria, exitCriteriaModel, retry, false);
     }
 }
@@ -1,11 +1,19 @@
 package com.sequenceiq.cloudbreak.orchestrator.salt.runner;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerScheduledExecutor;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrapRunner;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteria;
@@ -22,6 +30,21 @@ public class SaltRunner {
     @Value("${cb.max.salt.new.service.retry}")
     private int maxRetry;
 
+    @Value("${cb.salt.retry.scheduler.threads:8}")
+    private int schedulerThreads;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = new MDCCleanerScheduledExecutor(schedulerThreads, new ThreadFactoryBuilder().setNameFormat("salt-retry-%d").build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
     public Callable<Boolean> runner(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel, int maxRetry,
             boolean usingErrorCount) {
         return new OrchestratorBootstrapRunner(bootstrap, exitCriteria, exitCriteriaModel, MDC.getCopyOfContextMap(), maxRetry, SLEEP_TIME,
@@ -31,4 +54,32 @@ public class SaltRunner {
     public Callable<Boolean> runner(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel) {
         return runner(bootstrap, exitCriteria, exitCriteriaModel, maxRetry, false);
     }
+
+    /**
+     * Starts the attempts on the shared retry scheduler, no thread is held between two attempts.
+     */
+    public CompletableFuture<Boolean> submit(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel,
+            int maxRetry, boolean usingErrorCount) {
+        return new OrchestratorBootstrapRunner(bootstrap, exitCriteria, exitCriteriaModel, MDC.getCopyOfContextMap(), maxRetry, SLEEP_TIME,
+                usingErrorCount ? maxRetryOnError : maxRetry).submit(scheduler);
+    }
+
+    public CompletableFuture<Boolean> submit(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel) {
+        return submit(bootstrap, exitCriteria, exitCriteriaModel, maxRetry, false);
+    }
+
+    /**
+     * Waits for attempts started with {@link #submit}. A failure is thrown as is, the same way as the {@link Callable} of {@link #runner} fails,
+     * so callers can keep handling timeouts and cancellation separately.
+     */
+    public <T> T await(CompletableFuture<T> attempts) throws Exception {
+        try {
+            return attempts.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.states;
+
+import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.LOCAL;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.HostList;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionRunningJobsResponse;
+
+/**
+ * Checks whether salt jobs are still running by asking only their target minions with {@code saltutil.running}, instead of listing every
+ * active job of the master with the {@code jobs.active} runner. The checks of the same master share requests: a check that starts while
+ * another one is in flight waits for it, and is then sent together with every other check that has arrived in the meantime. The request
+ * of a batch always completes it, so a check sharing a failed request fails instead of waiting forever.
+ */
+final class SaltRunningJobsChecker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaltRunningJobsChecker.class);
+
+    private static final long MASTER_EXPIRATION_HOURS = 1L;
+
+    private static final Cache<Object, Master> MASTERS = CacheBuilder.newBuilder().expireAfterAccess(MASTER_EXPIRATION_HOURS, TimeUnit.HOURS).build();
+
+    private SaltRunningJobsChecker() {
+    }
+
+    static boolean isRunning(SaltConnector sc, String jid, Collection<String> targetHostnames) {
+        Object masterKey = Optional.<Object>ofNullable(sc.getGatewayUrl()).orElse(sc);
+        Master master = MASTERS.asMap().computeIfAbsent(masterKey, key -> new Master());
+        return master.getRunningJobIds(sc, targetHostnames).contains(jid);
+    }
+
+    private static class Master {
+
+        private final Lock requestLock = new ReentrantLock();
+
+        private Batch openBatch = new Batch();
+
+        Set<String> getRunningJobIds(SaltConnector sc, Collection<String> targetHostnames) {
+            Batch batch;
+            synchronized (this) {
+                batch = openBatch;
+                batch.targetHostnames.addAll(targetHostnames);
+            }
+            if (batch.claim()) {
+                requestLock.lock();
+                try {
+                    synchronized (this) {
+                        openBatch = new Batch();
+                    }
+                    batch.send(sc);
+                } finally {
+                    requestLock.unlock();
+                }
+            }
+            return batch.getRunningJobIds();
+        }
+    }
+
+    private static class Batch {
+
+        private final Set<String> targetHostnames = new HashSet<>();
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CompletableFuture<Set<String>> runningJobIds = new CompletableFuture<>();
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void send(SaltConnector sc) {
+            try {
+                MinionRunningJobsResponse response = sc.run(new HostList(targetHostnames), "saltutil.running", LOCAL, MinionRunningJobsResponse.class);
+                LOGGER.debug("Running salt jobs on {}: {}", targetHostnames, response.getResult());
+                runningJobIds.complete(response.getRunningJobIds());
+            } catch (RuntimeException e) {
+                runningJobIds.completeExceptionally(e);
+            } finally {
+                if (!runningJobIds.isDone()) {
+                    runningJobIds.completeExceptionally(new IllegalStateException(
+                            String.format("Could not check the running salt jobs on %s", targetHostnames)));
+                }
+            }
+        }
+
+        Set<String> getRunningJobIds() {
+            try {
+                return runningJobIds.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+}
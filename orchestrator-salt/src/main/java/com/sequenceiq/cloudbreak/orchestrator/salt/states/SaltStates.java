@@ -4,6 +4,7 @@ import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.
 import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.LOCAL_ASYNC;
 import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.RUNNER;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -145,6 +146,16 @@ public class SaltStates {
                 TimeUnit.MILLISECONDS.toSeconds(Math.round(sum)));
     }
 
+    /**
+     * Checks only the target minions of the job, together with the checks of other jobs of the same master that run at the same time.
+     */
+    public static boolean jobIsRunning(SaltConnector sc, String jid, Collection<String> targetHostnames) {
+        if (CollectionUtils.isEmpty(targetHostnames)) {
+            return jobIsRunning(sc, jid);
+        }
+        return SaltRunningJobsChecker.isRunning(sc, jid, targetHostnames);
+    }
+
     public static boolean jobIsRunning(SaltConnector sc, String jid) {
         RunningJobsResponse runningInfo = sc.run("jobs.active", RUNNER, RunningJobsResponse.class);
         LOGGER.debug("Active salt jobs: {}", runningInfo);
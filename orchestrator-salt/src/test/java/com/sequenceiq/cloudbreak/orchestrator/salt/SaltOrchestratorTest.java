@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.junit.Before;
@@ -120,6 +121,11 @@ public class SaltOrchestratorTest {
         when(saltRunner.runner(any(OrchestratorBootstrap.class), any(ExitCriteria.class), any(ExitCriteriaModel.class))).thenReturn(callable);
         when(saltRunner.runner(any(OrchestratorBootstrap.class), any(ExitCriteria.class), any(ExitCriteriaModel.class), anyInt(), anyBoolean()))
                 .thenReturn(callable);
+        when(saltRunner.submit(any(OrchestratorBootstrap.class), any(ExitCriteria.class), any(ExitCriteriaModel.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(saltRunner.submit(any(OrchestratorBootstrap.class), any(ExitCriteria.class), any(ExitCriteriaModel.class), anyInt(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(saltRunner.await(any())).thenCallRealMethod();
         when(saltService.createSaltConnector(any())).thenReturn(saltConnector);
         when(saltService.getPrimaryGatewayConfig(anyList())).thenReturn(gatewayConfig);
     }
@@ -11,7 +11,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.junit.jupiter.api.Assertions;
@@ -21,7 +21,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
-import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
 import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
 import com.sequenceiq.cloudbreak.orchestrator.model.Node;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
@@ -58,8 +57,6 @@ class SaltTelemetryOrchestratorTest {
 
     private final ArgumentCaptor<OrchestratorBootstrap> orchestratorBootstrapArgumentCaptor = ArgumentCaptor.forClass(OrchestratorBootstrap.class);
 
-    private final Callable<Boolean> callable = Mockito.mock(Callable.class);
-
     private final ExitCriteriaModel exitCriteriaModel = new ExitCriteriaModel() {
     };
 
@@ -67,11 +64,12 @@ class SaltTelemetryOrchestratorTest {
             MAX_TELEMETRY_STOP_RETRY, MAX_DIAGNOSTICS_COLLECTION_RETRY);
 
     @BeforeEach
-    void setupTest() throws CloudbreakOrchestratorFailedException {
+    void setupTest() throws Exception {
         when(saltService.getPrimaryGatewayConfig(gatewayConfigs)).thenReturn(gatewayConfig);
         when(saltService.createSaltConnector(gatewayConfig)).thenReturn(saltConnector);
-        when(saltRunner.runner(orchestratorBootstrapArgumentCaptor.capture(), any(), any(), anyInt(), anyBoolean()))
-                .thenReturn(callable);
+        when(saltRunner.submit(orchestratorBootstrapArgumentCaptor.capture(), any(), any(), anyInt(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(saltRunner.await(any())).thenCallRealMethod();
     }
 
     @Test
@@ -85,7 +83,7 @@ class SaltTelemetryOrchestratorTest {
 
         Assertions.assertTrue(CollectionUtils.isEqualCollection(targets, saltJobRunner.getAllNode()));
         assertEquals(SaltTelemetryOrchestrator.FILECOLLECTOR_INIT, saltJobRunner.getState());
-        verify(callable, Mockito.times(1)).call();
+        verify(saltRunner, Mockito.times(1)).await(any());
     }
 
     @Test
@@ -99,7 +97,7 @@ class SaltTelemetryOrchestratorTest {
 
         Assertions.assertTrue(CollectionUtils.isEqualCollection(targets, saltJobRunner.getAllNode()));
         assertEquals(SaltTelemetryOrchestrator.FILECOLLECTOR_COLLECT, saltJobRunner.getState());
-        verify(callable, Mockito.times(1)).call();
+        verify(saltRunner, Mockito.times(1)).await(any());
     }
 
     @Test
@@ -113,7 +111,7 @@ class SaltTelemetryOrchestratorTest {
 
         Assertions.assertTrue(CollectionUtils.isEqualCollection(targets, saltJobRunner.getAllNode()));
         assertEquals(SaltTelemetryOrchestrator.FILECOLLECTOR_UPLOAD, saltJobRunner.getState());
-        verify(callable, Mockito.times(1)).call();
+        verify(saltRunner, Mockito.times(1)).await(any());
     }
 
     @Test
@@ -127,7 +125,7 @@ class SaltTelemetryOrchestratorTest {
 
         Assertions.assertTrue(CollectionUtils.isEqualCollection(targets, saltJobRunner.getAllNode()));
         assertEquals(SaltTelemetryOrchestrator.FILECOLLECTOR_CLEANUP, saltJobRunner.getState());
-        verify(callable, Mockito.times(1)).call();
+        verify(saltRunner, Mockito.times(1)).await(any());
     }
 
     private Map<String, Object> getParametersMap() {
@@ -65,7 +65,7 @@ public class SaltJobIdTrackerTest {
         SaltConnector saltConnector = Mockito.mock(SaltConnector.class);
         SaltJobRunner saltJobRunner = Mockito.mock(SaltJobRunner.class);
         PowerMockito.mockStatic(SaltStates.class);
-        PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(true);
+        PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(true);
 
         Set<String> targets = new HashSet<>();
         targets.add("10.0.0.1");
@@ -84,7 +84,7 @@ public class SaltJobIdTrackerTest {
                     containsString("10.0.0.2"), containsString("10.0.0.3")));
         }
         PowerMockito.verifyStatic(SaltStates.class);
-        SaltStates.jobIsRunning(any(), eq(jobId));
+        SaltStates.jobIsRunning(any(), eq(jobId), any());
         checkTargets(targets, targetCaptor.getAllValues());
         verify(saltJobRunner, times(2)).getJobState();
     }
@@ -94,7 +94,7 @@ public class SaltJobIdTrackerTest {
         String jobId = "1";
         SaltConnector saltConnector = Mockito.mock(SaltConnector.class);
         PowerMockito.mockStatic(SaltStates.class);
-        PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(true);
+        PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(true);
 
         SaltJobRunner saltJobRunner = Mockito.mock(BaseSaltJobRunner.class);
         when(saltJobRunner.getJid()).thenReturn(JobId.jobId(jobId));
@@ -149,7 +149,7 @@ public class SaltJobIdTrackerTest {
         when(saltJobRunner.getTargetHostnames()).thenReturn(targets);
 
         PowerMockito.mockStatic(SaltStates.class);
-        PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(true);
+        PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(true);
 
         SaltJobIdTracker saltJobIdTracker = new SaltJobIdTracker(saltConnector, saltJobRunner);
         try {
@@ -160,7 +160,7 @@ public class SaltJobIdTrackerTest {
         }
 
         PowerMockito.verifyStatic(SaltStates.class);
-        SaltStates.jobIsRunning(any(), eq(jobId));
+        SaltStates.jobIsRunning(any(), eq(jobId), any());
         checkTargets(targets, targetCaptor.getAllValues());
     }
 
@@ -187,7 +187,7 @@ public class SaltJobIdTrackerTest {
         when(saltJobRunner.getTargetHostnames()).thenReturn(targets);
 
         PowerMockito.mockStatic(SaltStates.class);
-        PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(false);
+        PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(false);
 
         Multimap<String, String> missingNodesWithReason = ArrayListMultimap.create();
         PowerMockito.when(SaltStates.jidInfo(any(), any(), any(), any())).thenReturn(missingNodesWithReason);
@@ -199,7 +199,7 @@ public class SaltJobIdTrackerTest {
         assertEquals(JobState.FINISHED, saltJobRunner.getJobState());
 
         PowerMockito.verifyStatic(SaltStates.class);
-        SaltStates.jobIsRunning(any(), eq(jobId));
+        SaltStates.jobIsRunning(any(), eq(jobId), any());
         checkTargets(targets, targetCaptor.getAllValues());
     }
 
@@ -232,7 +232,7 @@ public class SaltJobIdTrackerTest {
             when(saltErrorResolver.resolveErrorMessages(missingNodesWithReason)).thenReturn(missingNodesWithReason);
 
             PowerMockito.mockStatic(SaltStates.class);
-            PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(false);
+            PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(false);
             PowerMockito.when(SaltStates.jidInfo(any(SaltConnector.class), anyString(), any(Target.class), any())).thenReturn(missingNodesWithReason);
 
             try {
@@ -244,7 +244,7 @@ public class SaltJobIdTrackerTest {
             }
 
             PowerMockito.verifyStatic(SaltStates.class);
-            SaltStates.jobIsRunning(any(), eq(jobId));
+            SaltStates.jobIsRunning(any(), eq(jobId), any());
             checkTargets(targets, targetCaptor.getAllValues());
         }
     }
@@ -299,7 +299,7 @@ public class SaltJobIdTrackerTest {
             when(saltJobRunner.getTargetHostnames()).thenReturn(targets);
 
             PowerMockito.mockStatic(SaltStates.class);
-            PowerMockito.when(SaltStates.jobIsRunning(any(), any())).thenReturn(false);
+            PowerMockito.when(SaltStates.jobIsRunning(any(), any(), any())).thenReturn(false);
             PowerMockito.when(SaltStates.jidInfo(any(SaltConnector.class), anyString(), any(Target.class), any()))
                     .thenThrow(new RuntimeException("Salt execution went wrong: saltErrorDetails"));
 
@@ -312,7 +312,7 @@ public class SaltJobIdTrackerTest {
             }
 
             PowerMockito.verifyStatic(SaltStates.class);
-            SaltStates.jobIsRunning(any(), eq(jobId));
+            SaltStates.jobIsRunning(any(), eq(jobId), any());
             checkTargets(targets, targetCaptor.getAllValues());
         }
     }
@@ -0,0 +1,84 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorTimeoutException;
+
+public class SaltRunnerTest {
+
+    private static final int MAX_RETRY = 3;
+
+    private final SaltRunner underTest = new SaltRunner();
+
+    private final List<String> attemptThreads = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxRetry", MAX_RETRY);
+        ReflectionTestUtils.setField(underTest, "maxRetryOnError", MAX_RETRY);
+        ReflectionTestUtils.setField(underTest, "schedulerThreads", 1);
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void testComposedAttemptsRunOnTheRetryScheduler() throws Exception {
+        Boolean result = underTest.await(underTest.submit(new RecordingBootstrap(), null, null)
+                .thenCompose(first -> underTest.submit(new RecordingBootstrap(), null, null)));
+
+        assertTrue(result);
+        assertEquals(2, attemptThreads.size());
+        assertTrue(attemptThreads.stream().allMatch(thread -> thread.startsWith("salt-retry-")));
+    }
+
+    @Test
+    public void testAwaitThrowsTheFailureOfAComposedStep() {
+        CloudbreakOrchestratorTimeoutException timeout = new CloudbreakOrchestratorTimeoutException("Timeout", 1L);
+
+        try {
+            underTest.await(CompletableFuture.completedFuture(true).thenCompose(first -> CompletableFuture.<Boolean>failedFuture(timeout)));
+            fail("The failure of the composed step should be thrown");
+        } catch (Exception e) {
+            assertSame(timeout, e);
+        }
+    }
+
+    @Test
+    public void testAwaitThrowsTheFailureOfTheAttempts() {
+        CloudbreakOrchestratorFailedException failure = new CloudbreakOrchestratorFailedException("Failed");
+
+        try {
+            underTest.await(CompletableFuture.<Boolean>failedFuture(failure));
+            fail("The failure of the attempts should be thrown");
+        } catch (Exception e) {
+            assertSame(failure, e);
+        }
+    }
+
+    private class RecordingBootstrap implements OrchestratorBootstrap {
+
+        @Override
+        public Boolean call() {
+            attemptThreads.add(Thread.currentThread().getName());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.states;
+
+import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.LOCAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.HostList;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionRunningJobsResponse;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SaltRunningJobsCheckerTest {
+
+    private static final long TIMEOUT_MILLIS = 5000L;
+
+    private static final String FIRST_HOST = "10-0-0-1.example.com";
+
+    private static final String SECOND_HOST = "10-0-0-2.example.com";
+
+    private static final String THIRD_HOST = "10-0-0-3.example.com";
+
+    @Mock
+    private SaltConnector saltConnector;
+
+    private final CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        when(saltConnector.getGatewayUrl()).thenReturn("https://" + UUID.randomUUID() + ".example.com:9443");
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        releaseFirstRequest.countDown();
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    @Test
+    public void testChecksArrivingDuringARequestAreMergedIntoTheNextOne() throws Exception {
+        when(saltConnector.run(any(HostList.class), eq("saltutil.running"), eq(LOCAL), eq(MinionRunningJobsResponse.class))).thenAnswer(invocation -> {
+            HostList target = invocation.getArgument(0);
+            if (target.getTarget().equals(FIRST_HOST)) {
+                releaseFirstRequest.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                return response(Map.of(FIRST_HOST, List.of()));
+            }
+            return response(Map.of(SECOND_HOST, List.of(job("2")), THIRD_HOST, List.of()));
+        });
+
+        FutureTask<Boolean> first = check("1", FIRST_HOST);
+        awaitWaiting(threads.get(0));
+        FutureTask<Boolean> second = check("2", SECOND_HOST);
+        awaitWaiting(threads.get(1));
+        FutureTask<Boolean> third = check("3", THIRD_HOST);
+        awaitWaiting(threads.get(2));
+        releaseFirstRequest.countDown();
+
+        assertFalse(first.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(second.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(third.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        ArgumentCaptor<HostList> targets = ArgumentCaptor.forClass(HostList.class);
+        verify(saltConnector, times(2)).run(targets.capture(), eq("saltutil.running"), eq(LOCAL), eq(MinionRunningJobsResponse.class));
+        assertEquals(Set.of(FIRST_HOST), hostnames(targets.getAllValues().get(0)));
+        assertEquals(Set.of(SECOND_HOST, THIRD_HOST), hostnames(targets.getAllValues().get(1)));
+    }
+
+    @Test
+    public void testChecksSharingAFailedRequestDoNotWaitForever() throws Exception {
+        when(saltConnector.run(any(HostList.class), eq("saltutil.running"), eq(LOCAL), eq(MinionRunningJobsResponse.class))).thenAnswer(invocation -> {
+            HostList target = invocation.getArgument(0);
+            if (target.getTarget().equals(FIRST_HOST)) {
+                releaseFirstRequest.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                return response(Map.of(FIRST_HOST, List.of()));
+            }
+            throw new NoClassDefFoundError("salt client failed");
+        });
+
+        FutureTask<Boolean> first = check("1", FIRST_HOST);
+        awaitWaiting(threads.get(0));
+        FutureTask<Boolean> second = check("2", SECOND_HOST);
+        awaitWaiting(threads.get(1));
+        FutureTask<Boolean> third = check("3", THIRD_HOST);
+        awaitWaiting(threads.get(2));
+        releaseFirstRequest.countDown();
+
+        assertFalse(first.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertEquals(NoClassDefFoundError.class, failure(second).getClass());
+        Throwable thirdFailure = failure(third);
+        assertEquals(IllegalStateException.class, thirdFailure.getClass());
+        assertTrue(thirdFailure.getMessage().contains(THIRD_HOST));
+    }
+
+    private FutureTask<Boolean> check(String jid, String hostname) {
+        FutureTask<Boolean> check = new FutureTask<>(() -> SaltRunningJobsChecker.isRunning(saltConnector, jid, Set.of(hostname)));
+        Thread thread = new Thread(check, "salt-running-jobs-check-" + jid);
+        thread.start();
+        threads.add(thread);
+        return check;
+    }
+
+    private void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(thread.getName() + " did not start waiting, state: " + thread.getState());
+            }
+            Thread.sleep(1L);
+        }
+    }
+
+    private Throwable failure(FutureTask<Boolean> check) throws Exception {
+        try {
+            check.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("The check should have failed");
+        return null;
+    }
+
+    private Set<String> hostnames(HostList target) {
+        return Set.of(target.getTarget().split(","));
+    }
+
+    private Map<String, Object> job(String jid) {
+        return Map.of("jid", jid, "fun", "state.highstate");
+    }
+
+    private MinionRunningJobsResponse response(Map<String, Object> jobsByMinion) {
+        MinionRunningJobsResponse response = new MinionRunningJobsResponse();
+        response.setResult(List.of(new HashMap<>(jobsByMinion)));
+        return response;
+    }
+}
@@ -53,6 +53,7 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.domain.ApplyResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.CommandExecutionResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.FullNodeResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Minion;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionRunningJobsResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.PackageVersionResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.PingResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.RunningJobsResponse;
@@ -195,6 +196,26 @@ public class SaltStatesTest {
         assertFalse(running);
     }
 
+    @Test
+    public void jobIsRunningOnTargetsTest() {
+        String jid = "3";
+        MinionRunningJobsResponse runningJobsResponse = new MinionRunningJobsResponse();
+        Map<String, Object> jobsByMinion = new HashMap<>();
+        jobsByMinion.put("10-0-0-1.example.com", List.of(Map.of("jid", jid, "fun", "state.highstate")));
+        jobsByMinion.put("10-0-0-2.example.com", List.of());
+        runningJobsResponse.setResult(List.of(jobsByMinion));
+        when(saltConnector.run(any(Target.class), eq("saltutil.running"), eq(LOCAL), eq(MinionRunningJobsResponse.class))).thenReturn(runningJobsResponse);
+        Set<String> targetHostnames = Set.of("10-0-0-1.example.com", "10-0-0-2.example.com");
+
+        assertTrue(SaltStates.jobIsRunning(saltConnector, jid, targetHostnames));
+
+        jobsByMinion.put("10-0-0-1.example.com", List.of());
+        assertFalse(SaltStates.jobIsRunning(saltConnector, jid, targetHostnames));
+        ArgumentCaptor<HostList> targetCaptor = ArgumentCaptor.forClass(HostList.class);
+        verify(saltConnector, times(2)).run(targetCaptor.capture(), eq("saltutil.running"), eq(LOCAL), eq(MinionRunningJobsResponse.class));
+        assertEquals(targetHostnames, Set.of(targetCaptor.getValue().getTarget().split(",")));
+    }
+
     @Test
     public void pingTest() {
         SaltStates.ping(saltConnector, target);
@@ -51,6 +51,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
         "com.sequenceiq.statuschecker",
         "com.sequenceiq.environment.client",
         "com.sequenceiq.cloudbreak.client",
+        "com.sequenceiq.cloudbreak.grpc",
         "com.sequenceiq.cloudbreak.service",
         "com.sequenceiq.cloudbreak.ha.service",
         "com.sequenceiq.cloudbreak.tracing",
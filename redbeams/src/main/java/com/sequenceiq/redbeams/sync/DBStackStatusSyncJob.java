@@ -15,6 +15,7 @@ import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.redbeams.domain.stack.DBStack;
 import com.sequenceiq.redbeams.service.stack.DBStackService;
 import com.sequenceiq.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
 
 public class DBStackStatusSyncJob extends StatusCheckerJob {
 
@@ -38,15 +39,19 @@ public class DBStackStatusSyncJob extends StatusCheckerJob {
 
         if (flowLogService.isOtherFlowRunning(dbStackId)) {
             LOGGER.debug("DBStackStatusCheckerJob cannot run, because flow is running for stack: {}", dbStackId);
+            reportCheckResult(StatusCheckResult.CHANGED);
         } else {
             try {
                 measure(() -> {
                     ThreadBasedUserCrnProvider.doAsInternalActor(() -> {
-                        dbStackStatusSyncService.sync(dbStack);
+                        if (dbStackStatusSyncService.sync(dbStack)) {
+                            reportCheckResult(StatusCheckResult.CHANGED);
+                        }
                     });
                 }, LOGGER, ":::Auto sync::: DB stack sync in {}ms");
             } catch (Exception e) {
                     LOGGER.info(":::Auto sync::: Error occurred during DB sync: {}", e.getMessage(), e);
+                    reportCheckResult(StatusCheckResult.FAILED);
             }
         }
 
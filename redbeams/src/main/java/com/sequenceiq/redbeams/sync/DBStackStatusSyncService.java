@@ -54,9 +54,13 @@ public class DBStackStatusSyncService {
     @Inject
     private DBStackJobService dbStackJobService;
 
-    public void sync(DBStack dbStack) {
+    /**
+     * Updates the status of the DB stack from the provider and returns whether it has changed.
+     */
+    public boolean sync(DBStack dbStack) {
         DetailedDBStackStatus detailedDBStackStatus = getDetailedDBStackStatusFromProvider(dbStack);
         Status status = detailedDBStackStatus.getStatus();
+        boolean changed = false;
 
         if (dbStack.getStatus() != status) {
             if (status == null) {
@@ -66,6 +70,7 @@ public class DBStackStatusSyncService {
                 LOGGER.debug(":::Auto sync::: Update DB Stack Status from '{}' to '{}'", dbStack.getStatus(), status);
 
                 dbStackStatusUpdater.updateStatus(dbStack.getId(), detailedDBStackStatus);
+                changed = true;
             }
         }
 
@@ -74,6 +79,7 @@ public class DBStackStatusSyncService {
 
             dbStackJobService.unschedule(dbStack);
         }
+        return changed;
     }
 
     private DetailedDBStackStatus getDetailedDBStackStatusFromProvider(DBStack dbStack) {
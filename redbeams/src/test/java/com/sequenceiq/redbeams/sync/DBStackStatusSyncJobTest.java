@@ -3,6 +3,7 @@ package com.sequenceiq.redbeams.sync;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.redbeams.domain.stack.DBStack;
 import com.sequenceiq.redbeams.service.stack.DBStackService;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -66,5 +68,26 @@ public class DBStackStatusSyncJobTest {
         victim.executeInternal(jobExecutionContext);
 
         verify(dbStackStatusSyncService).sync(dbStack);
+        assertEquals(StatusCheckResult.UNCHANGED, victim.getCheckResult());
+    }
+
+    @Test
+    public void shouldReportChangeWhenSyncChangedTheStatus() throws JobExecutionException {
+        when(flowLogService.isOtherFlowRunning(DB_STACK_ID)).thenReturn(false);
+        when(dbStackStatusSyncService.sync(dbStack)).thenReturn(true);
+
+        victim.executeInternal(jobExecutionContext);
+
+        assertEquals(StatusCheckResult.CHANGED, victim.getCheckResult());
+    }
+
+    @Test
+    public void shouldReportFailureWhenSyncFails() throws JobExecutionException {
+        when(flowLogService.isOtherFlowRunning(DB_STACK_ID)).thenReturn(false);
+        when(dbStackStatusSyncService.sync(dbStack)).thenThrow(new IllegalStateException("failed"));
+
+        victim.executeInternal(jobExecutionContext);
+
+        assertEquals(StatusCheckResult.FAILED, victim.getCheckResult());
     }
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -134,12 +136,14 @@ public class DBStackStatusSyncServiceTest {
         when(dbStack.getStatus()).thenReturn(savedStatus);
         when(dbStack.getOwnerCrn()).thenReturn(crn);
 
-        victim.sync(dbStack);
+        boolean changed = victim.sync(dbStack);
 
         if (newDetailedDBStackStatus != null && newDetailedDBStackStatus.getStatus() != null) {
             verify(dbStackStatusUpdater).updateStatus(DB_STACK_ID, newDetailedDBStackStatus);
+            assertTrue(changed);
         } else {
             verifyZeroInteractions(dbStackStatusUpdater);
+            assertFalse(changed);
         }
         verifyZeroInteractions(dbStackJobService);
     }
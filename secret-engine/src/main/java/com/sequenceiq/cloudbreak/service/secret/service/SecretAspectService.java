@@ -1,8 +1,12 @@
 package com.sequenceiq.cloudbreak.service.secret.service;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,7 +20,6 @@ import org.springframework.stereotype.Service;
 import com.sequenceiq.cloudbreak.service.secret.domain.AccountIdAwareResource;
 import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
 import com.sequenceiq.cloudbreak.service.secret.SecretOperationException;
-import com.sequenceiq.cloudbreak.service.secret.SecretValue;
 import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 
 @Service
@@ -33,31 +36,14 @@ public class SecretAspectService {
 
     public Object proceedSave(ProceedingJoinPoint proceedingJoinPoint) {
         Collection<Object> entities = convertFirstArgToCollection(proceedingJoinPoint);
-        for (Object entity : entities) {
-            try {
-                for (Field field : entity.getClass().getDeclaredFields()) {
-                    if (field.isAnnotationPresent(SecretValue.class)) {
-                        LOGGER.debug("Found SecretValue annotation on {}", field);
-                        field.setAccessible(true);
-                        Secret value = (Secret) field.get(entity);
-                        if (value != null && value.getRaw() != null && value.getSecret() == null) {
-                            String accountId = findAccountId(entity);
-                            String path = String.format("%s/%s/%s/%s-%s", accountId,
-                                    entity.getClass().getSimpleName().toLowerCase(), field.getName().toLowerCase(),
-                                    UUID.randomUUID().toString(), Long.toHexString(System.currentTimeMillis()));
-                            String secret = secretService.put(path, value.getRaw());
-                            LOGGER.debug("Field: '{}' is saved at path: {}", field.getName(), path);
-                            field.set(entity, new SecretProxy(secretService, secret));
-                        }
-                    }
-                }
-            } catch (IllegalArgumentException e) {
-                LOGGER.error("Given entity isn't instance of TenantAwareResource. Secret is not deleted!", e);
-                throw new SecretOperationException(e);
-            } catch (Exception e) {
-                LOGGER.warn("Looks like something went wrong with Secret store. Secret is not deleted!", e);
-                throw new SecretOperationException(e);
-            }
+        try {
+            storeSecrets(collectNewSecrets(entities));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Given entity isn't instance of TenantAwareResource. Secret is not deleted!", e);
+            throw new SecretOperationException(e);
+        } catch (Exception e) {
+            LOGGER.warn("Looks like something went wrong with Secret store. Secret is not deleted!", e);
+            throw new SecretOperationException(e);
         }
 
         Object proceed;
@@ -78,17 +64,14 @@ public class SecretAspectService {
         Collection<Object> entities = convertFirstArgToCollection(proceedingJoinPoint);
         for (Object entity : entities) {
             try {
-                for (Field field : entity.getClass().getDeclaredFields()) {
-                    if (field.isAnnotationPresent(SecretValue.class)) {
-                        LOGGER.debug("Found SecretValue annotation on {}", field);
-                        field.setAccessible(true);
-                        Secret path = (Secret) field.get(entity);
-                        if (path != null && path.getSecret() != null) {
-                            secretService.delete(path.getSecret());
-                            LOGGER.debug("Secret deleted at path: {}", path);
-                        } else {
-                            LOGGER.debug("Secret is null for field: {}.{}", field.getDeclaringClass(), field.getName());
-                        }
+                for (Field field : SecretValueFields.of(entity.getClass())) {
+                    LOGGER.debug("Found SecretValue annotation on {}", field);
+                    Secret path = (Secret) field.get(entity);
+                    if (path != null && path.getSecret() != null) {
+                        secretService.delete(path.getSecret());
+                        LOGGER.debug("Secret deleted at path: {}", path);
+                    } else {
+                        LOGGER.debug("Secret is null for field: {}.{}", field.getDeclaringClass(), field.getName());
                     }
                 }
             } catch (IllegalArgumentException e) {
@@ -122,6 +105,37 @@ public class SecretAspectService {
         return arg instanceof Collection ? (Collection<Object>) arg : Collections.singleton(arg);
     }
 
+    private List<NewSecret> collectNewSecrets(Collection<Object> entities) throws IllegalAccessException {
+        List<NewSecret> newSecrets = new ArrayList<>();
+        for (Object entity : entities) {
+            for (Field field : SecretValueFields.of(entity.getClass())) {
+                LOGGER.debug("Found SecretValue annotation on {}", field);
+                Secret value = (Secret) field.get(entity);
+                if (value != null && value.getRaw() != null && value.getSecret() == null) {
+                    String accountId = findAccountId(entity);
+                    String path = String.format("%s/%s/%s/%s-%s", accountId,
+                            entity.getClass().getSimpleName().toLowerCase(), field.getName().toLowerCase(),
+                            UUID.randomUUID().toString(), Long.toHexString(System.currentTimeMillis()));
+                    newSecrets.add(new NewSecret(entity, field, path, value.getRaw()));
+                }
+            }
+        }
+        return newSecrets;
+    }
+
+    private void storeSecrets(List<NewSecret> newSecrets) throws Exception {
+        if (newSecrets.isEmpty()) {
+            return;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        newSecrets.forEach(newSecret -> values.put(newSecret.path, newSecret.raw));
+        Map<String, String> secrets = secretService.putAll(values);
+        for (NewSecret newSecret : newSecrets) {
+            newSecret.field.set(newSecret.entity, new SecretProxy(secretService, secrets.get(newSecret.path)));
+            LOGGER.debug("Field: '{}' is saved at path: {}", newSecret.field.getName(), newSecret.path);
+        }
+    }
+
     private String findAccountId(Object entity) {
         return Optional.ofNullable(entity)
                 .filter(e -> e instanceof AccountIdAwareResource)
@@ -132,4 +146,22 @@ public class SecretAspectService {
                     return "undefined";
                 });
     }
+
+    private static class NewSecret {
+
+        private final Object entity;
+
+        private final Field field;
+
+        private final String path;
+
+        private final String raw;
+
+        NewSecret(Object entity, Field field, String path, String raw) {
+            this.entity = entity;
+            this.field = field;
+            this.path = path;
+            this.raw = raw;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.sequenceiq.cloudbreak.service.secret.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.Entity;
+import javax.persistence.Persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
+
+/**
+ * Collects the secrets referenced by the {@link SecretValue} fields of entities. Entities referenced by the given ones are followed up to
+ * {@link #MAX_DEPTH} levels, as long as they are already loaded, so collecting never triggers a database query.
+ */
+class SecretCollector {
+
+    static final int MAX_DEPTH = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecretCollector.class);
+
+    private static final ClassValue<List<Field>> SECRET_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return getFields(type, true);
+        }
+    };
+
+    private static final ClassValue<List<Field>> REFERENCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return getFields(type, false);
+        }
+    };
+
+    private SecretCollector() {
+    }
+
+    static Set<String> collect(Object... entities) {
+        Set<String> secrets = new LinkedHashSet<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object entity : entities) {
+            collect(entity, 0, secrets, visited);
+        }
+        return secrets;
+    }
+
+    private static void collect(Object entity, int depth, Set<String> secrets, Set<Object> visited) {
+        if (entity == null || !visited.add(entity) || !isLoaded(entity)) {
+            return;
+        }
+        try {
+            for (Field field : SECRET_FIELDS.get(entity.getClass())) {
+                Object value = field.get(entity);
+                if (value instanceof SecretProxy && ((SecretProxy) value).getSecret() != null) {
+                    secrets.add(((SecretProxy) value).getSecret());
+                }
+            }
+            if (depth < MAX_DEPTH) {
+                for (Field field : REFERENCE_FIELDS.get(entity.getClass())) {
+                    collectReference(field.get(entity), depth + 1, secrets, visited);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            LOGGER.debug("Failed to collect the secrets of {}", entity.getClass(), e);
+        }
+    }
+
+    private static void collectReference(Object value, int depth, Set<String> secrets, Set<Object> visited) {
+        if (value instanceof Collection) {
+            if (isLoaded(value)) {
+                for (Object element : (Collection<?>) value) {
+                    collectReference(element, depth, secrets, visited);
+                }
+            }
+        } else if (value != null && isEntity(value.getClass())) {
+            collect(value, depth, secrets, visited);
+        }
+    }
+
+    private static List<Field> getFields(Class<?> type, boolean secretFields) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                boolean secretField = field.isAnnotationPresent(SecretValue.class);
+                boolean referenceField = !field.getType().isPrimitive() && (Collection.class.isAssignableFrom(field.getType())
+                        || isEntity(field.getType()));
+                if (secretFields ? secretField : !secretField && referenceField) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            if (clazz.isAnnotationPresent(Entity.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLoaded(Object object) {
+        return Persistence.getPersistenceUtil().isLoaded(object);
+    }
+}
@@ -0,0 +1,108 @@
+package com.sequenceiq.cloudbreak.service.secret.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Memoizes the secrets read from the secret store while it is open on the current thread, typically for the lifetime of a request or a
+ * conversion of an entity graph. Opening a scope while another one is open on the same thread joins the outer scope, closing the joined
+ * scope has no effect.
+ * <pre>
+ * try (SecretResolutionScope scope = secretService.openResolutionScope()) {
+ *     secretService.prefetch(cluster, cluster.getGateway());
+ *     ...
+ * }
+ * </pre>
+ */
+public class SecretResolutionScope implements AutoCloseable {
+
+    private static final ThreadLocal<SecretResolutionScope> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Optional<String>> secrets;
+
+    private final LongAdder vaultReads;
+
+    private final LongAdder vaultReadMillis;
+
+    private final LongAdder memoizedReads;
+
+    private final Consumer<SecretResolutionScope> closeListener;
+
+    private SecretResolutionScope(Consumer<SecretResolutionScope> closeListener) {
+        secrets = new ConcurrentHashMap<>();
+        vaultReads = new LongAdder();
+        vaultReadMillis = new LongAdder();
+        memoizedReads = new LongAdder();
+        this.closeListener = closeListener;
+    }
+
+    private SecretResolutionScope(SecretResolutionScope outer) {
+        secrets = outer.secrets;
+        vaultReads = outer.vaultReads;
+        vaultReadMillis = outer.vaultReadMillis;
+        memoizedReads = outer.memoizedReads;
+        closeListener = null;
+    }
+
+    static SecretResolutionScope open(Consumer<SecretResolutionScope> closeListener) {
+        SecretResolutionScope current = CURRENT.get();
+        if (current != null) {
+            return new SecretResolutionScope(current);
+        }
+        SecretResolutionScope scope = new SecretResolutionScope(closeListener);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static Optional<SecretResolutionScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    String resolve(String secret, Function<String, String> reader) {
+        Optional<String> value = secrets.get(secret);
+        if (value != null) {
+            memoizedReads.increment();
+            return value.orElse(null);
+        }
+        long start = System.currentTimeMillis();
+        String read = reader.apply(secret);
+        vaultReadMillis.add(System.currentTimeMillis() - start);
+        vaultReads.increment();
+        secrets.putIfAbsent(secret, Optional.ofNullable(read));
+        return read;
+    }
+
+    boolean isResolved(String secret) {
+        return secrets.containsKey(secret);
+    }
+
+    void evict(String secret) {
+        if (secret != null) {
+            secrets.remove(secret);
+        }
+    }
+
+    public long getVaultReads() {
+        return vaultReads.sum();
+    }
+
+    public long getVaultReadMillis() {
+        return vaultReadMillis.sum();
+    }
+
+    public long getMemoizedReads() {
+        return memoizedReads.sum();
+    }
+
+    @Override
+    public void close() {
+        if (closeListener != null) {
+            CURRENT.remove();
+            closeListener.accept(this);
+        }
+    }
+}
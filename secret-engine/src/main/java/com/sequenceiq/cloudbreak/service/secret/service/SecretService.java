@@ -2,12 +2,20 @@ package com.sequenceiq.cloudbreak.service.secret.service;
 
 import static java.lang.String.format;
 
-import java.security.InvalidKeyException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +24,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
@@ -43,6 +52,11 @@ public class SecretService {
 
     private VaultRetryService vaultRetryService;
 
+    @Value("${vault.request.parallelism:8}")
+    private int requestParallelism;
+
+    private ExecutorService requestExecutor;
+
     public SecretService(MetricService metricService, List<SecretEngine> engines, VaultRetryService vaultRetryService) {
         this.metricService = metricService;
         this.engines = engines;
@@ -55,33 +69,106 @@ public class SecretService {
             persistentEngine = engines.stream().filter(e -> e.getClass().getCanonicalName().startsWith(engineClass)).findFirst()
                     .orElseThrow(() -> new RuntimeException(format("Selected secret engine (%s) is not found, please check secret.engine", engineClass)));
         }
+        requestExecutor = Executors.newFixedThreadPool(Math.max(1, requestParallelism), new ThreadFactoryBuilder()
+                .setNameFormat("secret-request-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens a scope on the current thread in which every secret is read from the secret store at most once. Close it at the end of the
+     * request, preferably with try-with-resources. The number and the total duration of the reads in the scope are submitted as metrics.
+     */
+    public SecretResolutionScope openResolutionScope() {
+        return SecretResolutionScope.open(scope -> {
+            metricService.submit(MetricType.VAULT_READ_PER_REQUEST, scope.getVaultReads());
+            metricService.submit(MetricType.VAULT_READ_DURATION_PER_REQUEST, scope.getVaultReadMillis());
+            LOGGER.debug("Secret resolution scope closed with {} secret reads in {} ms, {} reads were memoized",
+                    scope.getVaultReads(), scope.getVaultReadMillis(), scope.getMemoizedReads());
+        });
+    }
+
+    /**
+     * Reads the secrets of the {@link com.sequenceiq.cloudbreak.service.secret.SecretValue} fields of the entities, and of the loaded
+     * entities they reference, concurrently into the scope opened on the current thread, so that accessing them later doesn't need a call
+     * to the secret store. Does nothing if there is no scope open. Failures are only logged, as they are reported when the secret is used.
+     *
+     * @param entities the entities whose secrets are needed
+     */
+    public void prefetch(Object... entities) {
+        Optional<SecretResolutionScope> scope = SecretResolutionScope.current();
+        if (scope.isEmpty()) {
+            LOGGER.debug("There is no secret resolution scope open, secrets are not prefetched");
+            return;
+        }
+        List<String> secrets = SecretCollector.collect(entities).stream()
+                .filter(secret -> !scope.get().isResolved(secret) && isSecret(secret))
+                .collect(Collectors.toList());
+        LOGGER.debug("Prefetching {} secrets", secrets.size());
+        Executor executor = getExecutor(secrets.size());
+        List<CompletableFuture<String>> reads = secrets.stream()
+                .map(secret -> CompletableFuture.supplyAsync(() -> scope.get().resolve(secret, this::read), executor))
+                .collect(Collectors.toList());
+        try {
+            CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            LOGGER.warn("Failed to prefetch secrets", e.getCause());
+        }
     }
 
     /**
-     * Stores a secret in Secret's key-value store.
+     * Stores a secret in Secret's key-value store. The secret engine refuses to overwrite an existing secret if it supports check-and-set.
      *
      * @param key   Path where the secret will be stored
      * @param value Secret content
-     * @throws Exception is thrown in case the key-value key is already contains a secret
+     * @throws Exception is thrown in case the secret could not be stored
      */
     public String put(String key, String value) throws Exception {
         long start = System.currentTimeMillis();
-        boolean exists = vaultRetryService.tryReadingVault(() -> persistentEngine.isExists(key));
-        long duration = System.currentTimeMillis() - start;
-        metricService.submit(MetricType.VAULT_READ, duration);
-        LOGGER.trace("Secret read took {} ms", duration);
-        if (exists) {
-            throw new InvalidKeyException(format("Key: %s already exists!", key));
-        }
-        start = System.currentTimeMillis();
         String secret = vaultRetryService.tryWritingVault(() -> persistentEngine.put(key, value));
-        duration = System.currentTimeMillis() - start;
+        long duration = System.currentTimeMillis() - start;
         metricService.submit(MetricType.VAULT_WRITE, duration);
         LOGGER.trace("Secret write took {} ms", duration);
         metricService.incrementMetricCounter(() -> "secret.write." + convertSecretToMetric(secret));
+        SecretResolutionScope.current().ifPresent(scope -> scope.evict(secret));
         return secret;
     }
 
+    /**
+     * Stores the secrets concurrently in Secret's key-value store.
+     *
+     * @param values Secret contents by the paths where they will be stored
+     * @return the stored secrets by their paths
+     * @throws Exception is thrown in case any of the secrets could not be stored, the others are still stored
+     */
+    public Map<String, String> putAll(Map<String, String> values) throws Exception {
+        Executor executor = getExecutor(values.size());
+        Map<String, CompletableFuture<String>> writes = new LinkedHashMap<>();
+        values.forEach((key, value) -> writes.put(key, CompletableFuture.supplyAsync(() -> {
+            try {
+                return put(key, value);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor)));
+        Map<String, String> secrets = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<String>> write : writes.entrySet()) {
+                secrets.put(write.getKey(), write.getValue().join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        return secrets;
+    }
+
     /**
      * Fetches the secret from Secret's store. If the secret is not found then null is returned.
      * If the secret is null then null is returned.
@@ -93,6 +180,11 @@ public class SecretService {
         if (secret == null) {
             return null;
         }
+        Optional<SecretResolutionScope> scope = SecretResolutionScope.current();
+        return scope.isPresent() ? scope.get().resolve(secret, this::read) : read(secret);
+    }
+
+    private String read(String secret) {
         metricService.incrementMetricCounter(() -> "secret.read." + convertSecretToMetric(secret));
         long start = System.currentTimeMillis();
 
@@ -136,6 +228,7 @@ public class SecretService {
      * @param secret Key-value secret in Secret
      */
     public void delete(String secret) {
+        SecretResolutionScope.current().ifPresent(scope -> scope.evict(secret));
         metricService.incrementMetricCounter(() -> "secret.delete." + convertSecretToMetric(secret));
         long start = System.currentTimeMillis();
         engines.stream()
@@ -180,6 +273,10 @@ public class SecretService {
                 .orElse(null);
     }
 
+    private Executor getExecutor(int requests) {
+        return requestExecutor == null || requests < 2 ? Runnable::run : requestExecutor;
+    }
+
     private String convertSecretToMetric(String secret) {
         return getFirstEngineStream(secret)
                 .map(e -> e.scarifySecret(secret))
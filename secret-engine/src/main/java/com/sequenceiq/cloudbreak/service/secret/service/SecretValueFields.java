@@ -0,0 +1,35 @@
+package com.sequenceiq.cloudbreak.service.secret.service;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+
+/**
+ * The fields annotated with {@link SecretValue} declared by a class, looked up once per class and made accessible.
+ */
+public final class SecretValueFields {
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(SecretValue.class)) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return Collections.unmodifiableList(fields);
+        }
+    };
+
+    private SecretValueFields() {
+    }
+
+    public static List<Field> of(Class<?> type) {
+        return FIELDS.get(type);
+    }
+}
@@ -65,7 +65,7 @@ public class VaultKvV1Engine extends AbstractVaultEngine<VaultKvV1Engine> {
     }
 
     @Override
-    @CacheEvict(cacheNames = "vaultCache", allEntries = true)
+    @CacheEvict(cacheNames = "vaultCache", key = "#secret")
     public void delete(String secret) {
         Optional.ofNullable(convertToVaultSecret(secret)).ifPresent(s -> template.delete(s.getPath()));
     }
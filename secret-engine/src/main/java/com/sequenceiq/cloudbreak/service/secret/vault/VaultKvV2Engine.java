@@ -3,6 +3,7 @@ package com.sequenceiq.cloudbreak.service.secret.vault;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.validation.constraints.NotNull;
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
+import org.springframework.vault.VaultException;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.Versioned;
 
@@ -38,11 +40,25 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
         this.template = template;
     }
 
+    /**
+     * Stores the secret with check-and-set version 0, so Vault refuses to overwrite an existing secret without a separate existence check.
+     * If the write fails because the secret already exists with the same value, e.g. the response of a previous attempt was lost, the
+     * write is considered successful.
+     */
     @Override
     public String put(String path, String value) {
         LOGGER.info("Storing secret to {}", path);
         VaultSecret secret = convertToVaultSecret(enginePath, appPath + path);
-        template.opsForVersionedKeyValue(enginePath).put(secret.getPath(), Collections.singletonMap("secret", value));
+        Map<String, String> data = Collections.singletonMap("secret", value);
+        try {
+            template.opsForVersionedKeyValue(enginePath).put(secret.getPath(), Versioned.create(data, Versioned.Version.unversioned()));
+        } catch (VaultException e) {
+            Versioned<Map<String, Object>> stored = template.opsForVersionedKeyValue(enginePath).get(secret.getPath());
+            if (stored == null || stored.getData() == null || !Objects.equals(value, stored.getData().get("secret"))) {
+                throw e;
+            }
+            LOGGER.debug("Secret is already stored at {}", path);
+        }
         return gson().toJson(secret);
     }
 
@@ -64,7 +80,7 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
     }
 
     @Override
-    @CacheEvict(cacheNames = "vaultCache", allEntries = true)
+    @CacheEvict(cacheNames = "vaultCache", key = "#secret")
     public void delete(String secret) {
         Optional.ofNullable(convertToVaultSecret(secret)).ifPresent(s -> deleteAllVersionsOfSecret(s.getEnginePath(), s.getPath()));
     }
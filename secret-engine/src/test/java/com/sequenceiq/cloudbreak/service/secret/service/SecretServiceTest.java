@@ -4,14 +4,21 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
-import java.security.InvalidKeyException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.persistence.Entity;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,7 +34,11 @@ import org.springframework.util.ReflectionUtils;
 import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
+import com.sequenceiq.cloudbreak.service.Retry;
 import com.sequenceiq.cloudbreak.service.secret.SecretEngine;
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
+import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SecretServiceTest {
@@ -62,27 +73,21 @@ public class SecretServiceTest {
     }
 
     @Test
-    public void testPutExists() throws Exception {
-        when(persistentEngine.isExists(anyString())).thenReturn(true);
+    public void testPutFailed() throws Exception {
+        doThrow(new Retry.ActionFailedException("check-and-set failed")).when(vaultRetryService).tryWritingVault(any());
 
-        thrown.expect(InvalidKeyException.class);
+        thrown.expect(Retry.ActionFailedException.class);
 
-        try {
-            underTest.put("key", "value");
-        } catch (InvalidKeyException e) {
-            verify(metricService, times(1)).submit(eq(MetricType.VAULT_READ), anyDouble());
-            throw e;
-        }
+        underTest.put("key", "value");
     }
 
     @Test
     public void testPutOk() throws Exception {
         when(persistentEngine.put("key", "value")).thenReturn("secret");
-        when(persistentEngine.isExists("key")).thenReturn(false);
 
         String result = underTest.put("key", "value");
 
-        verify(metricService, times(1)).submit(eq(MetricType.VAULT_READ), anyDouble());
+        verify(persistentEngine, never()).isExists(anyString());
         verify(persistentEngine, times(1)).put(eq("key"), eq("value"));
         verify(metricService, times(1)).submit(eq(MetricType.VAULT_WRITE), anyDouble());
         verify(metricService, times(1)).incrementMetricCounter(any(Metric.class));
@@ -90,6 +95,43 @@ public class SecretServiceTest {
         Assert.assertEquals("secret", result);
     }
 
+    @Test
+    public void testPutAll() throws Exception {
+        underTest.init();
+        when(persistentEngine.put(anyString(), anyString())).then(i -> "secret-" + i.getArgument(0));
+        Map<String, String> values = new LinkedHashMap<>();
+        IntStream.range(0, 20).forEach(i -> values.put("key" + i, "value" + i));
+
+        Map<String, String> result = underTest.putAll(values);
+
+        Assert.assertEquals(List.copyOf(values.keySet()), List.copyOf(result.keySet()));
+        values.keySet().forEach(key -> Assert.assertEquals("secret-" + key, result.get(key)));
+        verify(persistentEngine, times(20)).put(anyString(), anyString());
+        underTest.destroy();
+    }
+
+    @Test
+    public void testPutAllFailed() throws Exception {
+        underTest.init();
+        when(persistentEngine.put(anyString(), anyString())).thenReturn("secret");
+        when(persistentEngine.put(eq("key1"), anyString())).thenThrow(new IllegalStateException("failed"));
+        doAnswer(i -> {
+            try {
+                return ((Supplier) i.getArgument(0)).get();
+            } catch (IllegalStateException e) {
+                throw new Retry.ActionFailedException(e.getMessage());
+            }
+        }).when(vaultRetryService).tryWritingVault(any());
+
+        thrown.expect(Retry.ActionFailedException.class);
+
+        try {
+            underTest.putAll(Map.of("key0", "value0", "key1", "value1"));
+        } finally {
+            underTest.destroy();
+        }
+    }
+
     @Test
     public void testGetNullSecret() {
         Assert.assertNull(underTest.get(null));
@@ -138,4 +180,90 @@ public class SecretServiceTest {
         verify(persistentEngine, times(1)).delete(anyString());
         verify(metricService, times(1)).submit(eq(MetricType.VAULT_WRITE), anyDouble());
     }
+
+    @Test
+    public void testGetIsMemoizedInResolutionScope() {
+        when(persistentEngine.get("secret")).thenReturn("value");
+
+        try (SecretResolutionScope scope = underTest.openResolutionScope()) {
+            Assert.assertEquals("value", underTest.get("secret"));
+            Assert.assertEquals("value", underTest.get("secret"));
+            Assert.assertEquals(1L, scope.getVaultReads());
+            Assert.assertEquals(1L, scope.getMemoizedReads());
+        }
+        underTest.get("secret");
+
+        verify(persistentEngine, times(2)).get("secret");
+        verify(metricService, times(1)).submit(eq(MetricType.VAULT_READ_PER_REQUEST), eq(1.0));
+        verify(metricService, times(1)).submit(eq(MetricType.VAULT_READ_DURATION_PER_REQUEST), anyDouble());
+    }
+
+    @Test
+    public void testNestedResolutionScopeJoinsTheOuterOne() {
+        when(persistentEngine.get("secret")).thenReturn("value");
+
+        try (SecretResolutionScope outer = underTest.openResolutionScope()) {
+            try (SecretResolutionScope inner = underTest.openResolutionScope()) {
+                underTest.get("secret");
+            }
+            underTest.get("secret");
+            Assert.assertEquals(1L, outer.getVaultReads());
+        }
+
+        verify(persistentEngine, times(1)).get("secret");
+        verify(metricService, times(1)).submit(eq(MetricType.VAULT_READ_PER_REQUEST), anyDouble());
+    }
+
+    @Test
+    public void testDeleteEvictsTheSecretFromResolutionScope() {
+        when(persistentEngine.get("secret")).thenReturn("value");
+
+        try (SecretResolutionScope scope = underTest.openResolutionScope()) {
+            underTest.get("secret");
+            underTest.delete("secret");
+            underTest.get("secret");
+        }
+
+        verify(persistentEngine, times(2)).get("secret");
+    }
+
+    @Test
+    public void testPrefetchReadsTheSecretsOfReferencedEntities() {
+        when(persistentEngine.get("parent")).thenReturn("parentValue");
+        when(persistentEngine.get("child")).thenReturn("childValue");
+        TestEntity child = new TestEntity(new SecretProxy(underTest, "child"), null);
+        TestEntity parent = new TestEntity(new SecretProxy(underTest, "parent"), child);
+
+        try (SecretResolutionScope scope = underTest.openResolutionScope()) {
+            underTest.prefetch(parent);
+            Assert.assertEquals(2L, scope.getVaultReads());
+            Assert.assertEquals("parentValue", parent.secret.getRaw());
+            Assert.assertEquals("childValue", child.secret.getRaw());
+            Assert.assertEquals(2L, scope.getVaultReads());
+        }
+
+        verify(persistentEngine, times(1)).get("parent");
+        verify(persistentEngine, times(1)).get("child");
+    }
+
+    @Test
+    public void testPrefetchWithoutResolutionScope() {
+        underTest.prefetch(new TestEntity(new SecretProxy(underTest, "secret"), null));
+
+        verify(persistentEngine, never()).get(anyString());
+    }
+
+    @Entity
+    private static class TestEntity {
+
+        @SecretValue
+        private final Secret secret;
+
+        private final TestEntity child;
+
+        TestEntity(Secret secret, TestEntity child) {
+            this.secret = secret;
+            this.child = child;
+        }
+    }
 }
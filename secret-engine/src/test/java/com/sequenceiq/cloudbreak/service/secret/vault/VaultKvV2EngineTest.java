@@ -1,6 +1,9 @@
 package com.sequenceiq.cloudbreak.service.secret.vault;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -10,9 +13,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.vault.VaultException;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.core.VaultVersionedKeyValueOperations;
 import org.springframework.vault.support.Versioned;
@@ -116,4 +122,45 @@ public class VaultKvV2EngineTest {
         Assert.assertEquals(secret.getEnginePath(), actual.getEnginePath());
         Assert.assertEquals(secret.getPath(), actual.getSecretPath());
     }
+
+    @Test
+    public void testPutWithCheckAndSet() {
+        setPaths();
+
+        String result = underTest.put("foo/bar", "value");
+
+        ArgumentCaptor<Versioned<Map<String, String>>> body = ArgumentCaptor.forClass(Versioned.class);
+        verify(vaultVersionedKeyValueOperations).put(eq("cb/foo/bar"), body.capture());
+        Assert.assertEquals(Versioned.Version.unversioned(), body.getValue().getVersion());
+        Assert.assertEquals("value", body.getValue().getData().get("secret"));
+        Assert.assertEquals("cb/foo/bar", gson.fromJson(result, VaultSecret.class).getPath());
+    }
+
+    @Test
+    public void testPutCheckAndSetFailedWithSameValue() {
+        setPaths();
+        when(vaultVersionedKeyValueOperations.put(anyString(), any())).thenThrow(new VaultException("check-and-set parameter did not match"));
+        when(vaultResponse.getData()).thenReturn(Collections.singletonMap("secret", "value"));
+        when(vaultVersionedKeyValueOperations.get("cb/foo/bar")).thenReturn(vaultResponse);
+
+        String result = underTest.put("foo/bar", "value");
+
+        Assert.assertEquals("cb/foo/bar", gson.fromJson(result, VaultSecret.class).getPath());
+    }
+
+    @Test(expected = VaultException.class)
+    public void testPutCheckAndSetFailedWithOtherValue() {
+        setPaths();
+        when(vaultVersionedKeyValueOperations.put(anyString(), any())).thenThrow(new VaultException("check-and-set parameter did not match"));
+        when(vaultResponse.getData()).thenReturn(Collections.singletonMap("secret", "other"));
+        when(vaultVersionedKeyValueOperations.get("cb/foo/bar")).thenReturn(vaultResponse);
+
+        underTest.put("foo/bar", "value");
+    }
+
+    private void setPaths() {
+        ReflectionTestUtils.setField(underTest, "enginePath", "secret");
+        ReflectionTestUtils.setField(underTest, "appPath", "cb/");
+        ReflectionTestUtils.setField(underTest, "maxSecretPathLength", 255);
+    }
 }
@@ -18,9 +18,33 @@ public class StatusCheckerProperties {
     @Value("${statuschecker.enabled:true}")
     private boolean autoSyncEnabled;
 
+    @Value("${statuschecker.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${statuschecker.adaptive.min.intervalsec:60}")
+    private int minIntervalInSeconds;
+
+    @Value("${statuschecker.adaptive.max.intervalsec:1800}")
+    private int maxIntervalInSeconds;
+
+    @Value("${statuschecker.adaptive.backoff.multiplier:1.5}")
+    private double backoffMultiplier;
+
+    @Value("${statuschecker.adaptive.jitter.percent:20}")
+    private int jitterPercent;
+
+    @Value("${statuschecker.max.concurrent.checks:0}")
+    private int maxConcurrentChecks;
+
+    @Value("${statuschecker.max.checks.per.second:0}")
+    private double maxChecksPerSecond;
+
     @PostConstruct
     void logEnablement() {
         LOGGER.info("Auto sync is {}", autoSyncEnabled ? "enabled" : "disabled");
+        if (adaptiveEnabled) {
+            LOGGER.info("Adaptive auto sync scheduling is enabled, interval range: {}s - {}s", minIntervalInSeconds, maxIntervalInSeconds);
+        }
     }
 
     public boolean isAutoSyncEnabled() {
@@ -30,4 +54,32 @@ public class StatusCheckerProperties {
     public int getIntervalInSeconds() {
         return intervalInSeconds;
     }
+
+    public boolean isAdaptiveEnabled() {
+        return adaptiveEnabled;
+    }
+
+    public int getMinIntervalInSeconds() {
+        return minIntervalInSeconds;
+    }
+
+    public int getMaxIntervalInSeconds() {
+        return maxIntervalInSeconds;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public int getJitterPercent() {
+        return jitterPercent;
+    }
+
+    public int getMaxConcurrentChecks() {
+        return maxConcurrentChecks;
+    }
+
+    public double getMaxChecksPerSecond() {
+        return maxChecksPerSecond;
+    }
 }
@@ -2,12 +2,16 @@ package com.sequenceiq.statuschecker.job;
 
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+
 public abstract class StatusCheckerJob extends QuartzJobBean {
 
     private String localId;
 
     private String remoteResourceCrn;
 
+    private StatusCheckResult checkResult = StatusCheckResult.UNCHANGED;
+
     public String getLocalId() {
         return localId;
     }
@@ -23,4 +27,16 @@ public abstract class StatusCheckerJob extends QuartzJobBean {
     public void setRemoteResourceCrn(String remoteResourceCrn) {
         this.remoteResourceCrn = remoteResourceCrn;
     }
+
+    public StatusCheckResult getCheckResult() {
+        return checkResult;
+    }
+
+    /**
+     * Reports the outcome of the check, the next check of the resource is scheduled from it. A check that does not report anything counts as
+     * {@link StatusCheckResult#UNCHANGED}.
+     */
+    protected void reportCheckResult(StatusCheckResult checkResult) {
+        this.checkResult = checkResult;
+    }
 }
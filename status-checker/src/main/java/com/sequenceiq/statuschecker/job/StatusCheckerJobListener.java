@@ -0,0 +1,96 @@
+package com.sequenceiq.statuschecker.job;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+import com.sequenceiq.statuschecker.service.JobService;
+import com.sequenceiq.statuschecker.service.StatusCheckLimiter;
+
+/**
+ * Wraps every execution of the {@link StatusCheckerJob}s. A check is vetoed and deferred if the {@link StatusCheckLimiter} does not let it
+ * run, and after the check the next one is scheduled from the result the job reported. A job that throws counts as
+ * {@link StatusCheckResult#FAILED}.
+ */
+@Component
+public class StatusCheckerJobListener implements JobListener, TriggerListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatusCheckerJobListener.class);
+
+    private static final String NAME = "statusCheckerJobListener";
+
+    @Inject
+    private Scheduler scheduler;
+
+    @Inject
+    private StatusCheckLimiter statusCheckLimiter;
+
+    @Inject
+    private JobService jobService;
+
+    @PostConstruct
+    public void register() throws SchedulerException {
+        scheduler.getListenerManager().addJobListener(this);
+        scheduler.getListenerManager().addTriggerListener(this);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+        if (isStatusCheck(context) && !statusCheckLimiter.tryAcquire()) {
+            LOGGER.debug("Status check of {} is deferred, the limit of status checks is reached", trigger.getJobKey().getName());
+            jobService.deferCheck(context);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+        if (isStatusCheck(context)) {
+            statusCheckLimiter.release();
+            StatusCheckResult result = jobException == null ? ((StatusCheckerJob) context.getJobInstance()).getCheckResult() : StatusCheckResult.FAILED;
+            jobService.rescheduleAfterCheck(context, result);
+        }
+    }
+
+    @Override
+    public void jobToBeExecuted(JobExecutionContext context) {
+    }
+
+    @Override
+    public void jobExecutionVetoed(JobExecutionContext context) {
+    }
+
+    @Override
+    public void triggerFired(Trigger trigger, JobExecutionContext context) {
+    }
+
+    @Override
+    public void triggerMisfired(Trigger trigger) {
+    }
+
+    @Override
+    public void triggerComplete(Trigger trigger, JobExecutionContext context, CompletedExecutionInstruction triggerInstructionCode) {
+    }
+
+    private boolean isStatusCheck(JobExecutionContext context) {
+        return context.getJobInstance() instanceof StatusCheckerJob;
+    }
+}
@@ -0,0 +1,7 @@
+package com.sequenceiq.statuschecker.model;
+
+public enum StatusCheckResult {
+    UNCHANGED,
+    CHANGED,
+    FAILED
+}
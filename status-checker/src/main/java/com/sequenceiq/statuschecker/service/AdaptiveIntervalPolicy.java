@@ -0,0 +1,51 @@
+package com.sequenceiq.statuschecker.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.statuschecker.configuration.StatusCheckerProperties;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+
+/**
+ * Calculates the check interval of a resource from the result of its last check. The interval of a resource that did not change grows by
+ * {@code statuschecker.adaptive.backoff.multiplier} up to {@code statuschecker.adaptive.max.intervalsec}. A state change drops it to
+ * {@code statuschecker.adaptive.min.intervalsec}, and a failed check brings it back to at most {@code statuschecker.intervalsec}. Every
+ * delay is spread by {@code statuschecker.adaptive.jitter.percent}, so the checks of resources scheduled together drift apart.
+ */
+@Component
+public class AdaptiveIntervalPolicy {
+
+    private static final double PERCENT = 100.0;
+
+    private static final long MILLIS_IN_SECOND = 1000L;
+
+    @Inject
+    private StatusCheckerProperties properties;
+
+    public int nextInterval(int currentIntervalInSeconds, StatusCheckResult result) {
+        int minInterval = properties.getMinIntervalInSeconds();
+        int maxInterval = Math.max(minInterval, properties.getMaxIntervalInSeconds());
+        int nextInterval;
+        switch (result) {
+            case CHANGED:
+                nextInterval = minInterval;
+                break;
+            case FAILED:
+                nextInterval = Math.min(currentIntervalInSeconds, properties.getIntervalInSeconds());
+                break;
+            default:
+                nextInterval = (int) Math.ceil(currentIntervalInSeconds * properties.getBackoffMultiplier());
+                break;
+        }
+        return Math.max(minInterval, Math.min(maxInterval, nextInterval));
+    }
+
+    public long jitteredDelayInMillis(int intervalInSeconds) {
+        double jitter = properties.getJitterPercent() / PERCENT;
+        double factor = jitter > 0 ? ThreadLocalRandom.current().nextDouble(1 - jitter, 1 + jitter) : 1;
+        return Math.max(MILLIS_IN_SECOND, Math.round(intervalInSeconds * MILLIS_IN_SECOND * factor));
+    }
+}
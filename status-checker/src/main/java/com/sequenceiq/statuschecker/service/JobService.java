@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.security.SecureRandom;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.Random;
@@ -14,6 +15,7 @@ import org.quartz.Job;
 import org.quartz.JobBuilder;
 import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
@@ -27,6 +29,7 @@ import org.springframework.stereotype.Service;
 
 import com.sequenceiq.statuschecker.configuration.StatusCheckerProperties;
 import com.sequenceiq.statuschecker.model.JobResourceAdapter;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
 
 @Service
 public class JobService {
@@ -39,6 +42,8 @@ public class JobService {
 
     public static final String REMOTE_RESOURCE_CRN = "remoteResourceCrn";
 
+    public static final String CHECK_INTERVAL = "checkIntervalSec";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(JobService.class);
 
     private static final int RANDOM_DELAY = 120;
@@ -54,9 +59,12 @@ public class JobService {
     @Inject
     private ApplicationContext applicationContext;
 
+    @Inject
+    private AdaptiveIntervalPolicy adaptiveIntervalPolicy;
+
     public <T> void schedule(JobResourceAdapter<T> resource) {
         JobDetail jobDetail = buildJobDetail(resource.getLocalId(), resource.getRemoteResourceId(), resource.getJobClassForResource());
-        Trigger trigger = buildJobTrigger(jobDetail);
+        Trigger trigger = buildJobTrigger(jobDetail.getKey(), properties.getIntervalInSeconds(), delayedFirstStart());
         try {
             if (scheduler.getJobDetail(JobKey.jobKey(resource.getLocalId(), JOB_GROUP)) != null) {
                 unschedule(resource.getLocalId());
@@ -85,6 +93,27 @@ public class JobService {
         }
     }
 
+    /**
+     * Moves the next check of the resource according to the result of the current one when adaptive scheduling is enabled.
+     */
+    public void rescheduleAfterCheck(JobExecutionContext context, StatusCheckResult result) {
+        if (properties.isAdaptiveEnabled()) {
+            Trigger trigger = context.getTrigger();
+            int nextInterval = adaptiveIntervalPolicy.nextInterval(getCheckInterval(trigger), result);
+            LOGGER.debug("Check of {} {}, next check in about {}s", trigger.getJobKey().getName(), result, nextInterval);
+            reschedule(trigger, nextInterval, adaptiveIntervalPolicy.jitteredDelayInMillis(nextInterval));
+        }
+    }
+
+    /**
+     * Retries a check that could not run because of the check limits after the minimum interval, without changing the interval of the resource.
+     * This happens with and without adaptive scheduling, otherwise a vetoed check would only run again a full interval later.
+     */
+    public void deferCheck(JobExecutionContext context) {
+        Trigger trigger = context.getTrigger();
+        reschedule(trigger, getCheckInterval(trigger), adaptiveIntervalPolicy.jitteredDelayInMillis(properties.getMinIntervalInSeconds()));
+    }
+
     public void deleteAll() {
         try {
             scheduler.clear();
@@ -107,14 +136,29 @@ public class JobService {
                 .build();
     }
 
-    private Trigger buildJobTrigger(JobDetail jobDetail) {
+    private void reschedule(Trigger trigger, int intervalInSeconds, long delayInMillis) {
+        Date startAt = Date.from(Instant.now().plusMillis(delayInMillis));
+        try {
+            scheduler.rescheduleJob(trigger.getKey(), buildJobTrigger(trigger.getJobKey(), intervalInSeconds, startAt));
+        } catch (SchedulerException e) {
+            LOGGER.error(String.format("Error during rescheduling quartz job: %s", trigger.getJobKey().getName()), e);
+        }
+    }
+
+    private int getCheckInterval(Trigger trigger) {
+        String interval = trigger.getJobDataMap().getString(CHECK_INTERVAL);
+        return interval == null ? properties.getIntervalInSeconds() : Integer.parseInt(interval);
+    }
+
+    private Trigger buildJobTrigger(JobKey jobKey, int intervalInSeconds, Date startAt) {
         return TriggerBuilder.newTrigger()
-                .forJob(jobDetail)
-                .withIdentity(jobDetail.getKey().getName(), TRIGGER_GROUP)
+                .forJob(jobKey)
+                .withIdentity(jobKey.getName(), TRIGGER_GROUP)
                 .withDescription("Checking datalake status Trigger")
-                .startAt(delayedFirstStart())
+                .usingJobData(CHECK_INTERVAL, String.valueOf(intervalInSeconds))
+                .startAt(startAt)
                 .withSchedule(SimpleScheduleBuilder.simpleSchedule()
-                        .withIntervalInSeconds(properties.getIntervalInSeconds())
+                        .withIntervalInSeconds(intervalInSeconds)
                         .repeatForever()
                         .withMisfireHandlingInstructionIgnoreMisfires())
                 .build();
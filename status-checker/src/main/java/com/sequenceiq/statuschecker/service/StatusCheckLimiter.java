@@ -0,0 +1,53 @@
+package com.sequenceiq.statuschecker.service;
+
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.sequenceiq.statuschecker.configuration.StatusCheckerProperties;
+
+/**
+ * Caps the status checks running at the same time ({@code statuschecker.max.concurrent.checks}) and the checks started per second
+ * ({@code statuschecker.max.checks.per.second}) across every status checker job of the service. Zero means no limit.
+ */
+@Component
+public class StatusCheckLimiter {
+
+    @Inject
+    private StatusCheckerProperties properties;
+
+    private Semaphore concurrentChecks;
+
+    private RateLimiter checkRate;
+
+    @PostConstruct
+    public void init() {
+        if (properties.getMaxConcurrentChecks() > 0) {
+            concurrentChecks = new Semaphore(properties.getMaxConcurrentChecks());
+        }
+        if (properties.getMaxChecksPerSecond() > 0) {
+            checkRate = RateLimiter.create(properties.getMaxChecksPerSecond());
+        }
+    }
+
+    public boolean tryAcquire() {
+        if (concurrentChecks != null && !concurrentChecks.tryAcquire()) {
+            return false;
+        }
+        if (checkRate != null && !checkRate.tryAcquire()) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        if (concurrentChecks != null) {
+            concurrentChecks.release();
+        }
+    }
+}
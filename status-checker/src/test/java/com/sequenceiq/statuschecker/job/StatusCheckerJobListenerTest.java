@@ -0,0 +1,100 @@
+package com.sequenceiq.statuschecker.job;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Trigger;
+
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+import com.sequenceiq.statuschecker.service.JobService;
+import com.sequenceiq.statuschecker.service.StatusCheckLimiter;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatusCheckerJobListenerTest {
+
+    @InjectMocks
+    private StatusCheckerJobListener underTest;
+
+    @Mock
+    private StatusCheckLimiter statusCheckLimiter;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobExecutionContext context;
+
+    @Mock
+    private Trigger trigger;
+
+    private final TestJob job = new TestJob();
+
+    @Test
+    public void testCheckIsDeferredWhenLimitIsReached() {
+        when(context.getJobInstance()).thenReturn(job);
+        when(trigger.getJobKey()).thenReturn(JobKey.jobKey("1"));
+
+        assertTrue(underTest.vetoJobExecution(trigger, context));
+
+        verify(jobService).deferCheck(context);
+    }
+
+    @Test
+    public void testCheckRunsWhenLimiterLetsIt() {
+        when(context.getJobInstance()).thenReturn(job);
+        when(statusCheckLimiter.tryAcquire()).thenReturn(true);
+
+        assertFalse(underTest.vetoJobExecution(trigger, context));
+
+        verifyZeroInteractions(jobService);
+    }
+
+    @Test
+    public void testReportedResultIsUsedForRescheduling() {
+        when(context.getJobInstance()).thenReturn(job);
+        job.reportCheckResult(StatusCheckResult.CHANGED);
+
+        underTest.jobWasExecuted(context, null);
+
+        verify(statusCheckLimiter).release();
+        verify(jobService).rescheduleAfterCheck(context, StatusCheckResult.CHANGED);
+    }
+
+    @Test
+    public void testFailedJobIsRescheduledAsFailed() {
+        when(context.getJobInstance()).thenReturn(job);
+
+        underTest.jobWasExecuted(context, new JobExecutionException("failed"));
+
+        verify(statusCheckLimiter).release();
+        verify(jobService).rescheduleAfterCheck(context, StatusCheckResult.FAILED);
+    }
+
+    @Test
+    public void testOtherJobsAreNotLimited() {
+        when(context.getJobInstance()).thenReturn(jobContext -> { });
+
+        assertFalse(underTest.vetoJobExecution(trigger, context));
+        underTest.jobWasExecuted(context, null);
+
+        verifyZeroInteractions(statusCheckLimiter, jobService);
+    }
+
+    private static class TestJob extends StatusCheckerJob {
+
+        @Override
+        protected void executeInternal(JobExecutionContext context) {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.sequenceiq.statuschecker.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.statuschecker.configuration.StatusCheckerProperties;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AdaptiveIntervalPolicyTest {
+
+    private static final int MIN_INTERVAL = 60;
+
+    private static final int INTERVAL = 180;
+
+    private static final int MAX_INTERVAL = 1800;
+
+    @InjectMocks
+    private AdaptiveIntervalPolicy underTest;
+
+    @Mock
+    private StatusCheckerProperties properties;
+
+    @Before
+    public void setUp() {
+        when(properties.getMinIntervalInSeconds()).thenReturn(MIN_INTERVAL);
+        when(properties.getIntervalInSeconds()).thenReturn(INTERVAL);
+        when(properties.getMaxIntervalInSeconds()).thenReturn(MAX_INTERVAL);
+        when(properties.getBackoffMultiplier()).thenReturn(2.0);
+        when(properties.getJitterPercent()).thenReturn(20);
+    }
+
+    @Test
+    public void testUnchangedResourceBacksOffUpToTheMaximum() {
+        assertEquals(360, underTest.nextInterval(INTERVAL, StatusCheckResult.UNCHANGED));
+        assertEquals(MAX_INTERVAL, underTest.nextInterval(1000, StatusCheckResult.UNCHANGED));
+        assertEquals(MAX_INTERVAL, underTest.nextInterval(MAX_INTERVAL, StatusCheckResult.UNCHANGED));
+    }
+
+    @Test
+    public void testChangedResourceIsCheckedWithTheMinimumInterval() {
+        assertEquals(MIN_INTERVAL, underTest.nextInterval(MAX_INTERVAL, StatusCheckResult.CHANGED));
+    }
+
+    @Test
+    public void testFailedCheckResetsTheBackoff() {
+        assertEquals(INTERVAL, underTest.nextInterval(MAX_INTERVAL, StatusCheckResult.FAILED));
+        assertEquals(MIN_INTERVAL, underTest.nextInterval(MIN_INTERVAL, StatusCheckResult.FAILED));
+    }
+
+    @Test
+    public void testDelayIsJitteredAroundTheInterval() {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long delay = underTest.jitteredDelayInMillis(INTERVAL);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(min >= 144_000L);
+        assertTrue(max <= 216_000L);
+        assertTrue(max > min);
+    }
+}
@@ -0,0 +1,130 @@
+package com.sequenceiq.statuschecker.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleTrigger;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+
+import com.sequenceiq.statuschecker.configuration.StatusCheckerProperties;
+import com.sequenceiq.statuschecker.model.StatusCheckResult;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobServiceTest {
+
+    private static final String LOCAL_ID = "1";
+
+    @InjectMocks
+    private JobService underTest;
+
+    @Mock
+    private StatusCheckerProperties properties;
+
+    @Mock
+    private Scheduler scheduler;
+
+    @Mock
+    private AdaptiveIntervalPolicy adaptiveIntervalPolicy;
+
+    @Mock
+    private JobExecutionContext context;
+
+    @Test
+    public void testTriggerIsNotChangedWhenAdaptiveSchedulingIsDisabled() {
+        underTest.rescheduleAfterCheck(context, StatusCheckResult.CHANGED);
+
+        verifyZeroInteractions(scheduler, context);
+    }
+
+    @Test
+    public void testTriggerIsRescheduledWithTheNextInterval() throws SchedulerException {
+        Trigger trigger = trigger("600");
+        when(properties.isAdaptiveEnabled()).thenReturn(true);
+        when(context.getTrigger()).thenReturn(trigger);
+        when(adaptiveIntervalPolicy.nextInterval(600, StatusCheckResult.UNCHANGED)).thenReturn(900);
+        when(adaptiveIntervalPolicy.jitteredDelayInMillis(900)).thenReturn(850_000L);
+        long before = System.currentTimeMillis();
+
+        underTest.rescheduleAfterCheck(context, StatusCheckResult.UNCHANGED);
+
+        ArgumentCaptor<Trigger> newTrigger = ArgumentCaptor.forClass(Trigger.class);
+        verify(scheduler).rescheduleJob(eq(trigger.getKey()), newTrigger.capture());
+        assertEquals("900", newTrigger.getValue().getJobDataMap().getString(JobService.CHECK_INTERVAL));
+        assertEquals(900_000L, ((SimpleTrigger) newTrigger.getValue()).getRepeatInterval());
+        assertEquals(trigger.getJobKey(), newTrigger.getValue().getJobKey());
+        assertTrue(newTrigger.getValue().getStartTime().getTime() >= before + 850_000L);
+    }
+
+    @Test
+    public void testTriggerWithoutIntervalStartsFromTheConfiguredInterval() throws SchedulerException {
+        when(properties.isAdaptiveEnabled()).thenReturn(true);
+        when(properties.getIntervalInSeconds()).thenReturn(180);
+        when(context.getTrigger()).thenReturn(trigger(null));
+        when(adaptiveIntervalPolicy.nextInterval(180, StatusCheckResult.UNCHANGED)).thenReturn(270);
+
+        underTest.rescheduleAfterCheck(context, StatusCheckResult.UNCHANGED);
+
+        verify(scheduler).rescheduleJob(any(), any());
+    }
+
+    @Test
+    public void testDeferredCheckKeepsTheInterval() throws SchedulerException {
+        when(properties.getMinIntervalInSeconds()).thenReturn(60);
+        when(context.getTrigger()).thenReturn(trigger("600"));
+        when(adaptiveIntervalPolicy.jitteredDelayInMillis(60)).thenReturn(55_000L);
+
+        underTest.deferCheck(context);
+
+        ArgumentCaptor<Trigger> newTrigger = ArgumentCaptor.forClass(Trigger.class);
+        verify(scheduler).rescheduleJob(any(), newTrigger.capture());
+        assertEquals("600", newTrigger.getValue().getJobDataMap().getString(JobService.CHECK_INTERVAL));
+    }
+
+    @Test
+    public void testDeferredCheckIsRetriedAfterTheMinimumIntervalWhenAdaptiveSchedulingIsDisabled() throws SchedulerException {
+        Trigger trigger = trigger(null);
+        when(properties.getIntervalInSeconds()).thenReturn(180);
+        when(properties.getMinIntervalInSeconds()).thenReturn(60);
+        when(context.getTrigger()).thenReturn(trigger);
+        when(adaptiveIntervalPolicy.jitteredDelayInMillis(60)).thenReturn(55_000L);
+        long before = System.currentTimeMillis();
+
+        underTest.deferCheck(context);
+
+        ArgumentCaptor<Trigger> newTrigger = ArgumentCaptor.forClass(Trigger.class);
+        verify(scheduler).rescheduleJob(eq(trigger.getKey()), newTrigger.capture());
+        assertEquals("180", newTrigger.getValue().getJobDataMap().getString(JobService.CHECK_INTERVAL));
+        assertEquals(180_000L, ((SimpleTrigger) newTrigger.getValue()).getRepeatInterval());
+        long startTime = newTrigger.getValue().getStartTime().getTime();
+        assertTrue(startTime >= before + 55_000L && startTime <= System.currentTimeMillis() + 55_000L);
+    }
+
+    private Trigger trigger(String interval) {
+        TriggerBuilder<Trigger> builder = TriggerBuilder.newTrigger()
+                .forJob(JobKey.jobKey(LOCAL_ID, JobService.JOB_GROUP))
+                .withIdentity(LOCAL_ID, JobService.TRIGGER_GROUP)
+                .startAt(new Date());
+        if (interval != null) {
+            builder.usingJobData(JobService.CHECK_INTERVAL, interval);
+        }
+        return builder.build();
+    }
+}